@@ -0,0 +1,453 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.data.join;
+
+import io.crate.concurrent.CompletableFutures;
+import io.crate.data.ArrayRow;
+import io.crate.data.BatchIterator;
+import io.crate.data.Columns;
+import io.crate.data.RowBridging;
+import io.crate.data.RowColumns;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * BatchIterator implementation of a (block) hash join, usable for joins which have at least one equality condition.
+ *
+ * <pre>
+ *     for (block in blocksOf(left)) {        // a block ends if the rows exceed maxBlockBytes
+ *         table = hashTable(block, leftKey)
+ *         for (rightRow in right) {
+ *             for (leftRow in table.get(rightKey(rightRow))) {
+ *                 if joinCondition(leftRow, rightRow)
+ *                     onRow
+ *             }
+ *             [rightOuter && singleBlock && noMatch -> onRow (left-side-null)]
+ *         }
+ *         [leftOuter -> for unmatched leftRow in block -> onRow (right-side-null)]
+ *     }
+ *     [rightOuter && multipleBlocks -> for unmatched rightRow in right -> onRow (left-side-null)]
+ * </pre>
+ *
+ * The left side is only iterated once and buffered block-wise, the right side is iterated once per block and must
+ * support {@link #moveToStart()}. If the left side fits into a single block (the common case) this is a classic hash
+ * join which has to iterate each side only once (plus once more for the right side on a re-iteration).
+ *
+ * {@code leftKey} and {@code rightKey} must compute the values of the equality conditions, rows with a null key never
+ * match. The {@code joinCondition} is the complete join condition and is evaluated on each hash match.
+ */
+public class HashJoinBatchIterator implements BatchIterator {
+
+    /**
+     * Used to account the memory of the left rows which are buffered in the hash table.
+     */
+    public interface RowAccounting {
+
+        /**
+         * Accounts for the row and may trip a circuit breaker.
+         *
+         * @return the number of bytes accounted
+         */
+        long accountForAndMaybeBreak(Object[] row);
+
+        /**
+         * Releases bytes which have been accounted with {@link #accountForAndMaybeBreak(Object[])}
+         */
+        void release(long bytes);
+    }
+
+    private enum Phase {
+        BUILD,
+        PROBE,
+        EMIT_UNMATCHED_LEFT,
+        EMIT_UNMATCHED_RIGHT,
+        DONE
+    }
+
+    private static final class BuildRow {
+
+        private final Object[] cells;
+        private boolean matched = false;
+
+        BuildRow(Object[] cells) {
+            this.cells = cells;
+        }
+    }
+
+    private final BatchIterator left;
+    private final BatchIterator right;
+    private final RowColumns leftColumns;
+    private final ArrayRow leftRow = new ArrayRow();
+    private final CombinedColumn rowData;
+    private final Supplier<Object> leftKey;
+    private final Supplier<Object> rightKey;
+    private final BooleanSupplier joinCondition;
+    private final boolean emitUnmatchedLeft;
+    private final boolean emitUnmatchedRight;
+    private final RowAccounting rowAccounting;
+    private final long maxBlockBytes;
+
+    private final Map<Object, List<BuildRow>> table = new HashMap<>();
+    private final List<BuildRow> blockRows = new ArrayList<>();
+    private long blockBytes = 0L;
+    private boolean firstBlock = true;
+    private boolean leftExhausted = false;
+    private boolean singleBlock = false;
+
+    private LuceneLongBitSetWrapper matchedRightRows = new LuceneLongBitSetWrapper();
+    private long rightPosition = -1;
+    private boolean rightRowPending = false;
+    private boolean rightRowMatched = false;
+    private List<BuildRow> matches = Collections.emptyList();
+    private int matchIdx = 0;
+    private int emitIdx = 0;
+
+    private Phase phase = Phase.BUILD;
+    private BatchIterator activeIt;
+    private boolean closed = false;
+
+    public static BatchIterator innerJoin(BatchIterator left,
+                                          BatchIterator right,
+                                          Function<Columns, Supplier<Object>> leftKey,
+                                          Function<Columns, Supplier<Object>> rightKey,
+                                          Function<Columns, BooleanSupplier> joinCondition,
+                                          RowAccounting rowAccounting,
+                                          long maxBlockBytes) {
+        return new HashJoinBatchIterator(
+            left, right, leftKey, rightKey, joinCondition, false, false, rowAccounting, maxBlockBytes);
+    }
+
+    public static BatchIterator leftJoin(BatchIterator left,
+                                         BatchIterator right,
+                                         Function<Columns, Supplier<Object>> leftKey,
+                                         Function<Columns, Supplier<Object>> rightKey,
+                                         Function<Columns, BooleanSupplier> joinCondition,
+                                         RowAccounting rowAccounting,
+                                         long maxBlockBytes) {
+        return new HashJoinBatchIterator(
+            left, right, leftKey, rightKey, joinCondition, true, false, rowAccounting, maxBlockBytes);
+    }
+
+    public static BatchIterator rightJoin(BatchIterator left,
+                                          BatchIterator right,
+                                          Function<Columns, Supplier<Object>> leftKey,
+                                          Function<Columns, Supplier<Object>> rightKey,
+                                          Function<Columns, BooleanSupplier> joinCondition,
+                                          RowAccounting rowAccounting,
+                                          long maxBlockBytes) {
+        return new HashJoinBatchIterator(
+            left, right, leftKey, rightKey, joinCondition, false, true, rowAccounting, maxBlockBytes);
+    }
+
+    public static BatchIterator fullOuterJoin(BatchIterator left,
+                                              BatchIterator right,
+                                              Function<Columns, Supplier<Object>> leftKey,
+                                              Function<Columns, Supplier<Object>> rightKey,
+                                              Function<Columns, BooleanSupplier> joinCondition,
+                                              RowAccounting rowAccounting,
+                                              long maxBlockBytes) {
+        return new HashJoinBatchIterator(
+            left, right, leftKey, rightKey, joinCondition, true, true, rowAccounting, maxBlockBytes);
+    }
+
+    private HashJoinBatchIterator(BatchIterator left,
+                                  BatchIterator right,
+                                  Function<Columns, Supplier<Object>> leftKey,
+                                  Function<Columns, Supplier<Object>> rightKey,
+                                  Function<Columns, BooleanSupplier> joinCondition,
+                                  boolean emitUnmatchedLeft,
+                                  boolean emitUnmatchedRight,
+                                  RowAccounting rowAccounting,
+                                  long maxBlockBytes) {
+        this.left = left;
+        this.right = right;
+        this.leftColumns = new RowColumns(left.rowData().size());
+        this.leftColumns.updateRef(leftRow);
+        this.rowData = new CombinedColumn(leftColumns, right.rowData());
+        this.leftKey = leftKey.apply(left.rowData());
+        this.rightKey = rightKey.apply(right.rowData());
+        this.joinCondition = joinCondition.apply(rowData);
+        this.emitUnmatchedLeft = emitUnmatchedLeft;
+        this.emitUnmatchedRight = emitUnmatchedRight;
+        this.rowAccounting = rowAccounting;
+        this.maxBlockBytes = maxBlockBytes;
+        this.activeIt = left;
+    }
+
+    @Override
+    public Columns rowData() {
+        return rowData;
+    }
+
+    @Override
+    public void moveToStart() {
+        raiseIfClosed();
+        left.moveToStart();
+        right.moveToStart();
+        releaseBlock();
+        firstBlock = true;
+        leftExhausted = false;
+        singleBlock = false;
+        matchedRightRows = new LuceneLongBitSetWrapper();
+        rightPosition = -1;
+        rightRowPending = false;
+        phase = Phase.BUILD;
+        activeIt = left;
+        rowData.resetLeft();
+        rowData.resetRight();
+    }
+
+    @Override
+    public boolean moveNext() {
+        raiseIfClosed();
+        while (true) {
+            Boolean moved;
+            switch (phase) {
+                case BUILD:
+                    moved = build();
+                    break;
+
+                case PROBE:
+                    moved = probe();
+                    break;
+
+                case EMIT_UNMATCHED_LEFT:
+                    moved = emitUnmatchedLeft();
+                    break;
+
+                case EMIT_UNMATCHED_RIGHT:
+                    moved = emitUnmatchedRight();
+                    break;
+
+                case DONE:
+                    return false;
+
+                default:
+                    throw new AssertionError("Invalid phase: " + phase);
+            }
+            if (moved != null) {
+                return moved;
+            }
+        }
+    }
+
+    /**
+     * @return false -> need to load more data
+     *         null  -> block is complete, continue with the probe phase
+     */
+    private Boolean build() {
+        while (left.moveNext()) {
+            Object[] cells = RowBridging.materialize(left.rowData());
+            BuildRow buildRow = new BuildRow(cells);
+            blockRows.add(buildRow);
+            Object key = leftKey.get();
+            if (key != null) {
+                table.computeIfAbsent(key, k -> new ArrayList<>(1)).add(buildRow);
+            }
+            blockBytes += rowAccounting.accountForAndMaybeBreak(cells);
+            if (blockBytes >= maxBlockBytes) {
+                startProbe();
+                return null;
+            }
+        }
+        if (left.allLoaded() == false) {
+            return false;
+        }
+        leftExhausted = true;
+        if (blockRows.isEmpty() && firstBlock == false) {
+            // the previous block happened to end exactly with the last left row
+            finishBlocks();
+        } else {
+            startProbe();
+        }
+        return null;
+    }
+
+    private void startProbe() {
+        singleBlock = firstBlock && leftExhausted;
+        phase = Phase.PROBE;
+        activeIt = right;
+        right.moveToStart();
+        rightPosition = -1;
+        rightRowPending = false;
+        matches = Collections.emptyList();
+        matchIdx = 0;
+    }
+
+    /**
+     * @return true  -> moved and matched (or a unmatched right row is emitted)
+     *         false -> need to load more data
+     *         null  -> right side is exhausted, block is complete
+     */
+    private Boolean probe() {
+        rowData.resetLeft();
+        while (true) {
+            while (matchIdx < matches.size()) {
+                BuildRow buildRow = matches.get(matchIdx++);
+                leftRow.cells(buildRow.cells);
+                if (joinCondition.getAsBoolean()) {
+                    buildRow.matched = true;
+                    rightRowMatched = true;
+                    if (emitUnmatchedRight && singleBlock == false) {
+                        matchedRightRows.set(rightPosition);
+                    }
+                    return true;
+                }
+            }
+            if (rightRowPending) {
+                rightRowPending = false;
+                if (emitUnmatchedRight && singleBlock && rightRowMatched == false) {
+                    rowData.nullLeft();
+                    return true;
+                }
+            }
+            if (right.moveNext() == false) {
+                if (right.allLoaded() == false) {
+                    return false;
+                }
+                if (emitUnmatchedLeft) {
+                    phase = Phase.EMIT_UNMATCHED_LEFT;
+                    emitIdx = 0;
+                    rowData.nullRight();
+                } else {
+                    nextBlock();
+                }
+                return null;
+            }
+            rightPosition++;
+            rightRowPending = true;
+            rightRowMatched = false;
+            Object key = rightKey.get();
+            matches = key == null ? Collections.emptyList() : table.getOrDefault(key, Collections.emptyList());
+            matchIdx = 0;
+        }
+    }
+
+    /**
+     * @return true  -> moved to an unmatched left row of the current block
+     *         null  -> all unmatched rows have been emitted
+     */
+    private Boolean emitUnmatchedLeft() {
+        while (emitIdx < blockRows.size()) {
+            BuildRow buildRow = blockRows.get(emitIdx++);
+            if (buildRow.matched == false) {
+                leftRow.cells(buildRow.cells);
+                return true;
+            }
+        }
+        rowData.resetRight();
+        nextBlock();
+        return null;
+    }
+
+    private void nextBlock() {
+        releaseBlock();
+        firstBlock = false;
+        if (leftExhausted) {
+            finishBlocks();
+        } else {
+            phase = Phase.BUILD;
+            activeIt = left;
+        }
+    }
+
+    private void finishBlocks() {
+        if (emitUnmatchedRight && singleBlock == false) {
+            phase = Phase.EMIT_UNMATCHED_RIGHT;
+            activeIt = right;
+            right.moveToStart();
+            rightPosition = -1;
+            rowData.nullLeft();
+        } else {
+            phase = Phase.DONE;
+        }
+    }
+
+    /**
+     * @return true  -> moved to an unmatched right row
+     *         false -> need to load more data or done
+     */
+    private Boolean emitUnmatchedRight() {
+        while (right.moveNext()) {
+            rightPosition++;
+            if (matchedRightRows.get(rightPosition) == false) {
+                return true;
+            }
+        }
+        if (right.allLoaded()) {
+            phase = Phase.DONE;
+        }
+        return false;
+    }
+
+    private void releaseBlock() {
+        table.clear();
+        blockRows.clear();
+        rowAccounting.release(blockBytes);
+        blockBytes = 0L;
+    }
+
+    private void raiseIfClosed() {
+        if (closed) {
+            throw new IllegalStateException("BatchIterator is closed");
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed == false) {
+            closed = true;
+            releaseBlock();
+            left.close();
+            right.close();
+        }
+    }
+
+    @Override
+    public CompletionStage<?> loadNextBatch() {
+        if (phase == Phase.DONE) {
+            return CompletableFutures.failedFuture(new IllegalStateException("BatchIterator already fully loaded"));
+        }
+        return activeIt.loadNextBatch();
+    }
+
+    @Override
+    public boolean allLoaded() {
+        return phase == Phase.DONE || activeIt.allLoaded();
+    }
+
+    @Override
+    public void kill(@Nonnull Throwable throwable) {
+        left.kill(throwable);
+        right.kill(throwable);
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.data.join;
+
+import io.crate.data.BatchIterator;
+import io.crate.data.Columns;
+import io.crate.data.Input;
+import io.crate.testing.BatchIteratorTester;
+import io.crate.testing.BatchSimulatingIterator;
+import io.crate.testing.TestingBatchIterators;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+public class HashJoinBatchIteratorTest {
+
+    private static final HashJoinBatchIterator.RowAccounting ONE_BYTE_PER_ROW = new HashJoinBatchIterator.RowAccounting() {
+        @Override
+        public long accountForAndMaybeBreak(Object[] row) {
+            return 1L;
+        }
+
+        @Override
+        public void release(long bytes) {
+        }
+    };
+
+    private static Function<Columns, Supplier<Object>> firstColumn() {
+        return columns -> {
+            Input<?> input = columns.get(0);
+            return input::value;
+        };
+    }
+
+    private static Function<Columns, BooleanSupplier> col0EqCol1() {
+        return columns -> {
+            Input<?> col1 = columns.get(0);
+            Input<?> col2 = columns.get(1);
+            return () -> Objects.equals(col1.value(), col2.value());
+        };
+    }
+
+    private static BatchIterator left() {
+        return new BatchSimulatingIterator(TestingBatchIterators.range(0, 4), 2, 2, null);
+    }
+
+    private static BatchIterator right() {
+        return new BatchSimulatingIterator(TestingBatchIterators.range(2, 6), 2, 2, null);
+    }
+
+    @Test
+    public void testInnerJoin() throws Exception {
+        BatchIteratorTester tester = new BatchIteratorTester(() -> HashJoinBatchIterator.innerJoin(
+            left(), right(), firstColumn(), firstColumn(), col0EqCol1(), ONE_BYTE_PER_ROW, Long.MAX_VALUE));
+        tester.verifyResultAndEdgeCaseBehaviour(Arrays.asList(
+            new Object[] { 2, 2 },
+            new Object[] { 3, 3 }
+        ));
+    }
+
+    @Test
+    public void testInnerJoinWithBlocks() throws Exception {
+        BatchIteratorTester tester = new BatchIteratorTester(() -> HashJoinBatchIterator.innerJoin(
+            left(), right(), firstColumn(), firstColumn(), col0EqCol1(), ONE_BYTE_PER_ROW, 3L));
+        tester.verifyResultAndEdgeCaseBehaviour(Arrays.asList(
+            new Object[] { 2, 2 },
+            new Object[] { 3, 3 }
+        ));
+    }
+
+    @Test
+    public void testInnerJoinLeftEmpty() throws Exception {
+        BatchIteratorTester tester = new BatchIteratorTester(() -> HashJoinBatchIterator.innerJoin(
+            TestingBatchIterators.range(0, 0), right(), firstColumn(), firstColumn(), col0EqCol1(),
+            ONE_BYTE_PER_ROW, Long.MAX_VALUE));
+        tester.verifyResultAndEdgeCaseBehaviour(Collections.emptyList());
+    }
+
+    @Test
+    public void testLeftJoin() throws Exception {
+        BatchIteratorTester tester = new BatchIteratorTester(() -> HashJoinBatchIterator.leftJoin(
+            left(), right(), firstColumn(), firstColumn(), col0EqCol1(), ONE_BYTE_PER_ROW, Long.MAX_VALUE));
+        tester.verifyResultAndEdgeCaseBehaviour(Arrays.asList(
+            new Object[] { 2, 2 },
+            new Object[] { 3, 3 },
+            new Object[] { 0, null },
+            new Object[] { 1, null }
+        ));
+    }
+
+    @Test
+    public void testLeftJoinWithOneRowPerBlock() throws Exception {
+        BatchIteratorTester tester = new BatchIteratorTester(() -> HashJoinBatchIterator.leftJoin(
+            left(), right(), firstColumn(), firstColumn(), col0EqCol1(), ONE_BYTE_PER_ROW, 1L));
+        tester.verifyResultAndEdgeCaseBehaviour(Arrays.asList(
+            new Object[] { 0, null },
+            new Object[] { 1, null },
+            new Object[] { 2, 2 },
+            new Object[] { 3, 3 }
+        ));
+    }
+
+    @Test
+    public void testRightJoin() throws Exception {
+        BatchIteratorTester tester = new BatchIteratorTester(() -> HashJoinBatchIterator.rightJoin(
+            left(), right(), firstColumn(), firstColumn(), col0EqCol1(), ONE_BYTE_PER_ROW, Long.MAX_VALUE));
+        tester.verifyResultAndEdgeCaseBehaviour(Arrays.asList(
+            new Object[] { 2, 2 },
+            new Object[] { 3, 3 },
+            new Object[] { null, 4 },
+            new Object[] { null, 5 }
+        ));
+    }
+
+    @Test
+    public void testRightJoinWithOneRowPerBlock() throws Exception {
+        BatchIteratorTester tester = new BatchIteratorTester(() -> HashJoinBatchIterator.rightJoin(
+            left(), right(), firstColumn(), firstColumn(), col0EqCol1(), ONE_BYTE_PER_ROW, 1L));
+        tester.verifyResultAndEdgeCaseBehaviour(Arrays.asList(
+            new Object[] { 2, 2 },
+            new Object[] { 3, 3 },
+            new Object[] { null, 4 },
+            new Object[] { null, 5 }
+        ));
+    }
+
+    @Test
+    public void testFullOuterJoin() throws Exception {
+        BatchIteratorTester tester = new BatchIteratorTester(() -> HashJoinBatchIterator.fullOuterJoin(
+            left(), right(), firstColumn(), firstColumn(), col0EqCol1(), ONE_BYTE_PER_ROW, Long.MAX_VALUE));
+        tester.verifyResultAndEdgeCaseBehaviour(Arrays.asList(
+            new Object[] { 2, 2 },
+            new Object[] { 3, 3 },
+            new Object[] { null, 4 },
+            new Object[] { null, 5 },
+            new Object[] { 0, null },
+            new Object[] { 1, null }
+        ));
+    }
+
+    @Test
+    public void testFullOuterJoinWithOneRowPerBlock() throws Exception {
+        List<Object[]> expectedResult = Arrays.asList(
+            new Object[] { 0, null },
+            new Object[] { 1, null },
+            new Object[] { 2, 2 },
+            new Object[] { 3, 3 },
+            new Object[] { null, 4 },
+            new Object[] { null, 5 }
+        );
+        BatchIteratorTester tester = new BatchIteratorTester(() -> HashJoinBatchIterator.fullOuterJoin(
+            left(), right(), firstColumn(), firstColumn(), col0EqCol1(), ONE_BYTE_PER_ROW, 1L));
+        tester.verifyResultAndEdgeCaseBehaviour(expectedResult);
+    }
+}
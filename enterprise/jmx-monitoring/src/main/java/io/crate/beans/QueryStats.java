@@ -21,44 +21,48 @@ package io.crate.beans;
 import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
 import io.crate.operation.collect.stats.JobsLogs;
-import io.crate.operation.reference.sys.job.JobContextLog;
+import io.crate.operation.collect.stats.QueryMetrics;
+import io.crate.operation.collect.stats.QueryMetrics.StatementMetrics;
+import io.crate.operation.collect.stats.StatementType;
 
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
-import java.util.Locale;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 
 public class QueryStats implements QueryStatsMBean {
 
     static class Commands {
         static final String TOTAL = "total";
-        static final String UNCLASSIFIED = "unclassified";
+        static final String UNCLASSIFIED = StatementType.UNCLASSIFIED.label();
 
-        static final String SELECT = "select";
-        static final String INSERT = "insert";
-        static final String UPDATE = "update";
-        static final String DELETE = "delete";
+        static final String SELECT = StatementType.SELECT.label();
+        static final String INSERT = StatementType.INSERT.label();
+        static final String UPDATE = StatementType.UPDATE.label();
+        static final String DELETE = StatementType.DELETE.label();
     }
 
     static class Metric {
 
         private final long elapsedSinceUpdateInMs;
+        private final long p99Duration;
 
         private long count;
         private long sumOfDurations;
 
-        Metric(long duration, long elapsedSinceUpdateInMs) {
+        Metric(long count, long sumOfDurations, long elapsedSinceUpdateInMs, long p99Duration) {
             this.elapsedSinceUpdateInMs = elapsedSinceUpdateInMs;
-            sumOfDurations = duration;
-            count = 1;
+            this.p99Duration = p99Duration;
+            this.sumOfDurations = sumOfDurations;
+            this.count = count;
         }
 
-        void inc(long duration) {
-            sumOfDurations += duration;
-            count++;
+        void inc(long count, long sumOfDurations) {
+            this.sumOfDurations += sumOfDurations;
+            this.count += count;
         }
 
         double statementsPerSec() {
@@ -66,16 +70,22 @@ public class QueryStats implements QueryStatsMBean {
         }
 
         double avgDurationInMs() {
-            return sumOfDurations / count;
+            if (count == 0) {
+                return 0.0;
+            }
+            return (double) sumOfDurations / count;
+        }
+
+        long p99Duration() {
+            return p99Duration;
         }
     }
 
     public static final String NAME = "io.crate.monitoring:type=QueryStats";
-    private static final Pattern COMMAND_PATTERN = Pattern.compile("^\\s*(select|insert|update|delete).*");
-    private static final Metric DEFAULT_METRIC = new Metric(0, 0) {
+    private static final Metric DEFAULT_METRIC = new Metric(0, 0, 0, 0) {
 
         @Override
-        void inc(long duration) {
+        void inc(long count, long sumOfDurations) {
             throw new AssertionError("inc must not be called on default metric - it's immutable");
         }
 
@@ -90,15 +100,25 @@ public class QueryStats implements QueryStatsMBean {
         }
     };
 
+    private final QueryMetrics queryMetrics;
     private final Supplier<Map<String, Metric>> metricByCommand;
 
     private volatile long lastUpdateTsInMillis = System.currentTimeMillis();
+    private volatile Map<StatementType, StatementMetrics.Snapshot> lastSnapshots = Collections.emptyMap();
 
     public QueryStats(JobsLogs jobsLogs) {
+        queryMetrics = jobsLogs.queryMetrics();
         metricByCommand = Suppliers.memoizeWithExpiration(
             () -> {
                 long currentTs = System.currentTimeMillis();
-                Map<String, Metric> metricByCommand = createMetricsMap(jobsLogs.jobsLog(), currentTs, lastUpdateTsInMillis);
+                List<StatementMetrics.Snapshot> snapshots = queryMetrics.snapshots();
+                Map<String, Metric> metricByCommand =
+                    createMetricsMap(lastSnapshots, snapshots, currentTs - lastUpdateTsInMillis);
+                Map<StatementType, StatementMetrics.Snapshot> snapshotByType = new EnumMap<>(StatementType.class);
+                for (StatementMetrics.Snapshot snapshot : snapshots) {
+                    snapshotByType.put(snapshot.type(), snapshot);
+                }
+                lastSnapshots = snapshotByType;
                 lastUpdateTsInMillis = currentTs;
                 return metricByCommand;
             },
@@ -107,39 +127,35 @@ public class QueryStats implements QueryStatsMBean {
         );
     }
 
-    static Map<String, Metric> createMetricsMap(Iterable<JobContextLog> logEntries, long currentTs, long lastUpdateTs) {
+    /**
+     * Creates the metrics of the statements which finished between the previous and the current snapshots.
+     */
+    static Map<String, Metric> createMetricsMap(Map<StatementType, StatementMetrics.Snapshot> previousSnapshots,
+                                                Iterable<StatementMetrics.Snapshot> currentSnapshots,
+                                                long elapsedSinceLastUpdateInMs) {
         Map<String, Metric> metricsByCommand = new HashMap<>();
-        long elapsedSinceLastUpdateInMs = currentTs - lastUpdateTs;
-
-        Metric total = new Metric(0, elapsedSinceLastUpdateInMs);
-        for (JobContextLog logEntry : logEntries) {
-            if (logEntry.started() < lastUpdateTs || logEntry.started() > currentTs) {
-                continue;
+        StatementMetrics.Snapshot overall = null;
+        for (StatementMetrics.Snapshot current : currentSnapshots) {
+            overall = overall == null ? current : overall.merge(current);
+        }
+        Metric total = new Metric(0, 0, elapsedSinceLastUpdateInMs, overall == null ? 0L : overall.percentile(99.0));
+        for (StatementMetrics.Snapshot current : currentSnapshots) {
+            long count = current.totalCount();
+            long sumOfDurations = current.sumOfDurations();
+            StatementMetrics.Snapshot previous = previousSnapshots.get(current.type());
+            if (previous != null) {
+                count -= previous.totalCount();
+                sumOfDurations -= previous.sumOfDurations();
             }
-            String command = getCommand(logEntry.statement());
-            long duration = logEntry.ended() - logEntry.started();
-            total.inc(duration);
-            metricsByCommand.compute(command, (key, oldMetric) -> {
-                if (oldMetric == null) {
-                    return new Metric(duration, elapsedSinceLastUpdateInMs);
-                }
-                oldMetric.inc(duration);
-                return oldMetric;
-            });
+            total.inc(count, sumOfDurations);
+            metricsByCommand.put(
+                current.type().label(),
+                new Metric(count, sumOfDurations, elapsedSinceLastUpdateInMs, current.percentile(99.0)));
         }
         metricsByCommand.put(Commands.TOTAL, total);
         return metricsByCommand;
     }
 
-    private static String getCommand(String statement) {
-        Matcher matcher = COMMAND_PATTERN.matcher(statement.toLowerCase(Locale.ENGLISH));
-        if (matcher.find()) {
-            return matcher.group(1);
-        } else {
-            return Commands.UNCLASSIFIED;
-        }
-    }
-
     @Override
     public double getSelectQueryFrequency() {
         return metricByCommand.get().getOrDefault(Commands.SELECT, DEFAULT_METRIC).statementsPerSec();
@@ -189,4 +205,29 @@ public class QueryStats implements QueryStatsMBean {
     public double getOverallQueryAverageDuration() {
         return metricByCommand.get().getOrDefault(Commands.TOTAL, DEFAULT_METRIC).avgDurationInMs();
     }
+
+    @Override
+    public long getSelectQuery99thPercentileDuration() {
+        return metricByCommand.get().getOrDefault(Commands.SELECT, DEFAULT_METRIC).p99Duration();
+    }
+
+    @Override
+    public long getInsertQuery99thPercentileDuration() {
+        return metricByCommand.get().getOrDefault(Commands.INSERT, DEFAULT_METRIC).p99Duration();
+    }
+
+    @Override
+    public long getUpdateQuery99thPercentileDuration() {
+        return metricByCommand.get().getOrDefault(Commands.UPDATE, DEFAULT_METRIC).p99Duration();
+    }
+
+    @Override
+    public long getDeleteQuery99thPercentileDuration() {
+        return metricByCommand.get().getOrDefault(Commands.DELETE, DEFAULT_METRIC).p99Duration();
+    }
+
+    @Override
+    public long getOverallQuery99thPercentileDuration() {
+        return metricByCommand.get().getOrDefault(Commands.TOTAL, DEFAULT_METRIC).p99Duration();
+    }
 }
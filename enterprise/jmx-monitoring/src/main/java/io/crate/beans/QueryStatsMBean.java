@@ -48,4 +48,14 @@ public interface QueryStatsMBean {
     double getDeleteQueryAverageDuration();
 
     double getOverallQueryAverageDuration();
+
+    long getSelectQuery99thPercentileDuration();
+
+    long getInsertQuery99thPercentileDuration();
+
+    long getUpdateQuery99thPercentileDuration();
+
+    long getDeleteQuery99thPercentileDuration();
+
+    long getOverallQuery99thPercentileDuration();
 }
@@ -0,0 +1,45 @@
+/*
+ * This file is part of a module with proprietary Enterprise Features.
+ *
+ * Licensed to Crate.io Inc. ("Crate.io") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * Unauthorized copying of this file, via any medium is strictly prohibited.
+ *
+ * To use this file, Crate.io must have given you permission to enable and
+ * use such Enterprise Features and you must have a valid Enterprise or
+ * Subscription Agreement with Crate.io.  If you enable or use the Enterprise
+ * Features, you represent and warrant that you have a valid Enterprise or
+ * Subscription Agreement with Crate.io.  Your use of the Enterprise Features
+ * if governed by the terms and conditions of your Enterprise or Subscription
+ * Agreement with Crate.io.
+ */
+
+package io.crate.beans;
+
+import io.crate.executor.transport.StreamBucketStats;
+
+/**
+ * Exposes the number of bytes of rows sent between nodes and how many bytes the column encodings saved.
+ */
+public class TransferStats implements TransferStatsMBean {
+
+    public static final String NAME = "io.crate.monitoring:type=TransferStats";
+
+    private final StreamBucketStats streamBucketStats;
+
+    public TransferStats(StreamBucketStats streamBucketStats) {
+        this.streamBucketStats = streamBucketStats;
+    }
+
+    @Override
+    public long getEncodedBucketBytes() {
+        return streamBucketStats.encodedBytes();
+    }
+
+    @Override
+    public long getSavedBucketBytes() {
+        return streamBucketStats.savedBytes();
+    }
+}
@@ -18,7 +18,11 @@
 
 package io.crate.plugin;
 
+import io.crate.action.sql.SQLOperations;
+import io.crate.beans.ParseCacheStats;
 import io.crate.beans.QueryStats;
+import io.crate.beans.TransferStats;
+import io.crate.executor.transport.StreamBucketStats;
 import io.crate.operation.collect.stats.JobsLogs;
 import org.apache.logging.log4j.Logger;
 import org.elasticsearch.common.inject.Inject;
@@ -39,9 +43,14 @@ public class CrateMonitor {
     private final MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
 
     @Inject
-    public CrateMonitor(JobsLogs jobsLogs, Settings settings) {
+    public CrateMonitor(JobsLogs jobsLogs,
+                        SQLOperations sqlOperations,
+                        StreamBucketStats streamBucketStats,
+                        Settings settings) {
         logger = Loggers.getLogger(CrateMonitor.class, settings);
         registerMBean(QueryStats.NAME, new QueryStats(jobsLogs));
+        registerMBean(TransferStats.NAME, new TransferStats(streamBucketStats));
+        registerMBean(ParseCacheStats.NAME, new ParseCacheStats(sqlOperations));
     }
 
     private void registerMBean(String name, Object bean) {
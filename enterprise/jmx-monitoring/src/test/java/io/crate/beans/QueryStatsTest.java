@@ -18,35 +18,38 @@
 
 package io.crate.beans;
 
-import com.google.common.collect.ImmutableList;
 import io.crate.operation.collect.stats.JobsLogs;
-import io.crate.operation.reference.sys.job.JobContext;
-import io.crate.operation.reference.sys.job.JobContextLog;
+import io.crate.operation.collect.stats.QueryMetrics;
+import io.crate.operation.collect.stats.QueryMetrics.StatementMetrics;
+import io.crate.operation.collect.stats.StatementType;
 import org.junit.Test;
 
-import java.util.List;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.Map;
-import java.util.UUID;
 
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
 
 public class QueryStatsTest {
 
-    private final List<JobContextLog> log = ImmutableList.of(
-        new JobContextLog(new JobContext(UUID.randomUUID(), "select name", 100L, null), null, 150L),
-        new JobContextLog(new JobContext(UUID.randomUUID(), "select name", 300L, null), null, 320L),
-        new JobContextLog(new JobContext(UUID.randomUUID(), "update t1 set x = 10", 400L, null), null, 420L),
-        new JobContextLog(new JobContext(UUID.randomUUID(), "insert into t1 (x) values (20)", 111L, null), null, 130L),
-        new JobContextLog(new JobContext(UUID.randomUUID(), "delete from t1", 410L, null), null, 415L),
-        new JobContextLog(new JobContext(UUID.randomUUID(), "delete from t1", 110L, null), null, 120L),
-        new JobContextLog(new JobContext(UUID.randomUUID(), "create table t1 (x int)", 105L, null), null, 106L)
-    );
+    private static QueryMetrics queryMetrics() {
+        QueryMetrics queryMetrics = new QueryMetrics();
+        queryMetrics.record("select name", 50L, false);
+        queryMetrics.record("select name", 20L, false);
+        queryMetrics.record("update t1 set x = 10", 20L, false);
+        queryMetrics.record("insert into t1 (x) values (20)", 19L, false);
+        queryMetrics.record("delete from t1", 5L, false);
+        queryMetrics.record("delete from t1", 10L, false);
+        queryMetrics.record("create table t1 (x int)", 1L, false);
+        return queryMetrics;
+    }
 
     @Test
     public void testCreateMetricsMap() throws Exception {
-        Map<String, QueryStats.Metric> metricsByCommand = QueryStats.createMetricsMap(log, 2000, 0L);
-        assertThat(metricsByCommand.size(), is(6));
+        Map<String, QueryStats.Metric> metricsByCommand =
+            QueryStats.createMetricsMap(Collections.emptyMap(), queryMetrics().snapshots(), 2000L);
+        assertThat(metricsByCommand.size(), is(7));
 
         assertThat(metricsByCommand.get(QueryStats.Commands.SELECT).avgDurationInMs(), is(35.0));
         assertThat(metricsByCommand.get(QueryStats.Commands.SELECT).statementsPerSec(), is(1.0));
@@ -57,14 +60,34 @@ public class QueryStatsTest {
         assertThat(metricsByCommand.get(QueryStats.Commands.UPDATE).avgDurationInMs(), is(20.0));
         assertThat(metricsByCommand.get(QueryStats.Commands.UPDATE).statementsPerSec(), is(0.5));
 
-        assertThat(metricsByCommand.get(QueryStats.Commands.DELETE).avgDurationInMs(), is(7.0));
+        assertThat(metricsByCommand.get(QueryStats.Commands.DELETE).avgDurationInMs(), is(7.5));
         assertThat(metricsByCommand.get(QueryStats.Commands.DELETE).statementsPerSec(), is(1.0));
 
         assertThat(metricsByCommand.get(QueryStats.Commands.UNCLASSIFIED).avgDurationInMs(), is(1.0));
         assertThat(metricsByCommand.get(QueryStats.Commands.UNCLASSIFIED).statementsPerSec(), is(0.5));
 
-        assertThat(metricsByCommand.get(QueryStats.Commands.TOTAL).avgDurationInMs(), is(15.0));
-        assertThat(metricsByCommand.get(QueryStats.Commands.TOTAL).statementsPerSec(), is(4.0));
+        assertThat(metricsByCommand.get(QueryStats.Commands.TOTAL).avgDurationInMs(), is(125.0 / 7));
+        assertThat(metricsByCommand.get(QueryStats.Commands.TOTAL).statementsPerSec(), is(3.5));
+
+        assertThat(metricsByCommand.get(QueryStats.Commands.SELECT).p99Duration(), is(50L));
+        assertThat(metricsByCommand.get(QueryStats.Commands.DELETE).p99Duration(), is(10L));
+        assertThat(metricsByCommand.get(QueryStats.Commands.TOTAL).p99Duration(), is(50L));
+    }
+
+    @Test
+    public void testCreateMetricsMapOnlyContainsStatementsSinceLastUpdate() throws Exception {
+        QueryMetrics queryMetrics = queryMetrics();
+        Map<StatementType, StatementMetrics.Snapshot> previousSnapshots = new EnumMap<>(StatementType.class);
+        for (StatementMetrics.Snapshot snapshot : queryMetrics.snapshots()) {
+            previousSnapshots.put(snapshot.type(), snapshot);
+        }
+        queryMetrics.record("select name", 8L, false);
+
+        Map<String, QueryStats.Metric> metricsByCommand =
+            QueryStats.createMetricsMap(previousSnapshots, queryMetrics.snapshots(), 1000L);
+        assertThat(metricsByCommand.get(QueryStats.Commands.SELECT).avgDurationInMs(), is(8.0));
+        assertThat(metricsByCommand.get(QueryStats.Commands.SELECT).statementsPerSec(), is(1.0));
+        assertThat(metricsByCommand.get(QueryStats.Commands.DELETE).statementsPerSec(), is(0.0));
     }
 
     @Test
@@ -72,5 +95,6 @@ public class QueryStatsTest {
         QueryStats queryStats = new QueryStats(new JobsLogs(() -> true));
         assertThat(queryStats.getSelectQueryFrequency(), is(0.0));
         assertThat(queryStats.getSelectQueryAverageDuration(), is(0.0));
+        assertThat(queryStats.getSelectQuery99thPercentileDuration(), is(0L));
     }
 }
@@ -18,6 +18,8 @@
 
 package io.crate.operation.language;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import io.crate.metadata.FunctionIdent;
 import io.crate.metadata.FunctionInfo;
 import io.crate.metadata.Scalar;
@@ -43,6 +45,14 @@ public class JavaScriptLanguage implements UDFLanguage {
     private static final NashornScriptEngine ENGINE = (NashornScriptEngine) new NashornScriptEngineFactory()
         .getScriptEngine("--no-java", "--no-syntax-extensions");
 
+    private static final int COMPILED_SCRIPTS_CACHE_SIZE = 1000;
+
+    // the function implementations of a schema are re-created whenever a function of it changes,
+    // the definition is the key so that only new or changed functions are compiled
+    private static final Cache<String, CompiledScript> COMPILED_SCRIPTS = CacheBuilder.newBuilder()
+        .maximumSize(COMPILED_SCRIPTS_CACHE_SIZE)
+        .build();
+
     @Inject
     public JavaScriptLanguage(UserDefinedFunctionService udfService) {
         udfService.registerLanguage(this);
@@ -53,7 +63,7 @@ public class JavaScriptLanguage implements UDFLanguage {
             new FunctionIdent(meta.schema(), meta.name(), meta.argumentTypes()),
             meta.returnType()
         );
-        return new JavaScriptUserDefinedFunction(info, meta.definition());
+        return new JavaScriptUserDefinedFunction(info, compile(meta.definition()));
     }
 
     @Nullable
@@ -72,12 +82,24 @@ public class JavaScriptLanguage implements UDFLanguage {
     }
 
     static Bindings bindScript(String source) throws ScriptException {
+        return bindScript(compile(source));
+    }
+
+    static Bindings bindScript(CompiledScript compiledScript) throws ScriptException {
         Bindings bindings = ENGINE.createBindings();
-        CompiledScript compiledScript = ENGINE.compile(source);
         compiledScript.eval(bindings);
         return bindings;
     }
 
+    private static CompiledScript compile(String source) throws ScriptException {
+        CompiledScript compiledScript = COMPILED_SCRIPTS.getIfPresent(source);
+        if (compiledScript == null) {
+            compiledScript = ENGINE.compile(source);
+            COMPILED_SCRIPTS.put(source, compiledScript);
+        }
+        return compiledScript;
+    }
+
     public String name() {
         return NAME;
     }
@@ -23,6 +23,8 @@ import io.crate.data.Input;
 import io.crate.metadata.FunctionInfo;
 import io.crate.metadata.Scalar;
 import io.crate.types.ArrayType;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
 import io.crate.types.GeoPointType;
 import io.crate.types.ObjectType;
 import io.crate.types.SetType;
@@ -32,7 +34,9 @@ import jdk.nashorn.internal.runtime.Undefined;
 import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.common.lucene.BytesRefs;
 
+import javax.annotation.Nullable;
 import javax.script.Bindings;
+import javax.script.CompiledScript;
 import javax.script.ScriptException;
 import java.util.HashSet;
 import java.util.List;
@@ -43,11 +47,21 @@ import java.util.stream.Collectors;
 public class JavaScriptUserDefinedFunction extends Scalar<Object, Object> {
 
     private final FunctionInfo info;
-    private final String script;
+    private final CompiledScript compiledScript;
+    // arguments of these types are passed to the script without conversion
+    private final boolean[] passArgumentUnchanged;
 
-    JavaScriptUserDefinedFunction(FunctionInfo info, String script) {
+    JavaScriptUserDefinedFunction(FunctionInfo info, CompiledScript compiledScript) {
         this.info = info;
-        this.script = script;
+        this.compiledScript = compiledScript;
+        List<DataType> argumentTypes = info.ident().argumentTypes();
+        passArgumentUnchanged = new boolean[argumentTypes.size()];
+        for (int i = 0; i < argumentTypes.size(); i++) {
+            DataType type = argumentTypes.get(i);
+            passArgumentUnchanged[i] = DataTypes.NUMERIC_PRIMITIVE_TYPES.contains(type)
+                                       || type.equals(DataTypes.BOOLEAN)
+                                       || type.equals(DataTypes.TIMESTAMP);
+        }
     }
 
     @Override
@@ -57,26 +71,28 @@ public class JavaScriptUserDefinedFunction extends Scalar<Object, Object> {
 
     @Override
     public Scalar<Object, Object> compile(List<Symbol> arguments) {
-        try {
-            return new CompiledFunction(JavaScriptLanguage.bindScript(script));
-        } catch (ScriptException e) {
-            // this should not happen if the script was evaluated upfront
-            throw new io.crate.exceptions.ScriptException(
-                "compile error",
-                e,
-                JavaScriptLanguage.NAME
-            );
-        }
+        return new CompiledFunction(bindFunction());
     }
 
     @Override
     public Object evaluate(Input<Object>[] values) {
+        // fresh bindings, so that no global state of the script carries over between calls
+        return evaluateFunction(bindFunction(), values);
+    }
+
+    /**
+     * Evaluates the script into new bindings and returns the function of the bindings,
+     * or null if the script doesn't define a function with the name of the function signature.
+     */
+    @Nullable
+    private ScriptObjectMirror bindFunction() {
         try {
-            return evaluateScriptWithBindings(JavaScriptLanguage.bindScript(script), values);
+            Bindings bindings = JavaScriptLanguage.bindScript(compiledScript);
+            return (ScriptObjectMirror) bindings.get(info.ident().name());
         } catch (ScriptException e) {
             // this should not happen if the script was evaluated upfront
             throw new io.crate.exceptions.ScriptException(
-                "evaluation error",
+                "compile error",
                 e,
                 JavaScriptLanguage.NAME
             );
@@ -85,10 +101,11 @@ public class JavaScriptUserDefinedFunction extends Scalar<Object, Object> {
 
     private class CompiledFunction extends Scalar<Object, Object> {
 
-        private final Bindings bindings;
+        @Nullable
+        private final ScriptObjectMirror function;
 
-        private CompiledFunction(Bindings bindings) {
-            this.bindings = bindings;
+        private CompiledFunction(@Nullable ScriptObjectMirror function) {
+            this.function = function;
         }
 
         @Override
@@ -100,25 +117,27 @@ public class JavaScriptUserDefinedFunction extends Scalar<Object, Object> {
 
         @Override
         public final Object evaluate(Input<Object>[] values) {
-            return evaluateScriptWithBindings(bindings, values);
+            return evaluateFunction(function, values);
         }
 
     }
 
-    private Object evaluateScriptWithBindings(Bindings bindings, Input<Object>[] values) {
+    private Object evaluateFunction(@Nullable ScriptObjectMirror function, Input<Object>[] values) {
+        if (function == null) {
+            throw new io.crate.exceptions.ScriptException(
+                "The name of the function signature doesn't match the function name in the function definition.",
+                JavaScriptLanguage.NAME
+            );
+        }
         Object[] args = new Object[values.length];
         for (int i = 0; i < values.length; i++) {
-            args[i] = processBytesRefInputIfNeeded(values[i].value());
+            Object value = values[i].value();
+            args[i] = passArgumentUnchanged[i] ? value : processBytesRefInputIfNeeded(value);
         }
 
         Object result;
         try {
-            result = ((ScriptObjectMirror) bindings.get(info.ident().name())).call(this, args);
-        } catch (NullPointerException e) {
-            throw new io.crate.exceptions.ScriptException(
-                "The name of the function signature doesn't match the function name in the function definition.",
-                JavaScriptLanguage.NAME
-            );
+            result = function.call(this, args);
         } catch (ECMAException e) {
             throw new io.crate.exceptions.ScriptException(
                 e.getMessage(),
@@ -22,8 +22,10 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import io.crate.analyze.FunctionArgumentDefinition;
 import io.crate.analyze.symbol.Literal;
+import io.crate.analyze.symbol.Symbol;
 import io.crate.metadata.FunctionIdent;
 import io.crate.metadata.FunctionImplementation;
+import io.crate.metadata.Scalar;
 import io.crate.metadata.Schemas;
 import io.crate.operation.scalar.AbstractScalarFunctionsTest;
 import io.crate.operation.udf.UserDefinedFunctionMetaData;
@@ -48,6 +50,7 @@ import java.util.stream.Collectors;
 
 import static io.crate.testing.SymbolMatchers.isLiteral;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.startsWith;
 import static org.mockito.Mockito.mock;
 
@@ -272,4 +275,19 @@ public class JavascriptUserDefinedFunctionTest extends AbstractScalarFunctionsTe
         assertEvaluate("f(array_string_array)", "foo",
             Literal.of(new Object[][]{new Object[]{new BytesRef("foo")}}, new ArrayType(new ArrayType(DataTypes.STRING))));
     }
+
+    @Test
+    public void testGlobalStateOfTheScriptDoesNotCarryOverBetweenCalls() throws Exception {
+        registerUserDefinedFunction("f", DataTypes.LONG, ImmutableList.of(DataTypes.LONG),
+            "var calls = 0; function f(x) { calls = calls + 1; return calls; }");
+        Scalar function = (Scalar) functionImplementations.get(
+            new FunctionIdent(Schemas.DOC_SCHEMA_NAME, "f", ImmutableList.of(DataTypes.LONG)));
+        assertThat((Long) function.evaluate(Literal.of(1L)), is(1L));
+        assertThat((Long) function.evaluate(Literal.of(1L)), is(1L));
+
+        // every compiled instance has its own bindings
+        List<Symbol> arguments = ImmutableList.of(Literal.of(1L));
+        assertThat((Long) function.compile(arguments).evaluate(Literal.of(1L)), is(1L));
+        assertThat((Long) function.compile(arguments).evaluate(Literal.of(1L)), is(1L));
+    }
 }
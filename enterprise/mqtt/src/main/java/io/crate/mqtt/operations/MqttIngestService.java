@@ -32,6 +32,7 @@ import io.crate.data.Row;
 import io.crate.data.RowN;
 import io.crate.exceptions.Exceptions;
 import io.crate.exceptions.SQLExceptions;
+import io.crate.executor.Executor;
 import io.crate.ingestion.IngestRuleListener;
 import io.crate.ingestion.IngestionService;
 import io.crate.metadata.Functions;
@@ -53,9 +54,11 @@ import io.netty.handler.codec.mqtt.MqttPublishMessage;
 import org.apache.logging.log4j.Logger;
 import org.elasticsearch.common.collect.Tuple;
 import org.elasticsearch.common.logging.Loggers;
+import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.xcontent.NamedXContentRegistry;
 import org.elasticsearch.common.xcontent.json.JsonXContent;
 import org.elasticsearch.index.engine.VersionConflictEngineException;
+import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.netty4.Netty4Utils;
 
 import javax.annotation.Nullable;
@@ -67,6 +70,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiConsumer;
 import java.util.function.Predicate;
@@ -97,13 +102,23 @@ public class MqttIngestService implements IngestRuleListener {
     private final AtomicReference<Set<Tuple<Predicate<Row>, IngestRule>>> predicateAndIngestRulesReference =
         new AtomicReference<>(new HashSet<>());
     private final ExpressionAnalysisContext expressionAnalysisContext;
+    private final ThreadPool threadPool;
+    private final int batchSize;
+    private final TimeValue batchTimeout;
+    private final Map<IngestRule, InsertBatch> batches = new ConcurrentHashMap<>();
     private boolean isInitialized;
 
     public MqttIngestService(Functions functions,
                              SQLOperations sqlOperations,
                              UserLookup userLookup,
-                             IngestionService ingestionService) {
+                             IngestionService ingestionService,
+                             ThreadPool threadPool,
+                             int batchSize,
+                             TimeValue batchTimeout) {
         this.sqlOperations = sqlOperations;
+        this.threadPool = threadPool;
+        this.batchSize = batchSize;
+        this.batchTimeout = batchTimeout;
         this.inputFactory = new InputFactory(functions);
         this.expressionAnalysisContext = new ExpressionAnalysisContext();
         FieldProvider<Symbol> mqttSourceFieldsProvider = new FieldProvider<Symbol>() {
@@ -161,6 +176,9 @@ public class MqttIngestService implements IngestRuleListener {
      * We do not want to acknowledge the message until all message rules are successfully applied (if
      * the only detected failure(s) is "row already exists", namely {@link VersionConflictEngineException}, we trigger
      * the ackCallback, as for QoS 1 (at least once) we expect message redeliveries)
+     *
+     * If the batch size is greater than 1 the inserts are buffered per rule and executed as bulk insert once the
+     * batch is full or the batch timeout expired. The ackCallback is only triggered once the bulk insert completed.
      */
     public void doInsert(String clientId, MqttPublishMessage msg, BiConsumer<Object, Throwable> ackCallback) {
         if (isInitialized == false) {
@@ -179,36 +197,27 @@ public class MqttIngestService implements IngestRuleListener {
             msg.variableHeader().topicName(),
             payload};
         List<Object> argsAsList = Arrays.asList(args);
+        boolean isDup = msg.fixedHeader().isDup();
 
         boolean messageMatchedRule = false;
         boolean callbackNotified = false;
-        SQLOperations.Session session = sqlOperations.createSession(Schemas.DOC_SCHEMA_NAME, crateUser, Option.NONE, 1);
+        SQLOperations.Session session = null;
         List<CompletableFuture<?>> insertOperationsFuture = new ArrayList<>(predicateAndIngestRules.size());
         for (Tuple<Predicate<Row>, IngestRule> entry : predicateAndIngestRules) {
             if (entry.v1().test(new RowN(args))) {
                 messageMatchedRule = true;
                 IngestRule ingestRule = entry.v2();
 
+                if (batchSize > 1) {
+                    insertOperationsFuture.add(
+                        batches.computeIfAbsent(ingestRule, InsertBatch::new).add(argsAsList, isDup));
+                    continue;
+                }
+                if (session == null) {
+                    session = createSession();
+                }
                 try {
-                    session.parse(ingestRule.getName(), "insert into " + TableIdent.fromIndexName(ingestRule.getTargetTable()).fqn() +
-                                                  " (\"client_id\", \"packet_id\", \"topic\", \"ts\", \"payload\") " +
-                                                  "values (?, ?, ?, CURRENT_TIMESTAMP, ?)", FIELD_TYPES);
-                    session.bind(SQLOperations.Session.UNNAMED, ingestRule.getName(), argsAsList, null);
-                    BaseResultReceiver resultReceiver = new BaseResultReceiver();
-                    insertOperationsFuture.add(resultReceiver.completionFuture().exceptionally(t -> {
-                        if (SQLExceptions.isDocumentAlreadyExistsException(t)) {
-                            if (msg.fixedHeader().isDup()) {
-                                // we are dealing with QoS1, so redeliveries and duplicate insert exceptions are
-                                // normal in case of a duplicate message - indicated by the isDup flag
-                                return null;
-                            }
-                        }
-
-                        Exceptions.rethrowUnchecked(t);
-                        return null;
-                    }));
-                    session.execute(SQLOperations.Session.UNNAMED, 0, resultReceiver);
-                    session.sync();
+                    insertOperationsFuture.add(insert(session, ingestRule, argsAsList, isDup));
                 } catch (SQLActionException e) {
                     ackCallback.accept(null, e);
                     callbackNotified = true;
@@ -216,7 +225,9 @@ public class MqttIngestService implements IngestRuleListener {
                 }
             }
         }
-        session.close();
+        if (session != null) {
+            session.close();
+        }
 
         if (callbackNotified == false) {
             CompletableFuture<Void> allResultsComplete =
@@ -241,6 +252,169 @@ public class MqttIngestService implements IngestRuleListener {
         }
     }
 
+    private SQLOperations.Session createSession() {
+        return sqlOperations.createSession(Schemas.DOC_SCHEMA_NAME, crateUser, Option.NONE, 1);
+    }
+
+    private static String insertStatement(IngestRule ingestRule) {
+        return "insert into " + TableIdent.fromIndexName(ingestRule.getTargetTable()).fqn() +
+               " (\"client_id\", \"packet_id\", \"topic\", \"ts\", \"payload\") " +
+               "values (?, ?, ?, CURRENT_TIMESTAMP, ?)";
+    }
+
+    /**
+     * Inserts a single message into the target table of the rule.
+     * The returned future fails unless the insert succeeded or the message is a redelivery of an already inserted one.
+     */
+    private static CompletableFuture<?> insert(SQLOperations.Session session,
+                                               IngestRule ingestRule,
+                                               List<Object> args,
+                                               boolean isDup) {
+        session.parse(ingestRule.getName(), insertStatement(ingestRule), FIELD_TYPES);
+        session.bind(SQLOperations.Session.UNNAMED, ingestRule.getName(), args, null);
+        BaseResultReceiver resultReceiver = new BaseResultReceiver();
+        CompletableFuture<?> future = resultReceiver.completionFuture().exceptionally(t -> {
+            if (SQLExceptions.isDocumentAlreadyExistsException(t)) {
+                if (isDup) {
+                    // we are dealing with QoS1, so redeliveries and duplicate insert exceptions are
+                    // normal in case of a duplicate message - indicated by the isDup flag
+                    return null;
+                }
+            }
+
+            Exceptions.rethrowUnchecked(t);
+            return null;
+        });
+        session.execute(SQLOperations.Session.UNNAMED, 0, resultReceiver);
+        session.sync();
+        return future;
+    }
+
+    private static class PendingInsert {
+
+        private final List<Object> args;
+        private final boolean isDup;
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        PendingInsert(List<Object> args, boolean isDup) {
+            this.args = args;
+            this.isDup = isDup;
+        }
+    }
+
+    private static class RowCountReceiver extends BaseResultReceiver {
+
+        private long rowCount = Executor.ROWCOUNT_UNKNOWN;
+
+        @Override
+        public void setNextRow(Row row) {
+            rowCount = ((Number) row.get(0)).longValue();
+        }
+    }
+
+    /**
+     * Buffers the inserts of a rule until either {@link #batchSize} inserts are pending or {@link #batchTimeout}
+     * expired since the first pending insert was added, and then executes them as a single bulk insert.
+     */
+    private class InsertBatch {
+
+        private final IngestRule ingestRule;
+        private List<PendingInsert> pendingInserts = new ArrayList<>();
+        @Nullable
+        private ScheduledFuture<?> scheduledFlush;
+
+        InsertBatch(IngestRule ingestRule) {
+            this.ingestRule = ingestRule;
+        }
+
+        CompletableFuture<?> add(List<Object> args, boolean isDup) {
+            PendingInsert pendingInsert = new PendingInsert(args, isDup);
+            List<PendingInsert> fullBatch = null;
+            synchronized (this) {
+                pendingInserts.add(pendingInsert);
+                if (pendingInserts.size() >= batchSize) {
+                    fullBatch = takePendingInserts();
+                } else if (pendingInserts.size() == 1) {
+                    scheduledFlush = threadPool.schedule(batchTimeout, ThreadPool.Names.GENERIC, this::flush);
+                }
+            }
+            if (fullBatch != null) {
+                execute(fullBatch);
+            }
+            return pendingInsert.result;
+        }
+
+        private void flush() {
+            List<PendingInsert> inserts;
+            synchronized (this) {
+                inserts = takePendingInserts();
+            }
+            if (inserts.isEmpty() == false) {
+                execute(inserts);
+            }
+        }
+
+        private List<PendingInsert> takePendingInserts() {
+            if (scheduledFlush != null) {
+                scheduledFlush.cancel(false);
+                scheduledFlush = null;
+            }
+            List<PendingInsert> inserts = pendingInserts;
+            pendingInserts = new ArrayList<>(batchSize);
+            return inserts;
+        }
+
+        private void execute(List<PendingInsert> inserts) {
+            List<RowCountReceiver> resultReceivers = new ArrayList<>(inserts.size());
+            SQLOperations.Session session = createSession();
+            try {
+                session.parse(ingestRule.getName(), insertStatement(ingestRule), FIELD_TYPES);
+                for (PendingInsert insert : inserts) {
+                    session.bind(SQLOperations.Session.UNNAMED, ingestRule.getName(), insert.args, null);
+                    RowCountReceiver resultReceiver = new RowCountReceiver();
+                    resultReceivers.add(resultReceiver);
+                    session.execute(SQLOperations.Session.UNNAMED, 0, resultReceiver);
+                }
+                session.sync().whenComplete((r, t) -> {
+                    for (int i = 0; i < inserts.size(); i++) {
+                        PendingInsert insert = inserts.get(i);
+                        RowCountReceiver resultReceiver = resultReceivers.get(i);
+                        if (t == null && resultReceiver.rowCount != Executor.ROWCOUNT_ERROR) {
+                            insert.result.complete(null);
+                        } else {
+                            // the bulk result doesn't contain the cause of the failure, so the insert is repeated
+                            // individually to apply the same duplicate handling as for un-batched inserts
+                            retry(insert);
+                        }
+                    }
+                });
+            } catch (Throwable t) {
+                for (PendingInsert insert : inserts) {
+                    insert.result.completeExceptionally(t);
+                }
+            } finally {
+                session.close();
+            }
+        }
+
+        private void retry(PendingInsert insert) {
+            SQLOperations.Session session = createSession();
+            try {
+                insert(session, ingestRule, insert.args, insert.isDup).whenComplete((r, t) -> {
+                    if (t == null) {
+                        insert.result.complete(null);
+                    } else {
+                        insert.result.completeExceptionally(SQLExceptions.unwrap(t));
+                    }
+                });
+            } catch (Throwable t) {
+                insert.result.completeExceptionally(t);
+            } finally {
+                session.close();
+            }
+        }
+    }
+
     @Override
     public void applyRules(Set<IngestRule> rules) {
         Set<Tuple<Predicate<Row>, IngestRule>> newRules = new HashSet<>(rules.size());
@@ -255,5 +429,7 @@ public class MqttIngestService implements IngestRuleListener {
             }
         }
         predicateAndIngestRulesReference.set(newRules);
+        // pending inserts of removed rules are still flushed by their batch
+        batches.keySet().retainAll(rules);
     }
 }
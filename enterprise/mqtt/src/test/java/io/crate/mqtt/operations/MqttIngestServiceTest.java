@@ -25,13 +25,39 @@ package io.crate.mqtt.operations;
 import io.crate.action.sql.SQLOperations;
 import io.crate.ingestion.IngestionService;
 import io.crate.metadata.Functions;
+import io.crate.metadata.rule.ingest.IngestRule;
 import io.crate.operation.user.UserLookup;
 import io.crate.test.integration.CrateUnitTest;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.mqtt.MqttFixedHeader;
+import io.netty.handler.codec.mqtt.MqttMessageType;
 import io.netty.handler.codec.mqtt.MqttPublishMessage;
+import io.netty.handler.codec.mqtt.MqttPublishVariableHeader;
+import io.netty.handler.codec.mqtt.MqttQoS;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.threadpool.ThreadPool;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 public class MqttIngestServiceTest extends CrateUnitTest {
 
@@ -40,7 +66,13 @@ public class MqttIngestServiceTest extends CrateUnitTest {
     @Before
     public void setupMqttIngestService() {
         mqttIngestService = new MqttIngestService(
-            mock(Functions.class), mock(SQLOperations.class), mock(UserLookup.class), mock(IngestionService.class)
+            mock(Functions.class),
+            mock(SQLOperations.class),
+            mock(UserLookup.class),
+            mock(IngestionService.class),
+            mock(ThreadPool.class),
+            1,
+            TimeValue.timeValueMillis(10L)
         );
     }
 
@@ -59,4 +91,49 @@ public class MqttIngestServiceTest extends CrateUnitTest {
         expectedException.expectMessage("Service was not initialized");
         mqttIngestService.doInsert("clientId", mock(MqttPublishMessage.class), (r, t) -> { });
     }
+
+    @Test
+    public void testBatchedInsertsAreExecutedAsOneBulkAndAcknowledgedAfterwards() throws Exception {
+        SQLOperations sqlOperations = mock(SQLOperations.class);
+        SQLOperations.Session session = mock(SQLOperations.Session.class);
+        when(sqlOperations.createSession(anyString(), any(), any(), anyInt())).thenReturn(session);
+        CompletableFuture<Object> bulkResult = new CompletableFuture<>();
+        doReturn(bulkResult).when(session).sync();
+        ThreadPool threadPool = mock(ThreadPool.class);
+        doReturn(mock(ScheduledFuture.class)).when(threadPool).schedule(any(), anyString(), any());
+
+        MqttIngestService service = new MqttIngestService(
+            mock(Functions.class),
+            sqlOperations,
+            mock(UserLookup.class),
+            mock(IngestionService.class),
+            threadPool,
+            2,
+            TimeValue.timeValueHours(1L)
+        );
+        service.initialize();
+        service.applyRules(Collections.singleton(new IngestRule("r1", "t1", "")));
+
+        List<Throwable> acks = new ArrayList<>();
+        service.doInsert("client", publishMessage(1), (r, t) -> acks.add(t));
+        verify(threadPool, times(1)).schedule(any(), anyString(), any());
+        verify(session, never()).sync();
+
+        service.doInsert("client", publishMessage(2), (r, t) -> acks.add(t));
+        verify(session, times(2)).bind(anyString(), eq("r1"), any(), any());
+        verify(session, times(1)).sync();
+        assertThat(acks.size(), is(0));
+
+        bulkResult.complete(null);
+        assertThat(acks.size(), is(2));
+        assertThat(acks.get(0), nullValue());
+        assertThat(acks.get(1), nullValue());
+    }
+
+    private static MqttPublishMessage publishMessage(int packetId) {
+        return new MqttPublishMessage(
+            new MqttFixedHeader(MqttMessageType.PUBLISH, false, MqttQoS.AT_LEAST_ONCE, false, 0),
+            new MqttPublishVariableHeader("t1", packetId),
+            Unpooled.copiedBuffer("{}", StandardCharsets.UTF_8));
+    }
 }
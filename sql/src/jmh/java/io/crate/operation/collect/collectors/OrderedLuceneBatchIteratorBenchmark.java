@@ -139,6 +139,7 @@ public class OrderedLuceneBatchIteratorBenchmark {
             10_000_000,
             collectorContext,
             f -> null,
+            r -> null,
             new Sort(new SortedNumericSortField(sortByColumnName, SortField.Type.INT, reverseFlags[0])),
             expressions,
             expressions
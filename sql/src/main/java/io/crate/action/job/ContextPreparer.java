@@ -60,12 +60,14 @@ import io.crate.operation.collect.MapSideDataCollectOperation;
 import io.crate.operation.collect.sources.SystemCollectSource;
 import io.crate.operation.count.CountOperation;
 import io.crate.operation.fetch.FetchContext;
+import io.crate.operation.join.HashJoinKeys;
 import io.crate.operation.join.NestedLoopOperation;
 import io.crate.operation.merge.PagingIterator;
 import io.crate.operation.projectors.DistributingDownstreamFactory;
 import io.crate.operation.projectors.ProjectingBatchConsumer;
 import io.crate.operation.projectors.ProjectionToProjectorVisitor;
 import io.crate.operation.projectors.ProjectorFactory;
+import io.crate.operation.projectors.SpillDirectory;
 import io.crate.planner.distribution.DistributionType;
 import io.crate.planner.distribution.UpstreamPhase;
 import io.crate.planner.node.ExecutionPhase;
@@ -126,7 +128,8 @@ public class ContextPreparer extends AbstractComponent {
                            DistributingDownstreamFactory distributingDownstreamFactory,
                            TransportActionProvider transportActionProvider,
                            Functions functions,
-                           SystemCollectSource systemCollectSource) {
+                           SystemCollectSource systemCollectSource,
+                           SpillDirectory spillDirectory) {
         super(settings);
         nlContextLogger = Loggers.getLogger(NestedLoopContext.class, settings);
         pageDownstreamContextLogger = Loggers.getLogger(PageDownstreamContext.class, settings);
@@ -144,6 +147,7 @@ public class ContextPreparer extends AbstractComponent {
             functions,
             threadPool,
             settings,
+            spillDirectory,
             transportActionProvider,
             inputFactory,
             normalizer,
@@ -650,11 +654,17 @@ public class ContextPreparer extends AbstractComponent {
             BatchConsumer firstConsumer = ProjectingBatchConsumer.create(
                 lastConsumer, phase.projections(), phase.jobId(), ramAccountingContext, projectorFactory);
             Predicate<Row> joinCondition = RowFilter.create(inputFactory, phase.joinCondition());
+            HashJoinKeys hashJoinKeys = null;
+            if (!phase.preserveLeftOrder()) {
+                hashJoinKeys = HashJoinKeys.create(inputFactory, phase.joinCondition(), phase.numLeftOutputs());
+            }
 
             NestedLoopOperation nestedLoopOperation = new NestedLoopOperation(
                 firstConsumer,
                 joinCondition,
-                phase.joinType()
+                phase.joinType(),
+                hashJoinKeys,
+                ramAccountingContext
             );
             PageDownstreamContext left = pageDownstreamContextForNestedLoop(
                 phase.phaseId(),
@@ -22,6 +22,9 @@
 
 package io.crate.action.sql;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 import io.crate.analyze.Analyzer;
 import io.crate.analyze.relations.AnalyzedRelation;
 import io.crate.analyze.symbol.Field;
@@ -65,6 +68,22 @@ public class SQLOperations {
         "node.sql.read_only",
         false,
         Setting.Property.NodeScope);
+
+    /**
+     * Maximum number of parsed statements which are cached by their query string. 0 disables the cache.
+     */
+    public static final Setting<Integer> PARSE_CACHE_SIZE_SETTING = Setting.intSetting(
+        "node.sql.parse_cache.size",
+        1000,
+        0,
+        Setting.Property.NodeScope);
+
+    /**
+     * Statements with a longer query string (e.g. bulk inserts with many literal values) are not cached,
+     * they are rarely repeated and would keep large syntax trees in memory.
+     */
+    static final int MAX_CACHED_STATEMENT_LENGTH = 4096;
+
     private static final Logger LOGGER = Loggers.getLogger(SQLOperations.class);
 
     // Parser can't handle empty statement but postgres requires support for it.
@@ -78,6 +97,8 @@ public class SQLOperations {
     private final ClusterService clusterService;
     private final UserManager userManager;
     private final boolean isReadOnly;
+    @Nullable
+    private final Cache<String, Statement> parseCache;
     private volatile boolean disabled;
 
     @Inject
@@ -95,6 +116,42 @@ public class SQLOperations {
         this.clusterService = clusterService;
         this.userManager = userManagerProvider.get();
         this.isReadOnly = NODE_READ_ONLY_SETTING.get(settings);
+        int parseCacheSize = PARSE_CACHE_SIZE_SETTING.get(settings);
+        if (parseCacheSize > 0) {
+            this.parseCache = CacheBuilder.newBuilder()
+                .maximumSize(parseCacheSize)
+                .recordStats()
+                .build();
+        } else {
+            this.parseCache = null;
+        }
+    }
+
+    /**
+     * Statistics (e.g. hit and miss count) of the cache of parsed statements.
+     */
+    public CacheStats parseCacheStats() {
+        if (parseCache == null) {
+            return new CacheStats(0, 0, 0, 0, 0, 0);
+        }
+        return parseCache.stats();
+    }
+
+    /**
+     * Parses the query or returns the cached statement of a previous parse call with the same query.
+     * Only the parsing is cached, statements are still analyzed and planned on every execution.
+     * Statements are immutable and don't depend on the schema or the parameters, so they can be shared by sessions.
+     */
+    private Statement parseStatement(String query) {
+        if (parseCache == null || query.length() > MAX_CACHED_STATEMENT_LENGTH) {
+            return SqlParser.createStatement(query);
+        }
+        Statement statement = parseCache.getIfPresent(query);
+        if (statement == null) {
+            statement = SqlParser.createStatement(query);
+            parseCache.put(query, statement);
+        }
+        return statement;
     }
 
     private Session createSession(SessionContext sessionContext) {
@@ -220,7 +277,7 @@ public class SQLOperations {
 
             Statement statement;
             try {
-                statement = SqlParser.createStatement(query);
+                statement = parseStatement(query);
             } catch (Throwable t) {
                 if ("".equals(query)) {
                     statement = EMPTY_STMT;
@@ -44,6 +44,7 @@ public class SessionContext implements StatementAuthorizedValidator, ExceptionAu
 
     private String defaultSchema;
     private boolean semiJoinsRewriteEnabled;
+    private boolean approxCountDistinctEnabled;
 
     public SessionContext(@Nullable String defaultSchema,
                           @Nullable User user,
@@ -97,6 +98,14 @@ public class SessionContext implements StatementAuthorizedValidator, ExceptionAu
         return semiJoinsRewriteEnabled;
     }
 
+    public void setApproxCountDistinctEnabled(boolean flag) {
+        this.approxCountDistinctEnabled = flag;
+    }
+
+    public boolean getApproxCountDistinctEnabled() {
+        return approxCountDistinctEnabled;
+    }
+
     @Nullable
     public User user() {
         return user;
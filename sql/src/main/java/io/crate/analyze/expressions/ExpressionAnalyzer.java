@@ -53,6 +53,8 @@ import io.crate.metadata.Reference;
 import io.crate.metadata.TransactionContext;
 import io.crate.metadata.table.Operation;
 import io.crate.operation.aggregation.impl.CollectSetAggregation;
+import io.crate.operation.aggregation.impl.CountAggregation;
+import io.crate.operation.aggregation.impl.HyperLogLogDistinctAggregation;
 import io.crate.operation.operator.AndOperator;
 import io.crate.operation.operator.EqOperator;
 import io.crate.operation.operator.LikeOperator;
@@ -225,6 +227,13 @@ public class ExpressionAnalyzer {
                 throw new UnsupportedOperationException(String.format(Locale.ENGLISH,
                     "%s(DISTINCT x) does not accept more than one argument", node.getName()));
             }
+            if (schema == null && name.equals(CountAggregation.NAME)
+                && transactionContext.sessionContext().getApproxCountDistinctEnabled()
+                && DataTypes.PRIMITIVE_TYPES.contains(arguments.get(0).valueType())) {
+                // estimate the distinct count with a bounded sketch instead of collecting all values,
+                // other types than the ones supported by hyperloglog_distinct fall back to collect_set
+                return allocateFunction(HyperLogLogDistinctAggregation.NAME, arguments, context);
+            }
             Symbol collectSetFunction = allocateFunction(
                 CollectSetAggregation.NAME,
                 arguments,
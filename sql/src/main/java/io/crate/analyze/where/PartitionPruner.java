@@ -0,0 +1,159 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.analyze.where;
+
+import io.crate.analyze.symbol.Function;
+import io.crate.analyze.symbol.Literal;
+import io.crate.analyze.symbol.Symbol;
+import io.crate.metadata.Reference;
+import io.crate.metadata.doc.DocTableInfo;
+import io.crate.metadata.doc.PartitionIndex;
+import io.crate.operation.operator.AndOperator;
+import io.crate.operation.operator.EqOperator;
+import io.crate.operation.operator.GtOperator;
+import io.crate.operation.operator.GteOperator;
+import io.crate.operation.operator.LtOperator;
+import io.crate.operation.operator.LteOperator;
+import io.crate.operation.operator.any.AnyEqOperator;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Resolves the partitions which can match a query using the {@link PartitionIndex} of the table.
+ *
+ * Only comparisons of a partition column with a literal ({@code =, <, <=, >, >=, IN}) which are part of a
+ * top-level conjunction are considered, all other conditions are ignored.
+ * The result is a superset of the matching partitions; the query still has to be evaluated for each of them.
+ */
+final class PartitionPruner {
+
+    private PartitionPruner() {
+    }
+
+    /**
+     * @return the positions of the partitions in {@link DocTableInfo#partitions()} which can match,
+     *         or null if the query doesn't restrict any partition column.
+     */
+    @Nullable
+    static BitSet candidates(Symbol query, DocTableInfo tableInfo) {
+        try {
+            return candidates(query, tableInfo.partitionedByColumns(), tableInfo.partitionIndex());
+        } catch (IllegalArgumentException | ClassCastException e) {
+            // a literal which can't be converted to the type of the partition column, evaluate it per partition
+            return null;
+        }
+    }
+
+    @Nullable
+    private static BitSet candidates(Symbol query, List<Reference> partitionColumns, PartitionIndex index) {
+        if (!(query instanceof Function)) {
+            return null;
+        }
+        Function function = (Function) query;
+        String name = function.info().ident().name();
+        List<Symbol> args = function.arguments();
+        if (name.equals(AndOperator.NAME)) {
+            BitSet left = candidates(args.get(0), partitionColumns, index);
+            BitSet right = candidates(args.get(1), partitionColumns, index);
+            if (left == null) {
+                return right;
+            }
+            if (right != null) {
+                left.and(right);
+            }
+            return left;
+        }
+        if (args.size() != 2) {
+            return null;
+        }
+        Symbol column = args.get(0);
+        Symbol value = args.get(1);
+        if (column instanceof Literal && !name.equals(AnyEqOperator.NAME)) {
+            column = args.get(1);
+            value = args.get(0);
+            name = swapComparison(name);
+        }
+        int columnIdx = partitionColumns.indexOf(column);
+        if (columnIdx < 0 || !(value instanceof Literal)) {
+            return null;
+        }
+        Object literal = ((Literal) value).value();
+        if (literal == null) {
+            return null;
+        }
+        if (name.equals(AnyEqOperator.NAME)) {
+            return anyEq(columnIdx, literal, index);
+        }
+        switch (name) {
+            case EqOperator.NAME:
+                return index.equalTo(columnIdx, literal);
+            case GtOperator.NAME:
+                return index.range(columnIdx, literal, false, null, false);
+            case GteOperator.NAME:
+                return index.range(columnIdx, literal, true, null, false);
+            case LtOperator.NAME:
+                return index.range(columnIdx, null, false, literal, false);
+            case LteOperator.NAME:
+                return index.range(columnIdx, null, false, literal, true);
+            default:
+                return null;
+        }
+    }
+
+    @Nullable
+    private static BitSet anyEq(int columnIdx, Object values, PartitionIndex index) {
+        Iterable<?> items;
+        if (values instanceof Object[]) {
+            items = Arrays.asList((Object[]) values);
+        } else if (values instanceof Collection) {
+            items = (Collection<?>) values;
+        } else {
+            return null;
+        }
+        BitSet result = new BitSet(index.numPartitions());
+        for (Object item : items) {
+            if (item != null) {
+                result.or(index.equalTo(columnIdx, item));
+            }
+        }
+        return result;
+    }
+
+    private static String swapComparison(String name) {
+        switch (name) {
+            case GtOperator.NAME:
+                return LtOperator.NAME;
+            case GteOperator.NAME:
+                return LteOperator.NAME;
+            case LtOperator.NAME:
+                return GtOperator.NAME;
+            case LteOperator.NAME:
+                return GteOperator.NAME;
+            default:
+                return name;
+        }
+    }
+}
@@ -45,6 +45,7 @@ import org.elasticsearch.common.collect.Tuple;
 
 import javax.annotation.Nullable;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -169,10 +170,20 @@ public class WhereClauseAnalyzer {
         EvaluatingNormalizer normalizer = new EvaluatingNormalizer(
             functions, RowGranularity.PARTITION, partitionReferenceResolver, null);
 
+        // the index rules out partitions which can't match the comparisons on partition columns,
+        // so that the query only needs to be evaluated for the remaining ones
+        BitSet candidates = PartitionPruner.candidates(whereClause.query(), tableInfo);
+        if (candidates == null) {
+            candidates = tableInfo.partitionIndex().all();
+        } else if (candidates.isEmpty()) {
+            return WhereClause.NO_MATCH;
+        }
+
         Symbol normalized;
         Map<Symbol, List<Literal>> queryPartitionMap = new HashMap<>();
 
-        for (PartitionName partitionName : tableInfo.partitions()) {
+        for (int idx = candidates.nextSetBit(0); idx >= 0; idx = candidates.nextSetBit(idx + 1)) {
+            PartitionName partitionName = tableInfo.partitionIndex().partition(idx);
             for (PartitionExpression partitionExpression : partitionReferenceResolver.expressions()) {
                 partitionExpression.setNextRow(partitionName);
             }
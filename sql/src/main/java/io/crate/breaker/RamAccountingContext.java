@@ -78,6 +78,25 @@ public class RamAccountingContext {
         addBytes(bytes, false);
     }
 
+    /**
+     * Release bytes which have been added before, e.g. because the data they accounted for was written to disk.
+     *
+     * @param bytes bytes to be released, must not exceed {@link #totalBytes()}
+     */
+    public void releaseBytes(long bytes) {
+        if (closed || bytes == 0) {
+            return;
+        }
+        assert bytes > 0 : "bytes to release must be positive";
+        long fromBuffer = Math.min(bytes, Math.max(flushBuffer.get(), 0));
+        flushBuffer.addAndGet(-fromBuffer);
+        long flushed = bytes - fromBuffer;
+        if (flushed > 0) {
+            breaker.addWithoutBreaking(-flushed);
+            totalBytes.addAndGet(-flushed);
+        }
+    }
+
     private void addBytes(long bytes, boolean shouldBreak) throws CircuitBreakingException {
         if (closed || bytes == 0) {
             return;
@@ -170,6 +189,18 @@ public class RamAccountingContext {
         return tripped;
     }
 
+    /**
+     * Returns the number of bytes which can still be added before the breaker trips
+     * or -1 if the breaker doesn't have a limit
+     */
+    public long remainingBytes() {
+        long limit = breaker.getLimit();
+        if (limit <= 0) {
+            return -1;
+        }
+        return Math.max(0L, limit - breaker.getUsed());
+    }
+
     /**
      * Returns true if the limit of the breaker was already reached
      * but the breaker did not trip (e.g. when adding bytes without breaking)
@@ -0,0 +1,230 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.executor.transport;
+
+import io.crate.Streamer;
+import io.crate.types.LongType;
+import io.crate.types.StringType;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes the values of a column of a {@link StreamBucket}.
+ * <ul>
+ *     <li>strings are dictionary encoded: a value which was already written is replaced by its index</li>
+ *     <li>longs (and timestamps) are written as variable length delta to the previous value</li>
+ *     <li>all other values are written by their {@link Streamer}</li>
+ * </ul>
+ * Codecs are stateful, the values of a bucket must be read in the order they were written,
+ * using a new codec for each pass.
+ */
+abstract class ColumnCodec {
+
+    static ColumnCodec[] forStreamers(Streamer<?>[] streamers) {
+        ColumnCodec[] codecs = new ColumnCodec[streamers.length];
+        for (int i = 0; i < streamers.length; i++) {
+            codecs[i] = of(streamers[i]);
+        }
+        return codecs;
+    }
+
+    private static ColumnCodec of(Streamer<?> streamer) {
+        if (streamer instanceof StringType) {
+            return new DictionaryCodec();
+        }
+        if (streamer instanceof LongType) {
+            return new DeltaLongCodec();
+        }
+        return new StreamerCodec(streamer);
+    }
+
+    /**
+     * @return the number of bytes saved compared to writing the value with its {@link Streamer}
+     */
+    abstract int write(StreamOutput out, Object value) throws IOException;
+
+    abstract Object read(StreamInput in) throws IOException;
+
+    static int vLongSize(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    private static class StreamerCodec extends ColumnCodec {
+
+        private final Streamer<?> streamer;
+
+        StreamerCodec(Streamer<?> streamer) {
+            this.streamer = streamer;
+        }
+
+        @Override
+        int write(StreamOutput out, Object value) throws IOException {
+            streamer.writeValueTo(out, value);
+            return 0;
+        }
+
+        @Override
+        Object read(StreamInput in) throws IOException {
+            return streamer.readValueFrom(in);
+        }
+    }
+
+    /**
+     * Each value is written as a vInt code:
+     * <pre>
+     *     0            null
+     *     2 * len + 1  a new value of len bytes follows
+     *     2 * idx + 2  the value with index idx in the dictionary
+     * </pre>
+     * Writer and reader add new values to the dictionary using the same rule, so the dictionary itself is never sent.
+     */
+    static class DictionaryCodec extends ColumnCodec {
+
+        static final int MAX_ENTRIES = 1024;
+        static final int MAX_VALUE_LENGTH = 256;
+
+        private final Map<BytesRef, Integer> indexByValue = new HashMap<>();
+        private final List<BytesRef> values = new ArrayList<>();
+        private boolean lookup = true;
+        private int hits = 0;
+
+        @Override
+        int write(StreamOutput out, Object value) throws IOException {
+            if (value == null) {
+                out.writeVInt(0);
+                return 0;
+            }
+            BytesRef bytesRef = (BytesRef) value;
+            int plainSize = vLongSize(bytesRef.length + 1) + bytesRef.length;
+            if (lookup) {
+                Integer idx = indexByValue.get(bytesRef);
+                if (idx != null) {
+                    hits++;
+                    int code = 2 * idx + 2;
+                    out.writeVInt(code);
+                    return plainSize - vLongSize(code);
+                }
+            }
+            int code = 2 * bytesRef.length + 1;
+            out.writeVInt(code);
+            out.writeBytes(bytesRef.bytes, bytesRef.offset, bytesRef.length);
+            if (addToDictionary(bytesRef.length)) {
+                BytesRef copy = BytesRef.deepCopyOf(bytesRef);
+                indexByValue.put(copy, values.size());
+                values.add(copy);
+            } else if (lookup && values.size() >= MAX_ENTRIES && hits < MAX_ENTRIES / 8) {
+                // mostly unique values, stop paying for the lookups
+                lookup = false;
+            }
+            return plainSize - vLongSize(code) - bytesRef.length;
+        }
+
+        @Override
+        Object read(StreamInput in) throws IOException {
+            int code = in.readVInt();
+            if (code == 0) {
+                return null;
+            }
+            if ((code & 1) == 1) {
+                int length = code >>> 1;
+                BytesRef bytesRef = in.readBytesRef(length);
+                if (addToDictionary(length)) {
+                    values.add(bytesRef);
+                }
+                return bytesRef;
+            }
+            return values.get((code - 2) >>> 1);
+        }
+
+        private boolean addToDictionary(int length) {
+            return values.size() < MAX_ENTRIES && length <= MAX_VALUE_LENGTH;
+        }
+    }
+
+    /**
+     * Each value is written as a vLong code:
+     * <pre>
+     *     0                  null
+     *     1                  the value follows as fixed size long
+     *     zigZag(delta) + 2  difference to the previous value
+     * </pre>
+     */
+    static class DeltaLongCodec extends ColumnCodec {
+
+        private static final int PLAIN_SIZE = 1 + 8;
+
+        private long previous = 0L;
+
+        @Override
+        int write(StreamOutput out, Object value) throws IOException {
+            if (value == null) {
+                out.writeVLong(0L);
+                return 0;
+            }
+            long longValue = ((Number) value).longValue();
+            long zigZagDelta = zigZag(longValue - previous);
+            previous = longValue;
+            if (zigZagDelta >= 0 && zigZagDelta <= Long.MAX_VALUE - 2) {
+                long code = zigZagDelta + 2;
+                out.writeVLong(code);
+                return PLAIN_SIZE - vLongSize(code);
+            }
+            out.writeVLong(1L);
+            out.writeLong(longValue);
+            return 0;
+        }
+
+        @Override
+        Object read(StreamInput in) throws IOException {
+            long code = in.readVLong();
+            if (code == 0L) {
+                return null;
+            }
+            if (code == 1L) {
+                previous = in.readLong();
+            } else {
+                previous += unZigZag(code - 2);
+            }
+            return previous;
+        }
+
+        private static long zigZag(long value) {
+            return (value << 1) ^ (value >> 63);
+        }
+
+        private static long unZigZag(long value) {
+            return (value >>> 1) ^ -(value & 1);
+        }
+    }
+}
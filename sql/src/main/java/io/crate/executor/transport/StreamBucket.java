@@ -26,6 +26,7 @@ import io.crate.breaker.RamAccountingContext;
 import io.crate.data.Bucket;
 import io.crate.data.Row;
 import io.crate.data.RowN;
+import org.elasticsearch.Version;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.io.stream.StreamInput;
@@ -37,11 +38,24 @@ import java.io.IOException;
 import java.util.Collections;
 import java.util.Iterator;
 
+/**
+ * A bucket of rows in their serialized form.
+ *
+ * The values are encoded per column by a {@link ColumnCodec}, e.g. repeated strings are only written once.
+ * Nodes before {@link #COLUMN_CODEC_VERSION} don't know these encodings, so rows sent to them are written with
+ * the plain {@link Streamer}s instead.
+ */
 public class StreamBucket implements Bucket, Streamable {
 
+    static final Version COLUMN_CODEC_VERSION = Version.V_5_6_2_UNRELEASED;
+
     private Streamer<?>[] streamers;
     private int size = -1;
     private BytesReference bytes;
+    private boolean columnEncoded = true;
+    private long savedBytes = 0;
+    @Nullable
+    private StreamBucketStats stats;
 
     public static class Builder {
 
@@ -51,13 +65,25 @@ public class StreamBucket implements Bucket, Streamable {
 
         private int size = 0;
         private final Streamer<?>[] streamers;
+        private ColumnCodec[] codecs;
         private BytesStreamOutput out;
         private int prevOutSize = 0;
+        private long savedBytes = 0;
+        @Nullable
+        private final StreamBucketStats stats;
 
         public Builder(Streamer<?>[] streamers, RamAccountingContext ramAccountingContext) {
+            this(streamers, ramAccountingContext, null);
+        }
+
+        public Builder(Streamer<?>[] streamers,
+                       RamAccountingContext ramAccountingContext,
+                       @Nullable StreamBucketStats stats) {
             this.ramAccountingContext = ramAccountingContext;
             assert validStreamers(streamers) : "streamers must not be null and they shouldn't be of undefinedType";
             this.streamers = streamers;
+            this.stats = stats;
+            this.codecs = ColumnCodec.forStreamers(streamers);
             out = new BytesStreamOutput(INITIAL_PAGE_SIZE);
         }
 
@@ -66,31 +92,34 @@ public class StreamBucket implements Bucket, Streamable {
 
             size++;
             for (int i = 0; i < row.numColumns(); i++) {
-                streamers[i].writeValueTo(out, row.get(i));
+                savedBytes += codecs[i].write(out, row.get(i));
             }
+            int rowBytes = out.size() - prevOutSize;
+            prevOutSize = out.size();
             if (ramAccountingContext != null) {
-                ramAccountingContext.addBytes(out.size() - prevOutSize);
-                prevOutSize = out.size();
+                ramAccountingContext.addBytes(rowBytes);
             }
         }
 
         public void writeToStream(StreamOutput output) throws IOException {
-            output.writeVInt(size);
-            if (size > 0) {
-                output.writeBytesReference(out.bytes());
-            }
+            writeRows(output, size, out.bytes(), true, streamers, savedBytes, stats);
         }
 
         public StreamBucket build() throws IOException {
             StreamBucket sb = new StreamBucket(streamers);
             sb.size = size;
             sb.bytes = out.bytes();
+            sb.savedBytes = savedBytes;
+            sb.stats = stats;
             return sb;
         }
 
         public void reset() {
             out = new BytesStreamOutput(size); // next bucket is probably going to have the same size
+            codecs = ColumnCodec.forStreamers(streamers);
             size = 0;
+            prevOutSize = 0;
+            savedBytes = 0;
         }
     }
 
@@ -104,6 +133,13 @@ public class StreamBucket implements Bucket, Streamable {
         return size;
     }
 
+    /**
+     * The number of bytes the serialized rows occupy
+     */
+    public int sizeInBytes() {
+        return bytes == null ? 0 : bytes.length();
+    }
+
     public void streamers(Streamer<?>[] streamers) {
         assert validStreamers(streamers) : "streamers must not be null and they shouldn't be of undefinedType";
         this.streamers = streamers;
@@ -136,17 +172,60 @@ public class StreamBucket implements Bucket, Streamable {
         }
     }
 
+    /**
+     * Writes the rows in the format the receiving node understands.
+     * If that's not the format of {@code bytes} the rows are decoded and written again.
+     */
+    private static void writeRows(StreamOutput out,
+                                  int size,
+                                  BytesReference bytes,
+                                  boolean columnEncoded,
+                                  @Nullable Streamer<?>[] streamers,
+                                  long savedBytes,
+                                  @Nullable StreamBucketStats stats) throws IOException {
+        out.writeVInt(size);
+        if (size < 1) {
+            return;
+        }
+        boolean encode = out.getVersion().onOrAfter(COLUMN_CODEC_VERSION);
+        if (encode != columnEncoded) {
+            assert streamers != null : "streamers are required to change the encoding of a bucket";
+            BytesStreamOutput transcoded = new BytesStreamOutput(bytes.length());
+            ColumnCodec[] codecs = encode ? ColumnCodec.forStreamers(streamers) : null;
+            savedBytes = 0;
+            RowIterator rows = new RowIterator(bytes.streamInput(), streamers, size, columnEncoded);
+            while (rows.hasNext()) {
+                Row row = rows.next();
+                for (int c = 0; c < streamers.length; c++) {
+                    if (encode) {
+                        savedBytes += codecs[c].write(transcoded, row.get(c));
+                    } else {
+                        streamers[c].writeValueTo(transcoded, row.get(c));
+                    }
+                }
+            }
+            bytes = transcoded.bytes();
+        }
+        out.writeBytesReference(bytes);
+        if (encode && stats != null) {
+            stats.add(bytes.length(), savedBytes);
+        }
+    }
+
     private static class RowIterator implements Iterator<Row> {
 
         private final Streamer<?>[] streamers;
+        @Nullable
+        private final ColumnCodec[] codecs;
         private final int size;
         private final StreamInput input;
         private final Object[] current;
         private final RowN row;
         private int pos = 0;
 
-        private RowIterator(StreamInput streamInput, Streamer<?>[] streamers, int size) {
+        private RowIterator(StreamInput streamInput, Streamer<?>[] streamers, int size, boolean columnEncoded) {
             this.streamers = streamers;
+            this.codecs = columnEncoded ? ColumnCodec.forStreamers(streamers) : null;
             this.size = size;
             input = streamInput;
             current = new Object[streamers.length];
@@ -162,7 +241,7 @@ public class StreamBucket implements Bucket, Streamable {
         public Row next() {
             for (int c = 0; c < streamers.length; c++) {
                 try {
-                    current[c] = streamers[c].readValueFrom(input);
+                    current[c] = codecs == null ? streamers[c].readValueFrom(input) : codecs[c].read(input);
                 } catch (IOException e) {
                     throw new RuntimeException(e);
                 }
@@ -183,7 +262,7 @@ public class StreamBucket implements Bucket, Streamable {
         }
         assert streamers != null : "streamers must not be null";
         try {
-            return new RowIterator(bytes.streamInput(), streamers, size);
+            return new RowIterator(bytes.streamInput(), streamers, size, columnEncoded);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -194,15 +273,13 @@ public class StreamBucket implements Bucket, Streamable {
         size = in.readVInt();
         if (size > 0) {
             bytes = in.readBytesReference();
+            columnEncoded = in.getVersion().onOrAfter(COLUMN_CODEC_VERSION);
         }
     }
 
     @Override
     public void writeTo(StreamOutput out) throws IOException {
         assert size > -1 : "size must be > -1";
-        out.writeVInt(size);
-        if (size > 0) {
-            out.writeBytesReference(bytes);
-        }
+        writeRows(out, size, bytes, columnEncoded, streamers, savedBytes, stats);
     }
 }
@@ -0,0 +1,56 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.executor.transport;
+
+import org.elasticsearch.common.inject.Singleton;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Node wide statistics about the rows encoded into {@link StreamBucket}s for inter-node transfers.
+ * The counters are updated once per bucket when it is written to a stream, not per row.
+ */
+@Singleton
+public class StreamBucketStats {
+
+    private final LongAdder encodedBytes = new LongAdder();
+    private final LongAdder savedBytes = new LongAdder();
+
+    void add(long encodedBytes, long savedBytes) {
+        this.encodedBytes.add(encodedBytes);
+        this.savedBytes.add(savedBytes);
+    }
+
+    /**
+     * The number of bytes of the buckets written to streams
+     */
+    public long encodedBytes() {
+        return encodedBytes.sum();
+    }
+
+    /**
+     * The number of bytes the column encodings saved compared to writing every value as it is
+     */
+    public long savedBytes() {
+        return savedBytes.sum();
+    }
+}
@@ -55,6 +55,7 @@ import io.crate.operation.NodeJobsCounter;
 import io.crate.operation.NodeOperationTree;
 import io.crate.operation.collect.sources.SystemCollectSource;
 import io.crate.operation.projectors.ProjectionToProjectorVisitor;
+import io.crate.operation.projectors.SpillDirectory;
 import io.crate.planner.Merge;
 import io.crate.planner.MultiPhasePlan;
 import io.crate.planner.NoopPlan;
@@ -128,7 +129,8 @@ public class TransportExecutor implements Executor {
                              IndicesService indicesService,
                              SystemCollectSource systemCollectSource,
                              DCLStatementDispatcher dclStatementDispatcher,
-                             TransportDropTableAction transportDropTableAction) {
+                             TransportDropTableAction transportDropTableAction,
+                             SpillDirectory spillDirectory) {
         this.jobContextService = jobContextService;
         this.contextPreparer = contextPreparer;
         this.transportActionProvider = transportActionProvider;
@@ -147,6 +149,7 @@ public class TransportExecutor implements Executor {
             functions,
             threadPool,
             settings,
+            spillDirectory,
             transportActionProvider,
             new InputFactory(functions),
             normalizer,
@@ -52,13 +52,15 @@ public class TransportFetchNodeAction implements NodeAction<NodeFetchRequest, No
                                     ThreadPool threadPool,
                                     JobsLogs jobsLogs,
                                     JobContextService jobContextService,
-                                    CrateCircuitBreakerService circuitBreakerService) {
+                                    CrateCircuitBreakerService circuitBreakerService,
+                                    StreamBucketStats streamBucketStats) {
         this.transports = transports;
         this.nodeFetchOperation = new NodeFetchOperation(
             threadPool.executor(ThreadPool.Names.SEARCH),
             jobsLogs,
             jobContextService,
-            circuitBreakerService.getBreaker(CrateCircuitBreakerService.QUERY)
+            circuitBreakerService.getBreaker(CrateCircuitBreakerService.QUERY),
+            streamBucketStats
         );
 
         transportService.registerRequestHandler(
@@ -57,14 +57,16 @@ import org.elasticsearch.cluster.metadata.IndexNameExpressionResolver;
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
-import org.elasticsearch.common.collect.Tuple;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.inject.Singleton;
 import org.elasticsearch.common.lucene.uid.Versions;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.xcontent.NamedXContentRegistry;
+import org.elasticsearch.common.xcontent.XContent;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.common.xcontent.XContentFactory;
 import org.elasticsearch.common.xcontent.XContentHelper;
+import org.elasticsearch.common.xcontent.XContentParser;
 import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.common.xcontent.support.XContentMapValues;
 import org.elasticsearch.index.VersionType;
@@ -379,19 +381,11 @@ public class TransportShardUpsertAction extends TransportShardAction<ShardUpsert
         // Currently the validation is done only for generated columns.
         processGeneratedColumns(tableInfo, pathsToUpdate, updatedGeneratedColumns, true, getResult);
 
-        Tuple<XContentType, Map<String, Object>> sourceAndContent =
-            XContentHelper.convertToMap(getResult.internalSourceRef(), false, XContentType.JSON);
-        final XContentType updateSourceContentType = sourceAndContent.v1();
-        final Map<String, Object> updatedSourceAsMap = sourceAndContent.v2();
-
-        updateSourceByPaths(updatedSourceAsMap, pathsToUpdate);
-
         try {
-            XContentBuilder builder = XContentFactory.contentBuilder(updateSourceContentType);
-            builder.map(updatedSourceAsMap);
-            return new SourceAndVersion(builder.bytes(), getResult.getVersion());
+            BytesReference updatedSource = updateSourceByPaths(getResult.internalSourceRef(), pathsToUpdate);
+            return new SourceAndVersion(updatedSource, getResult.getVersion());
         } catch (IOException e) {
-            throw new ElasticsearchGenerationException("Failed to generate [" + updatedSourceAsMap + "]", e);
+            throw new ElasticsearchGenerationException("Failed to generate the updated source of [" + item.id() + "]", e);
         }
     }
 
@@ -400,14 +394,8 @@ public class TransportShardUpsertAction extends TransportShardAction<ShardUpsert
                                          ShardUpsertRequest request,
                                          ShardUpsertRequest.Item item) throws IOException {
 
-        List<GeneratedReference> generatedReferencesWithValue = new ArrayList<>();
-        BytesReference source;
-        if (request.isRawSourceInsert()) {
-            assert item.insertValues().length > 0 : "empty insert values array";
-            source = new BytesArray((BytesRef) item.insertValues()[0]);
-        } else {
-            XContentBuilder builder = XContentFactory.jsonBuilder().startObject();
-
+        int numGeneratedReferencesWithValue = 0;
+        if (!request.isRawSourceInsert()) {
             // For direct inserts it is enough to have constraints validation on a handler.
             // validateConstraints() of ShardUpsertRequest should result in false in this case.
             if (request.validateConstraints()) {
@@ -415,22 +403,12 @@ public class TransportShardUpsertAction extends TransportShardAction<ShardUpsert
             }
 
             for (int i = 0; i < item.insertValues().length; i++) {
-                Object value = item.insertValues()[i];
                 Reference ref = request.insertColumns()[i];
-
-                ConstraintsValidator.validate(value, ref, tableInfo.notNullColumns());
-
-                if (ref.granularity() == RowGranularity.DOC) {
-                    // don't include values for partitions in the _source
-                    // ideally columns with partition granularity shouldn't be part of the request
-                    builder.field(ref.ident().columnIdent().fqn(), value);
-                    if (ref instanceof GeneratedReference) {
-                        generatedReferencesWithValue.add((GeneratedReference) ref);
-                    }
+                ConstraintsValidator.validate(item.insertValues()[i], ref, tableInfo.notNullColumns());
+                if (ref.granularity() == RowGranularity.DOC && ref instanceof GeneratedReference) {
+                    numGeneratedReferencesWithValue++;
                 }
             }
-            builder.endObject();
-            source = builder.bytes();
         }
 
         int generatedColumnSize = 0;
@@ -440,16 +418,29 @@ public class TransportShardUpsertAction extends TransportShardAction<ShardUpsert
             }
         }
 
-        int numMissingGeneratedColumns = generatedColumnSize - generatedReferencesWithValue.size();
+        int numMissingGeneratedColumns = generatedColumnSize - numGeneratedReferencesWithValue;
         if (numMissingGeneratedColumns > 0 ||
-            (generatedReferencesWithValue.size() > 0 && request.validateConstraints())) {
-            // we need to evaluate some generated column expressions
+            (numGeneratedReferencesWithValue > 0 && request.validateConstraints())) {
+            // we need to evaluate some generated column expressions, the source is built from the map of values
             Map<String, Object> sourceMap = processGeneratedColumnsOnInsert(tableInfo, request.insertColumns(),
                 item.insertValues(), request.isRawSourceInsert(), request.validateConstraints());
-            source = XContentFactory.jsonBuilder().map(sourceMap).bytes();
+            return XContentFactory.jsonBuilder().map(sourceMap).bytes();
         }
 
-        return source;
+        if (request.isRawSourceInsert()) {
+            assert item.insertValues().length > 0 : "empty insert values array";
+            return new BytesArray((BytesRef) item.insertValues()[0]);
+        }
+        XContentBuilder builder = XContentFactory.jsonBuilder().startObject();
+        for (int i = 0; i < item.insertValues().length; i++) {
+            Reference ref = request.insertColumns()[i];
+            if (ref.granularity() == RowGranularity.DOC) {
+                // don't include values for partitions in the _source
+                // ideally columns with partition granularity shouldn't be part of the request
+                builder.field(ref.ident().columnIdent().fqn(), item.insertValues()[i]);
+            }
+        }
+        return builder.endObject().bytes();
     }
 
     private Engine.Index prepareIndexOnPrimary(IndexShard indexShard,
@@ -662,6 +653,76 @@ public class TransportShardUpsertAction extends TransportShardAction<ShardUpsert
         }
     }
 
+    /**
+     * Overwrite given values on the source like {@link #updateSourceByPaths(Map, Map)}, but without converting
+     * the whole source into a map.
+     * <p/>
+     * The source is copied token by token, only the top level columns which are changed are replaced.
+     * The current value of a top level column is only read into a map if a nested path of the column is changed.
+     */
+    static BytesReference updateSourceByPaths(@Nonnull BytesReference source,
+                                              @Nonnull Map<String, Object> changes) throws IOException {
+        // changes grouped by top level column, in the order of the changes
+        Map<String, Map<String, Object>> changesByColumn = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> change : changes.entrySet()) {
+            String path = change.getKey();
+            int dotIndex = path.indexOf('.');
+            String column = dotIndex > -1 ? path.substring(0, dotIndex) : path;
+            changesByColumn.computeIfAbsent(column, k -> new LinkedHashMap<>()).put(path, change.getValue());
+        }
+
+        XContent xContent = XContentFactory.xContent(source);
+        XContentBuilder builder = XContentFactory.contentBuilder(xContent.type());
+        try (XContentParser parser = xContent.createParser(NamedXContentRegistry.EMPTY, source)) {
+            if (parser.nextToken() != XContentParser.Token.START_OBJECT) {
+                throw new IllegalArgumentException("The source of a document must be an object");
+            }
+            builder.startObject();
+            XContentParser.Token token;
+            while ((token = parser.nextToken()) == XContentParser.Token.FIELD_NAME) {
+                String column = parser.currentName();
+                token = parser.nextToken();
+                Map<String, Object> columnChanges = changesByColumn.remove(column);
+                if (columnChanges == null) {
+                    builder.field(column);
+                    builder.copyCurrentStructure(parser);
+                } else if (columnChanges.size() == 1 && columnChanges.containsKey(column)) {
+                    parser.skipChildren();
+                    builder.field(column, columnChanges.get(column));
+                } else {
+                    Map<String, Object> columnSource = new HashMap<>(1);
+                    columnSource.put(column, readValue(parser, token));
+                    updateSourceByPaths(columnSource, columnChanges);
+                    builder.field(column, columnSource.get(column));
+                }
+            }
+            assert token == XContentParser.Token.END_OBJECT : "source object must end with END_OBJECT";
+        }
+        for (Map<String, Object> columnChanges : changesByColumn.values()) {
+            // new columns
+            Map<String, Object> columnSource = new HashMap<>(1);
+            updateSourceByPaths(columnSource, columnChanges);
+            for (Map.Entry<String, Object> entry : columnSource.entrySet()) {
+                builder.field(entry.getKey(), entry.getValue());
+            }
+        }
+        return builder.endObject().bytes();
+    }
+
+    @Nullable
+    private static Object readValue(XContentParser parser, XContentParser.Token token) throws IOException {
+        switch (token) {
+            case START_OBJECT:
+                return parser.map();
+            case START_ARRAY:
+                return parser.list();
+            case VALUE_NULL:
+                return null;
+            default:
+                return parser.objectText();
+        }
+    }
+
     public static Collection<ColumnIdent> getNotUsedNonGeneratedColumns(Reference[] targetColumns,
                                                                         DocTableInfo tableInfo) {
         Set<String> targetColumnsSet = new HashSet<>();
@@ -25,7 +25,9 @@ import io.crate.Streamer;
 import io.crate.data.Bucket;
 import io.crate.data.Row;
 import io.crate.executor.transport.StreamBucket;
+import io.crate.executor.transport.StreamBucketStats;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
 
 /**
@@ -38,9 +40,9 @@ public class BroadcastingBucketBuilder implements MultiBucketBuilder {
     private final StreamBucket.Builder bucketBuilder;
     private volatile int size = 0;
 
-    public BroadcastingBucketBuilder(Streamer<?>[] streamers, int numBuckets) {
+    public BroadcastingBucketBuilder(Streamer<?>[] streamers, int numBuckets, @Nullable StreamBucketStats stats) {
         this.numBuckets = numBuckets;
-        this.bucketBuilder = new StreamBucket.Builder(streamers, null);
+        this.bucketBuilder = new StreamBucket.Builder(streamers, null, stats);
     }
 
     @Override
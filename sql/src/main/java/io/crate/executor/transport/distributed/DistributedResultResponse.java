@@ -21,6 +21,7 @@
 
 package io.crate.executor.transport.distributed;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.transport.TransportResponse;
@@ -29,7 +30,13 @@ import java.io.IOException;
 
 public class DistributedResultResponse extends TransportResponse {
 
+    /**
+     * Nodes before this version don't know about the credit, they neither send nor expect it
+     */
+    private static final Version BYTES_CREDIT_VERSION = Version.V_5_6_2_UNRELEASED;
+
     private boolean needMore = false;
+    private long bytesCredit = -1L;
 
     public DistributedResultResponse() {
     }
@@ -38,19 +45,37 @@ public class DistributedResultResponse extends TransportResponse {
         this.needMore = needMore;
     }
 
+    public DistributedResultResponse(boolean needMore, long bytesCredit) {
+        this.needMore = needMore;
+        this.bytesCredit = bytesCredit;
+    }
+
     public boolean needMore() {
         return needMore;
     }
 
+    /**
+     * The number of bytes the receiver can accept with the next page, -1 if there is no limit.
+     */
+    public long bytesCredit() {
+        return bytesCredit;
+    }
+
     @Override
     public void readFrom(StreamInput in) throws IOException {
         super.readFrom(in);
         needMore = in.readBoolean();
+        if (in.getVersion().onOrAfter(BYTES_CREDIT_VERSION)) {
+            bytesCredit = in.readLong();
+        }
     }
 
     @Override
     public void writeTo(StreamOutput out) throws IOException {
         super.writeTo(out);
         out.writeBoolean(needMore);
+        if (out.getVersion().onOrAfter(BYTES_CREDIT_VERSION)) {
+            out.writeLong(bytesCredit);
+        }
     }
 }
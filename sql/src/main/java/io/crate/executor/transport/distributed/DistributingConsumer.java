@@ -30,6 +30,7 @@ import io.crate.data.Bucket;
 import io.crate.data.Row;
 import io.crate.data.RowBridging;
 import io.crate.exceptions.SQLExceptions;
+import io.crate.executor.transport.StreamBucket;
 import org.apache.logging.log4j.Logger;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
@@ -43,13 +44,16 @@ import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
- * Consumer which sends requests to downstream nodes every {@link #pageSize} rows.
+ * Consumer which sends requests to downstream nodes every {@link PageSizeController#pageSize()} rows.
  *
  * The rows from the source {@link BatchIterator} are "bucketed" using a {@link MultiBucketBuilder}. So a downstream
  * can either receive a part of the data or all data.
  *
  * Every time requests to the downstreams are made consumption of the source BatchIterator is stopped until a response
  * from all downstreams is received.
+ *
+ * The page size starts at the configured page size and is adapted after each page based on the latency of the
+ * round trip, the observed row width and the credit the downstreams granted, see {@link PageSizeController}.
  */
 public class DistributingConsumer implements BatchConsumer {
 
@@ -61,7 +65,7 @@ public class DistributingConsumer implements BatchConsumer {
     private final int bucketIdx;
     private final TransportDistributedResultAction distributedResultAction;
     private final Streamer<?>[] streamers;
-    private final int pageSize;
+    private final PageSizeController pageSizeController;
     private final Bucket[] buckets;
     private final List<Downstream> downstreams;
     private final boolean traceEnabled;
@@ -70,6 +74,7 @@ public class DistributingConsumer implements BatchConsumer {
     final MultiBucketBuilder multiBucketBuilder;
 
     private volatile Throwable failure;
+    private volatile long pageStartedNanos;
 
     public DistributingConsumer(Logger logger,
                                 Executor responseExecutor,
@@ -92,7 +97,7 @@ public class DistributingConsumer implements BatchConsumer {
         this.bucketIdx = bucketIdx;
         this.distributedResultAction = distributedResultAction;
         this.streamers = streamers;
-        this.pageSize = pageSize;
+        this.pageSizeController = new PageSizeController(pageSize);
         this.buckets = new Bucket[downstreamNodeIds.size()];
         downstreams = new ArrayList<>(downstreamNodeIds.size());
         for (String downstreamNodeId : downstreamNodeIds) {
@@ -103,6 +108,7 @@ public class DistributingConsumer implements BatchConsumer {
     @Override
     public void accept(BatchIterator iterator, @Nullable Throwable failure) {
         if (failure == null) {
+            pageStartedNanos = System.nanoTime();
             consumeIt(iterator);
         } else {
             forwardFailure(null, failure);
@@ -111,6 +117,7 @@ public class DistributingConsumer implements BatchConsumer {
 
     private void consumeIt(BatchIterator it) {
         Row row = RowBridging.toRow(it.rowData());
+        int pageSize = pageSizeController.pageSize();
         boolean allLoaded;
         try {
             while (it.moveNext()) {
@@ -181,13 +188,22 @@ public class DistributingConsumer implements BatchConsumer {
     }
 
     private void forwardResults(BatchIterator it, boolean isLast) {
+        int numRows = multiBucketBuilder.size();
         multiBucketBuilder.build(buckets);
+        long maxBucketBytes = maxBucketBytes(buckets);
+        long sentNanos = System.nanoTime();
+        Runnable onAllResponses = () -> {
+            long now = System.nanoTime();
+            pageSizeController.pageSent(
+                numRows, maxBucketBytes, sentNanos - pageStartedNanos, now - sentNanos, minBytesCredit());
+            pageStartedNanos = now;
+        };
 
         AtomicInteger numActiveRequests = new AtomicInteger(downstreams.size());
         for (int i = 0; i < downstreams.size(); i++) {
             Downstream downstream = downstreams.get(i);
             if (downstream.needsMoreData == false) {
-                countdownAndMaybeContinue(it, numActiveRequests, true);
+                countdownAndMaybeContinue(it, numActiveRequests, true, onAllResponses);
                 continue;
             }
             if (traceEnabled) {
@@ -201,7 +217,8 @@ public class DistributingConsumer implements BatchConsumer {
                     @Override
                     public void onResponse(DistributedResultResponse response) {
                         downstream.needsMoreData = response.needMore();
-                        countdownAndMaybeContinue(it, numActiveRequests, false);
+                        downstream.bytesCredit = response.bytesCredit();
+                        countdownAndMaybeContinue(it, numActiveRequests, false, onAllResponses);
                     }
 
                     @Override
@@ -209,17 +226,41 @@ public class DistributingConsumer implements BatchConsumer {
                         failure = e;
                         downstream.needsMoreData = false;
                         // continue because it's necessary to send something to downstreams still waiting for data
-                        countdownAndMaybeContinue(it, numActiveRequests, false);
+                        countdownAndMaybeContinue(it, numActiveRequests, false, onAllResponses);
                     }
                 }
             );
         }
     }
 
-    private void countdownAndMaybeContinue(BatchIterator it, AtomicInteger numActiveRequests, boolean sameExecutor) {
+    private static long maxBucketBytes(Bucket[] buckets) {
+        long maxBytes = 0L;
+        for (Bucket bucket : buckets) {
+            if (bucket instanceof StreamBucket) {
+                maxBytes = Math.max(maxBytes, ((StreamBucket) bucket).sizeInBytes());
+            }
+        }
+        return maxBytes;
+    }
+
+    private long minBytesCredit() {
+        long minCredit = -1L;
+        for (Downstream downstream : downstreams) {
+            if (downstream.needsMoreData && downstream.bytesCredit >= 0) {
+                minCredit = minCredit < 0 ? downstream.bytesCredit : Math.min(minCredit, downstream.bytesCredit);
+            }
+        }
+        return minCredit;
+    }
+
+    private void countdownAndMaybeContinue(BatchIterator it,
+                                           AtomicInteger numActiveRequests,
+                                           boolean sameExecutor,
+                                           Runnable onAllResponses) {
         if (numActiveRequests.decrementAndGet() == 0) {
             if (downstreams.stream().anyMatch(Downstream::needsMoreData)) {
                 if (failure == null) {
+                    onAllResponses.run();
                     if (sameExecutor) {
                         consumeIt(it);
                     } else {
@@ -244,6 +285,7 @@ public class DistributingConsumer implements BatchConsumer {
 
         private final String nodeId;
         private boolean needsMoreData = true;
+        private long bytesCredit = -1L;
 
         Downstream(String nodeId) {
             this.nodeId = nodeId;
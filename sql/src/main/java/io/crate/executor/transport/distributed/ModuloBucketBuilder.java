@@ -25,6 +25,7 @@ import io.crate.Streamer;
 import io.crate.data.Bucket;
 import io.crate.data.Row;
 import io.crate.executor.transport.StreamBucket;
+import io.crate.executor.transport.StreamBucketStats;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.StringHelper;
 
@@ -44,12 +45,15 @@ public class ModuloBucketBuilder implements MultiBucketBuilder {
     private final int distributedByColumnIdx;
     private volatile int size = 0;
 
-    public ModuloBucketBuilder(Streamer<?>[] streamers, int numBuckets, int distributedByColumnIdx) {
+    public ModuloBucketBuilder(Streamer<?>[] streamers,
+                               int numBuckets,
+                               int distributedByColumnIdx,
+                               @Nullable StreamBucketStats stats) {
         this.numBuckets = numBuckets;
         this.distributedByColumnIdx = distributedByColumnIdx;
         this.bucketBuilders = new ArrayList<>(numBuckets);
         for (int i = 0; i < numBuckets; i++) {
-            bucketBuilders.add(new StreamBucket.Builder(streamers, null));
+            bucketBuilders.add(new StreamBucket.Builder(streamers, null, stats));
         }
     }
 
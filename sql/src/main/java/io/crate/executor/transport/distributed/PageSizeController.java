@@ -0,0 +1,92 @@
+/*
+ * Licensed to Crate.IO GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.executor.transport.distributed;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides how many rows the {@link DistributingConsumer} collects before it sends a page to its downstreams.
+ *
+ * Each page is a round trip during which the upstream waits for all downstreams:
+ * <ul>
+ *     <li>If the round trip takes longer than producing the page, the page size is doubled (up to
+ *     {@link #MAX_GROWTH_FACTOR} times the configured page size) so that fewer round trips are needed.
+ *     Round trips shorter than {@link #MIN_ROUND_TRIP_NANOS} are too cheap to be worth it.</li>
+ *     <li>If producing the page dominates, the page size shrinks back towards the configured page size.</li>
+ *     <li>The page size is capped by the credit the downstreams granted, which is the number of bytes they can
+ *     accept without tripping their circuit breaker, converted to rows using the row width observed so far.</li>
+ * </ul>
+ */
+class PageSizeController {
+
+    static final int MAX_GROWTH_FACTOR = 8;
+    static final int MIN_PAGE_SIZE = 16;
+    static final long MIN_ROUND_TRIP_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final int configuredPageSize;
+    private final int maxPageSize;
+    private final int minPageSize;
+
+    private int latencyPageSize;
+    private int pageSize;
+    private double bytesPerRow = -1.0;
+
+    PageSizeController(int configuredPageSize) {
+        this.configuredPageSize = configuredPageSize;
+        this.maxPageSize = (int) Math.min(Integer.MAX_VALUE, (long) configuredPageSize * MAX_GROWTH_FACTOR);
+        this.minPageSize = Math.min(configuredPageSize, MIN_PAGE_SIZE);
+        this.latencyPageSize = configuredPageSize;
+        this.pageSize = configuredPageSize;
+    }
+
+    int pageSize() {
+        return pageSize;
+    }
+
+    /**
+     * @param numRows number of rows of the page which has been sent
+     * @param maxBucketBytes size in bytes of the largest bucket of the page
+     * @param produceNanos time it took to produce the page
+     * @param roundTripNanos time between sending the page and receiving the responses of all downstreams
+     * @param bytesCredit the smallest credit granted by the downstreams, -1 if there is no limit
+     */
+    void pageSent(int numRows, long maxBucketBytes, long produceNanos, long roundTripNanos, long bytesCredit) {
+        if (numRows > 0 && maxBucketBytes > 0) {
+            double observed = (double) maxBucketBytes / numRows;
+            bytesPerRow = bytesPerRow < 0 ? observed : bytesPerRow * 0.7 + observed * 0.3;
+        }
+        // a page which wasn't filled (e.g. the last one) doesn't tell anything about the latency
+        if (numRows >= pageSize) {
+            if (roundTripNanos > produceNanos && roundTripNanos >= MIN_ROUND_TRIP_NANOS) {
+                latencyPageSize = (int) Math.min(maxPageSize, (long) latencyPageSize * 2);
+            } else if (roundTripNanos * 4 < produceNanos) {
+                latencyPageSize = Math.max(configuredPageSize, latencyPageSize / 2);
+            }
+        }
+        if (bytesCredit >= 0 && bytesPerRow > 0) {
+            long creditRows = (long) (bytesCredit / bytesPerRow);
+            pageSize = (int) Math.max(minPageSize, Math.min(latencyPageSize, creditRows));
+        } else {
+            pageSize = latencyPageSize;
+        }
+    }
+}
@@ -112,7 +112,7 @@ public class TransportDistributedResultAction extends AbstractComponent implemen
         Throwable throwable = request.throwable();
         if (throwable == null) {
             request.streamers(pageBucketReceiver.streamers());
-            SendResponsePageResultListener pageResultListener = new SendResponsePageResultListener();
+            SendResponsePageResultListener pageResultListener = new SendResponsePageResultListener(pageBucketReceiver);
             try {
                 executor.execute(() -> pageBucketReceiver.setBucket(
                     request.bucketIdx(),
@@ -154,11 +154,18 @@ public class TransportDistributedResultAction extends AbstractComponent implemen
 
     private class SendResponsePageResultListener implements PageResultListener {
         private final CompletableFuture<DistributedResultResponse> future = new CompletableFuture<>();
+        private final PageBucketReceiver pageBucketReceiver;
+
+        SendResponsePageResultListener(PageBucketReceiver pageBucketReceiver) {
+            this.pageBucketReceiver = pageBucketReceiver;
+        }
 
         @Override
         public void needMore(boolean needMore) {
             logger.trace("sending needMore response, need more? {}", needMore);
-            future.complete(new DistributedResultResponse(needMore));
+            // the credit is taken once the page was consumed so that it reflects the memory currently available
+            long bytesCredit = needMore ? pageBucketReceiver.bytesCredit() : -1L;
+            future.complete(new DistributedResultResponse(needMore, bytesCredit));
         }
     }
 
@@ -336,6 +336,10 @@ public class ESGetTask extends JobTask {
         }
     }
 
+    /**
+     * Restricts the source of the get responses to the columns which are read from it.
+     * The source isn't fetched at all if no column is read from it, see {@link GetResponseRefResolver}.
+     */
     private static FetchSourceContext getFetchSourceContext(List<ColumnIdent> columns) {
         List<String> includes = new ArrayList<>(columns.size());
         for (ColumnIdent col : columns) {
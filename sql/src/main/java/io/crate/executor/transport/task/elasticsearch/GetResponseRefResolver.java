@@ -40,6 +40,9 @@ import java.util.function.Consumer;
 /**
  * ReferenceResolver implementation which can be used to retrieve {@link CollectExpression}s to extract values from
  * {@link GetResponse}s
+ *
+ * Only columns which have to be read from the source are passed to the {@code columnConsumer},
+ * system columns and primary key columns are resolved from the response metadata and the lookup keys.
  */
 public class GetResponseRefResolver implements ReferenceResolver<CollectExpression<GetResponse, ?>> {
 
@@ -58,7 +61,6 @@ public class GetResponseRefResolver implements ReferenceResolver<CollectExpressi
     @Override
     public CollectExpression<GetResponse, ?> getImplementation(Reference ref) {
         ColumnIdent columnIdent = ref.ident().columnIdent();
-        columnConsumer.accept(columnIdent);
         String fqn = columnIdent.fqn();
         switch (fqn) {
             case DocSysColumns.Names.VERSION:
@@ -68,20 +70,22 @@ public class GetResponseRefResolver implements ReferenceResolver<CollectExpressi
                 return RowContextCollectorExpression.objToBytesRef(GetResponse::getId);
 
             case DocSysColumns.Names.RAW:
+                columnConsumer.accept(columnIdent);
                 return RowContextCollectorExpression.forFunction(r -> r.getSourceAsBytesRef().toBytesRef());
 
             case DocSysColumns.Names.DOC:
+                columnConsumer.accept(columnIdent);
                 return RowContextCollectorExpression.forFunction(GetResponse::getSource);
 
             default:
-                if (docTableInfo.isPartitioned() && docTableInfo.partitionedBy().contains(columnIdent)) {
-                    int pkPos = docTableInfo.primaryKey().indexOf(columnIdent);
-                    if (pkPos >= 0) {
-                        return RowContextCollectorExpression.forFunction(
-                            response -> ValueSymbolVisitor.VALUE.process(ids2Keys.get(response.getId()).values().get(pkPos)));
-                    }
+                int pkPos = docTableInfo.primaryKey().indexOf(columnIdent);
+                if (pkPos >= 0) {
+                    // the values of the primary key are part of the lookup key, no need to load them from the source
+                    return RowContextCollectorExpression.forFunction(response -> ref.valueType().value(
+                        ValueSymbolVisitor.VALUE.process(ids2Keys.get(response.getId()).values().get(pkPos))));
                 }
 
+                columnConsumer.accept(columnIdent);
                 return RowContextCollectorExpression.forFunction(response -> {
                     Map<String, Object> sourceAsMap = response.getSourceAsMap();
                     return ref.valueType().value(XContentMapValues.extractValue(fqn, sourceAsMap));
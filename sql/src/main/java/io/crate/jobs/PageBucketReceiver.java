@@ -63,4 +63,12 @@ public interface PageBucketReceiver {
     void killed(int bucketIdx, Throwable throwable);
 
     Streamer<?>[] streamers();
+
+    /**
+     * The number of bytes an upstream may send with its next bucket, or -1 if there is no limit.
+     * Upstreams use this to adapt their page size.
+     */
+    default long bytesCredit() {
+        return -1L;
+    }
 }
@@ -282,6 +282,18 @@ public class PageDownstreamContext extends AbstractExecutionSubContext implement
         return streamers;
     }
 
+    /**
+     * The memory left until the circuit breaker trips, shared between all upstreams
+     */
+    @Override
+    public long bytesCredit() {
+        long remainingBytes = ramAccountingContext.remainingBytes();
+        if (remainingBytes < 0 || numBuckets <= 1) {
+            return remainingBytes;
+        }
+        return remainingBytes / numBuckets;
+    }
+
     @Override
     protected void innerClose(@Nullable Throwable throwable) {
     }
@@ -142,6 +142,7 @@ public class DocTableInfo implements TableInfo, ShardedTable, StoredTable {
     private final Set<Operation> supportedOperations;
 
     private final List<PartitionName> partitions;
+    private volatile PartitionIndex partitionIndex;
 
     private final boolean isAlias;
     private final boolean hasAutoGeneratedPrimaryKey;
@@ -380,6 +381,19 @@ public class DocTableInfo implements TableInfo, ShardedTable, StoredTable {
         return partitions;
     }
 
+    /**
+     * The index of the values of {@link #partitions()}.
+     * It is built on first use; the table info is re-created if the partitions change.
+     */
+    public PartitionIndex partitionIndex() {
+        PartitionIndex index = partitionIndex;
+        if (index == null) {
+            index = new PartitionIndex(partitionedByColumns, partitions);
+            partitionIndex = index;
+        }
+        return index;
+    }
+
     /**
      * returns <code>true</code> if this table is a partitioned table,
      * <code>false</code> otherwise
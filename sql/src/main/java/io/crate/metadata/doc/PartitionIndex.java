@@ -0,0 +1,153 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.metadata.doc;
+
+import io.crate.metadata.PartitionName;
+import io.crate.metadata.Reference;
+import io.crate.types.DataType;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * The values of the partition columns of a table, sorted per column.
+ *
+ * Used to find the partitions which can match a comparison on a partition column with a binary search,
+ * instead of evaluating the comparison for every partition.
+ * Partitions are identified by their position in {@link DocTableInfo#partitions()}.
+ * Partitions with a null value are part of every result because comparisons with null don't resolve to false.
+ */
+public class PartitionIndex {
+
+    private final List<PartitionName> partitions;
+    private final ColumnIndex[] columns;
+
+    PartitionIndex(List<Reference> partitionColumns, List<PartitionName> partitions) {
+        this.partitions = partitions;
+        columns = new ColumnIndex[partitionColumns.size()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = new ColumnIndex(partitionColumns.get(i).valueType(), i, partitions);
+        }
+    }
+
+    public int numPartitions() {
+        return partitions.size();
+    }
+
+    public PartitionName partition(int idx) {
+        return partitions.get(idx);
+    }
+
+    public BitSet all() {
+        BitSet result = new BitSet(partitions.size());
+        result.set(0, partitions.size());
+        return result;
+    }
+
+    /**
+     * Returns the partitions where the value of the column at {@code columnIdx} is within the given bounds.
+     * A null bound is unbounded.
+     */
+    public BitSet range(int columnIdx,
+                        @Nullable Object lower,
+                        boolean includeLower,
+                        @Nullable Object upper,
+                        boolean includeUpper) {
+        return columns[columnIdx].range(lower, includeLower, upper, includeUpper);
+    }
+
+    public BitSet equalTo(int columnIdx, Object value) {
+        return range(columnIdx, value, true, value, true);
+    }
+
+    private static class ColumnIndex {
+
+        private final DataType type;
+        private final Object[] values;
+        private final int[] partitionIdx;
+        private final BitSet nullValues;
+
+        @SuppressWarnings("unchecked")
+        ColumnIndex(DataType type, int columnIdx, List<PartitionName> partitions) {
+            this.type = type;
+            nullValues = new BitSet(partitions.size());
+            Integer[] sortedIdx = new Integer[partitions.size()];
+            Object[] partitionValues = new Object[partitions.size()];
+            int numValues = 0;
+            for (int i = 0; i < partitions.size(); i++) {
+                Object value;
+                try {
+                    value = type.value(partitions.get(i).values().get(columnIdx));
+                } catch (IllegalArgumentException | ClassCastException e) {
+                    value = null;
+                }
+                if (value == null) {
+                    nullValues.set(i);
+                } else {
+                    partitionValues[i] = value;
+                    sortedIdx[numValues] = i;
+                    numValues++;
+                }
+            }
+            Arrays.sort(sortedIdx, 0, numValues,
+                (i1, i2) -> type.compareValueTo(partitionValues[i1], partitionValues[i2]));
+            values = new Object[numValues];
+            partitionIdx = new int[numValues];
+            for (int i = 0; i < numValues; i++) {
+                partitionIdx[i] = sortedIdx[i];
+                values[i] = partitionValues[sortedIdx[i]];
+            }
+        }
+
+        BitSet range(@Nullable Object lower, boolean includeLower, @Nullable Object upper, boolean includeUpper) {
+            int from = lower == null ? 0 : firstIndexAfter(type.value(lower), !includeLower);
+            int to = upper == null ? values.length : firstIndexAfter(type.value(upper), includeUpper);
+            BitSet result = (BitSet) nullValues.clone();
+            for (int i = from; i < to; i++) {
+                result.set(partitionIdx[i]);
+            }
+            return result;
+        }
+
+        /**
+         * Returns the index of the first value which is greater than the given value,
+         * or greater than or equal to it if {@code skipEqual} is false.
+         */
+        @SuppressWarnings("unchecked")
+        private int firstIndexAfter(Object value, boolean skipEqual) {
+            int low = 0;
+            int high = values.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                int cmp = type.compareValueTo(values[mid], value);
+                if (cmp < 0 || (cmp == 0 && skipEqual)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -33,6 +33,7 @@ public class SessionSettingRegistry {
 
     public static final String SEARCH_PATH_KEY = "search_path";
     public static final String SEMI_JOIN_KEY = "semi_joins";
+    public static final String APPROX_COUNT_DISTINCT_KEY = "approx_count_distinct";
 
     private static final Map<String, SessionSettingApplier> SESSION_SETTINGS =
         ImmutableMap.<String, SessionSettingApplier>builder()
@@ -57,6 +58,15 @@ public class SessionSettingRegistry {
                     throw new IllegalArgumentException(SEMI_JOIN_KEY + " should have only one argument.");
                 }
             })
+            .put(APPROX_COUNT_DISTINCT_KEY, (parameters, expressions, context) -> {
+                if (expressions.size() == 1) {
+                    Object value = ExpressionToObjectVisitor.convert(expressions.get(0), parameters);
+                    boolean booleanValue = BooleanType.INSTANCE.value(value);
+                    context.setApproxCountDistinctEnabled(booleanValue);
+                } else {
+                    throw new IllegalArgumentException(APPROX_COUNT_DISTINCT_KEY + " should have only one argument.");
+                }
+            })
             .build();
 
 
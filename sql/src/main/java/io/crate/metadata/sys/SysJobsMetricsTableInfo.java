@@ -0,0 +1,122 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.metadata.sys;
+
+import com.google.common.collect.ImmutableMap;
+import io.crate.action.sql.SessionContext;
+import io.crate.analyze.WhereClause;
+import io.crate.metadata.ColumnIdent;
+import io.crate.metadata.Reference;
+import io.crate.metadata.Routing;
+import io.crate.metadata.RowContextCollectorExpression;
+import io.crate.metadata.RowGranularity;
+import io.crate.metadata.TableIdent;
+import io.crate.metadata.expressions.RowCollectExpressionFactory;
+import io.crate.metadata.table.ColumnRegistrar;
+import io.crate.metadata.table.StaticTableInfo;
+import io.crate.operation.collect.stats.QueryMetrics.StatementMetrics;
+import io.crate.types.DataTypes;
+import org.elasticsearch.cluster.service.ClusterService;
+
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.Map;
+
+public class SysJobsMetricsTableInfo extends StaticTableInfo {
+
+    public static final TableIdent IDENT = new TableIdent(SysSchemaInfo.NAME, "jobs_metrics");
+    private final ClusterService clusterService;
+
+    public static class Columns {
+        static final ColumnIdent STATEMENT_TYPE = new ColumnIdent("statement_type");
+        static final ColumnIdent TOTAL_COUNT = new ColumnIdent("total_count");
+        static final ColumnIdent FAILED_COUNT = new ColumnIdent("failed_count");
+        static final ColumnIdent SUM_OF_DURATIONS = new ColumnIdent("sum_of_durations");
+        static final ColumnIdent MEAN = new ColumnIdent("mean");
+        static final ColumnIdent MAX = new ColumnIdent("max");
+        static final ColumnIdent P50 = new ColumnIdent("p50");
+        static final ColumnIdent P95 = new ColumnIdent("p95");
+        static final ColumnIdent P99 = new ColumnIdent("p99");
+    }
+
+    public static Map<ColumnIdent, RowCollectExpressionFactory<StatementMetrics.Snapshot>> expressions() {
+        return ImmutableMap.<ColumnIdent, RowCollectExpressionFactory<StatementMetrics.Snapshot>>builder()
+            .put(Columns.STATEMENT_TYPE,
+                () -> RowContextCollectorExpression.objToBytesRef(s -> s.type().label()))
+            .put(Columns.TOTAL_COUNT,
+                () -> RowContextCollectorExpression.forFunction(StatementMetrics.Snapshot::totalCount))
+            .put(Columns.FAILED_COUNT,
+                () -> RowContextCollectorExpression.forFunction(StatementMetrics.Snapshot::failedCount))
+            .put(Columns.SUM_OF_DURATIONS,
+                () -> RowContextCollectorExpression.forFunction(StatementMetrics.Snapshot::sumOfDurations))
+            .put(Columns.MEAN,
+                () -> RowContextCollectorExpression.forFunction(StatementMetrics.Snapshot::meanDuration))
+            .put(Columns.MAX,
+                () -> RowContextCollectorExpression.forFunction(StatementMetrics.Snapshot::maxDuration))
+            .put(Columns.P50,
+                () -> RowContextCollectorExpression.forFunction(s -> s.percentile(50.0)))
+            .put(Columns.P95,
+                () -> RowContextCollectorExpression.forFunction(s -> s.percentile(95.0)))
+            .put(Columns.P99,
+                () -> RowContextCollectorExpression.forFunction(s -> s.percentile(99.0)))
+            .build();
+    }
+
+    private final TableColumn nodesTableColumn;
+
+    SysJobsMetricsTableInfo(ClusterService clusterService, SysNodesTableInfo sysNodesTableInfo) {
+        super(IDENT, new ColumnRegistrar(IDENT, RowGranularity.DOC)
+                .register(Columns.STATEMENT_TYPE, DataTypes.STRING)
+                .register(Columns.TOTAL_COUNT, DataTypes.LONG)
+                .register(Columns.FAILED_COUNT, DataTypes.LONG)
+                .register(Columns.SUM_OF_DURATIONS, DataTypes.LONG)
+                .register(Columns.MEAN, DataTypes.DOUBLE)
+                .register(Columns.MAX, DataTypes.LONG)
+                .register(Columns.P50, DataTypes.LONG)
+                .register(Columns.P95, DataTypes.LONG)
+                .register(Columns.P99, DataTypes.LONG)
+                .putInfoOnly(SysNodesTableInfo.SYS_COL_IDENT, SysNodesTableInfo.tableColumnInfo(IDENT)),
+            Collections.<ColumnIdent>emptyList());
+        this.clusterService = clusterService;
+        nodesTableColumn = sysNodesTableInfo.tableColumn();
+    }
+
+    @Nullable
+    @Override
+    public Reference getReference(ColumnIdent columnIdent) {
+        Reference info = super.getReference(columnIdent);
+        if (info == null) {
+            return nodesTableColumn.getReference(this.ident(), columnIdent);
+        }
+        return info;
+    }
+
+    @Override
+    public RowGranularity rowGranularity() {
+        return RowGranularity.DOC;
+    }
+
+    @Override
+    public Routing getRouting(WhereClause whereClause, @Nullable String preference, SessionContext sessionContext) {
+        return Routing.forTableOnAllNodes(IDENT, clusterService.state().nodes());
+    }
+}
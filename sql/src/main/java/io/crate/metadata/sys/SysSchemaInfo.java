@@ -50,6 +50,7 @@ public class SysSchemaInfo implements SchemaInfo {
         tableInfos.put(SysShardsTableInfo.IDENT.name(), new SysShardsTableInfo(clusterService, sysNodesTableInfo));
         tableInfos.put(SysJobsTableInfo.IDENT.name(), new SysJobsTableInfo(clusterService));
         tableInfos.put(SysJobsLogTableInfo.IDENT.name(), new SysJobsLogTableInfo(clusterService));
+        tableInfos.put(SysJobsMetricsTableInfo.IDENT.name(), new SysJobsMetricsTableInfo(clusterService, sysNodesTableInfo));
         tableInfos.put(SysOperationsTableInfo.IDENT.name(), new SysOperationsTableInfo(clusterService, sysNodesTableInfo));
         tableInfos.put(SysOperationsLogTableInfo.IDENT.name(), new SysOperationsLogTableInfo(clusterService));
         tableInfos.put(SysChecksTableInfo.IDENT.name(), new SysChecksTableInfo(clusterService));
@@ -61,6 +61,10 @@ public class SysTableDefinitions {
             () -> completedFuture(jobsLogs.jobsLog()),
             SysJobsLogTableInfo.expressions()
         ));
+        tableDefinitions.put(SysJobsMetricsTableInfo.IDENT, new StaticTableDefinition<>(
+            () -> completedFuture(jobsLogs.queryMetrics().snapshots()),
+            SysJobsMetricsTableInfo.expressions()
+        ));
         tableDefinitions.put(SysOperationsTableInfo.IDENT, new StaticTableDefinition<>(
             () -> completedFuture(jobsLogs.activeOperations()),
             SysOperationsTableInfo.expressions()
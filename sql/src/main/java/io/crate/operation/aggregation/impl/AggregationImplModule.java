@@ -35,6 +35,7 @@ public class AggregationImplModule extends AbstractFunctionModule<AggregationFun
         SumAggregation.register(this);
         CountAggregation.register(this);
         CollectSetAggregation.register(this);
+        HyperLogLogDistinctAggregation.register(this);
         PercentileAggregation.register(this);
 
         VarianceAggregation.register(this);
@@ -0,0 +1,303 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.operation.aggregation.impl;
+
+import com.carrotsearch.hppc.BitMixer;
+import com.google.common.collect.ImmutableList;
+import io.crate.Streamer;
+import io.crate.analyze.symbol.Function;
+import io.crate.analyze.symbol.ParameterSymbol;
+import io.crate.analyze.symbol.Symbol;
+import io.crate.breaker.RamAccountingContext;
+import io.crate.data.Input;
+import io.crate.metadata.FunctionIdent;
+import io.crate.metadata.FunctionInfo;
+import io.crate.metadata.TransactionContext;
+import io.crate.operation.aggregation.AggregationFunction;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.breaker.CircuitBreakingException;
+import org.elasticsearch.common.hash.MurmurHash3;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.search.aggregations.metrics.cardinality.HyperLogLogPlusPlus;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Approximates the number of distinct values using the HyperLogLog++ sketch of Elasticsearch.
+ *
+ * In contrast to {@code count(distinct x)}, which collects all values into a set, the size of the state
+ * is bounded by the precision: {@code 2^precision} bytes.
+ * Up to a threshold depending on the precision the count is exact.
+ */
+public class HyperLogLogDistinctAggregation extends AggregationFunction<HyperLogLogDistinctAggregation.HllState, Long> {
+
+    public static final String NAME = "hyperloglog_distinct";
+
+    static final int MIN_PRECISION = 4;
+    static final int MAX_PRECISION = 18;
+    static final int DEFAULT_PRECISION = 14;
+
+    static {
+        DataTypes.register(HllStateType.ID, () -> HllStateType.INSTANCE);
+    }
+
+    public static void register(AggregationImplModule mod) {
+        for (DataType<?> t : DataTypes.PRIMITIVE_TYPES) {
+            mod.register(new HyperLogLogDistinctAggregation(new FunctionInfo(
+                new FunctionIdent(NAME, ImmutableList.of(t)), DataTypes.LONG,
+                FunctionInfo.Type.AGGREGATE)));
+            mod.register(new HyperLogLogDistinctAggregation(new FunctionInfo(
+                new FunctionIdent(NAME, ImmutableList.of(t, DataTypes.INTEGER)), DataTypes.LONG,
+                FunctionInfo.Type.AGGREGATE)));
+        }
+    }
+
+    private final FunctionInfo info;
+
+    HyperLogLogDistinctAggregation(FunctionInfo info) {
+        this.info = info;
+    }
+
+    @Override
+    public FunctionInfo info() {
+        return info;
+    }
+
+    /**
+     * The precision has to be the same for all rows, so it's rejected during analysis unless it's a literal.
+     */
+    @Override
+    public Symbol normalizeSymbol(Function function, @Nullable TransactionContext transactionContext) {
+        List<Symbol> arguments = function.arguments();
+        if (arguments.size() > 1) {
+            Symbol precision = arguments.get(1);
+            if (precision instanceof Input) {
+                precision(((Input) precision).value());
+            } else if (!(precision instanceof ParameterSymbol)) {
+                throw new IllegalArgumentException(String.format(Locale.ENGLISH,
+                    "precision for %s must be a literal", NAME));
+            }
+        }
+        return function;
+    }
+
+    @Override
+    public HllState newState(RamAccountingContext ramAccountingContext) {
+        return new HllState();
+    }
+
+    @Override
+    public HllState iterate(RamAccountingContext ramAccountingContext, HllState state, Input... args) throws CircuitBreakingException {
+        if (state.isEmpty()) {
+            int precision = args.length > 1 ? precision(args[1].value()) : DEFAULT_PRECISION;
+            state.init(precision);
+            state.account(ramAccountingContext);
+        }
+        Object value = args[0].value();
+        if (value != null) {
+            state.add(value);
+        }
+        return state;
+    }
+
+    private static int precision(@Nullable Object value) {
+        Integer precision = DataTypes.INTEGER.value(value);
+        if (precision == null) {
+            return DEFAULT_PRECISION;
+        }
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException(String.format(Locale.ENGLISH,
+                "precision for %s must be between %d and %d, got %d", NAME, MIN_PRECISION, MAX_PRECISION, precision));
+        }
+        return precision;
+    }
+
+    /**
+     * States which are read from other nodes aren't accounted yet, the state which is kept is accounted here.
+     */
+    @Override
+    public HllState reduce(RamAccountingContext ramAccountingContext, HllState state1, HllState state2) {
+        if (state1.isEmpty()) {
+            state2.account(ramAccountingContext);
+            return state2;
+        }
+        state1.account(ramAccountingContext);
+        if (!state2.isEmpty()) {
+            state1.merge(state2);
+        }
+        return state1;
+    }
+
+    @Override
+    public Long terminatePartial(RamAccountingContext ramAccountingContext, HllState state) {
+        return state.cardinality();
+    }
+
+    @Override
+    public DataType partialType() {
+        return HllStateType.INSTANCE;
+    }
+
+    static class HllState {
+
+        private final MurmurHash3.Hash128 hash = new MurmurHash3.Hash128();
+        private HyperLogLogPlusPlus hll;
+        private boolean accounted = false;
+
+        HllState() {
+        }
+
+        private HllState(HyperLogLogPlusPlus hll) {
+            this.hll = hll;
+        }
+
+        boolean isEmpty() {
+            return hll == null;
+        }
+
+        void init(int precision) {
+            assert hll == null : "state must only be initialized once";
+            hll = new HyperLogLogPlusPlus(precision, BigArrays.NON_RECYCLING_INSTANCE, 1);
+        }
+
+        int precision() {
+            return hll.precision();
+        }
+
+        /**
+         * Adds the {@code 2^precision} bytes of the sketch to the context, once per state.
+         */
+        void account(RamAccountingContext ramAccountingContext) {
+            if (hll != null && !accounted) {
+                ramAccountingContext.addBytes(1L << hll.precision());
+                accounted = true;
+            }
+        }
+
+        void add(Object value) {
+            hll.collect(0, hash(value));
+        }
+
+        private long hash(Object value) {
+            if (value instanceof BytesRef) {
+                BytesRef bytes = (BytesRef) value;
+                return MurmurHash3.hash128(bytes.bytes, bytes.offset, bytes.length, 0, hash).h1;
+            }
+            if (value instanceof Double || value instanceof Float) {
+                return BitMixer.mix64(Double.doubleToLongBits(((Number) value).doubleValue()));
+            }
+            if (value instanceof Number) {
+                return BitMixer.mix64(((Number) value).longValue());
+            }
+            if (value instanceof Boolean) {
+                return BitMixer.mix64((Boolean) value ? 1L : 0L);
+            }
+            throw new IllegalArgumentException(String.format(Locale.ENGLISH,
+                "%s doesn't support values of type %s", NAME, value.getClass().getSimpleName()));
+        }
+
+        void merge(HllState other) {
+            if (hll.precision() != other.hll.precision()) {
+                throw new IllegalArgumentException(String.format(Locale.ENGLISH,
+                    "Cannot merge %s states with different precisions: %d and %d",
+                    NAME, hll.precision(), other.hll.precision()));
+            }
+            hll.merge(0, other.hll, 0);
+        }
+
+        long cardinality() {
+            return hll == null ? 0L : hll.cardinality(0);
+        }
+
+        static void write(HllState state, StreamOutput out) throws IOException {
+            if (state.isEmpty()) {
+                out.writeBoolean(false);
+            } else {
+                out.writeBoolean(true);
+                state.hll.writeTo(0, out);
+            }
+        }
+
+        static HllState read(StreamInput in) throws IOException {
+            if (in.readBoolean()) {
+                return new HllState(HyperLogLogPlusPlus.readFrom(in, BigArrays.NON_RECYCLING_INSTANCE));
+            }
+            return new HllState();
+        }
+    }
+
+    static class HllStateType extends DataType<HllState> implements Streamer<HllState> {
+
+        static final int ID = 5121;
+        static final HllStateType INSTANCE = new HllStateType();
+
+        private HllStateType() {
+        }
+
+        @Override
+        public HllState readValueFrom(StreamInput in) throws IOException {
+            return HllState.read(in);
+        }
+
+        @Override
+        public void writeValueTo(StreamOutput out, Object v) throws IOException {
+            HllState.write((HllState) v, out);
+        }
+
+        @Override
+        public int id() {
+            return ID;
+        }
+
+        @Override
+        public Precedence precedence() {
+            return Precedence.Custom;
+        }
+
+        @Override
+        public String getName() {
+            return "hll_state";
+        }
+
+        @Override
+        public Streamer<?> streamer() {
+            return this;
+        }
+
+        @Override
+        public HllState value(Object value) throws IllegalArgumentException, ClassCastException {
+            return (HllState) value;
+        }
+
+        @Override
+        public int compareValueTo(HllState val1, HllState val2) {
+            return 0;
+        }
+    }
+}
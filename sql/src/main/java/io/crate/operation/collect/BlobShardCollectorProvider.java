@@ -33,6 +33,7 @@ import io.crate.operation.InputFactory;
 import io.crate.operation.NodeJobsCounter;
 import io.crate.operation.collect.collectors.BlobOrderedDocCollector;
 import io.crate.operation.collect.collectors.OrderedDocCollector;
+import io.crate.operation.projectors.SpillDirectory;
 import io.crate.operation.reference.doc.blob.BlobReferenceResolver;
 import io.crate.planner.node.dql.RoutedCollectPhase;
 import org.elasticsearch.cluster.service.ClusterService;
@@ -52,9 +53,10 @@ public class BlobShardCollectorProvider extends ShardCollectorProvider {
                                       Functions functions,
                                       ThreadPool threadPool,
                                       Settings settings,
+                                      SpillDirectory spillDirectory,
                                       TransportActionProvider transportActionProvider) {
         super(clusterService, nodeJobsCounter, BlobShardReferenceResolver.create(blobShard), functions,
-            threadPool, settings, transportActionProvider, blobShard.indexShard());
+            threadPool, settings, spillDirectory, transportActionProvider, blobShard.indexShard());
         inputFactory = new InputFactory(functions);
         this.blobShard = blobShard;
     }
@@ -37,14 +37,18 @@ import io.crate.operation.collect.collectors.CollectorFieldsVisitor;
 import io.crate.operation.collect.collectors.CrateDocCollectorBuilder;
 import io.crate.operation.collect.collectors.LuceneOrderedDocCollector;
 import io.crate.operation.collect.collectors.OptimizeQueryForSearchAfter;
+import io.crate.operation.collect.collectors.OptimizeQueryForTopN;
 import io.crate.operation.collect.collectors.OrderedDocCollector;
+import io.crate.operation.projectors.SpillDirectory;
 import io.crate.operation.reference.doc.lucene.CollectorContext;
 import io.crate.operation.reference.doc.lucene.LuceneCollectorExpression;
 import io.crate.operation.reference.doc.lucene.LuceneReferenceResolver;
 import io.crate.planner.node.dql.RoutedCollectPhase;
 import org.apache.logging.log4j.Logger;
+import org.apache.lucene.index.LeafReaderContext;
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.logging.Loggers;
+import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.index.IndexService;
 import org.elasticsearch.index.engine.Engine;
@@ -52,17 +56,28 @@ import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.threadpool.ThreadPool;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
 import java.util.function.Supplier;
 
 public class LuceneShardCollectorProvider extends ShardCollectorProvider {
 
     private static final Logger LOGGER = Loggers.getLogger(LuceneShardCollectorProvider.class);
 
+    /**
+     * Maximum number of threads which collect a single shard if the collect phase contains shard projections
+     */
+    public static final Setting<Integer> SHARD_CONCURRENCY_SETTING = Setting.intSetting(
+        "node.sql.collect.shard_concurrency", 1, 1, Setting.Property.NodeScope);
+
     private final Supplier<String> localNodeId;
     private final LuceneQueryBuilder luceneQueryBuilder;
     private final IndexShard indexShard;
     private final DocInputFactory docInputFactory;
     private final FieldTypeLookup fieldTypeLookup;
+    private final int shardConcurrency;
 
     public LuceneShardCollectorProvider(Schemas schemas,
                                         LuceneQueryBuilder luceneQueryBuilder,
@@ -71,14 +86,16 @@ public class LuceneShardCollectorProvider extends ShardCollectorProvider {
                                         Functions functions,
                                         ThreadPool threadPool,
                                         Settings settings,
+                                        SpillDirectory spillDirectory,
                                         TransportActionProvider transportActionProvider,
                                         IndexShard indexShard) {
         super(clusterService, nodeJobsCounter, ShardReferenceResolver.create(clusterService, schemas, indexShard),
-            functions, threadPool, settings, transportActionProvider, indexShard);
+            functions, threadPool, settings, spillDirectory, transportActionProvider, indexShard);
         this.luceneQueryBuilder = luceneQueryBuilder;
         this.indexShard = indexShard;
         this.localNodeId = () -> clusterService.localNode().getId();
         fieldTypeLookup = indexShard.mapperService()::fullName;
+        this.shardConcurrency = SHARD_CONCURRENCY_SETTING.get(settings);
         this.docInputFactory = new DocInputFactory(functions,
             fieldTypeLookup,
             new LuceneReferenceResolver(fieldTypeLookup, indexShard.indexSettings()));
@@ -88,6 +105,18 @@ public class LuceneShardCollectorProvider extends ShardCollectorProvider {
     protected CrateCollector.Builder getBuilder(RoutedCollectPhase collectPhase,
                                                 boolean requiresScroll,
                                                 JobCollectContext jobCollectContext) {
+        return getBuilders(collectPhase, jobCollectContext, 1).get(0);
+    }
+
+    @Override
+    protected List<CrateCollector.Builder> getConcurrentBuilders(RoutedCollectPhase collectPhase,
+                                                                 JobCollectContext jobCollectContext) {
+        return getBuilders(collectPhase, jobCollectContext, shardConcurrency);
+    }
+
+    private List<CrateCollector.Builder> getBuilders(RoutedCollectPhase collectPhase,
+                                                     JobCollectContext jobCollectContext,
+                                                     int maxConcurrency) {
         ShardId shardId = indexShard.shardId();
         SharedShardContext sharedShardContext = jobCollectContext.sharedShardContexts().getOrCreateContext(shardId);
         Engine.Searcher searcher = sharedShardContext.acquireSearcher();
@@ -101,25 +130,61 @@ public class LuceneShardCollectorProvider extends ShardCollectorProvider {
                 sharedShardContext.indexService().cache()
             );
             jobCollectContext.addSearcher(sharedShardContext.readerId(), searcher);
-            InputFactory.Context<? extends LuceneCollectorExpression<?>> docCtx =
-                docInputFactory.extractImplementations(collectPhase);
-
-            return new CrateDocCollectorBuilder(
-                searcher.searcher(),
-                queryContext.query(),
-                queryContext.minScore(),
-                Symbols.containsColumn(collectPhase.toCollect(), DocSysColumns.SCORE),
-                getCollectorContext(sharedShardContext.readerId(), docCtx),
-                jobCollectContext.queryPhaseRamAccountingContext(),
-                docCtx.topLevelInputs(),
-                docCtx.expressions()
-            );
+            List<List<LeafReaderContext>> partitions =
+                partitionLeaves(searcher.searcher().getTopReaderContext().leaves(), maxConcurrency);
+            List<CrateCollector.Builder> builders = new ArrayList<>(partitions.size());
+            for (List<LeafReaderContext> leaves : partitions) {
+                // expressions are stateful, so each partition needs its own instances
+                InputFactory.Context<? extends LuceneCollectorExpression<?>> docCtx =
+                    docInputFactory.extractImplementations(collectPhase);
+                builders.add(new CrateDocCollectorBuilder(
+                    searcher.searcher(),
+                    leaves,
+                    queryContext.query(),
+                    queryContext.minScore(),
+                    Symbols.containsColumn(collectPhase.toCollect(), DocSysColumns.SCORE),
+                    getCollectorContext(sharedShardContext.readerId(), docCtx),
+                    jobCollectContext.queryPhaseRamAccountingContext(),
+                    docCtx.topLevelInputs(),
+                    docCtx.expressions()
+                ));
+            }
+            return builders;
         } catch (Throwable t) {
             searcher.close();
             throw t;
         }
     }
 
+    /**
+     * Splits the leaves into at most {@code maxPartitions} partitions with a similar number of documents.
+     */
+    static List<List<LeafReaderContext>> partitionLeaves(List<LeafReaderContext> leaves, int maxPartitions) {
+        int numPartitions = Math.min(maxPartitions, leaves.size());
+        if (numPartitions <= 1) {
+            return Collections.singletonList(leaves);
+        }
+        List<LeafReaderContext> leavesBySize = new ArrayList<>(leaves);
+        leavesBySize.sort(Comparator.comparingInt((LeafReaderContext leaf) -> leaf.reader().maxDoc()).reversed());
+
+        List<List<LeafReaderContext>> partitions = new ArrayList<>(numPartitions);
+        long[] numDocs = new long[numPartitions];
+        for (int i = 0; i < numPartitions; i++) {
+            partitions.add(new ArrayList<>());
+        }
+        for (LeafReaderContext leaf : leavesBySize) {
+            int smallest = 0;
+            for (int i = 1; i < numPartitions; i++) {
+                if (numDocs[i] < numDocs[smallest]) {
+                    smallest = i;
+                }
+            }
+            partitions.get(smallest).add(leaf);
+            numDocs[smallest] += leaf.reader().maxDoc();
+        }
+        return partitions;
+    }
+
     @Override
     public OrderedDocCollector getOrderedCollector(RoutedCollectPhase phase,
                                                    SharedShardContext sharedShardContext,
@@ -162,6 +227,12 @@ public class LuceneShardCollectorProvider extends ShardCollectorProvider {
             queryContext.queryShardContext(),
             fieldTypeLookup
         );
+        OptimizeQueryForTopN optimizeQueryForTopN = new OptimizeQueryForTopN(
+            collectPhase.orderBy(),
+            batchSize,
+            queryContext.queryShardContext(),
+            fieldTypeLookup
+        );
         return new LuceneOrderedDocCollector(
             indexShard.shardId(),
             searcher.searcher(),
@@ -171,6 +242,7 @@ public class LuceneShardCollectorProvider extends ShardCollectorProvider {
             batchSize,
             collectorContext,
             optimizeQueryForSearchAfter,
+            optimizeQueryForTopN,
             LuceneSortGenerator.generateLuceneSort(collectorContext, collectPhase.orderBy(), docInputFactory, fieldTypeLookup),
             ctx.topLevelInputs(),
             ctx.expressions()
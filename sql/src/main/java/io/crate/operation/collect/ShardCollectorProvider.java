@@ -24,6 +24,7 @@ package io.crate.operation.collect;
 
 import io.crate.action.job.SharedShardContext;
 import io.crate.analyze.EvaluatingNormalizer;
+import io.crate.analyze.symbol.AggregateMode;
 import io.crate.data.BatchConsumer;
 import io.crate.data.Input;
 import io.crate.data.Row;
@@ -37,8 +38,11 @@ import io.crate.operation.collect.collectors.OrderedDocCollector;
 import io.crate.operation.projectors.ProjectingBatchConsumer;
 import io.crate.operation.projectors.ProjectionToProjectorVisitor;
 import io.crate.operation.projectors.ProjectorFactory;
+import io.crate.operation.projectors.SpillDirectory;
 import io.crate.operation.reference.ReferenceResolver;
 import io.crate.planner.node.dql.RoutedCollectPhase;
+import io.crate.planner.projection.AggregationProjection;
+import io.crate.planner.projection.GroupProjection;
 import io.crate.planner.projection.Projection;
 import io.crate.planner.projection.Projections;
 import org.elasticsearch.cluster.service.ClusterService;
@@ -47,7 +51,9 @@ import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.threadpool.ThreadPool;
 
 import javax.annotation.Nullable;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 public abstract class ShardCollectorProvider {
@@ -62,6 +68,7 @@ public abstract class ShardCollectorProvider {
                            Functions functions,
                            ThreadPool threadPool,
                            Settings settings,
+                           SpillDirectory spillDirectory,
                            TransportActionProvider transportActionProvider,
                            IndexShard indexShard) {
         this.inputFactory = new InputFactory(functions);
@@ -77,6 +84,7 @@ public abstract class ShardCollectorProvider {
             functions,
             threadPool,
             settings,
+            spillDirectory,
             transportActionProvider,
             inputFactory,
             shardNormalizer,
@@ -109,32 +117,41 @@ public abstract class ShardCollectorProvider {
     }
 
     /**
-     * Create a CrateCollector.Builder to collect rows from a shard.
+     * Create CrateCollector.Builders to collect rows from a shard.
      * <p>
-     * This also creates all shard-level projectors.
+     * Usually this is a single builder. If all shard projections are partial aggregations and the provider
+     * supports it, the shard may be split into multiple builders which can be consumed concurrently.
+     * <p>
+     * This also creates all shard-level projectors (one set per builder).
      * The BatchConsumer that is used for {@link CrateCollector.Builder#build(BatchConsumer)}
      * should be the first node-level projector.
      */
-    public CrateCollector.Builder getCollectorBuilder(RoutedCollectPhase collectPhase,
-                                                      boolean requiresScroll,
-                                                      JobCollectContext jobCollectContext) throws Exception {
+    public List<CrateCollector.Builder> getCollectorBuilders(RoutedCollectPhase collectPhase,
+                                                             boolean requiresScroll,
+                                                             JobCollectContext jobCollectContext) throws Exception {
         assert collectPhase.orderBy() ==
                null : "getDocCollector shouldn't be called if there is an orderBy on the collectPhase";
         RoutedCollectPhase normalizedCollectNode = collectPhase.normalize(shardNormalizer, null);
 
-        final CrateCollector.Builder builder;
+        Collection<? extends Projection> shardProjections = Projections.shardProjections(collectPhase.projections());
+        final List<CrateCollector.Builder> builders;
         if (normalizedCollectNode.whereClause().noMatch()) {
-            builder = RowsCollector.emptyBuilder(collectPhase.toCollect().size());
+            builders = Collections.singletonList(RowsCollector.emptyBuilder(collectPhase.toCollect().size()));
         } else {
             assert normalizedCollectNode.maxRowGranularity() == RowGranularity.DOC : "granularity must be DOC";
-            builder = getBuilder(normalizedCollectNode, requiresScroll, jobCollectContext);
+            if (requiresScroll || !canCollectConcurrently(shardProjections)) {
+                builders = Collections.singletonList(getBuilder(normalizedCollectNode, requiresScroll, jobCollectContext));
+            } else {
+                builders = getConcurrentBuilders(normalizedCollectNode, jobCollectContext);
+            }
         }
 
-        Collection<? extends Projection> shardProjections = Projections.shardProjections(collectPhase.projections());
         if (shardProjections.isEmpty()) {
-            return builder;
-        } else {
-            return new CrateCollector.Builder() {
+            return builders;
+        }
+        List<CrateCollector.Builder> projectingBuilders = new ArrayList<>(builders.size());
+        for (CrateCollector.Builder builder : builders) {
+            projectingBuilders.add(new CrateCollector.Builder() {
                 @Override
                 public CrateCollector build(BatchConsumer batchConsumer) {
                     return builder.build(batchConsumer);
@@ -150,14 +167,49 @@ public abstract class ShardCollectorProvider {
                         projectorFactory
                     );
                 }
-            };
+            });
+        }
+        return projectingBuilders;
+    }
+
+    /**
+     * The shard can only be split if each part can be projected separately and the results are merged downstream.
+     * That is the case for partial aggregations, but not for projections with side effects like
+     * COPY TO (one file per shard) or UPDATE/DELETE, nor for final aggregations.
+     */
+    static boolean canCollectConcurrently(Collection<? extends Projection> shardProjections) {
+        if (shardProjections.isEmpty()) {
+            return false;
+        }
+        for (Projection projection : shardProjections) {
+            AggregateMode mode;
+            if (projection instanceof GroupProjection) {
+                mode = ((GroupProjection) projection).mode();
+            } else if (projection instanceof AggregationProjection) {
+                mode = ((AggregationProjection) projection).mode();
+            } else {
+                return false;
+            }
+            if (mode != AggregateMode.ITER_PARTIAL) {
+                return false;
+            }
         }
+        return true;
     }
 
     protected abstract CrateCollector.Builder getBuilder(RoutedCollectPhase collectPhase,
                                                          boolean requiresScroll,
                                                          JobCollectContext jobCollectContext);
 
+    /**
+     * Create one or more builders which each collect a part of the shard. Their results are consumed concurrently.
+     * The default implementation doesn't split the shard.
+     */
+    protected List<CrateCollector.Builder> getConcurrentBuilders(RoutedCollectPhase collectPhase,
+                                                                 JobCollectContext jobCollectContext) {
+        return Collections.singletonList(getBuilder(collectPhase, false, jobCollectContext));
+    }
+
 
     public abstract OrderedDocCollector getOrderedCollector(RoutedCollectPhase collectPhase,
                                                             SharedShardContext sharedShardContext,
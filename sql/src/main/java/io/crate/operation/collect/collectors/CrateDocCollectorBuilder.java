@@ -29,6 +29,7 @@ import io.crate.operation.collect.BatchIteratorCollectorBridge;
 import io.crate.operation.collect.CrateCollector;
 import io.crate.operation.reference.doc.lucene.CollectorContext;
 import io.crate.operation.reference.doc.lucene.LuceneCollectorExpression;
+import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Query;
 
@@ -45,6 +46,7 @@ public class CrateDocCollectorBuilder implements CrateCollector.Builder {
     private final RamAccountingContext ramAccountingContext;
     private final List<Input<?>> inputs;
     private final Collection<? extends LuceneCollectorExpression<?>> expressions;
+    private final List<LeafReaderContext> leaves;
 
     public CrateDocCollectorBuilder(IndexSearcher indexSearcher,
                                     Query query,
@@ -54,6 +56,23 @@ public class CrateDocCollectorBuilder implements CrateCollector.Builder {
                                     RamAccountingContext ramAccountingContext,
                                     List<Input<?>> inputs,
                                     Collection<? extends LuceneCollectorExpression<?>> expressions) {
+        this(indexSearcher, indexSearcher.getTopReaderContext().leaves(), query, minScore, doScores,
+            collectorContext, ramAccountingContext, inputs, expressions);
+    }
+
+    /**
+     * Creates a builder for a collector which only collects the given {@code leaves} of the {@code indexSearcher}
+     */
+    public CrateDocCollectorBuilder(IndexSearcher indexSearcher,
+                                    List<LeafReaderContext> leaves,
+                                    Query query,
+                                    Float minScore,
+                                    boolean doScores,
+                                    CollectorContext collectorContext,
+                                    RamAccountingContext ramAccountingContext,
+                                    List<Input<?>> inputs,
+                                    Collection<? extends LuceneCollectorExpression<?>> expressions) {
+        this.leaves = leaves;
         this.indexSearcher = indexSearcher;
         this.query = query;
         this.minScore = minScore;
@@ -68,6 +87,7 @@ public class CrateDocCollectorBuilder implements CrateCollector.Builder {
     public CrateCollector build(BatchConsumer consumer) {
         LuceneBatchIterator batchIterator = new LuceneBatchIterator(
             indexSearcher,
+            leaves,
             query,
             minScore,
             doScores,
@@ -54,9 +54,15 @@ import java.util.concurrent.CompletionStage;
  * It supports filtering the data using a lucene {@link Query} or via {@code minScore}.
  * <p>
  * Row data depends on {@code inputs} and {@code expressions}. The data is unordered.
+ * <p>
+ * If neither scores nor stored fields (like {@code _source}) are required, the matching doc ids of a leaf are
+ * collected in blocks of {@link #BLOCK_SIZE} and the expressions load the values of a whole block at once
+ * (see {@link LuceneCollectorExpression#loadBlock(int[], int)}).
  */
 public class LuceneBatchIterator implements BatchIterator {
 
+    static final int BLOCK_SIZE = 1024;
+
     private final IndexSearcher indexSearcher;
     private final Query query;
     private final CollectorContext collectorContext;
@@ -73,6 +79,9 @@ public class LuceneBatchIterator implements BatchIterator {
     private LeafReaderContext currentLeaf;
     private Scorer currentScorer;
     private DocIdSetIterator currentDocIdSetIt;
+    private int[] blockDocs;
+    private int blockSize = 0;
+    private int blockPosition = 0;
     private boolean closed = false;
     private volatile Throwable killed;
 
@@ -84,6 +93,22 @@ public class LuceneBatchIterator implements BatchIterator {
                         RamAccountingContext ramAccountingContext,
                         List<? extends Input<?>> inputs,
                         Collection<? extends LuceneCollectorExpression<?>> expressions) {
+        this(indexSearcher, indexSearcher.getTopReaderContext().leaves(), query, minScore, doScores,
+            collectorContext, ramAccountingContext, inputs, expressions);
+    }
+
+    /**
+     * @param leaves the leaves of the {@code indexSearcher} which are collected
+     */
+    LuceneBatchIterator(IndexSearcher indexSearcher,
+                        List<LeafReaderContext> leaves,
+                        Query query,
+                        @Nullable Float minScore,
+                        boolean doScores,
+                        CollectorContext collectorContext,
+                        RamAccountingContext ramAccountingContext,
+                        List<? extends Input<?>> inputs,
+                        Collection<? extends LuceneCollectorExpression<?>> expressions) {
         this.indexSearcher = indexSearcher;
         this.query = query;
         this.doScores = doScores || minScore != null;
@@ -93,7 +118,7 @@ public class LuceneBatchIterator implements BatchIterator {
         this.ramAccountingContext = ramAccountingContext;
         this.inputs = Columns.wrap(inputs);
         this.expressions = expressions.toArray(new LuceneCollectorExpression[0]);
-        leaves = indexSearcher.getTopReaderContext().leaves();
+        this.leaves = leaves;
         leavesIt = leaves.iterator();
     }
 
@@ -106,6 +131,7 @@ public class LuceneBatchIterator implements BatchIterator {
     public void moveToStart() {
         raiseIfClosedOrKilled();
         leavesIt = leaves.iterator();
+        clearState();
     }
 
     @Override
@@ -120,7 +146,10 @@ public class LuceneBatchIterator implements BatchIterator {
         }
 
         try {
-            return innerMoveNext();
+            if (blockDocs == null) {
+                return innerMoveNext();
+            }
+            return innerMoveNextInBlocks();
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -144,6 +173,49 @@ public class LuceneBatchIterator implements BatchIterator {
         return false;
     }
 
+    private boolean innerMoveNextInBlocks() throws IOException {
+        if (blockPosition < blockSize || loadNextBlock()) {
+            checkCircuitBreaker();
+            for (LuceneCollectorExpression expression : expressions) {
+                expression.setNextBlockPosition(blockPosition);
+            }
+            blockPosition++;
+            return true;
+        }
+        clearState();
+        return false;
+    }
+
+    /**
+     * Fills {@link #blockDocs} with the next live docs of the current leaf and loads their values.
+     *
+     * @return false if there are no more docs
+     */
+    private boolean loadNextBlock() throws IOException {
+        blockSize = 0;
+        blockPosition = 0;
+        while (tryAdvanceDocIdSetIterator()) {
+            Bits liveDocs = currentLeaf.reader().getLiveDocs();
+            int doc;
+            while (blockSize < BLOCK_SIZE && (doc = currentDocIdSetIt.nextDoc()) != DocIdSetIterator.NO_MORE_DOCS) {
+                if (docDeleted(liveDocs, doc) == false) {
+                    blockDocs[blockSize++] = doc;
+                }
+            }
+            if (blockSize < BLOCK_SIZE) {
+                // leaf is exhausted; the expressions are still positioned on it until the next call
+                currentDocIdSetIt = null;
+            }
+            if (blockSize > 0) {
+                for (LuceneCollectorExpression expression : expressions) {
+                    expression.loadBlock(blockDocs, blockSize);
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
     private boolean belowMinScore(Scorer currentScorer) throws IOException {
         return minScore != null && currentScorer.score() < minScore;
     }
@@ -172,6 +244,8 @@ public class LuceneBatchIterator implements BatchIterator {
 
     private void clearState() {
         currentDocIdSetIt = null;
+        blockSize = 0;
+        blockPosition = 0;
         currentScorer = null;
         currentLeaf = null;
     }
@@ -194,6 +268,10 @@ public class LuceneBatchIterator implements BatchIterator {
         for (LuceneCollectorExpression expression : expressions) {
             expression.startCollect(collectorContext);
         }
+        // expressions may require stored fields, which are only known after startCollect
+        if (doScores == false && visitor.required() == false) {
+            blockDocs = new int[BLOCK_SIZE];
+        }
         return indexSearcher.createNormalizedWeight(query, doScores);
     }
 
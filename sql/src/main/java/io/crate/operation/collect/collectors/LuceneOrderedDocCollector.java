@@ -29,6 +29,7 @@ import io.crate.operation.merge.KeyIterable;
 import io.crate.operation.reference.doc.lucene.CollectorContext;
 import io.crate.operation.reference.doc.lucene.LuceneCollectorExpression;
 import org.apache.logging.log4j.Logger;
+import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.search.BooleanClause;
 import org.apache.lucene.search.BooleanQuery;
 import org.apache.lucene.search.Collector;
@@ -59,6 +60,7 @@ public class LuceneOrderedDocCollector extends OrderedDocCollector {
     private final int batchSize;
     private final CollectorContext collectorContext;
     private final Function<FieldDoc, Query> searchAfterQueryOptimize;
+    private final Function<IndexReader, Query> topNQueryOptimize;
     private final Sort sort;
     private final Collection<? extends LuceneCollectorExpression<?>> expressions;
     private final ScoreDocRowFunction rowFunction;
@@ -77,6 +79,7 @@ public class LuceneOrderedDocCollector extends OrderedDocCollector {
                                      int batchSize,
                                      CollectorContext collectorContext,
                                      Function<FieldDoc, Query> searchAfterQueryOptimize,
+                                     Function<IndexReader, Query> topNQueryOptimize,
                                      Sort sort,
                                      List<? extends Input<?>> inputs,
                                      Collection<? extends LuceneCollectorExpression<?>> expressions) {
@@ -88,6 +91,7 @@ public class LuceneOrderedDocCollector extends OrderedDocCollector {
         this.batchSize = batchSize;
         this.collectorContext = collectorContext;
         this.searchAfterQueryOptimize = searchAfterQueryOptimize;
+        this.topNQueryOptimize = topNQueryOptimize;
         this.sort = sort;
         this.scorer = new DummyScorer();
         this.expressions = expressions;
@@ -129,6 +133,16 @@ public class LuceneOrderedDocCollector extends OrderedDocCollector {
             expression.startCollect(collectorContext);
             expression.setScorer(scorer);
         }
+        Query topNQuery = topNQueryOptimize.apply(searcher.getIndexReader());
+        if (topNQuery != null) {
+            TopFieldCollector topFieldCollector = TopFieldCollector.create(sort, batchSize, true, doDocsScores, doDocsScores);
+            ScoreDoc[] scoreDocs = search(topFieldCollector, minScore, and(query, topNQuery));
+            if (scoreDocs.length == batchSize) {
+                return scoreDocToIterable(scoreDocs);
+            }
+            // the query filtered out too many rows within the bound, the top rows may be outside of it
+            LOGGER.trace("topN bound matched only {} rows, searching without it", scoreDocs.length);
+        }
         TopFieldCollector topFieldCollector = TopFieldCollector.create(sort, batchSize, true, doDocsScores, doDocsScores);
         return doSearch(topFieldCollector, minScore, query);
     }
@@ -149,12 +163,16 @@ public class LuceneOrderedDocCollector extends OrderedDocCollector {
     private KeyIterable<ShardId, Row> doSearch(TopFieldCollector topFieldCollector,
                                                Float minScore,
                                                Query query) throws IOException {
+        return scoreDocToIterable(search(topFieldCollector, minScore, query));
+    }
+
+    private ScoreDoc[] search(TopFieldCollector topFieldCollector, Float minScore, Query query) throws IOException {
         Collector collector = topFieldCollector;
         if (minScore != null) {
             collector = new MinimumScoreCollector(collector, minScore);
         }
         searcher.search(query, collector);
-        return scoreDocToIterable(topFieldCollector.topDocs().scoreDocs);
+        return topFieldCollector.topDocs().scoreDocs;
     }
 
     private KeyIterable<ShardId, Row> scoreDocToIterable(ScoreDoc[] scoreDocs) {
@@ -175,4 +193,11 @@ public class LuceneOrderedDocCollector extends OrderedDocCollector {
         searchAfterQuery.add(optimizedQuery, BooleanClause.Occur.MUST_NOT);
         return searchAfterQuery.build();
     }
+
+    private static Query and(Query query, Query filter) {
+        BooleanQuery.Builder builder = new BooleanQuery.Builder();
+        builder.add(query, BooleanClause.Occur.MUST);
+        builder.add(filter, BooleanClause.Occur.FILTER);
+        return builder.build();
+    }
 }
@@ -0,0 +1,210 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.collect.collectors;
+
+import io.crate.analyze.OrderBy;
+import io.crate.analyze.symbol.Symbol;
+import io.crate.lucene.FieldTypeLookup;
+import io.crate.metadata.ColumnIdent;
+import io.crate.metadata.Reference;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import org.apache.lucene.document.DoublePoint;
+import org.apache.lucene.document.FloatPoint;
+import org.apache.lucene.document.IntPoint;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.index.FieldInfo;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.PointValues;
+import org.apache.lucene.search.Query;
+import org.elasticsearch.index.mapper.MappedFieldType;
+import org.elasticsearch.index.query.QueryShardContext;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Creates a range query on the first ORDER BY column which excludes all rows that can't be part of the top N rows.
+ *
+ * The bound is calculated from the minimum and maximum values of the segments, which are stored in the points
+ * index, without looking at any document.
+ * For {@code ORDER BY ts DESC LIMIT 100} the segments are ordered by their minimum value and the bound is the minimum
+ * of the first segment at which at least 100 documents have been seen.
+ * Every excluded document has a lower value than these 100 documents, so the result doesn't change,
+ * but segments whose values are all below the bound are skipped entirely (e.g. the old segments of time-series data).
+ *
+ * If the query filters out rows, the bounded query may match less than N rows and must be repeated without the bound.
+ */
+public class OptimizeQueryForTopN implements Function<IndexReader, Query> {
+
+    private final String columnName;
+    private final DataType dataType;
+    private final boolean reverse;
+    private final boolean nullsFirst;
+    private final int numHits;
+    private final QueryShardContext queryShardContext;
+    private final FieldTypeLookup fieldTypeLookup;
+
+    public OptimizeQueryForTopN(OrderBy orderBy,
+                                int numHits,
+                                QueryShardContext queryShardContext,
+                                FieldTypeLookup fieldTypeLookup) {
+        Symbol order = orderBy.orderBySymbols().get(0);
+        if (order instanceof Reference && !((Reference) order).ident().columnIdent().isSystemColumn()) {
+            ColumnIdent columnIdent = ((Reference) order).ident().columnIdent();
+            columnName = columnIdent.fqn();
+        } else {
+            columnName = null;
+        }
+        this.dataType = order.valueType();
+        this.reverse = orderBy.reverseFlags()[0];
+        Boolean nullFirst = orderBy.nullsFirst()[0];
+        // same default as in LuceneMissingValue
+        this.nullsFirst = nullFirst == null ? reverse : nullFirst;
+        this.numHits = numHits;
+        this.queryShardContext = queryShardContext;
+        this.fieldTypeLookup = fieldTypeLookup;
+    }
+
+    @Override
+    @Nullable
+    public Query apply(IndexReader reader) {
+        if (columnName == null || numHits <= 0 || reader.leaves().size() < 2) {
+            return null;
+        }
+        MappedFieldType fieldType = fieldTypeLookup.get(columnName);
+        if (fieldType == null) {
+            return null;
+        }
+        try {
+            Comparable bound = bound(reader);
+            if (bound == null) {
+                return null;
+            }
+            if (reverse) {
+                return fieldType.rangeQuery(bound, null, true, false, queryShardContext);
+            }
+            return fieldType.rangeQuery(null, bound, false, true, queryShardContext);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Nullable
+    private Comparable bound(IndexReader reader) throws IOException {
+        List<SegmentRange> ranges = new ArrayList<>(reader.leaves().size());
+        long numDocsWithValue = 0;
+        for (LeafReaderContext leaf : reader.leaves()) {
+            LeafReader leafReader = leaf.reader();
+            FieldInfo fieldInfo = leafReader.getFieldInfos().fieldInfo(columnName);
+            if (fieldInfo == null) {
+                // no document of the segment has a value
+                if (nullsFirst && leafReader.numDocs() > 0) {
+                    return null;
+                }
+                continue;
+            }
+            PointValues pointValues = leafReader.getPointValues();
+            if (pointValues == null || fieldInfo.getPointDimensionCount() != 1) {
+                return null;
+            }
+            int docCount = pointValues.getDocCount(columnName);
+            if (nullsFirst && docCount < leafReader.maxDoc()) {
+                return null;
+            }
+            // deleted documents are still part of the points index; assume that all of them had a value
+            long liveDocsWithValue = docCount - (long) leafReader.numDeletedDocs();
+            if (liveDocsWithValue <= 0) {
+                continue;
+            }
+            Comparable min = decode(pointValues.getMinPackedValue(columnName), fieldInfo.getPointNumBytes());
+            Comparable max = decode(pointValues.getMaxPackedValue(columnName), fieldInfo.getPointNumBytes());
+            if (min == null || max == null) {
+                return null;
+            }
+            ranges.add(new SegmentRange(min, max, liveDocsWithValue));
+            numDocsWithValue += liveDocsWithValue;
+        }
+        if (numDocsWithValue < numHits) {
+            return null;
+        }
+        // best segments first: DESC by the lowest value a segment contains, ASC by the highest
+        if (reverse) {
+            ranges.sort((r1, r2) -> compare(r2.min, r1.min));
+        } else {
+            ranges.sort((r1, r2) -> compare(r1.max, r2.max));
+        }
+        long numDocs = 0;
+        for (SegmentRange range : ranges) {
+            numDocs += range.numDocs;
+            if (numDocs >= numHits) {
+                return reverse ? range.min : range.max;
+            }
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int compare(Comparable value1, Comparable value2) {
+        return value1.compareTo(value2);
+    }
+
+    @Nullable
+    private Comparable decode(byte[] packedValue, int numBytes) {
+        if (packedValue == null) {
+            return null;
+        }
+        if (dataType.equals(DataTypes.LONG) || dataType.equals(DataTypes.TIMESTAMP)) {
+            return numBytes == Long.BYTES ? LongPoint.decodeDimension(packedValue, 0) : null;
+        }
+        if (dataType.equals(DataTypes.INTEGER) || dataType.equals(DataTypes.SHORT) || dataType.equals(DataTypes.BYTE)) {
+            return numBytes == Integer.BYTES ? IntPoint.decodeDimension(packedValue, 0) : null;
+        }
+        if (dataType.equals(DataTypes.DOUBLE)) {
+            return numBytes == Double.BYTES ? DoublePoint.decodeDimension(packedValue, 0) : null;
+        }
+        if (dataType.equals(DataTypes.FLOAT)) {
+            return numBytes == Float.BYTES ? FloatPoint.decodeDimension(packedValue, 0) : null;
+        }
+        return null;
+    }
+
+    private static class SegmentRange {
+
+        private final Comparable min;
+        private final Comparable max;
+        private final long numDocs;
+
+        SegmentRange(Comparable min, Comparable max, long numDocs) {
+            this.min = min;
+            this.max = max;
+            this.numDocs = numDocs;
+        }
+    }
+}
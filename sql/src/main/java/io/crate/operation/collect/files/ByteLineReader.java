@@ -0,0 +1,137 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.operation.collect.files;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Reads lines as raw bytes, without decoding them into Strings.
+ *
+ * The reader can be limited to a byte range of a file so that a file can be split among several readers:
+ * If the range doesn't start at the beginning of the file the stream must be positioned one byte before the
+ * range start; everything up to the first line break is skipped because that line belongs to the previous range.
+ * Lines which start at or after the range end are left to the next range, so every line is read by exactly
+ * one reader even if it crosses a range boundary.
+ */
+class ByteLineReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final InputStream in;
+    private final long end;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private byte[] line = new byte[1024];
+
+    private int bufferPos = 0;
+    private int bufferLength = 0;
+    private long position;
+    private boolean skipPartialLine;
+
+    ByteLineReader(InputStream in) {
+        this(in, 0L, Long.MAX_VALUE);
+    }
+
+    /**
+     * @param start first byte of the range, the stream must be positioned at {@code max(0, start - 1)}
+     * @param end   exclusive end of the range
+     */
+    ByteLineReader(InputStream in, long start, long end) {
+        this.in = in;
+        this.end = end;
+        if (start > 0) {
+            position = start - 1;
+            skipPartialLine = true;
+        }
+    }
+
+    /**
+     * @return the next line without the line terminator ("\n" or "\r\n") or null if there are no more lines in the range
+     */
+    @Nullable
+    byte[] readLine() throws IOException {
+        if (skipPartialLine) {
+            skipPartialLine = false;
+            if (readIntoLine() == -1) {
+                return null;
+            }
+        }
+        if (position >= end) {
+            return null;
+        }
+        int length = readIntoLine();
+        if (length == -1) {
+            return null;
+        }
+        if (length > 0 && line[length - 1] == '\r') {
+            length--;
+        }
+        return Arrays.copyOf(line, length);
+    }
+
+    /**
+     * Reads up to and including the next line break, the line without the line break is copied into {@link #line}
+     *
+     * @return the length of the line or -1 if the end of the stream has been reached
+     */
+    private int readIntoLine() throws IOException {
+        int length = 0;
+        boolean readAny = false;
+        while (true) {
+            if (bufferPos == bufferLength) {
+                bufferLength = in.read(buffer, 0, BUFFER_SIZE);
+                bufferPos = 0;
+                if (bufferLength <= 0) {
+                    bufferLength = 0;
+                    return readAny ? length : -1;
+                }
+            }
+            readAny = true;
+            int chunkStart = bufferPos;
+            int lineEnd = chunkStart;
+            while (lineEnd < bufferLength && buffer[lineEnd] != '\n') {
+                lineEnd++;
+            }
+            int chunkLength = lineEnd - chunkStart;
+            if (length + chunkLength > line.length) {
+                line = Arrays.copyOf(line, Math.max(line.length * 2, length + chunkLength));
+            }
+            System.arraycopy(buffer, chunkStart, line, length, chunkLength);
+            length += chunkLength;
+            if (lineEnd < bufferLength) {
+                bufferPos = lineEnd + 1;
+                position += bufferPos - chunkStart;
+                return length;
+            }
+            bufferPos = bufferLength;
+            position += chunkLength;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
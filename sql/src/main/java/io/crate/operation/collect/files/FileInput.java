@@ -43,5 +43,32 @@ public interface FileInput {
 
     InputStream getStream(URI uri) throws IOException;
 
+    /**
+     * @return true if files can be split into ranges which are read by multiple readers.
+     *         Implementations which return true must implement {@link #size(URI)} and {@link #getStream(URI, long)},
+     *         otherwise each file is read as a whole by a single reader.
+     */
+    default boolean supportsRanges() {
+        return false;
+    }
+
+    /**
+     * Only called if {@link #supportsRanges()} is true.
+     *
+     * @return the size of the file in bytes or -1 if it is unknown, files with an unknown size aren't split
+     */
+    default long size(URI uri) throws IOException {
+        return -1L;
+    }
+
+    /**
+     * Only called if {@link #supportsRanges()} is true.
+     *
+     * @return a stream which starts {@code position} bytes into the file
+     */
+    default InputStream getStream(URI uri, long position) throws IOException {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " doesn't support reading ranges");
+    }
+
     boolean sharedStorageDefault();
 }
@@ -36,13 +36,10 @@ import org.elasticsearch.common.logging.Loggers;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.net.SocketTimeoutException;
 import java.net.URI;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -61,14 +58,43 @@ import java.util.zip.GZIPInputStream;
 
 import static io.crate.exceptions.Exceptions.rethrowUnchecked;
 
+/**
+ * BatchIterator which reads the lines of the files matching the given uris.
+ *
+ * The files are distributed among all readers (see {@link #newInstance(Collection, List, Iterable, String, Map,
+ * Boolean, int, int, int, int, RangeListener)}): Each file is read by one reader, except for large uncompressed
+ * files of a {@link FileInput} which supports ranges. These are split into byte ranges which are read by different
+ * readers; the range boundaries are moved to line boundaries by the {@link ByteLineReader}.
+ */
 public class FileReadingIterator implements BatchIterator {
 
     private static final Logger LOGGER = Loggers.getLogger(FileReadingIterator.class);
     public static final int MAX_SOCKET_TIMEOUT_RETRIES = 5;
+
+    /**
+     * Files are only split if every range is at least this large
+     */
+    static final long MIN_RANGE_SIZE = 16 * 1024 * 1024;
+
+    /**
+     * Listener which is notified when a reader starts or stops reading a range of a split file
+     */
+    public interface RangeListener {
+
+        void rangeStarted(URI uri, long start, long end);
+
+        void rangeFinished(URI uri, long start, long end, @Nullable Throwable failure);
+    }
+
     private final Map<String, FileInputFactory> fileInputFactories;
     private final Boolean shared;
     private final int numReaders;
     private final int readerNumber;
+    private final int concurrency;
+    private final int concurrentReaderNumber;
+    private final long minRangeSize;
+    @Nullable
+    private final RangeListener rangeListener;
     private final boolean compressed;
 
     private static final Pattern HAS_GLOBS_PATTERN = Pattern.compile("(.*)[^\\\\]\\*.*");
@@ -78,9 +104,10 @@ public class FileReadingIterator implements BatchIterator {
     private final Iterable<LineCollectorExpression<?>> collectorExpressions;
     private Iterator<Tuple<FileInput, UriWithGlob>> fileInputsIterator = null;
     private Tuple<FileInput, UriWithGlob> currentInput = null;
-    private Iterator<URI> currentInputIterator = null;
+    private Iterator<FileRange> currentInputIterator = null;
     private URI currentUri;
-    private BufferedReader currentReader = null;
+    private FileRange currentRange;
+    private ByteLineReader currentReader = null;
     private long currentLineNumber;
     private LineContext lineContext;
     private final Columns inputs;
@@ -92,13 +119,21 @@ public class FileReadingIterator implements BatchIterator {
                                 Map<String, FileInputFactory> fileInputFactories,
                                 Boolean shared,
                                 int numReaders,
-                                int readerNumber) {
+                                int readerNumber,
+                                int concurrency,
+                                int concurrentReaderNumber,
+                                long minRangeSize,
+                                @Nullable RangeListener rangeListener) {
         this.compressed = compression != null && compression.equalsIgnoreCase("gzip");
         this.inputs = Columns.wrap(inputs.stream().map(ExceptionHandlingInputProxy::new).collect(Collectors.toList()));
         this.fileInputFactories = fileInputFactories;
         this.shared = shared;
         this.numReaders = numReaders;
         this.readerNumber = readerNumber;
+        this.concurrency = concurrency;
+        this.concurrentReaderNumber = concurrentReaderNumber;
+        this.minRangeSize = minRangeSize;
+        this.rangeListener = rangeListener;
         this.urisWithGlob = getUrisWithGlob(fileUris);
         this.collectorExpressions = collectorExpressions;
         initCollectorState();
@@ -127,6 +162,12 @@ public class FileReadingIterator implements BatchIterator {
             try {
                 return this.input.value();
             } catch (ElasticsearchParseException e) {
+                if (currentRange != null && currentRange.split) {
+                    throw new ElasticsearchParseException(String.format(Locale.ENGLISH,
+                        "Failed to parse JSON in line: %d of the byte range [%d, %d) in file: \"%s\"%n" +
+                        "Original error message: %s",
+                        currentLineNumber, currentRange.start, currentRange.end, currentUri, e.getMessage()), e);
+                }
                 throw new ElasticsearchParseException(String.format(Locale.ENGLISH,
                     "Failed to parse JSON in line: %d in file: \"%s\"%n" +
                     "Original error message: %s", currentLineNumber, currentUri, e.getMessage()), e);
@@ -142,8 +183,46 @@ public class FileReadingIterator implements BatchIterator {
                                             Boolean shared,
                                             int numReaders,
                                             int readerNumber) {
+        return newInstance(fileUris, inputs, collectorExpressions, compression, fileInputFactories,
+            shared, numReaders, readerNumber, 1, 0, null);
+    }
+
+    /**
+     * @param numReaders             number of nodes which read the files
+     * @param readerNumber           number of this node among the {@code numReaders} nodes
+     * @param concurrency            number of iterators which read the files concurrently on each node
+     * @param concurrentReaderNumber number of this iterator among the {@code concurrency} iterators of this node
+     */
+    public static BatchIterator newInstance(Collection<String> fileUris,
+                                            List<Input<?>> inputs,
+                                            Iterable<LineCollectorExpression<?>> collectorExpressions,
+                                            String compression,
+                                            Map<String, FileInputFactory> fileInputFactories,
+                                            Boolean shared,
+                                            int numReaders,
+                                            int readerNumber,
+                                            int concurrency,
+                                            int concurrentReaderNumber,
+                                            @Nullable RangeListener rangeListener) {
+        return newInstance(fileUris, inputs, collectorExpressions, compression, fileInputFactories,
+            shared, numReaders, readerNumber, concurrency, concurrentReaderNumber, MIN_RANGE_SIZE, rangeListener);
+    }
+
+    static BatchIterator newInstance(Collection<String> fileUris,
+                                     List<Input<?>> inputs,
+                                     Iterable<LineCollectorExpression<?>> collectorExpressions,
+                                     String compression,
+                                     Map<String, FileInputFactory> fileInputFactories,
+                                     Boolean shared,
+                                     int numReaders,
+                                     int readerNumber,
+                                     int concurrency,
+                                     int concurrentReaderNumber,
+                                     long minRangeSize,
+                                     @Nullable RangeListener rangeListener) {
         return new CloseAssertingBatchIterator(new FileReadingIterator(fileUris, inputs, collectorExpressions,
-            compression, fileInputFactories, shared, numReaders, readerNumber));
+            compression, fileInputFactories, shared, numReaders, readerNumber, concurrency, concurrentReaderNumber,
+            minRangeSize, rangeListener));
     }
 
     private void initCollectorState() {
@@ -165,6 +244,7 @@ public class FileReadingIterator implements BatchIterator {
 
     @Override
     public void moveToStart() {
+        closeCurrentReader(null);
         initCollectorState();
     }
 
@@ -172,12 +252,12 @@ public class FileReadingIterator implements BatchIterator {
     public boolean moveNext() {
         try {
             if (currentReader != null) {
-                String line = getLine(currentReader, currentLineNumber, 0);
+                byte[] line = getLine(currentReader, currentLineNumber, 0);
                 if (line == null) {
-                    closeCurrentReader();
+                    closeCurrentReader(null);
                     return moveNext();
                 } else {
-                    lineContext.rawSource(line.getBytes(StandardCharsets.UTF_8));
+                    lineContext.rawSource(line);
                     return true;
                 }
             } else if (currentInputIterator != null && currentInputIterator.hasNext()) {
@@ -190,38 +270,97 @@ public class FileReadingIterator implements BatchIterator {
                 releaseBatchIteratorState();
                 return false;
             }
-        } catch (IOException e) {
+        } catch (Exception e) {
+            closeCurrentReader(e);
             rethrowUnchecked(e);
         }
         return false;
     }
 
     private void advanceToNextUri(FileInput fileInput) throws IOException {
-        currentUri = currentInputIterator.next();
-        initCurrentReader(fileInput, currentUri);
+        currentRange = currentInputIterator.next();
+        currentUri = currentRange.uri;
+        initCurrentReader(fileInput, currentRange);
+        if (currentReader != null && currentRange.split && rangeListener != null) {
+            rangeListener.rangeStarted(currentUri, currentRange.start, currentRange.end);
+        }
     }
 
     private void advanceToNextFileInput() throws IOException {
         currentInput = fileInputsIterator.next();
         FileInput fileInput = currentInput.v1();
         UriWithGlob fileUri = currentInput.v2();
-        Predicate<URI> uriPredicate = generateUriPredicate(fileInput, fileUri.globPredicate);
+        Predicate<URI> uriPredicate = fileUri.globPredicate == null ? MATCH_ALL_PREDICATE : fileUri.globPredicate;
         List<URI> uris = getUris(fileInput, fileUri.uri, fileUri.preGlobUri, uriPredicate);
-        if (uris.size() > 0) {
-            currentInputIterator = uris.iterator();
+        List<FileRange> ranges = assignRanges(fileInput, uris);
+        if (ranges.size() > 0) {
+            currentInputIterator = ranges.iterator();
             advanceToNextUri(fileInput);
         }
     }
 
-    private void initCurrentReader(FileInput fileInput, URI uri) throws IOException {
-        InputStream stream = fileInput.getStream(uri);
+    /**
+     * Returns the files or file ranges which are read by this reader.
+     *
+     * Files which are too small to be split, or whose {@link FileInput} doesn't support ranges, are assigned to
+     * a single reader by the hash of their uri. Each of the
+     * other files is split into up to as many ranges as there are readers. The readers are numbered by their
+     * concurrent reader number first, so that the ranges of a file are spread across nodes before
+     * multiple ranges are read on the same node.
+     *
+     * Files on storage which isn't shared are only available to the readers of the local node.
+     */
+    private List<FileRange> assignRanges(FileInput fileInput, List<URI> uris) throws IOException {
+        boolean sharedStorage = MoreObjects.firstNonNull(shared, fileInput.sharedStorageDefault());
+        int numNodes = sharedStorage ? numReaders : 1;
+        int totalReaders = numNodes * concurrency;
+        int reader = concurrentReaderNumber * numNodes + (sharedStorage ? readerNumber : 0);
+
+        boolean splitFiles = !compressed && totalReaders > 1 && fileInput.supportsRanges();
+        List<FileRange> ranges = new ArrayList<>(uris.size());
+        for (URI uri : uris) {
+            long size = splitFiles ? fileInput.size(uri) : -1L;
+            int numRanges = numRanges(size, totalReaders);
+            if (numRanges > 1) {
+                if (reader < numRanges) {
+                    ranges.add(new FileRange(uri, size * reader / numRanges, size * (reader + 1) / numRanges, true));
+                }
+            } else if (isAssignedToReader(uri, totalReaders, reader)) {
+                ranges.add(new FileRange(uri, 0L, Long.MAX_VALUE, false));
+            }
+        }
+        return ranges;
+    }
+
+    private int numRanges(long size, int totalReaders) {
+        if (size < minRangeSize * 2) {
+            return 1;
+        }
+        return (int) Math.min(totalReaders, size / minRangeSize);
+    }
+
+    private static boolean isAssignedToReader(URI uri, int totalReaders, int reader) {
+        int hash = uri.hashCode();
+        if (hash == Integer.MIN_VALUE) {
+            hash = 0; // Math.abs(Integer.MIN_VALUE) == Integer.MIN_VALUE
+        }
+        return Math.abs(hash) % totalReaders == reader;
+    }
+
+    private void initCurrentReader(FileInput fileInput, FileRange range) throws IOException {
+        InputStream stream;
+        if (range.start > 0) {
+            stream = fileInput.getStream(range.uri, range.start - 1);
+        } else {
+            stream = fileInput.getStream(range.uri);
+        }
         if (stream != null) {
-            currentReader = createBufferedReader(stream);
+            currentReader = createLineReader(stream, range);
             currentLineNumber = 0;
         }
     }
 
-    private void closeCurrentReader() {
+    private void closeCurrentReader(@Nullable Throwable failure) {
         if (currentReader != null) {
             try {
                 currentReader.close();
@@ -229,18 +368,21 @@ public class FileReadingIterator implements BatchIterator {
                 LOGGER.error("Unable to close reader for {}", e, currentUri);
             }
             currentReader = null;
+            if (currentRange.split && rangeListener != null) {
+                rangeListener.rangeFinished(currentUri, currentRange.start, currentRange.end, failure);
+            }
         }
     }
 
-    private String getLine(BufferedReader reader, long startFrom, int retry) throws IOException {
-        String line = null;
+    private byte[] getLine(ByteLineReader reader, long startFrom, int retry) throws IOException {
+        byte[] line = null;
         try {
             while ((line = reader.readLine()) != null) {
                 currentLineNumber++;
                 if (currentLineNumber < startFrom) {
                     continue;
                 }
-                if (line.length() == 0) {
+                if (line.length == 0) {
                     continue;
                 }
                 break;
@@ -252,8 +394,8 @@ public class FileReadingIterator implements BatchIterator {
                 throw e;
             } else {
                 long startLine = currentLineNumber + 1;
-                closeCurrentReader();
-                initCurrentReader(currentInput.v1(), currentUri);
+                closeReaderForRetry();
+                initCurrentReader(currentInput.v1(), currentRange);
                 return getLine(currentReader, startLine, retry + 1);
             }
         } catch (Exception e) {
@@ -266,9 +408,18 @@ public class FileReadingIterator implements BatchIterator {
         return line;
     }
 
+    private void closeReaderForRetry() {
+        try {
+            currentReader.close();
+        } catch (IOException e) {
+            LOGGER.error("Unable to close reader for {}", e, currentUri);
+        }
+        currentReader = null;
+    }
+
     @Override
     public void close() {
-        closeCurrentReader();
+        closeCurrentReader(null);
         releaseBatchIteratorState();
     }
 
@@ -277,6 +428,7 @@ public class FileReadingIterator implements BatchIterator {
         currentInputIterator = null;
         currentInput = null;
         currentUri = null;
+        currentRange = null;
     }
 
     @Override
@@ -289,6 +441,20 @@ public class FileReadingIterator implements BatchIterator {
         return true;
     }
 
+    private static class FileRange {
+        final URI uri;
+        final long start;
+        final long end;
+        final boolean split;
+
+        FileRange(URI uri, long start, long end, boolean split) {
+            this.uri = uri;
+            this.start = start;
+            this.end = end;
+            this.split = split;
+        }
+    }
+
     private static class UriWithGlob {
         final URI uri;
         final URI preGlobUri;
@@ -371,15 +537,11 @@ public class FileReadingIterator implements BatchIterator {
         return new URLFileInput(fileUri);
     }
 
-    private BufferedReader createBufferedReader(InputStream inputStream) throws IOException {
-        BufferedReader reader;
+    private ByteLineReader createLineReader(InputStream inputStream, FileRange range) throws IOException {
         if (compressed) {
-            reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(inputStream),
-                StandardCharsets.UTF_8));
-        } else {
-            reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+            return new ByteLineReader(new GZIPInputStream(inputStream));
         }
-        return reader;
+        return new ByteLineReader(inputStream, range.start, range.end);
     }
 
     private static List<URI> getUris(FileInput fileInput, URI fileUri, URI preGlobUri, Predicate<URI> uriPredicate) throws IOException {
@@ -394,27 +556,6 @@ public class FileReadingIterator implements BatchIterator {
         return uris;
     }
 
-    private Predicate<URI> generateUriPredicate(FileInput fileInput, @Nullable Predicate<URI> globPredicate) {
-        Predicate<URI> moduloPredicate;
-        boolean sharedStorage = MoreObjects.firstNonNull(shared, fileInput.sharedStorageDefault());
-        if (sharedStorage) {
-            moduloPredicate = input -> {
-                int hash = input.hashCode();
-                if (hash == Integer.MIN_VALUE) {
-                    hash = 0; // Math.abs(Integer.MIN_VALUE) == Integer.MIN_VALUE
-                }
-                return Math.abs(hash) % numReaders == readerNumber;
-            };
-        } else {
-            moduloPredicate = MATCH_ALL_PREDICATE;
-        }
-
-        if (globPredicate != null) {
-            return moduloPredicate.and(globPredicate);
-        }
-        return moduloPredicate;
-    }
-
     private static class GlobPredicate implements Predicate<URI> {
         private final Pattern globPattern;
 
@@ -90,6 +90,31 @@ public class LocalFsFileInput implements FileInput {
         }
     }
 
+    @Override
+    public boolean supportsRanges() {
+        return true;
+    }
+
+    @Override
+    public long size(URI uri) {
+        File file = new File(uri);
+        return file.isFile() ? file.length() : -1L;
+    }
+
+    @Override
+    public InputStream getStream(URI uri, long position) throws IOException {
+        FileInputStream stream = (FileInputStream) getStream(uri);
+        if (stream != null) {
+            try {
+                stream.getChannel().position(position);
+            } catch (IOException e) {
+                stream.close();
+                throw e;
+            }
+        }
+        return stream;
+    }
+
     @Override
     public boolean sharedStorageDefault() {
         return false;
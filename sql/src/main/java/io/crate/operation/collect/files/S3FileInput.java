@@ -22,6 +22,7 @@
 package io.crate.operation.collect.files;
 
 import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.GetObjectRequest;
 import com.amazonaws.services.s3.model.ObjectListing;
 import com.amazonaws.services.s3.model.S3Object;
 import com.amazonaws.services.s3.model.S3ObjectSummary;
@@ -33,7 +34,9 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Predicate;
 
 public class S3FileInput implements FileInput {
@@ -41,6 +44,9 @@ public class S3FileInput implements FileInput {
     private AmazonS3 client; // to prevent early GC during getObjectContent() in getStream()
     private static final Logger logger = Loggers.getLogger(S3FileInput.class);
 
+    // sizes of the listed objects, so that no additional request is needed to split them into ranges
+    private final Map<URI, Long> listedSizes = new HashMap<>();
+
     final S3ClientHelper clientBuilder;
 
     public S3FileInput() {
@@ -77,6 +83,7 @@ public class S3FileInput implements FileInput {
                 URI keyUri = uri.resolve("/" + key);
                 if (uriPredicate.test(keyUri)) {
                     uris.add(keyUri);
+                    listedSizes.put(keyUri, summary.getSize());
                     if (logger.isDebugEnabled()) {
                         logger.debug("{}", keyUri);
                     }
@@ -98,6 +105,38 @@ public class S3FileInput implements FileInput {
         return null;
     }
 
+    @Override
+    public boolean supportsRanges() {
+        return true;
+    }
+
+    @Override
+    public long size(URI uri) throws IOException {
+        Long listedSize = listedSizes.get(uri);
+        if (listedSize != null) {
+            return listedSize;
+        }
+        if (client == null) {
+            client = clientBuilder.client(uri);
+        }
+        return client.getObjectMetadata(uri.getHost(), uri.getPath().substring(1)).getContentLength();
+    }
+
+    @Override
+    public InputStream getStream(URI uri, long position) throws IOException {
+        if (client == null) {
+            client = clientBuilder.client(uri);
+        }
+        // the range end is inclusive and may exceed the object size
+        GetObjectRequest request = new GetObjectRequest(uri.getHost(), uri.getPath().substring(1))
+            .withRange(position, Long.MAX_VALUE - 1);
+        S3Object object = client.getObject(request);
+        if (object != null) {
+            return object.getObjectContent();
+        }
+        return null;
+    }
+
     @Override
     public boolean sharedStorageDefault() {
         return true;
@@ -42,6 +42,7 @@ import io.crate.operation.collect.JobCollectContext;
 import io.crate.operation.collect.RowsCollector;
 import io.crate.operation.projectors.ProjectionToProjectorVisitor;
 import io.crate.operation.projectors.ProjectorFactory;
+import io.crate.operation.projectors.SpillDirectory;
 import io.crate.planner.node.ExecutionPhaseVisitor;
 import io.crate.planner.node.dql.CollectPhase;
 import io.crate.planner.node.dql.FileUriCollectPhase;
@@ -84,7 +85,8 @@ public class CollectSourceResolver {
                                  TableFunctionCollectSource tableFunctionCollectSource,
                                  SingleRowSource singleRowSource,
                                  SystemCollectSource systemCollectSource,
-                                 NodeStatsCollectSource nodeStatsCollectSource) {
+                                 NodeStatsCollectSource nodeStatsCollectSource,
+                                 SpillDirectory spillDirectory) {
         this.clusterService = clusterService;
 
         EvaluatingNormalizer normalizer = EvaluatingNormalizer.functionOnlyNormalizer(functions);
@@ -94,6 +96,7 @@ public class CollectSourceResolver {
             functions,
             threadPool,
             settings,
+            spillDirectory,
             transportActionProvider,
             new InputFactory(functions),
             normalizer,
@@ -101,7 +104,8 @@ public class CollectSourceResolver {
             systemCollectSource::tableDefinition
         );
         this.shardCollectSource = shardCollectSource;
-        this.fileCollectSource = new ProjectorSetupCollectSource(fileCollectSource, projectorFactory);
+        this.fileCollectSource = (collectPhase, consumer, jobCollectContext) ->
+            fileCollectSource.getCollector(collectPhase, consumer, jobCollectContext, projectorFactory);
         this.tableFunctionSource = new ProjectorSetupCollectSource(tableFunctionCollectSource, projectorFactory);
         this.emptyCollectSource = new ProjectorSetupCollectSource(new VoidCollectSource(), projectorFactory);
 
@@ -24,69 +24,213 @@ package io.crate.operation.collect.sources;
 import io.crate.analyze.CopyFromAnalyzedStatement;
 import io.crate.analyze.symbol.Symbol;
 import io.crate.analyze.symbol.ValueSymbolVisitor;
+import io.crate.data.AsyncCompositeBatchIterator;
 import io.crate.data.BatchConsumer;
 import io.crate.data.BatchIterator;
+import io.crate.exceptions.SQLExceptions;
 import io.crate.metadata.Functions;
 import io.crate.operation.InputFactory;
 import io.crate.operation.collect.BatchIteratorCollectorBridge;
 import io.crate.operation.collect.CrateCollector;
 import io.crate.operation.collect.JobCollectContext;
+import io.crate.operation.collect.collectors.CompositeCollector;
 import io.crate.operation.collect.files.FileInputFactory;
 import io.crate.operation.collect.files.FileReadingIterator;
 import io.crate.operation.collect.files.LineCollectorExpression;
+import io.crate.operation.collect.stats.JobsLogs;
+import io.crate.operation.projectors.ProjectingBatchConsumer;
+import io.crate.operation.projectors.ProjectorFactory;
 import io.crate.operation.reference.file.FileLineReferenceResolver;
 import io.crate.planner.node.dql.CollectPhase;
 import io.crate.planner.node.dql.FileUriCollectPhase;
+import io.crate.planner.projection.Projection;
+import io.crate.planner.projection.SourceIndexWriterProjection;
 import io.crate.types.CollectionType;
 import io.crate.types.DataTypes;
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.threadpool.ThreadPool;
 
+import javax.annotation.Nullable;
+import java.net.URI;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executor;
 
+/**
+ * Source for COPY FROM.
+ *
+ * The projections of the collect phase are applied by this source and not by a {@link ProjectorSetupCollectSource}:
+ * If the files are read by multiple concurrent readers each of them needs its own index writer projection
+ * so that the lines are parsed and indexed concurrently.
+ */
 @Singleton
-public class FileCollectSource implements CollectSource {
+public class FileCollectSource {
+
+    /**
+     * Maximum number of threads which read and index the files of a COPY FROM statement on a node
+     */
+    public static final Setting<Integer> FILE_CONCURRENCY_SETTING = Setting.intSetting(
+        "node.sql.collect.file_concurrency", 1, 1, Setting.Property.NodeScope);
 
     private final ClusterService clusterService;
     private final Map<String, FileInputFactory> fileInputFactoryMap;
     private final InputFactory inputFactory;
+    private final JobsLogs jobsLogs;
+    private final Executor executor;
+    private final int fileConcurrency;
 
     @Inject
-    public FileCollectSource(Functions functions, ClusterService clusterService, Map<String, FileInputFactory> fileInputFactoryMap) {
+    public FileCollectSource(Settings settings,
+                             Functions functions,
+                             ClusterService clusterService,
+                             Map<String, FileInputFactory> fileInputFactoryMap,
+                             ThreadPool threadPool,
+                             JobsLogs jobsLogs) {
         this.fileInputFactoryMap = fileInputFactoryMap;
         inputFactory = new InputFactory(functions);
         this.clusterService = clusterService;
+        this.jobsLogs = jobsLogs;
+        this.executor = new ShardCollectSource.DirectFallbackExecutor(threadPool.executor(ThreadPool.Names.SEARCH));
+        this.fileConcurrency = FILE_CONCURRENCY_SETTING.get(settings);
     }
 
-    @Override
-    public CrateCollector getCollector(CollectPhase collectPhase, BatchConsumer consumer, JobCollectContext jobCollectContext) {
+    public CrateCollector getCollector(CollectPhase collectPhase,
+                                       BatchConsumer consumer,
+                                       JobCollectContext jobCollectContext,
+                                       ProjectorFactory projectorFactory) {
         FileUriCollectPhase fileUriCollectPhase = (FileUriCollectPhase) collectPhase;
-        InputFactory.Context<LineCollectorExpression<?>> ctx =
-            inputFactory.ctxForRefs(FileLineReferenceResolver::getImplementation);
-        ctx.add(collectPhase.toCollect());
-
+        List<Projection> projections = collectPhase.projections();
         String[] readers = fileUriCollectPhase.nodeIds().toArray(
             new String[fileUriCollectPhase.nodeIds().size()]);
         Arrays.sort(readers);
+        int readerNumber = Arrays.binarySearch(readers, clusterService.state().nodes().getLocalNodeId());
+        List<String> fileUris = targetUriToStringList(fileUriCollectPhase.targetUri());
 
-        List<String> fileUris;
-        fileUris = targetUriToStringList(fileUriCollectPhase.targetUri());
-        BatchIterator fileReadingIterator = FileReadingIterator.newInstance(
+        // only the index writer can run concurrently, any following projection (e.g. the merge of
+        // the row counts) needs to see the output of all readers
+        int concurrency = projections.isEmpty() || !(projections.get(0) instanceof SourceIndexWriterProjection)
+            ? 1 : fileConcurrency;
+        if (concurrency == 1) {
+            BatchIterator fileReadingIterator = createIterator(
+                fileUriCollectPhase, fileUris, readers.length, readerNumber, 1, 0);
+            return BatchIteratorCollectorBridge.newInstance(
+                fileReadingIterator, projectingConsumer(consumer, projections, collectPhase, jobCollectContext, projectorFactory));
+        }
+
+        List<Projection> readerProjections = projections.subList(0, 1);
+        List<CrateCollector.Builder> builders = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            // collector expressions are stateful, so each reader needs its own iterator
+            BatchIterator fileReadingIterator = createIterator(
+                fileUriCollectPhase, fileUris, readers.length, readerNumber, concurrency, i);
+            builders.add(new CrateCollector.Builder() {
+                @Override
+                public CrateCollector build(BatchConsumer batchConsumer) {
+                    return BatchIteratorCollectorBridge.newInstance(fileReadingIterator, batchConsumer);
+                }
+
+                @Override
+                public BatchConsumer applyProjections(BatchConsumer consumer) {
+                    return projectingConsumer(consumer, readerProjections, collectPhase, jobCollectContext, projectorFactory);
+                }
+            });
+        }
+        return new CompositeCollector(
+            builders,
+            projectingConsumer(
+                consumer, projections.subList(1, projections.size()), collectPhase, jobCollectContext, projectorFactory),
+            iterators -> new AsyncCompositeBatchIterator(executor, iterators)
+        );
+    }
+
+    private BatchIterator createIterator(FileUriCollectPhase collectPhase,
+                                         List<String> fileUris,
+                                         int numReaders,
+                                         int readerNumber,
+                                         int concurrency,
+                                         int concurrentReaderNumber) {
+        InputFactory.Context<LineCollectorExpression<?>> ctx =
+            inputFactory.ctxForRefs(FileLineReferenceResolver::getImplementation);
+        ctx.add(collectPhase.toCollect());
+        int operationId = readerOperationId(collectPhase.phaseId(), concurrency, concurrentReaderNumber);
+        return FileReadingIterator.newInstance(
             fileUris,
             ctx.topLevelInputs(),
             ctx.expressions(),
-            fileUriCollectPhase.compression(),
+            collectPhase.compression(),
             fileInputFactoryMap,
-            fileUriCollectPhase.sharedStorage(),
-            readers.length,
-            Arrays.binarySearch(readers, clusterService.state().nodes().getLocalNodeId())
+            collectPhase.sharedStorage(),
+            numReaders,
+            readerNumber,
+            concurrency,
+            concurrentReaderNumber,
+            new RangeOperationsLogger(jobsLogs, collectPhase.jobId(), operationId)
         );
+    }
+
+    /**
+     * The id under which a concurrent reader lists its file ranges in sys.operations.
+     *
+     * The execution phases of a job are listed in sys.operations using their phase id, which is never negative.
+     * The readers therefore use the negative ids {@code -1 - (phaseId * concurrency + readerNumber)}, which are
+     * unique within a job: the range of each phase, {@code [phaseId * concurrency, (phaseId + 1) * concurrency)},
+     * doesn't overlap with the range of any other phase.
+     *
+     * @throws ArithmeticException if the id doesn't fit into an int
+     */
+    static int readerOperationId(int phaseId, int concurrency, int readerNumber) {
+        assert phaseId >= 0 : "phaseId must not be negative";
+        assert readerNumber >= 0 && readerNumber < concurrency : "readerNumber must be within [0, concurrency)";
+        return -1 - Math.addExact(Math.multiplyExact(phaseId, concurrency), readerNumber);
+    }
+
+    private static BatchConsumer projectingConsumer(BatchConsumer consumer,
+                                                    List<Projection> projections,
+                                                    CollectPhase collectPhase,
+                                                    JobCollectContext jobCollectContext,
+                                                    ProjectorFactory projectorFactory) {
+        return ProjectingBatchConsumer.create(
+            consumer,
+            projections,
+            collectPhase.jobId(),
+            jobCollectContext.queryPhaseRamAccountingContext(),
+            projectorFactory);
+    }
 
-        return BatchIteratorCollectorBridge.newInstance(fileReadingIterator, consumer);
+    /**
+     * Lists the file range a reader is working on in sys.operations
+     */
+    private static class RangeOperationsLogger implements FileReadingIterator.RangeListener {
+
+        private final JobsLogs jobsLogs;
+        private final UUID jobId;
+        private final int operationId;
+
+        RangeOperationsLogger(JobsLogs jobsLogs, UUID jobId, int operationId) {
+            this.jobsLogs = jobsLogs;
+            this.jobId = jobId;
+            this.operationId = operationId;
+        }
+
+        @Override
+        public void rangeStarted(URI uri, long start, long end) {
+            jobsLogs.operationStarted(operationId, jobId,
+                String.format(Locale.ENGLISH, "copy from %s [%d, %d)", uri, start, end));
+        }
+
+        @Override
+        public void rangeFinished(URI uri, long start, long end, @Nullable Throwable failure) {
+            jobsLogs.operationFinished(operationId, jobId, failure == null ? null : SQLExceptions.messageOf(failure), 0);
+        }
     }
 
     private static List<String> targetUriToStringList(Symbol targetUri) {
@@ -63,6 +63,7 @@ import io.crate.operation.collect.collectors.OrderedLuceneBatchIteratorFactory;
 import io.crate.operation.projectors.ProjectingBatchConsumer;
 import io.crate.operation.projectors.ProjectionToProjectorVisitor;
 import io.crate.operation.projectors.ProjectorFactory;
+import io.crate.operation.projectors.SpillDirectory;
 import io.crate.operation.projectors.sorting.OrderingByPosition;
 import io.crate.operation.reference.StaticTableReferenceResolver;
 import io.crate.operation.reference.sys.node.local.NodeSysExpression;
@@ -121,7 +122,8 @@ import static io.crate.blob.v2.BlobIndex.isBlobIndex;
  * <b>concurrent consumption</b>
  * <p>
  * For grouping and aggregation operations it's advantageous to run them concurrently. This can be done
- * if there are multiple shards.
+ * if there are multiple shards or if a shard is split into multiple collectors
+ * (see {@link ShardCollectorProvider#getCollectorBuilders(RoutedCollectPhase, boolean, JobCollectContext)}).
  * <p>
  * Since there is just a single Collector returned by {@link #getCollector(CollectPhase, BatchConsumer, JobCollectContext)}
  * and there is only a single {@link BatchConsumer} receiving a {@link BatchIterator} which cannot be consumed concurrently
@@ -173,6 +175,7 @@ public class ShardCollectSource extends AbstractComponent implements CollectSour
     private final Functions functions;
     private final LuceneQueryBuilder luceneQueryBuilder;
     private final NodeJobsCounter nodeJobsCounter;
+    private final SpillDirectory spillDirectory;
 
     @Inject
     public ShardCollectSource(Settings settings,
@@ -188,7 +191,8 @@ public class ShardCollectSource extends AbstractComponent implements CollectSour
                               SystemCollectSource systemCollectSource,
                               NodeSysExpression nodeSysExpression,
                               IndexEventListenerProxy indexEventListenerProxy,
-                              BlobIndicesService blobIndicesService) {
+                              BlobIndicesService blobIndicesService,
+                              SpillDirectory spillDirectory) {
         super(settings);
         this.luceneQueryBuilder = luceneQueryBuilder;
         this.schemas = schemas;
@@ -202,6 +206,7 @@ public class ShardCollectSource extends AbstractComponent implements CollectSour
         this.executor = new DirectFallbackExecutor(threadPool.executor(ThreadPool.Names.SEARCH));
         this.blobIndicesService = blobIndicesService;
         this.functions = functions;
+        this.spillDirectory = spillDirectory;
         NodeSysReferenceResolver referenceResolver = new NodeSysReferenceResolver(nodeSysExpression);
         nodeNormalizer = new EvaluatingNormalizer(
             functions,
@@ -215,6 +220,7 @@ public class ShardCollectSource extends AbstractComponent implements CollectSour
             functions,
             threadPool,
             settings,
+            spillDirectory,
             transportActionProvider,
             new InputFactory(functions),
             nodeNormalizer,
@@ -265,11 +271,11 @@ public class ShardCollectSource extends AbstractComponent implements CollectSour
                 if (isBlobIndex(indexShard.shardId().getIndexName())) {
                     BlobShard blobShard = blobIndicesService.blobShardSafe(indexShard.shardId());
                     return new BlobShardCollectorProvider(blobShard, clusterService, nodeJobsCounter, functions,
-                        threadPool, settings, transportActionProvider);
+                        threadPool, settings, spillDirectory, transportActionProvider);
                 } else {
                     return new LuceneShardCollectorProvider(
                         schemas, luceneQueryBuilder, clusterService, nodeJobsCounter, functions,
-                        threadPool, settings, transportActionProvider, indexShard);
+                        threadPool, settings, spillDirectory, transportActionProvider, indexShard);
                 }
             });
             shards.put(indexShard.shardId(), providerSupplier);
@@ -456,12 +462,11 @@ public class ShardCollectSource extends AbstractComponent implements CollectSour
                 ShardId shardId = new ShardId(index, shardNum);
                 try {
                     ShardCollectorProvider shardCollectorProvider = getCollectorProviderSafe(shardId);
-                    CrateCollector.Builder collector = shardCollectorProvider.getCollectorBuilder(
+                    crateCollectors.addAll(shardCollectorProvider.getCollectorBuilders(
                         collectPhase,
                         requiresScroll,
                         jobCollectContext
-                    );
-                    crateCollectors.add(collector);
+                    ));
                 } catch (ShardNotFoundException | IllegalIndexShardStateException e) {
                     // If toCollect contains a docId it means that this is a QueryThenFetch operation.
                     // In such a case RemoteCollect cannot be used because on that node the FetchContext is missing
@@ -42,6 +42,7 @@ import java.util.function.BooleanSupplier;
  * JobsLogs is responsible for adding jobs and operations of that node.
  * It also provides the functionality to expose that data for system tables,
  * such as sys.jobs, sys.jobs_log, sys.operations and sys.operations_log;
+ * It also records the {@link QueryMetrics} of finished jobs, independent of whether stats are enabled.
  * <p>
  * The data is exposed via the properties
  *
@@ -65,6 +66,7 @@ public class JobsLogs {
     final AtomicReference<LogSink<OperationContextLog>> operationsLog = new AtomicReference<>(NoopLogSink.instance());
 
     private final LongAdder activeRequests = new LongAdder();
+    private final QueryMetrics queryMetrics = new QueryMetrics();
     private final BooleanSupplier enabled;
 
     public JobsLogs(BooleanSupplier enabled) {
@@ -87,26 +89,32 @@ public class JobsLogs {
     }
 
     /**
-     * Track a job. If the job has finished {@link #logExecutionEnd(java.util.UUID, String)}
-     * must be called.
+     * Track a job. If the job has finished {@link #logExecutionEnd(UUID, String, long, String)}
+     * must be called with the returned start time.
      * <p>
-     * If {@link #isEnabled()} is false this method won't do anything.
+     * If {@link #isEnabled()} is false the job isn't tracked, the start time is only used for the {@link #queryMetrics()}.
+     *
+     * @return the time in milliseconds at which the job started
      */
-    public void logExecutionStart(UUID jobId, String statement, @Nullable User user) {
+    public long logExecutionStart(UUID jobId, String statement, @Nullable User user) {
         activeRequests.increment();
-        if (!isEnabled()) {
-            return;
+        long started = System.currentTimeMillis();
+        if (isEnabled()) {
+            jobsTable.put(jobId, new JobContext(jobId, statement, started, user));
         }
-        jobsTable.put(jobId, new JobContext(jobId, statement, System.currentTimeMillis(), user));
+        return started;
     }
 
     /**
      * mark a job as finished.
      * <p>
-     * If {@link #isEnabled()} is false this method won't do anything.
+     * If {@link #isEnabled()} is false this method only updates the {@link #queryMetrics()}.
+     *
+     * @param started the start time returned by {@link #logExecutionStart(UUID, String, User)}
      */
-    public void logExecutionEnd(UUID jobId, @Nullable String errorMessage) {
+    public void logExecutionEnd(UUID jobId, String statement, long started, @Nullable String errorMessage) {
         activeRequests.decrement();
+        queryMetrics.record(statement, System.currentTimeMillis() - started, errorMessage != null);
         JobContext jobContext = jobsTable.remove(jobId);
         if (!isEnabled() || jobContext == null) {
             return;
@@ -117,12 +125,15 @@ public class JobsLogs {
 
     /**
      * Create a entry into `sys.jobs_log`
-     * This method can be used instead of {@link #logExecutionEnd(UUID, String)} if there was no {@link #logExecutionStart(UUID, String, User)}
+     * This method can be used instead of {@link #logExecutionEnd(UUID, String, long, String)} if there was no {@link #logExecutionStart(UUID, String, User)}
      * Call because an error happened during parse, analysis or plan.
      * <p>
      * {@link #logExecutionStart(UUID, String, User)} is only called after a Plan has been created and execution starts.
+     * <p>
+     * The failure is also recorded in the {@link #queryMetrics()}, with a duration of 0 as the start time is unknown.
      */
     public void logPreExecutionFailure(UUID jobId, String stmt, String errorMessage, @Nullable User user) {
+        queryMetrics.record(stmt, 0L, true);
         LogSink<JobContextLog> jobContextLogs = jobsLog.get();
         JobContext jobContext = new JobContext(jobId, stmt, System.currentTimeMillis(), user);
         jobContextLogs.add(new JobContextLog(jobContext, errorMessage));
@@ -167,6 +178,10 @@ public class JobsLogs {
         return operationsLog.get();
     }
 
+    public QueryMetrics queryMetrics() {
+        return queryMetrics;
+    }
+
     public long activeRequests() {
         return activeRequests.longValue();
     }
@@ -0,0 +1,130 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.collect.stats;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of non-negative values with a bounded relative error.
+ *
+ * Values below {@link #SUB_BUCKETS} are counted exactly. Larger values are counted in buckets which split each power
+ * of two range into {@link #SUB_BUCKETS} linear buckets, so the reported percentiles are at most ~3% off.
+ * Recording a value is a single atomic increment and doesn't allocate.
+ */
+@ThreadSafe
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    static final int NUM_BUCKETS = SUB_BUCKETS * (64 - SUB_BUCKET_BITS);
+
+    private final AtomicLongArray counts = new AtomicLongArray(NUM_BUCKETS);
+
+    public void record(long value) {
+        counts.incrementAndGet(bucketIndex(Math.max(0L, value)));
+    }
+
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) - SUB_BUCKETS;
+        return SUB_BUCKETS + shift * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * @return the highest value which is counted in the bucket with the given index
+     */
+    static long highestValueOfBucket(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKETS) / SUB_BUCKETS;
+        long subBucket = (index - SUB_BUCKETS) % SUB_BUCKETS;
+        long lowest = (SUB_BUCKETS + subBucket) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    /**
+     * Returns a copy of the current counts. Values recorded concurrently may or may not be included.
+     */
+    public Snapshot snapshot() {
+        long[] countsCopy = new long[NUM_BUCKETS];
+        for (int i = 0; i < NUM_BUCKETS; i++) {
+            countsCopy[i] = counts.get(i);
+        }
+        return new Snapshot(countsCopy);
+    }
+
+    public static class Snapshot {
+
+        private final long[] counts;
+        private final long totalCount;
+
+        Snapshot(long[] counts) {
+            this.counts = counts;
+            long total = 0;
+            for (long count : counts) {
+                total += count;
+            }
+            this.totalCount = total;
+        }
+
+        public long totalCount() {
+            return totalCount;
+        }
+
+        /**
+         * @param percentile a value between 0 and 100
+         * @return the value below or equal to which the given percentage of the recorded values fall,
+         *         or 0 if no values have been recorded.
+         */
+        public long percentile(double percentile) {
+            if (totalCount == 0) {
+                return 0L;
+            }
+            long rank = Math.max(1L, (long) Math.ceil(totalCount * (percentile / 100.0)));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return highestValueOfBucket(i);
+                }
+            }
+            return highestValueOfBucket(counts.length - 1);
+        }
+
+        /**
+         * Returns a new snapshot containing the values of this and the other snapshot.
+         */
+        public Snapshot merge(Snapshot other) {
+            long[] merged = new long[NUM_BUCKETS];
+            for (int i = 0; i < NUM_BUCKETS; i++) {
+                merged[i] = counts[i] + other.counts[i];
+            }
+            return new Snapshot(merged);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.collect.stats;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts and latency histograms of the statements executed by this node, grouped by {@link StatementType}.
+ *
+ * The metrics are updated for every finished statement regardless of whether {@code stats.enabled} is set.
+ * Updates only use striped counters and atomic increments, so there is no contention between concurrent statements.
+ */
+@ThreadSafe
+public class QueryMetrics {
+
+    private final Map<StatementType, StatementMetrics> metricsByType = new EnumMap<>(StatementType.class);
+
+    public QueryMetrics() {
+        for (StatementType type : StatementType.values()) {
+            metricsByType.put(type, new StatementMetrics(type));
+        }
+    }
+
+    public void record(String statement, long durationInMs, boolean failed) {
+        metricsByType.get(StatementType.of(statement)).record(durationInMs, failed);
+    }
+
+    public StatementMetrics.Snapshot snapshot(StatementType type) {
+        return metricsByType.get(type).snapshot();
+    }
+
+    /**
+     * @return a snapshot of the metrics of each statement type
+     */
+    public List<StatementMetrics.Snapshot> snapshots() {
+        List<StatementMetrics.Snapshot> snapshots = new ArrayList<>(metricsByType.size());
+        for (StatementMetrics metrics : metricsByType.values()) {
+            snapshots.add(metrics.snapshot());
+        }
+        return snapshots;
+    }
+
+    public static class StatementMetrics {
+
+        private final StatementType type;
+        private final LongAdder totalCount = new LongAdder();
+        private final LongAdder failedCount = new LongAdder();
+        private final LongAdder sumOfDurations = new LongAdder();
+        private final LongAccumulator maxDuration = new LongAccumulator(Long::max, 0L);
+        private final LatencyHistogram histogram = new LatencyHistogram();
+
+        StatementMetrics(StatementType type) {
+            this.type = type;
+        }
+
+        void record(long durationInMs, boolean failed) {
+            totalCount.increment();
+            if (failed) {
+                failedCount.increment();
+            }
+            sumOfDurations.add(durationInMs);
+            maxDuration.accumulate(durationInMs);
+            histogram.record(durationInMs);
+        }
+
+        Snapshot snapshot() {
+            return new Snapshot(
+                type,
+                totalCount.sum(),
+                failedCount.sum(),
+                sumOfDurations.sum(),
+                maxDuration.get(),
+                histogram.snapshot());
+        }
+
+        public static class Snapshot {
+
+            private final StatementType type;
+            private final long totalCount;
+            private final long failedCount;
+            private final long sumOfDurations;
+            private final long maxDuration;
+            private final LatencyHistogram.Snapshot histogram;
+
+            Snapshot(StatementType type,
+                     long totalCount,
+                     long failedCount,
+                     long sumOfDurations,
+                     long maxDuration,
+                     LatencyHistogram.Snapshot histogram) {
+                this.type = type;
+                this.totalCount = totalCount;
+                this.failedCount = failedCount;
+                this.sumOfDurations = sumOfDurations;
+                this.maxDuration = maxDuration;
+                this.histogram = histogram;
+            }
+
+            public StatementType type() {
+                return type;
+            }
+
+            public long totalCount() {
+                return totalCount;
+            }
+
+            public long failedCount() {
+                return failedCount;
+            }
+
+            public long sumOfDurations() {
+                return sumOfDurations;
+            }
+
+            public double meanDuration() {
+                if (totalCount == 0) {
+                    return 0.0;
+                }
+                return (double) sumOfDurations / totalCount;
+            }
+
+            public long maxDuration() {
+                return maxDuration;
+            }
+
+            /**
+             * @param percentile a value between 0 and 100
+             */
+            public long percentile(double percentile) {
+                // the histogram is approximate, the max is exact
+                return Math.min(histogram.percentile(percentile), maxDuration);
+            }
+
+            /**
+             * Returns a new snapshot containing the values of this and the other snapshot. The type is kept.
+             */
+            public Snapshot merge(Snapshot other) {
+                return new Snapshot(
+                    type,
+                    totalCount + other.totalCount,
+                    failedCount + other.failedCount,
+                    sumOfDurations + other.sumOfDurations,
+                    Math.max(maxDuration, other.maxDuration),
+                    histogram.merge(other.histogram));
+            }
+        }
+    }
+}
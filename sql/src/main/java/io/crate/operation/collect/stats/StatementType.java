@@ -0,0 +1,63 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.collect.stats;
+
+import java.util.Locale;
+
+/**
+ * Classification of statements used by the {@link QueryMetrics}.
+ */
+public enum StatementType {
+    SELECT,
+    INSERT,
+    UPDATE,
+    DELETE,
+    COPY,
+    UNCLASSIFIED;
+
+    private static final StatementType[] CLASSIFIED = {SELECT, INSERT, UPDATE, DELETE, COPY};
+
+    private final String label = name().toLowerCase(Locale.ENGLISH);
+
+    public String label() {
+        return label;
+    }
+
+    /**
+     * Classifies a statement by its first keyword.
+     * This is invoked for every executed statement, so it avoids to lowercase or copy the statement.
+     */
+    public static StatementType of(String statement) {
+        int start = 0;
+        int length = statement.length();
+        while (start < length && Character.isWhitespace(statement.charAt(start))) {
+            start++;
+        }
+        for (StatementType type : CLASSIFIED) {
+            if (statement.regionMatches(true, start, type.label, 0, type.label.length())) {
+                return type;
+            }
+        }
+        return UNCLASSIFIED;
+    }
+}
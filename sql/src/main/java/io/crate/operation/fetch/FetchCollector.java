@@ -27,6 +27,7 @@ import com.carrotsearch.hppc.cursors.IntCursor;
 import io.crate.Streamer;
 import io.crate.breaker.RamAccountingContext;
 import io.crate.executor.transport.StreamBucket;
+import io.crate.executor.transport.StreamBucketStats;
 import io.crate.operation.InputRow;
 import io.crate.operation.collect.collectors.CollectorFieldsVisitor;
 import io.crate.operation.reference.doc.lucene.CollectorContext;
@@ -48,18 +49,21 @@ class FetchCollector {
     private final Streamer<?>[] streamers;
     private final List<LeafReaderContext> readerContexts;
     private final RamAccountingContext ramAccountingContext;
+    private final StreamBucketStats streamBucketStats;
 
     FetchCollector(List<LuceneCollectorExpression<?>> collectorExpressions,
                    Streamer<?>[] streamers,
                    Engine.Searcher searcher,
                    IndexFieldDataService indexFieldDataService,
                    RamAccountingContext ramAccountingContext,
+                   StreamBucketStats streamBucketStats,
                    int readerId) {
         // use toArray to avoid iterator allocations in docIds loop
         this.collectorExpressions = collectorExpressions.toArray(new LuceneCollectorExpression[0]);
         this.streamers = streamers;
         this.readerContexts = searcher.searcher().getIndexReader().leaves();
         this.ramAccountingContext = ramAccountingContext;
+        this.streamBucketStats = streamBucketStats;
         this.fieldsVisitor = new CollectorFieldsVisitor(this.collectorExpressions.length);
         CollectorContext collectorContext = new CollectorContext(indexFieldDataService, fieldsVisitor, readerId);
         for (LuceneCollectorExpression<?> collectorExpression : this.collectorExpressions) {
@@ -76,17 +80,31 @@ class FetchCollector {
             readerContext.reader().document(doc, fieldsVisitor);
         }
         for (LuceneCollectorExpression e : collectorExpressions) {
-            e.setNextReader(readerContext);
             e.setNextDocId(doc);
         }
     }
 
+    /**
+     * Collects the rows of the given docs in the order of {@code docIds}.
+     *
+     * The expressions are only moved to another segment if the next doc is in a different segment than the
+     * previous one. The fetch client sends the doc ids in increasing order, so every segment is visited once
+     * and its stored fields are read in doc id order.
+     */
     public StreamBucket collect(IntContainer docIds) throws IOException {
-        StreamBucket.Builder builder = new StreamBucket.Builder(streamers, ramAccountingContext);
+        StreamBucket.Builder builder = new StreamBucket.Builder(streamers, ramAccountingContext, streamBucketStats);
+        LeafReaderContext subReaderContext = null;
+        int subReaderEnd = 0;
         for (IntCursor cursor : docIds) {
             int docId = cursor.value;
-            int readerIndex = ReaderUtil.subIndex(docId, readerContexts);
-            LeafReaderContext subReaderContext = readerContexts.get(readerIndex);
+            if (subReaderContext == null || docId < subReaderContext.docBase || docId >= subReaderEnd) {
+                int readerIndex = ReaderUtil.subIndex(docId, readerContexts);
+                subReaderContext = readerContexts.get(readerIndex);
+                subReaderEnd = subReaderContext.docBase + subReaderContext.reader().maxDoc();
+                for (LuceneCollectorExpression e : collectorExpressions) {
+                    e.setNextReader(subReaderContext);
+                }
+            }
             setNextDocId(subReaderContext, docId - subReaderContext.docBase);
             builder.add(row);
         }
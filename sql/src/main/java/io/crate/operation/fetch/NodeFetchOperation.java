@@ -30,6 +30,7 @@ import io.crate.analyze.symbol.Symbols;
 import io.crate.breaker.RamAccountingContext;
 import io.crate.exceptions.SQLExceptions;
 import io.crate.executor.transport.StreamBucket;
+import io.crate.executor.transport.StreamBucketStats;
 import io.crate.jobs.JobContextService;
 import io.crate.jobs.JobExecutionContext;
 import io.crate.metadata.Reference;
@@ -60,6 +61,7 @@ public class NodeFetchOperation {
     private final JobsLogs jobsLogs;
     private final JobContextService jobContextService;
     private final CircuitBreaker circuitBreaker;
+    private final StreamBucketStats streamBucketStats;
 
     private static class TableFetchInfo {
 
@@ -73,7 +75,9 @@ public class NodeFetchOperation {
             this.streamers = Symbols.streamerArray(refs);
         }
 
-        FetchCollector createCollector(int readerId, RamAccountingContext ramAccountingContext) {
+        FetchCollector createCollector(int readerId,
+                                       RamAccountingContext ramAccountingContext,
+                                       StreamBucketStats streamBucketStats) {
             IndexService indexService = fetchContext.indexService(readerId);
             LuceneReferenceResolver resolver = new LuceneReferenceResolver(
                 indexService.mapperService()::fullName, indexService.getIndexSettings());
@@ -87,6 +91,7 @@ public class NodeFetchOperation {
                 fetchContext.searcher(readerId),
                 indexService.fieldData(),
                 ramAccountingContext,
+                streamBucketStats,
                 readerId
             );
         }
@@ -95,11 +100,13 @@ public class NodeFetchOperation {
     public NodeFetchOperation(Executor executor,
                               JobsLogs jobsLogs,
                               JobContextService jobContextService,
-                              CircuitBreaker circuitBreaker) {
+                              CircuitBreaker circuitBreaker,
+                              StreamBucketStats streamBucketStats) {
         this.executor = executor;
         this.jobsLogs = jobsLogs;
         this.jobContextService = jobContextService;
         this.circuitBreaker = circuitBreaker;
+        this.streamBucketStats = streamBucketStats;
     }
 
     public CompletableFuture<IntObjectMap<StreamBucket>> fetch(UUID jobId,
@@ -183,7 +190,7 @@ public class NodeFetchOperation {
             assert tfi != null : "tfi must not be null";
 
             CollectRunnable runnable = new CollectRunnable(
-                tfi.createCollector(readerId, ramAccountingContext),
+                tfi.createCollector(readerId, ramAccountingContext, streamBucketStats),
                 docIds,
                 fetched,
                 readerId,
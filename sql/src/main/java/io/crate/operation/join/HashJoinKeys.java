@@ -0,0 +1,219 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.join;
+
+import io.crate.analyze.symbol.Function;
+import io.crate.analyze.symbol.FunctionCopyVisitor;
+import io.crate.analyze.symbol.InputColumn;
+import io.crate.analyze.symbol.Symbol;
+import io.crate.analyze.symbol.SymbolVisitors;
+import io.crate.data.Columns;
+import io.crate.data.Input;
+import io.crate.data.Row;
+import io.crate.data.RowBridging;
+import io.crate.operation.InputFactory;
+import io.crate.operation.collect.CollectExpression;
+import io.crate.operation.operator.AndOperator;
+import io.crate.operation.operator.EqOperator;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import io.crate.types.DoubleType;
+import io.crate.types.FloatType;
+import io.crate.types.GeoPointType;
+import io.crate.types.GeoShapeType;
+import io.crate.types.ObjectType;
+import io.crate.types.UndefinedType;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * The keys of the equality conditions of a join condition which can be used for a hash join.
+ *
+ * A join condition qualifies if it is a conjunction which contains at least one {@code leftExpr = rightExpr} where
+ * {@code leftExpr} only refers to the outputs of the left side and {@code rightExpr} only to the outputs of the
+ * right side (or vice versa). Other parts of the join condition are not used for the keys but are still evaluated
+ * on each hash match.
+ */
+public final class HashJoinKeys {
+
+    private final java.util.function.Function<Columns, Supplier<Object>> leftKey;
+    private final java.util.function.Function<Columns, Supplier<Object>> rightKey;
+
+    /**
+     * @param joinCondition  the join condition, referring to the left outputs with InputColumns
+     *                       {@code 0 .. numLeftOutputs - 1} and the right outputs with the following InputColumns.
+     * @return the keys or null if the join condition doesn't contain a usable equality condition
+     */
+    @Nullable
+    public static HashJoinKeys create(InputFactory inputFactory, @Nullable Symbol joinCondition, int numLeftOutputs) {
+        if (joinCondition == null) {
+            return null;
+        }
+        List<Symbol> leftKeys = new ArrayList<>();
+        List<Symbol> rightKeys = new ArrayList<>();
+        collectKeys(joinCondition, numLeftOutputs, leftKeys, rightKeys);
+        if (leftKeys.isEmpty()) {
+            return null;
+        }
+        return new HashJoinKeys(
+            keyFunction(inputFactory, leftKeys),
+            keyFunction(inputFactory, InputColumnShifter.shift(rightKeys, -numLeftOutputs)));
+    }
+
+    private HashJoinKeys(java.util.function.Function<Columns, Supplier<Object>> leftKey,
+                         java.util.function.Function<Columns, Supplier<Object>> rightKey) {
+        this.leftKey = leftKey;
+        this.rightKey = rightKey;
+    }
+
+    /**
+     * Function to create the key supplier for the rows of the left side.
+     * The key is null if any of the equality operands is null.
+     */
+    public java.util.function.Function<Columns, Supplier<Object>> leftKey() {
+        return leftKey;
+    }
+
+    /**
+     * Function to create the key supplier for the rows of the right side.
+     * The key is null if any of the equality operands is null.
+     */
+    public java.util.function.Function<Columns, Supplier<Object>> rightKey() {
+        return rightKey;
+    }
+
+    private static void collectKeys(Symbol condition, int numLeftOutputs, List<Symbol> leftKeys, List<Symbol> rightKeys) {
+        if (!(condition instanceof Function)) {
+            return;
+        }
+        Function function = (Function) condition;
+        String name = function.info().ident().name();
+        if (name.equals(AndOperator.NAME)) {
+            for (Symbol arg : function.arguments()) {
+                collectKeys(arg, numLeftOutputs, leftKeys, rightKeys);
+            }
+        } else if (name.equals(EqOperator.NAME)) {
+            Symbol arg1 = function.arguments().get(0);
+            Symbol arg2 = function.arguments().get(1);
+            if (!arg1.valueType().equals(arg2.valueType()) || !isHashable(arg1.valueType())) {
+                return;
+            }
+            if (isLeftOnly(arg1, numLeftOutputs) && isRightOnly(arg2, numLeftOutputs)) {
+                leftKeys.add(arg1);
+                rightKeys.add(arg2);
+            } else if (isRightOnly(arg1, numLeftOutputs) && isLeftOnly(arg2, numLeftOutputs)) {
+                leftKeys.add(arg2);
+                rightKeys.add(arg1);
+            }
+        }
+    }
+
+    /**
+     * Types whose values can be compared using {@link Object#equals(Object)} with the same semantics as the
+     * equality operator. Floating point types are excluded because of {@code -0.0 = 0.0}.
+     */
+    public static boolean isHashable(DataType type) {
+        switch (type.id()) {
+            case UndefinedType.ID:
+            case DoubleType.ID:
+            case FloatType.ID:
+            case ObjectType.ID:
+            case GeoPointType.ID:
+            case GeoShapeType.ID:
+                return false;
+
+            default:
+                return !DataTypes.isCollectionType(type);
+        }
+    }
+
+    private static boolean isLeftOnly(Symbol symbol, int numLeftOutputs) {
+        return SymbolVisitors.any(s -> s instanceof InputColumn && ((InputColumn) s).index() < numLeftOutputs, symbol)
+               && !SymbolVisitors.any(s -> s instanceof InputColumn && ((InputColumn) s).index() >= numLeftOutputs, symbol)
+               && isDeterministic(symbol);
+    }
+
+    private static boolean isRightOnly(Symbol symbol, int numLeftOutputs) {
+        return SymbolVisitors.any(s -> s instanceof InputColumn && ((InputColumn) s).index() >= numLeftOutputs, symbol)
+               && !SymbolVisitors.any(s -> s instanceof InputColumn && ((InputColumn) s).index() < numLeftOutputs, symbol)
+               && isDeterministic(symbol);
+    }
+
+    private static boolean isDeterministic(Symbol symbol) {
+        return !SymbolVisitors.any(s -> s instanceof Function && !((Function) s).info().isDeterministic(), symbol);
+    }
+
+    private static java.util.function.Function<Columns, Supplier<Object>> keyFunction(InputFactory inputFactory,
+                                                                                      List<Symbol> keys) {
+        return columns -> {
+            InputFactory.Context<CollectExpression<Row, ?>> ctx = inputFactory.ctxForInputColumns(keys);
+            List<Input<?>> inputs = ctx.topLevelInputs();
+            List<CollectExpression<Row, ?>> expressions = ctx.expressions();
+            Row row = RowBridging.toRow(columns);
+            if (inputs.size() == 1) {
+                Input<?> input = inputs.get(0);
+                return () -> {
+                    setNextRow(expressions, row);
+                    return input.value();
+                };
+            }
+            return () -> {
+                setNextRow(expressions, row);
+                Object[] values = new Object[inputs.size()];
+                for (int i = 0; i < values.length; i++) {
+                    Object value = inputs.get(i).value();
+                    if (value == null) {
+                        return null;
+                    }
+                    values[i] = value;
+                }
+                return Arrays.asList(values);
+            };
+        };
+    }
+
+    private static void setNextRow(List<CollectExpression<Row, ?>> expressions, Row row) {
+        //noinspection ForLoopReplaceableByForEach // avoids iterator allocation - invoked per row
+        for (int i = 0; i < expressions.size(); i++) {
+            expressions.get(i).setNextRow(row);
+        }
+    }
+
+    private static final class InputColumnShifter extends FunctionCopyVisitor<Integer> {
+
+        private static final InputColumnShifter SHIFTER = new InputColumnShifter();
+
+        static List<Symbol> shift(List<Symbol> symbols, int offset) {
+            return SHIFTER.process(symbols, offset);
+        }
+
+        @Override
+        public Symbol visitInputColumn(InputColumn inputColumn, Integer offset) {
+            return new InputColumn(inputColumn.index() + offset, inputColumn.valueType());
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.join;
+
+import io.crate.breaker.RamAccountingContext;
+import io.crate.breaker.SizeEstimator;
+import io.crate.breaker.SizeEstimatorFactory;
+import io.crate.data.join.HashJoinBatchIterator;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+
+/**
+ * Accounts the rows buffered by a {@link HashJoinBatchIterator} on a {@link RamAccountingContext}.
+ *
+ * The column types of the join inputs aren't known on the join phase, so the size estimator of each column is
+ * chosen based on the first non-null value of the column.
+ */
+class HashJoinRowAccounting implements HashJoinBatchIterator.RowAccounting {
+
+    private static final SizeEstimator<Object> UNKNOWN_TYPE_ESTIMATOR = SizeEstimatorFactory.create(DataTypes.OBJECT);
+
+    private final RamAccountingContext ramAccountingContext;
+    private SizeEstimator<Object>[] estimators;
+
+    HashJoinRowAccounting(RamAccountingContext ramAccountingContext) {
+        this.ramAccountingContext = ramAccountingContext;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public long accountForAndMaybeBreak(Object[] row) {
+        if (estimators == null) {
+            estimators = new SizeEstimator[row.length];
+        }
+        // array header + 4 bytes per cell reference + the entry of the hash table
+        long size = 48L + 4L * row.length;
+        for (int i = 0; i < row.length; i++) {
+            Object value = row[i];
+            if (value == null) {
+                continue;
+            }
+            SizeEstimator<Object> estimator = estimators[i];
+            if (estimator == null) {
+                estimator = estimatorFor(value);
+                estimators[i] = estimator;
+            }
+            size += estimator.estimateSize(value);
+        }
+        size = RamAccountingContext.roundUp(size);
+        ramAccountingContext.addBytes(size);
+        return size;
+    }
+
+    @Override
+    public void release(long bytes) {
+        ramAccountingContext.releaseBytes(bytes);
+    }
+
+    private static SizeEstimator<Object> estimatorFor(Object value) {
+        DataType type;
+        try {
+            type = DataTypes.guessType(value);
+        } catch (IllegalArgumentException e) {
+            return UNKNOWN_TYPE_ESTIMATOR;
+        }
+        if (type == null) {
+            return UNKNOWN_TYPE_ESTIMATOR;
+        }
+        try {
+            return SizeEstimatorFactory.create(type);
+        } catch (UnsupportedOperationException e) {
+            return UNKNOWN_TYPE_ESTIMATOR;
+        }
+    }
+}
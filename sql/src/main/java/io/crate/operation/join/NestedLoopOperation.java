@@ -21,6 +21,7 @@
 
 package io.crate.operation.join;
 
+import io.crate.breaker.RamAccountingContext;
 import io.crate.concurrent.CompletionListenable;
 import io.crate.data.BatchConsumer;
 import io.crate.data.BatchIterator;
@@ -29,6 +30,7 @@ import io.crate.data.FilteringBatchIterator;
 import io.crate.data.ListenableBatchIterator;
 import io.crate.data.Row;
 import io.crate.data.RowBridging;
+import io.crate.data.join.HashJoinBatchIterator;
 import io.crate.data.join.NestedLoopBatchIterator;
 import io.crate.planner.node.dql.join.JoinType;
 
@@ -41,23 +43,43 @@ import java.util.function.Predicate;
 
 public class NestedLoopOperation implements CompletionListenable {
 
+    /**
+     * Ratio of the query circuit breaker limit which may be used by a hash join for a block of buffered rows
+     */
+    private static final double HASH_JOIN_BLOCK_SIZE_RATIO = 0.25;
+
     private final CompletableFuture<BatchIterator> leftBatchIterator = new CompletableFuture<>();
     private final CompletableFuture<BatchIterator> rightBatchIterator = new CompletableFuture<>();
     private final CompletableFuture<Void> completionFuture = new CompletableFuture<>();
 
     public NestedLoopOperation(BatchConsumer nlResultConsumer,
                                Predicate<Row> joinPredicate,
-                               JoinType joinType) {
+                               JoinType joinType,
+                               @Nullable HashJoinKeys hashJoinKeys,
+                               RamAccountingContext ramAccountingContext) {
 
         CompletableFuture.allOf(leftBatchIterator, rightBatchIterator)
             .whenComplete((result, failure) -> {
                 if (failure == null) {
-                    BatchIterator nlIterator = new ListenableBatchIterator(createNestedLoopIterator(
-                        leftBatchIterator.join(),
-                        rightBatchIterator.join(),
-                        joinType,
-                        joinPredicate
-                    ), completionFuture);
+                    BatchIterator joinIterator;
+                    if (hashJoinKeys != null && supportsHashJoin(joinType)) {
+                        joinIterator = createHashJoinIterator(
+                            leftBatchIterator.join(),
+                            rightBatchIterator.join(),
+                            joinType,
+                            joinPredicate,
+                            hashJoinKeys,
+                            ramAccountingContext
+                        );
+                    } else {
+                        joinIterator = createNestedLoopIterator(
+                            leftBatchIterator.join(),
+                            rightBatchIterator.join(),
+                            joinType,
+                            joinPredicate
+                        );
+                    }
+                    BatchIterator nlIterator = new ListenableBatchIterator(joinIterator, completionFuture);
                     nlResultConsumer.accept(nlIterator, null);
                 } else {
                     nlResultConsumer.accept(null, failure);
@@ -97,6 +119,50 @@ public class NestedLoopOperation implements CompletionListenable {
         }
     }
 
+    private static boolean supportsHashJoin(JoinType joinType) {
+        switch (joinType) {
+            case INNER:
+            case LEFT:
+            case RIGHT:
+            case FULL:
+                return true;
+
+            default:
+                return false;
+        }
+    }
+
+    private static BatchIterator createHashJoinIterator(BatchIterator left,
+                                                        BatchIterator right,
+                                                        JoinType joinType,
+                                                        Predicate<Row> joinCondition,
+                                                        HashJoinKeys keys,
+                                                        RamAccountingContext ramAccountingContext) {
+        HashJoinBatchIterator.RowAccounting rowAccounting = new HashJoinRowAccounting(ramAccountingContext);
+        long breakerLimit = ramAccountingContext.limit();
+        long maxBlockBytes = breakerLimit > 0 ? (long) (breakerLimit * HASH_JOIN_BLOCK_SIZE_RATIO) : Long.MAX_VALUE;
+        switch (joinType) {
+            case INNER:
+                return HashJoinBatchIterator.innerJoin(left, right, keys.leftKey(), keys.rightKey(),
+                    getJoinCondition(joinCondition), rowAccounting, maxBlockBytes);
+
+            case LEFT:
+                return HashJoinBatchIterator.leftJoin(left, right, keys.leftKey(), keys.rightKey(),
+                    getJoinCondition(joinCondition), rowAccounting, maxBlockBytes);
+
+            case RIGHT:
+                return HashJoinBatchIterator.rightJoin(left, right, keys.leftKey(), keys.rightKey(),
+                    getJoinCondition(joinCondition), rowAccounting, maxBlockBytes);
+
+            case FULL:
+                return HashJoinBatchIterator.fullOuterJoin(left, right, keys.leftKey(), keys.rightKey(),
+                    getJoinCondition(joinCondition), rowAccounting, maxBlockBytes);
+
+            default:
+                throw new AssertionError("Invalid joinType for hash join: " + joinType);
+        }
+    }
+
     private static Function<Columns, BooleanSupplier> getJoinCondition(Predicate<Row> joinCondition) {
         return columns -> {
             final Row row = RowBridging.toRow(columns);
@@ -0,0 +1,269 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.operation.operator;
+
+import io.crate.operation.scalar.regex.MatcherCache;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.StringHelper;
+import org.apache.lucene.util.automaton.Automata;
+import org.apache.lucene.util.automaton.Automaton;
+import org.apache.lucene.util.automaton.ByteRunAutomaton;
+import org.apache.lucene.util.automaton.Operations;
+import org.apache.lucene.util.automaton.TooComplexToDeterminizeException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Matches UTF-8 encoded values against a LIKE pattern without converting them to Strings.
+ *
+ * Patterns which consist of a literal with a leading and/or trailing {@code %} are matched with a byte comparison,
+ * all other patterns are converted to an automaton.
+ */
+public abstract class LikeMatcher {
+
+    // tokens for the unescaped wildcards '%' and '_'
+    private static final Object ANY_STRING = new Object();
+    private static final Object ANY_CHAR = new Object();
+
+    // used if the pattern isn't a literal and changes from row to row
+    private static final MatcherCache<BytesRef, LikeMatcher> CACHE = new MatcherCache<>(LikeMatcher::weight);
+
+    public abstract boolean matches(BytesRef value);
+
+    /**
+     * The size of the matcher as weighed by the cache.
+     */
+    int weight() {
+        return 1;
+    }
+
+    /**
+     * Returns the matcher for the pattern, re-using the matcher of a previous call with the same pattern.
+     */
+    public static LikeMatcher cached(BytesRef pattern) {
+        LikeMatcher matcher = CACHE.getIfPresent(pattern);
+        if (matcher == null) {
+            matcher = of(pattern.utf8ToString());
+            // copy because the pattern may be a re-used instance
+            CACHE.put(BytesRef.deepCopyOf(pattern), matcher);
+        }
+        return matcher;
+    }
+
+    public static LikeMatcher of(String pattern) {
+        List<Object> tokens = tokenize(pattern);
+        boolean hasAnyChar = tokens.contains(ANY_CHAR);
+        if (!hasAnyChar) {
+            int numTokens = tokens.size();
+            if (numTokens == 0) {
+                return new Exact(new BytesRef(""));
+            }
+            Object first = tokens.get(0);
+            Object last = tokens.get(numTokens - 1);
+            if (numTokens == 1) {
+                return first == ANY_STRING ? Any.INSTANCE : new Exact(new BytesRef((String) first));
+            }
+            if (numTokens == 2) {
+                if (last == ANY_STRING) {
+                    return new Prefix(new BytesRef((String) first));
+                }
+                return new Suffix(new BytesRef((String) last));
+            }
+            if (numTokens == 3 && first == ANY_STRING && last == ANY_STRING) {
+                return new Contains(new BytesRef((String) tokens.get(1)));
+            }
+        }
+        List<Automaton> automata = new ArrayList<>(tokens.size());
+        for (Object token : tokens) {
+            if (token == ANY_STRING) {
+                automata.add(Automata.makeAnyString());
+            } else if (token == ANY_CHAR) {
+                automata.add(Automata.makeAnyChar());
+            } else {
+                automata.add(Automata.makeString((String) token));
+            }
+        }
+        try {
+            return new RunAutomaton(new ByteRunAutomaton(Operations.concatenate(automata)));
+        } catch (TooComplexToDeterminizeException e) {
+            // e.g. many '_' after a '%'
+            return new Regex(Pattern.compile(
+                LikeOperator.patternToRegex(pattern, LikeOperator.DEFAULT_ESCAPE, true), Pattern.DOTALL));
+        }
+    }
+
+    /**
+     * Splits the pattern into literals (Strings), {@link #ANY_STRING} and {@link #ANY_CHAR}.
+     * Consecutive {@code %} are collapsed. The escaping is the same as in {@link LikeOperator#patternToRegex}.
+     */
+    private static List<Object> tokenize(String pattern) {
+        List<Object> tokens = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        boolean escaped = false;
+        for (int i = 0; i < pattern.length(); i++) {
+            char currentChar = pattern.charAt(i);
+            if (!escaped && currentChar == LikeOperator.DEFAULT_ESCAPE) {
+                escaped = true;
+                continue;
+            }
+            if (!escaped && (currentChar == '%' || currentChar == '_')) {
+                if (literal.length() > 0) {
+                    tokens.add(literal.toString());
+                    literal.setLength(0);
+                }
+                if (currentChar == '_') {
+                    tokens.add(ANY_CHAR);
+                } else if (tokens.isEmpty() || tokens.get(tokens.size() - 1) != ANY_STRING) {
+                    tokens.add(ANY_STRING);
+                }
+            } else {
+                literal.append(currentChar);
+            }
+            escaped = false;
+        }
+        if (literal.length() > 0) {
+            tokens.add(literal.toString());
+        }
+        return tokens;
+    }
+
+    private static class Any extends LikeMatcher {
+
+        private static final Any INSTANCE = new Any();
+
+        @Override
+        public boolean matches(BytesRef value) {
+            return true;
+        }
+    }
+
+    private static class Exact extends LikeMatcher {
+
+        private final BytesRef literal;
+
+        Exact(BytesRef literal) {
+            this.literal = literal;
+        }
+
+        @Override
+        public boolean matches(BytesRef value) {
+            return literal.bytesEquals(value);
+        }
+    }
+
+    private static class Prefix extends LikeMatcher {
+
+        private final BytesRef prefix;
+
+        Prefix(BytesRef prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public boolean matches(BytesRef value) {
+            return StringHelper.startsWith(value, prefix);
+        }
+    }
+
+    private static class Suffix extends LikeMatcher {
+
+        private final BytesRef suffix;
+
+        Suffix(BytesRef suffix) {
+            this.suffix = suffix;
+        }
+
+        @Override
+        public boolean matches(BytesRef value) {
+            return StringHelper.endsWith(value, suffix);
+        }
+    }
+
+    /**
+     * UTF-8 is self-synchronizing, so a match of the bytes is always a match of the characters.
+     */
+    private static class Contains extends LikeMatcher {
+
+        private final BytesRef infix;
+
+        Contains(BytesRef infix) {
+            this.infix = infix;
+        }
+
+        @Override
+        public boolean matches(BytesRef value) {
+            byte[] bytes = value.bytes;
+            byte first = infix.bytes[infix.offset];
+            int last = value.offset + value.length - infix.length;
+            for (int i = value.offset; i <= last; i++) {
+                if (bytes[i] == first && matchesAt(bytes, i)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean matchesAt(byte[] bytes, int start) {
+            for (int j = 1; j < infix.length; j++) {
+                if (bytes[start + j] != infix.bytes[infix.offset + j]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static class RunAutomaton extends LikeMatcher {
+
+        private final ByteRunAutomaton automaton;
+
+        RunAutomaton(ByteRunAutomaton automaton) {
+            this.automaton = automaton;
+        }
+
+        @Override
+        public boolean matches(BytesRef value) {
+            return automaton.run(value.bytes, value.offset, value.length);
+        }
+
+        @Override
+        int weight() {
+            return automaton.getSize();
+        }
+    }
+
+    private static class Regex extends LikeMatcher {
+
+        private final Pattern pattern;
+
+        Regex(Pattern pattern) {
+            this.pattern = pattern;
+        }
+
+        @Override
+        public boolean matches(BytesRef value) {
+            return pattern.matcher(value.utf8ToString()).matches();
+        }
+    }
+}
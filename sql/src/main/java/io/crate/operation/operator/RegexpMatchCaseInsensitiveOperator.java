@@ -23,6 +23,7 @@ package io.crate.operation.operator;
 
 import io.crate.data.Input;
 import io.crate.metadata.FunctionInfo;
+import io.crate.operation.scalar.regex.RegexMatcher;
 import io.crate.types.DataTypes;
 import org.apache.lucene.util.BytesRef;
 
@@ -51,7 +52,7 @@ public class RegexpMatchCaseInsensitiveOperator extends Operator<BytesRef> {
             return null;
         }
 
-        Pattern p = Pattern.compile(pattern.utf8ToString(), Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+        Pattern p = RegexMatcher.compile(pattern.utf8ToString(), Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
         return p.matcher(source.utf8ToString()).matches();
     }
 
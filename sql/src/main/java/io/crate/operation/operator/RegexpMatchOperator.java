@@ -21,13 +21,21 @@
 
 package io.crate.operation.operator;
 
+import io.crate.analyze.symbol.Symbol;
 import io.crate.data.Input;
 import io.crate.metadata.FunctionInfo;
+import io.crate.metadata.Scalar;
+import io.crate.operation.scalar.regex.MatcherCache;
+import io.crate.operation.scalar.regex.RegexMatcher;
 import io.crate.types.DataTypes;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.automaton.ByteRunAutomaton;
 import org.apache.lucene.util.automaton.RegExp;
 
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
 import static io.crate.operation.scalar.regex.RegexMatcher.isPcrePattern;
 
 
@@ -36,10 +44,29 @@ public class RegexpMatchOperator extends Operator<BytesRef> {
     public static final String NAME = "op_~";
     public static final FunctionInfo INFO = generateInfo(NAME, DataTypes.STRING);
 
+    // characters with a special meaning in the lucene regular expression syntax
+    private static final String SPECIAL_CHARS = ".?+*|{}[]()\"\\#@&<>~";
+
+    // used if the pattern isn't a literal and changes from row to row
+    private static final MatcherCache<BytesRef, Predicate<BytesRef>> MATCHERS = new MatcherCache<>(
+        matcher -> matcher instanceof AutomatonMatcher ? ((AutomatonMatcher) matcher).automaton.getSize() : 1);
+
     public static void register(OperatorModule module) {
         module.registerOperatorFunction(new RegexpMatchOperator());
     }
 
+    @Override
+    public Scalar<Boolean, BytesRef> compile(List<Symbol> arguments) {
+        Symbol pattern = arguments.get(1);
+        if (pattern instanceof Input) {
+            Object value = ((Input) pattern).value();
+            if (value == null) {
+                return this;
+            }
+            return new CompiledRegexpMatch(matcher(((BytesRef) value).utf8ToString()));
+        }
+        return super.compile(arguments);
+    }
 
     @Override
     public Boolean evaluate(Input<BytesRef>... args) {
@@ -52,18 +79,80 @@ public class RegexpMatchOperator extends Operator<BytesRef> {
         if (pattern == null) {
             return null;
         }
-        String sPattern = pattern.utf8ToString();
-        if (isPcrePattern(sPattern)) {
-            return source.utf8ToString().matches(sPattern);
-        } else {
-            RegExp regexp = new RegExp(sPattern);
-            ByteRunAutomaton regexpRunAutomaton = new ByteRunAutomaton(regexp.toAutomaton());
-            return regexpRunAutomaton.run(source.bytes, source.offset, source.length);
+        Predicate<BytesRef> matcher = MATCHERS.getIfPresent(pattern);
+        if (matcher == null) {
+            matcher = matcher(pattern.utf8ToString());
+            // copy because the pattern may be a re-used instance
+            MATCHERS.put(BytesRef.deepCopyOf(pattern), matcher);
         }
+        return matcher.test(source);
+    }
+
+    /**
+     * Creates a matcher which works on the UTF-8 bytes unless the pattern uses PCRE features.
+     * Patterns without any special characters are compared byte by byte.
+     */
+    private static Predicate<BytesRef> matcher(String pattern) {
+        if (isPcrePattern(pattern)) {
+            Pattern compiledPattern = RegexMatcher.compile(pattern, 0);
+            return source -> compiledPattern.matcher(source.utf8ToString()).matches();
+        }
+        if (isLiteral(pattern)) {
+            BytesRef literal = new BytesRef(pattern);
+            return literal::bytesEquals;
+        }
+        return new AutomatonMatcher(new ByteRunAutomaton(new RegExp(pattern).toAutomaton()));
+    }
+
+    private static boolean isLiteral(String pattern) {
+        for (int i = 0; i < pattern.length(); i++) {
+            if (SPECIAL_CHARS.indexOf(pattern.charAt(i)) != -1) {
+                return false;
+            }
+        }
+        return true;
     }
 
     @Override
     public FunctionInfo info() {
         return INFO;
     }
+
+    private static class AutomatonMatcher implements Predicate<BytesRef> {
+
+        private final ByteRunAutomaton automaton;
+
+        AutomatonMatcher(ByteRunAutomaton automaton) {
+            this.automaton = automaton;
+        }
+
+        @Override
+        public boolean test(BytesRef source) {
+            return automaton.run(source.bytes, source.offset, source.length);
+        }
+    }
+
+    private static class CompiledRegexpMatch extends Scalar<Boolean, BytesRef> {
+
+        private final Predicate<BytesRef> matcher;
+
+        CompiledRegexpMatch(Predicate<BytesRef> matcher) {
+            this.matcher = matcher;
+        }
+
+        @Override
+        public FunctionInfo info() {
+            return INFO;
+        }
+
+        @SafeVarargs
+        @Override
+        public final Boolean evaluate(Input<BytesRef>... args) {
+            BytesRef source = args[0].value();
+            if (source == null) {
+                return null;
+            }
+            return matcher.test(source);
+        }
+    }
 }
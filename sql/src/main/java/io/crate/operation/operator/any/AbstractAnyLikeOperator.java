@@ -22,6 +22,7 @@
 package io.crate.operation.operator.any;
 
 import io.crate.metadata.FunctionInfo;
+import io.crate.operation.operator.LikeMatcher;
 import org.apache.lucene.util.BytesRef;
 
 public abstract class AbstractAnyLikeOperator extends AnyOperator {
@@ -37,8 +38,7 @@ public abstract class AbstractAnyLikeOperator extends AnyOperator {
 
     @Override
     protected Boolean doEvaluate(Object left, Iterable<?> rightIterable) {
-        BytesRef rightBytesRef = (BytesRef) left;
-        String pattern = rightBytesRef.utf8ToString();
+        LikeMatcher matcher = LikeMatcher.cached((BytesRef) left);
 
         boolean hasNull = false;
         for (Object elem : rightIterable) {
@@ -48,18 +48,18 @@ public abstract class AbstractAnyLikeOperator extends AnyOperator {
             }
             assert elem instanceof BytesRef || elem instanceof String : "elem must be BytesRef or String";
 
-            String elemValue;
+            BytesRef elemValue;
             if (elem instanceof BytesRef) {
-                elemValue = ((BytesRef) elem).utf8ToString();
+                elemValue = (BytesRef) elem;
             } else {
-                elemValue = (String) elem;
+                elemValue = new BytesRef((String) elem);
             }
-            if (matches(elemValue, pattern)) {
+            if (matches(elemValue, matcher)) {
                 return true;
             }
         }
         return hasNull ? null : false;
     }
 
-    protected abstract boolean matches(String expression, String pattern);
+    protected abstract boolean matches(BytesRef expression, LikeMatcher pattern);
 }
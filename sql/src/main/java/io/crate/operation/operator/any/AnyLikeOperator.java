@@ -23,10 +23,9 @@ package io.crate.operation.operator.any;
 
 import io.crate.metadata.FunctionImplementation;
 import io.crate.metadata.FunctionInfo;
-import io.crate.operation.operator.LikeOperator;
+import io.crate.operation.operator.LikeMatcher;
 import io.crate.operation.operator.OperatorModule;
-
-import java.util.regex.Pattern;
+import org.apache.lucene.util.BytesRef;
 
 
 public class AnyLikeOperator extends AbstractAnyLikeOperator {
@@ -54,10 +53,7 @@ public class AnyLikeOperator extends AbstractAnyLikeOperator {
         super(info);
     }
 
-    protected boolean matches(String expression, String pattern) {
-        return Pattern.matches(
-            LikeOperator.patternToRegex(pattern, LikeOperator.DEFAULT_ESCAPE, true),
-            expression
-        );
+    protected boolean matches(BytesRef expression, LikeMatcher pattern) {
+        return pattern.matches(expression);
     }
 }
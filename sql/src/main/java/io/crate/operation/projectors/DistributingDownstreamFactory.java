@@ -23,6 +23,7 @@ package io.crate.operation.projectors;
 
 import io.crate.Streamer;
 import io.crate.data.BatchConsumer;
+import io.crate.executor.transport.StreamBucketStats;
 import io.crate.executor.transport.distributed.BroadcastingBucketBuilder;
 import io.crate.executor.transport.distributed.DistributingConsumer;
 import io.crate.executor.transport.distributed.ModuloBucketBuilder;
@@ -54,17 +55,20 @@ public class DistributingDownstreamFactory extends AbstractComponent {
     private final ClusterService clusterService;
     private final Executor responseExecutor;
     private final TransportDistributedResultAction transportDistributedResultAction;
+    private final StreamBucketStats streamBucketStats;
     private final Logger distributingDownstreamLogger;
 
     @Inject
     public DistributingDownstreamFactory(Settings settings,
                                          ClusterService clusterService,
                                          ThreadPool threadPool,
-                                         TransportDistributedResultAction transportDistributedResultAction) {
+                                         TransportDistributedResultAction transportDistributedResultAction,
+                                         StreamBucketStats streamBucketStats) {
         super(settings);
         this.clusterService = clusterService;
         this.responseExecutor = threadPool.executor(RESPONSE_EXECUTOR_NAME);
         this.transportDistributedResultAction = transportDistributedResultAction;
+        this.streamBucketStats = streamBucketStats;
         distributingDownstreamLogger = Loggers.getLogger(DistributingConsumer.class, settings);
     }
 
@@ -83,14 +87,19 @@ public class DistributingDownstreamFactory extends AbstractComponent {
         switch (distributionInfo.distributionType()) {
             case MODULO:
                 if (nodeOperation.downstreamNodes().size() == 1) {
-                    multiBucketBuilder = new BroadcastingBucketBuilder(streamers, nodeOperation.downstreamNodes().size());
+                    multiBucketBuilder = new BroadcastingBucketBuilder(
+                        streamers, nodeOperation.downstreamNodes().size(), streamBucketStats);
                 } else {
-                    multiBucketBuilder = new ModuloBucketBuilder(streamers,
-                        nodeOperation.downstreamNodes().size(), distributionInfo.distributeByColumn());
+                    multiBucketBuilder = new ModuloBucketBuilder(
+                        streamers,
+                        nodeOperation.downstreamNodes().size(),
+                        distributionInfo.distributeByColumn(),
+                        streamBucketStats);
                 }
                 break;
             case BROADCAST:
-                multiBucketBuilder = new BroadcastingBucketBuilder(streamers, nodeOperation.downstreamNodes().size());
+                multiBucketBuilder = new BroadcastingBucketBuilder(
+                    streamers, nodeOperation.downstreamNodes().size(), streamBucketStats);
                 break;
             default:
                 throw new UnsupportedOperationException("Can't handle distributionInfo: " + distributionInfo);
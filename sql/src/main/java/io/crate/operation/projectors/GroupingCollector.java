@@ -223,7 +223,7 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
     }
 
 
-    private static class MultiSizeEstimator extends SizeEstimator<List<Object>> {
+    static class MultiSizeEstimator extends SizeEstimator<List<Object>> {
 
         private final List<SizeEstimator<Object>> subEstimators;
 
@@ -25,6 +25,7 @@ import io.crate.analyze.symbol.AggregateMode;
 import io.crate.breaker.RamAccountingContext;
 import io.crate.data.BatchIterator;
 import io.crate.data.CollectingBatchIterator;
+import io.crate.data.ForwardingBatchIterator;
 import io.crate.data.Input;
 import io.crate.data.Projector;
 import io.crate.data.Row;
@@ -33,14 +34,34 @@ import io.crate.operation.aggregation.AggregationFunction;
 import io.crate.operation.collect.CollectExpression;
 import io.crate.types.DataType;
 import io.crate.types.DataTypes;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.unit.ByteSizeValue;
 
+import javax.annotation.Nullable;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.stream.Collector;
 
 public class GroupingProjector implements Projector {
 
-    private final GroupingCollector<Object> collector;
+    public static final Setting<Boolean> SPILL_ENABLED_SETTING = Setting.boolSetting(
+        "node.sql.group_by.spill.enabled",
+        false,
+        Setting.Property.NodeScope);
+
+    /**
+     * Amount of memory accounted by a GROUP BY operation after which groups are spilled to disk
+     */
+    public static final Setting<ByteSizeValue> SPILL_THRESHOLD_SETTING = Setting.memorySizeSetting(
+        "node.sql.group_by.spill.threshold",
+        "10%",
+        Setting.Property.NodeScope);
+
+    private final Collector<Row, ?, Iterable<Row>> collector;
     private final int numCols;
 
+    @Nullable
+    private final SpillingGroupingCollector<?> spillingCollector;
 
     public GroupingProjector(List<? extends DataType> keyTypes,
                              List<Input<?>> keyInputs,
@@ -48,6 +69,22 @@ public class GroupingProjector implements Projector {
                              AggregateMode mode,
                              AggregationContext[] aggregations,
                              RamAccountingContext ramAccountingContext) {
+        this(keyTypes, keyInputs, collectExpressions, mode, aggregations, ramAccountingContext, null, null);
+    }
+
+    /**
+     * @param spillThreshold if not null, groups are spilled to disk once the memory used by the groups
+     *                       exceeds this amount of bytes
+     * @param spillDirectory directory in which the spill files are created, required if spillThreshold is set
+     */
+    public GroupingProjector(List<? extends DataType> keyTypes,
+                             List<Input<?>> keyInputs,
+                             CollectExpression<Row, ?>[] collectExpressions,
+                             AggregateMode mode,
+                             AggregationContext[] aggregations,
+                             RamAccountingContext ramAccountingContext,
+                             @Nullable Long spillThreshold,
+                             @Nullable Path spillDirectory) {
         assert keyTypes.size() == keyInputs.size() : "number of key types must match with number of key inputs";
         assert allTypesKnown(keyTypes) : "must have a known type for each key input";
 
@@ -59,7 +96,46 @@ public class GroupingProjector implements Projector {
             functions[i] = aggregation.function();
             inputs[i] = aggregation.inputs();
         }
-        if (keyInputs.size() == 1) {
+        if (spillThreshold != null) {
+            if (keyInputs.size() == 1) {
+                spillingCollector = SpillingGroupingCollector.singleKey(
+                    collectExpressions,
+                    mode,
+                    functions,
+                    inputs,
+                    ramAccountingContext,
+                    keyInputs.get(0),
+                    keyTypes.get(0),
+                    spillThreshold,
+                    spillDirectory
+                );
+            } else {
+                spillingCollector = SpillingGroupingCollector.manyKeys(
+                    collectExpressions,
+                    mode,
+                    functions,
+                    inputs,
+                    ramAccountingContext,
+                    keyInputs,
+                    keyTypes,
+                    spillThreshold,
+                    spillDirectory
+                );
+            }
+            collector = spillingCollector;
+        } else if (LongKeyGroupingCollector.supports(keyTypes)) {
+            spillingCollector = null;
+            collector = new LongKeyGroupingCollector(
+                collectExpressions,
+                mode,
+                functions,
+                inputs,
+                ramAccountingContext,
+                keyInputs,
+                keyTypes
+            );
+        } else if (keyInputs.size() == 1) {
+            spillingCollector = null;
             collector = GroupingCollector.singleKey(
                 collectExpressions,
                 mode,
@@ -70,8 +146,8 @@ public class GroupingProjector implements Projector {
                 keyTypes.get(0)
             );
         } else {
-            //noinspection unchecked
-            collector = (GroupingCollector<Object>) (GroupingCollector) GroupingCollector.manyKeys(
+            spillingCollector = null;
+            collector = GroupingCollector.manyKeys(
                 collectExpressions,
                 mode,
                 functions,
@@ -90,7 +166,25 @@ public class GroupingProjector implements Projector {
 
     @Override
     public BatchIterator apply(BatchIterator batchIterator) {
-        return CollectingBatchIterator.newInstance(batchIterator, collector, numCols);
+        BatchIterator groupingIterator = CollectingBatchIterator.newInstance(batchIterator, collector, numCols);
+        if (spillingCollector == null) {
+            return groupingIterator;
+        }
+        return new ForwardingBatchIterator() {
+            @Override
+            protected BatchIterator delegate() {
+                return groupingIterator;
+            }
+
+            @Override
+            public void close() {
+                try {
+                    super.close();
+                } finally {
+                    spillingCollector.close();
+                }
+            }
+        };
     }
 
     @Override
@@ -0,0 +1,263 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.projectors;
+
+import io.crate.analyze.symbol.AggregateMode;
+import io.crate.breaker.RamAccountingContext;
+import io.crate.data.Input;
+import io.crate.data.Row;
+import io.crate.data.RowN;
+import io.crate.operation.aggregation.AggregationFunction;
+import io.crate.operation.collect.CollectExpression;
+import io.crate.types.DataType;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collector;
+
+/**
+ * Variant of {@link GroupingCollector} for keys which are all of a fixed width primitive type (see {@link LongKeys}).
+ *
+ * Instead of boxing the keys (and wrapping multiple keys in a list) to use them in a {@code HashMap},
+ * the keys are encoded as longs and the group states are kept in a {@link LongKeyHashTable}.
+ *
+ * If there are multiple key columns, an additional long is appended to each key which holds a bitmask
+ * of the key columns which are null. In case of a single key column the null-group is kept separately.
+ */
+class LongKeyGroupingCollector implements Collector<Row, LongKeyGroupingCollector.Groups, Iterable<Row>> {
+
+    /**
+     * Limited by the number of bits available in the null-mask
+     */
+    private static final int MAX_KEY_COLUMNS = 64;
+
+    private final CollectExpression<Row, ?>[] expressions;
+    private final AggregationFunction[] aggregations;
+    private final AggregateMode mode;
+    private final Input[][] inputs;
+    private final RamAccountingContext ramAccountingContext;
+    private final List<Input<?>> keyInputs;
+    private final ToLongFunction<Object>[] encoders;
+    private final LongFunction<Object>[] decoders;
+    private final int numKeyColumns;
+    private final int keyWidth;
+    private final long statesSizeInBytes;
+
+    static boolean supports(List<? extends DataType> keyTypes) {
+        return keyTypes.size() <= MAX_KEY_COLUMNS && LongKeys.supportsAll(keyTypes);
+    }
+
+    @SuppressWarnings("unchecked")
+    LongKeyGroupingCollector(CollectExpression<Row, ?>[] expressions,
+                             AggregateMode mode,
+                             AggregationFunction[] aggregations,
+                             Input[][] inputs,
+                             RamAccountingContext ramAccountingContext,
+                             List<Input<?>> keyInputs,
+                             List<? extends DataType> keyTypes) {
+        assert supports(keyTypes) : "keyTypes must be supported by LongKeyGroupingCollector";
+        this.expressions = expressions;
+        this.aggregations = aggregations;
+        this.mode = mode;
+        this.inputs = inputs;
+        this.ramAccountingContext = ramAccountingContext;
+        this.keyInputs = keyInputs;
+        this.numKeyColumns = keyInputs.size();
+        this.keyWidth = numKeyColumns == 1 ? 1 : numKeyColumns + 1;
+        this.encoders = new ToLongFunction[numKeyColumns];
+        this.decoders = new LongFunction[numKeyColumns];
+        for (int i = 0; i < numKeyColumns; i++) {
+            DataType keyType = keyTypes.get(i);
+            encoders[i] = LongKeys.encoder(keyType);
+            decoders[i] = LongKeys.decoder(keyType);
+        }
+        // array header + 4 bytes per state reference
+        this.statesSizeInBytes = RamAccountingContext.roundUp(16L + 4L * aggregations.length);
+    }
+
+    static class Groups {
+
+        private final LongKeyHashTable table;
+        private final long[] key;
+        private Object[] nullKeyStates;
+
+        Groups(int keyWidth, RamAccountingContext ramAccountingContext) {
+            this.table = new LongKeyHashTable(keyWidth, ramAccountingContext);
+            this.key = new long[keyWidth];
+        }
+    }
+
+    @Override
+    public Supplier<Groups> supplier() {
+        return () -> new Groups(keyWidth, ramAccountingContext);
+    }
+
+    @Override
+    public BiConsumer<Groups, Row> accumulator() {
+        return this::onNextRow;
+    }
+
+    @Override
+    public BinaryOperator<Groups> combiner() {
+        return (state1, state2) -> {
+            throw new UnsupportedOperationException("combine not supported");
+        };
+    }
+
+    @Override
+    public Function<Groups, Iterable<Row>> finisher() {
+        return this::groupsToRows;
+    }
+
+    @Override
+    public Set<Characteristics> characteristics() {
+        return Collections.emptySet();
+    }
+
+    private void onNextRow(Groups groups, Row row) {
+        for (CollectExpression<Row, ?> expression : expressions) {
+            expression.setNextRow(row);
+        }
+        Object[] states;
+        if (encodeKey(groups.key)) {
+            states = groups.table.get(groups.key);
+            if (states == null) {
+                groups.table.putNew(groups.key, newStates());
+                return;
+            }
+        } else {
+            states = groups.nullKeyStates;
+            if (states == null) {
+                groups.nullKeyStates = newStates();
+                return;
+            }
+        }
+        for (int i = 0; i < aggregations.length; i++) {
+            states[i] = mode.onRow(ramAccountingContext, aggregations[i], states[i], inputs[i]);
+        }
+    }
+
+    /**
+     * @return false if the key is the single-column null key which can't be represented in the table
+     */
+    private boolean encodeKey(long[] key) {
+        if (numKeyColumns == 1) {
+            Object value = keyInputs.get(0).value();
+            if (value == null) {
+                return false;
+            }
+            key[0] = encoders[0].applyAsLong(value);
+            return true;
+        }
+        long nullMask = 0L;
+        for (int i = 0; i < numKeyColumns; i++) {
+            Object value = keyInputs.get(i).value();
+            if (value == null) {
+                key[i] = 0L;
+                nullMask |= 1L << i;
+            } else {
+                key[i] = encoders[i].applyAsLong(value);
+            }
+        }
+        key[numKeyColumns] = nullMask;
+        return true;
+    }
+
+    private Object[] newStates() {
+        Object[] states = new Object[aggregations.length];
+        for (int i = 0; i < aggregations.length; i++) {
+            AggregationFunction aggregation = aggregations[i];
+            states[i] = mode.onRow(
+                ramAccountingContext, aggregation, aggregation.newState(ramAccountingContext), inputs[i]);
+        }
+        ramAccountingContext.addBytes(statesSizeInBytes);
+        return states;
+    }
+
+    private Iterable<Row> groupsToRows(Groups groups) {
+        return () -> new Iterator<Row>() {
+
+            final LongKeyHashTable table = groups.table;
+            final Object[] cells = new Object[numKeyColumns + aggregations.length];
+            final RowN row = new RowN(cells);
+
+            boolean nullKeyPending = groups.nullKeyStates != null;
+            int slot = nextSlot(0);
+
+            private int nextSlot(int from) {
+                for (int i = from; i < table.capacity(); i++) {
+                    if (table.valueAt(i) != null) {
+                        return i;
+                    }
+                }
+                return table.capacity();
+            }
+
+            @Override
+            public boolean hasNext() {
+                return nullKeyPending || slot < table.capacity();
+            }
+
+            @Override
+            public Row next() {
+                if (nullKeyPending) {
+                    nullKeyPending = false;
+                    cells[0] = null;
+                    setStates(groups.nullKeyStates);
+                    return row;
+                }
+                if (slot >= table.capacity()) {
+                    throw new NoSuchElementException("Iterator is exhausted");
+                }
+                long nullMask = numKeyColumns == 1 ? 0L : table.keyAt(slot, numKeyColumns);
+                for (int i = 0; i < numKeyColumns; i++) {
+                    if ((nullMask & (1L << i)) == 0) {
+                        cells[i] = decoders[i].apply(table.keyAt(slot, i));
+                    } else {
+                        cells[i] = null;
+                    }
+                }
+                setStates(table.valueAt(slot));
+                slot = nextSlot(slot + 1);
+                return row;
+            }
+
+            private void setStates(Object[] states) {
+                int c = numKeyColumns;
+                for (int i = 0; i < states.length; i++) {
+                    cells[c] = mode.finishCollect(ramAccountingContext, aggregations[i], states[i]);
+                    c++;
+                }
+            }
+        };
+    }
+}
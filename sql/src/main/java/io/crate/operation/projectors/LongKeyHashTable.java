@@ -0,0 +1,157 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.projectors;
+
+import com.carrotsearch.hppc.BitMixer;
+import io.crate.breaker.RamAccountingContext;
+
+import javax.annotation.Nullable;
+
+/**
+ * Open addressing hash table (linear probing) which maps keys consisting of {@code width} primitive longs to
+ * {@code Object[]} values.
+ *
+ * All keys are stored packed in a single {@code long[]} so that adding an entry doesn't allocate anything apart from
+ * the value itself. The memory used by the backing arrays is accounted on the given {@link RamAccountingContext}
+ * whenever they are (re-)allocated.
+ */
+final class LongKeyHashTable {
+
+    private static final int DEFAULT_CAPACITY = 1024;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private final int width;
+    private final RamAccountingContext ramAccountingContext;
+
+    private long[] keys;
+    private Object[][] values;
+    private int mask;
+    private int size;
+    private int resizeAt;
+
+    LongKeyHashTable(int width, RamAccountingContext ramAccountingContext) {
+        assert width > 0 : "width must be greater than 0";
+        this.width = width;
+        this.ramAccountingContext = ramAccountingContext;
+        allocate(DEFAULT_CAPACITY);
+    }
+
+    int width() {
+        return width;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * The number of slots; entries can be accessed using slot indices in the range of {@code [0, capacity)}
+     */
+    int capacity() {
+        return values.length;
+    }
+
+    @Nullable
+    Object[] get(long[] key) {
+        int slot = findSlot(key);
+        return values[slot];
+    }
+
+    /**
+     * Adds a new entry. The key must not be present already.
+     */
+    void putNew(long[] key, Object[] value) {
+        assert get(key) == null : "key must not be present";
+        if (size >= resizeAt) {
+            resize();
+        }
+        int slot = findSlot(key);
+        System.arraycopy(key, 0, keys, slot * width, width);
+        values[slot] = value;
+        size++;
+    }
+
+    @Nullable
+    Object[] valueAt(int slot) {
+        return values[slot];
+    }
+
+    long keyAt(int slot, int keyIdx) {
+        return keys[slot * width + keyIdx];
+    }
+
+    private int findSlot(long[] key) {
+        int slot = hash(key) & mask;
+        while (values[slot] != null && !keyEquals(slot, key)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private boolean keyEquals(int slot, long[] key) {
+        int offset = slot * width;
+        for (int i = 0; i < width; i++) {
+            if (keys[offset + i] != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int hash(long[] key) {
+        long h = key[0];
+        for (int i = 1; i < width; i++) {
+            h = 31 * h + key[i];
+        }
+        return (int) BitMixer.mix64(h);
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        Object[][] oldValues = values;
+        allocate(oldValues.length << 1);
+        long[] key = new long[width];
+        for (int slot = 0; slot < oldValues.length; slot++) {
+            Object[] value = oldValues[slot];
+            if (value != null) {
+                System.arraycopy(oldKeys, slot * width, key, 0, width);
+                int newSlot = findSlot(key);
+                System.arraycopy(key, 0, keys, newSlot * width, width);
+                values[newSlot] = value;
+            }
+        }
+        // the old arrays become garbage, but are still accounted; there is no way to release bytes from the context
+    }
+
+    private void allocate(int capacity) {
+        if (capacity < 0 || (long) capacity * width > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Too many groups, maximum capacity of hash table reached");
+        }
+        // 8 bytes per key column and 4 bytes for the reference to the value
+        ramAccountingContext.addBytes(RamAccountingContext.roundUp(capacity * (width * 8L + 4L)));
+        keys = new long[capacity * width];
+        values = new Object[capacity][];
+        mask = capacity - 1;
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+}
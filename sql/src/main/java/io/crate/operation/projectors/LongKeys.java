@@ -0,0 +1,119 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.projectors;
+
+import io.crate.types.BooleanType;
+import io.crate.types.ByteType;
+import io.crate.types.DataType;
+import io.crate.types.DoubleType;
+import io.crate.types.FloatType;
+import io.crate.types.IntegerType;
+import io.crate.types.LongType;
+import io.crate.types.ShortType;
+import io.crate.types.TimestampType;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.function.LongFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Encoding of fixed width key values into a primitive long (and back) so that they can be
+ * used as keys of primitive hash tables without boxing.
+ *
+ * The encoding is lossless and preserves equality: two values are equal if and only if their encoded longs are equal.
+ * {@code null} values must be handled by the caller.
+ */
+final class LongKeys {
+
+    private LongKeys() {
+    }
+
+    static boolean supports(DataType type) {
+        switch (type.id()) {
+            case LongType.ID:
+            case TimestampType.ID:
+            case IntegerType.ID:
+            case ShortType.ID:
+            case ByteType.ID:
+            case BooleanType.ID:
+            case DoubleType.ID:
+            case FloatType.ID:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    static boolean supportsAll(List<? extends DataType> types) {
+        for (DataType type : types) {
+            if (!supports(type)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static ToLongFunction<Object> encoder(DataType type) {
+        switch (type.id()) {
+            case LongType.ID:
+            case TimestampType.ID:
+            case IntegerType.ID:
+            case ShortType.ID:
+            case ByteType.ID:
+                return value -> ((Number) value).longValue();
+            case BooleanType.ID:
+                return value -> ((Boolean) value) ? 1L : 0L;
+            case DoubleType.ID:
+                return value -> Double.doubleToLongBits(((Number) value).doubleValue());
+            case FloatType.ID:
+                return value -> Float.floatToIntBits(((Number) value).floatValue());
+            default:
+                throw new IllegalArgumentException(
+                    String.format(Locale.ENGLISH, "Cannot encode values of type %s as long", type));
+        }
+    }
+
+    static LongFunction<Object> decoder(DataType type) {
+        switch (type.id()) {
+            case LongType.ID:
+            case TimestampType.ID:
+                return key -> key;
+            case IntegerType.ID:
+                return key -> (int) key;
+            case ShortType.ID:
+                return key -> (short) key;
+            case ByteType.ID:
+                return key -> (byte) key;
+            case BooleanType.ID:
+                return key -> key == 1L;
+            case DoubleType.ID:
+                return Double::longBitsToDouble;
+            case FloatType.ID:
+                return key -> Float.intBitsToFloat((int) key);
+            default:
+                throw new IllegalArgumentException(
+                    String.format(Locale.ENGLISH, "Cannot decode values of type %s from long", type));
+        }
+    }
+}
@@ -68,6 +68,7 @@ import io.crate.planner.projection.SysUpdateProjection;
 import io.crate.planner.projection.TopNProjection;
 import io.crate.planner.projection.UpdateProjection;
 import io.crate.planner.projection.WriterProjection;
+import io.crate.types.DataType;
 import io.crate.types.StringType;
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.settings.Settings;
@@ -93,6 +94,7 @@ public class ProjectionToProjectorVisitor
     private final Functions functions;
     private final ThreadPool threadPool;
     private final Settings settings;
+    private final SpillDirectory spillDirectory;
     private final TransportActionProvider transportActionProvider;
     private final InputFactory inputFactory;
     private final EvaluatingNormalizer normalizer;
@@ -106,6 +108,7 @@ public class ProjectionToProjectorVisitor
                                         Functions functions,
                                         ThreadPool threadPool,
                                         Settings settings,
+                                        SpillDirectory spillDirectory,
                                         TransportActionProvider transportActionProvider,
                                         InputFactory inputFactory,
                                         EvaluatingNormalizer normalizer,
@@ -117,6 +120,7 @@ public class ProjectionToProjectorVisitor
         this.functions = functions;
         this.threadPool = threadPool;
         this.settings = settings;
+        this.spillDirectory = spillDirectory;
         this.transportActionProvider = transportActionProvider;
         this.inputFactory = inputFactory;
         this.normalizer = normalizer;
@@ -130,6 +134,7 @@ public class ProjectionToProjectorVisitor
                                         Functions functions,
                                         ThreadPool threadPool,
                                         Settings settings,
+                                        SpillDirectory spillDirectory,
                                         TransportActionProvider transportActionProvider,
                                         InputFactory inputFactory,
                                         EvaluatingNormalizer normalizer,
@@ -140,6 +145,7 @@ public class ProjectionToProjectorVisitor
             functions,
             threadPool,
             settings,
+            spillDirectory,
             transportActionProvider,
             inputFactory,
             normalizer,
@@ -181,6 +187,22 @@ public class ProjectionToProjectorVisitor
                 projection.offset()
             );
         }
+        if (SortingProjector.SPILL_ENABLED_SETTING.get(settings)) {
+            List<DataType> inputTypes = new ArrayList<>(inputs.size());
+            inputTypes.addAll(Symbols.typeView(projection.outputs()));
+            inputTypes.addAll(Symbols.typeView(projection.orderBy()));
+            return new SortingProjector(
+                inputs,
+                inputTypes,
+                ctx.expressions(),
+                numOutputs,
+                OrderingByPosition.arrayOrdering(orderByIndices, projection.reverseFlags(), projection.nullsFirst()),
+                projection.offset(),
+                context.ramAccountingContext,
+                SortingProjector.SPILL_THRESHOLD_SETTING.get(settings).getBytes(),
+                spillDirectory.path()
+            );
+        }
         return new SortingProjector(
             inputs,
             ctx.expressions(),
@@ -215,13 +237,16 @@ public class ProjectionToProjectorVisitor
         ctx.add(projection.values());
 
         List<Input<?>> keyInputs = ctx.topLevelInputs();
+        boolean spillEnabled = GroupingProjector.SPILL_ENABLED_SETTING.get(settings);
         return new GroupingProjector(
             Symbols.typeView(projection.keys()),
             keyInputs,
             Iterables.toArray(ctx.expressions(), CollectExpression.class),
             projection.mode(),
             ctx.aggregations().toArray(new AggregationContext[0]),
-            context.ramAccountingContext
+            context.ramAccountingContext,
+            spillEnabled ? GroupingProjector.SPILL_THRESHOLD_SETTING.get(settings).getBytes() : null,
+            spillEnabled ? spillDirectory.path() : null
         );
     }
 
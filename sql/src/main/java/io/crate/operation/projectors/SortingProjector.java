@@ -22,15 +22,22 @@
 package io.crate.operation.projectors;
 
 import com.google.common.base.Preconditions;
+import io.crate.breaker.RamAccountingContext;
 import io.crate.data.BatchIterator;
 import io.crate.data.Bucket;
 import io.crate.data.CollectingBatchIterator;
 import io.crate.data.CollectionBucket;
+import io.crate.data.ForwardingBatchIterator;
 import io.crate.data.Input;
 import io.crate.data.Projector;
 import io.crate.data.Row;
 import io.crate.operation.collect.CollectExpression;
+import io.crate.types.DataType;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.unit.ByteSizeValue;
 
+import javax.annotation.Nullable;
+import java.nio.file.Path;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
@@ -42,8 +49,24 @@ import java.util.stream.Collectors;
  * <p>
  * Compared to {@link SortingTopNProjector} this projector does not support limiting,
  * while the {@link SortingTopNProjector} does not work WITHOUT a limit.
+ * <p>
+ * If a spill threshold is given, an external merge sort is used once the buffered rows exceed it,
+ * see {@link SpillingSortCollector}.
  */
-class SortingProjector implements Projector {
+public class SortingProjector implements Projector {
+
+    public static final Setting<Boolean> SPILL_ENABLED_SETTING = Setting.boolSetting(
+        "node.sql.order_by.spill.enabled",
+        false,
+        Setting.Property.NodeScope);
+
+    /**
+     * Amount of memory used by buffered rows of an ORDER BY operation after which they're sorted and spilled to disk
+     */
+    public static final Setting<ByteSizeValue> SPILL_THRESHOLD_SETTING = Setting.memorySizeSetting(
+        "node.sql.order_by.spill.threshold",
+        "10%",
+        Setting.Property.NodeScope);
 
     private final Collection<? extends Input<?>> inputs;
     private final Iterable<? extends CollectExpression<Row, ?>> collectExpressions;
@@ -52,6 +75,9 @@ class SortingProjector implements Projector {
     private final int offset;
     private final int numOutputs;
 
+    @Nullable
+    private final SpillingSortCollector spillingCollector;
+
     /**
      * @param inputs             contains output {@link Input}s and orderBy {@link Input}s
      * @param collectExpressions gathered from outputs and orderBy inputs
@@ -70,15 +96,60 @@ class SortingProjector implements Projector {
         this.collectExpressions = collectExpressions;
         this.comparator = comparator;
         this.offset = offset;
+        this.spillingCollector = null;
     }
 
+    /**
+     * @param inputTypes           types of the <code>inputs</code>
+     * @param ramAccountingContext used to account the buffered rows
+     * @param spillThreshold       number of bytes after which buffered rows are sorted and spilled to disk
+     * @param spillDirectory       directory in which the spill files are created
+     */
+    SortingProjector(Collection<? extends Input<?>> inputs,
+                     List<? extends DataType> inputTypes,
+                     Iterable<? extends CollectExpression<Row, ?>> collectExpressions,
+                     int numOutputs,
+                     Comparator<Object[]> comparator,
+                     int offset,
+                     RamAccountingContext ramAccountingContext,
+                     long spillThreshold,
+                     Path spillDirectory) {
+        Preconditions.checkArgument(offset >= 0, "invalid offset %s", offset);
+        assert inputTypes.size() == inputs.size() : "must have a type for each input";
+        this.numOutputs = numOutputs;
+        this.inputs = inputs;
+        this.collectExpressions = collectExpressions;
+        this.comparator = comparator;
+        this.offset = offset;
+        this.spillingCollector = new SpillingSortCollector(
+            inputTypes, comparator.reversed(), ramAccountingContext, numOutputs, offset, spillThreshold, spillDirectory);
+    }
 
     @Override
     public BatchIterator apply(BatchIterator batchIterator) {
-        Collector<Row, ?, Bucket> collector = Collectors.mapping(
-            this::getCells,
-            Collectors.collectingAndThen(Collectors.toList(), this::sortAndCreateBucket));
-        return CollectingBatchIterator.newInstance(batchIterator, collector, numOutputs);
+        if (spillingCollector == null) {
+            Collector<Row, ?, Bucket> collector = Collectors.mapping(
+                this::getCells,
+                Collectors.collectingAndThen(Collectors.toList(), this::sortAndCreateBucket));
+            return CollectingBatchIterator.newInstance(batchIterator, collector, numOutputs);
+        }
+        BatchIterator sortingIterator = CollectingBatchIterator.newInstance(
+            batchIterator, Collectors.mapping(this::getCells, spillingCollector), numOutputs);
+        return new ForwardingBatchIterator() {
+            @Override
+            protected BatchIterator delegate() {
+                return sortingIterator;
+            }
+
+            @Override
+            public void close() {
+                try {
+                    super.close();
+                } finally {
+                    spillingCollector.close();
+                }
+            }
+        };
     }
 
     @Override
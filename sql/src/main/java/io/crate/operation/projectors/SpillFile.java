@@ -0,0 +1,109 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.projectors;
+
+import com.google.common.io.CountingInputStream;
+import org.elasticsearch.common.io.stream.InputStreamStreamInput;
+import org.elasticsearch.common.io.stream.OutputStreamStreamOutput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A node-local temporary file used by operations which spill intermediate data to disk.
+ * The files are created in the spill directory of the node, see {@link SpillDirectory}.
+ *
+ * Entries are appended using {@link #out()} and can be read (repeatedly) from the beginning using {@link #newInput()}.
+ * The file is deleted once it is closed.
+ */
+final class SpillFile implements Closeable {
+
+    private final FileChannel channel;
+    private final StreamOutput out;
+    private long numEntries = 0;
+
+    SpillFile(Path directory, String prefix) throws IOException {
+        Files.createDirectories(directory);
+        Path path = Files.createTempFile(directory, prefix, ".spill");
+        channel = FileChannel.open(
+            path, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+        out = new OutputStreamStreamOutput(new BufferedOutputStream(Channels.newOutputStream(channel)));
+    }
+
+    StreamOutput out() {
+        return out;
+    }
+
+    void addEntries(long numEntries) {
+        this.numEntries += numEntries;
+    }
+
+    /**
+     * The number of entries which have been written. Callers are responsible to keep this up to date using
+     * {@link #addEntries(long)} as the file itself contains no framing.
+     */
+    long numEntries() {
+        return numEntries;
+    }
+
+    /**
+     * Returns a stream reading the file from the beginning.
+     * The stream must not be closed as that would close (and delete) the file.
+     */
+    Input newInput() throws IOException {
+        out.flush();
+        channel.position(0);
+        return new Input(new CountingInputStream(new BufferedInputStream(Channels.newInputStream(channel))));
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    /**
+     * Stream reading a spill file which keeps track of the number of bytes read, e.g. to estimate the size of
+     * the entries read.
+     */
+    static final class Input extends InputStreamStreamInput {
+
+        private final CountingInputStream in;
+
+        private Input(CountingInputStream in) {
+            super(in);
+            this.in = in;
+        }
+
+        long bytesRead() {
+            return in.getCount();
+        }
+    }
+}
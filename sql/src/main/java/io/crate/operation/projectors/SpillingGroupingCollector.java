@@ -0,0 +1,580 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.projectors;
+
+import com.carrotsearch.hppc.BitMixer;
+import io.crate.Streamer;
+import io.crate.analyze.symbol.AggregateMode;
+import io.crate.breaker.RamAccountingContext;
+import io.crate.breaker.SizeEstimator;
+import io.crate.breaker.SizeEstimatorFactory;
+import io.crate.data.Input;
+import io.crate.data.Row;
+import io.crate.data.RowN;
+import io.crate.operation.aggregation.AggregationFunction;
+import io.crate.operation.collect.CollectExpression;
+import io.crate.types.DataType;
+import org.apache.lucene.util.IOUtils;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+
+/**
+ * Variant of {@link GroupingCollector} which doesn't require all groups to fit into memory.
+ *
+ * The groups are partitioned by the hash of their key. Once the memory used by the groups of all partitions exceeds
+ * {@code spillThreshold}, the largest partition is written to a node-local temporary file (keys and partial
+ * aggregation states serialized using the {@link Streamer}s of their types) and removed from memory.
+ * Only the memory of the groups is considered, as that is the only memory spilling can release; other users of the
+ * same {@link RamAccountingContext} don't cause spills.
+ * Spilled partitions continue to aggregate in memory and may be spilled again.
+ *
+ * In the finisher the remaining in-memory part of spilled partitions is spilled as well and the partitions are emitted
+ * one after another. A spilled partition is read back from disk, merging the partial states of the same key using
+ * {@link AggregationFunction#reduce(RamAccountingContext, Object, Object)}, so only a single spilled partition needs
+ * to fit into memory at once. Read back states are accounted with their serialized size.
+ * If a partition exceeds {@code spillThreshold} while it is read back, it is split into sub-partitions using the
+ * next bits of the hash, which are spilled and read back one after another.
+ * The spill files are deleted on {@link #close()}.
+ *
+ * @param <K> type of the key
+ */
+class SpillingGroupingCollector<K> implements Collector<Row, SpillingGroupingCollector.Partitions<K>, Iterable<Row>> {
+
+    private static final int PARTITION_BITS = 5;
+    private static final int NUM_PARTITIONS = 1 << PARTITION_BITS;
+
+    /**
+     * Partitions are split at most this many times; further splits would run out of hash bits.
+     */
+    private static final int MAX_LEVEL = (Integer.SIZE / PARTITION_BITS) - 1;
+
+    private final CollectExpression<Row, ?>[] expressions;
+    private final AggregationFunction[] aggregations;
+    private final AggregateMode mode;
+    private final Input[][] inputs;
+    private final RamAccountingContext ramAccountingContext;
+    private final BiConsumer<K, Object[]> applyKeyToCells;
+    private final int numKeyColumns;
+    private final SizeEstimator<K> keySizeEstimator;
+    private final Function<Row, K> keyExtractor;
+    private final KeyStreamer<K> keyStreamer;
+    private final Streamer[] stateStreamers;
+    private final long spillThreshold;
+    private final Path spillDirectory;
+    private final List<SpillFile> openSpillFiles = new ArrayList<>();
+
+    /**
+     * Sub-partitions of partitions which have been split, so that repeated iterations don't need to split again.
+     */
+    private final Map<SpillFile, List<SpilledPartition>> subPartitionsBySpillFile = new HashMap<>();
+
+    static SpillingGroupingCollector<Object> singleKey(CollectExpression<Row, ?>[] expressions,
+                                                       AggregateMode mode,
+                                                       AggregationFunction[] aggregations,
+                                                       Input[][] inputs,
+                                                       RamAccountingContext ramAccountingContext,
+                                                       Input<?> keyInput,
+                                                       DataType keyType,
+                                                       long spillThreshold,
+                                                       Path spillDirectory) {
+        Streamer<?> streamer = keyType.streamer();
+        return new SpillingGroupingCollector<>(
+            expressions,
+            aggregations,
+            mode,
+            inputs,
+            ramAccountingContext,
+            (key, cells) -> cells[0] = key,
+            1,
+            SizeEstimatorFactory.create(keyType),
+            row -> keyInput.value(),
+            new KeyStreamer<Object>() {
+                @Override
+                public void writeTo(StreamOutput out, Object key) throws IOException {
+                    streamer.writeValueTo(out, key);
+                }
+
+                @Override
+                public Object readFrom(StreamInput in) throws IOException {
+                    return streamer.readValueFrom(in);
+                }
+            },
+            spillThreshold,
+            spillDirectory
+        );
+    }
+
+    static SpillingGroupingCollector<List<Object>> manyKeys(CollectExpression<Row, ?>[] expressions,
+                                                            AggregateMode mode,
+                                                            AggregationFunction[] aggregations,
+                                                            Input[][] inputs,
+                                                            RamAccountingContext ramAccountingContext,
+                                                            List<Input<?>> keyInputs,
+                                                            List<? extends DataType> keyTypes,
+                                                            long spillThreshold,
+                                                            Path spillDirectory) {
+        Streamer[] streamers = new Streamer[keyTypes.size()];
+        for (int i = 0; i < streamers.length; i++) {
+            streamers[i] = keyTypes.get(i).streamer();
+        }
+        return new SpillingGroupingCollector<>(
+            expressions,
+            aggregations,
+            mode,
+            inputs,
+            ramAccountingContext,
+            (keys, cells) -> {
+                for (int i = 0; i < keys.size(); i++) {
+                    cells[i] = keys.get(i);
+                }
+            },
+            keyInputs.size(),
+            new GroupingCollector.MultiSizeEstimator(keyTypes),
+            row -> {
+                List<Object> key = new ArrayList<>(keyInputs.size());
+                for (Input<?> keyInput : keyInputs) {
+                    key.add(keyInput.value());
+                }
+                return key;
+            },
+            new KeyStreamer<List<Object>>() {
+                @Override
+                public void writeTo(StreamOutput out, List<Object> key) throws IOException {
+                    for (int i = 0; i < streamers.length; i++) {
+                        streamers[i].writeValueTo(out, key.get(i));
+                    }
+                }
+
+                @Override
+                public List<Object> readFrom(StreamInput in) throws IOException {
+                    List<Object> key = new ArrayList<>(streamers.length);
+                    for (Streamer streamer : streamers) {
+                        key.add(streamer.readValueFrom(in));
+                    }
+                    return key;
+                }
+            },
+            spillThreshold,
+            spillDirectory
+        );
+    }
+
+    private SpillingGroupingCollector(CollectExpression<Row, ?>[] expressions,
+                                      AggregationFunction[] aggregations,
+                                      AggregateMode mode,
+                                      Input[][] inputs,
+                                      RamAccountingContext ramAccountingContext,
+                                      BiConsumer<K, Object[]> applyKeyToCells,
+                                      int numKeyColumns,
+                                      SizeEstimator<K> keySizeEstimator,
+                                      Function<Row, K> keyExtractor,
+                                      KeyStreamer<K> keyStreamer,
+                                      long spillThreshold,
+                                      Path spillDirectory) {
+        this.expressions = expressions;
+        this.aggregations = aggregations;
+        this.mode = mode;
+        this.inputs = inputs;
+        this.ramAccountingContext = ramAccountingContext;
+        this.applyKeyToCells = applyKeyToCells;
+        this.numKeyColumns = numKeyColumns;
+        this.keySizeEstimator = keySizeEstimator;
+        this.keyExtractor = keyExtractor;
+        this.keyStreamer = keyStreamer;
+        this.spillThreshold = spillThreshold;
+        this.spillDirectory = spillDirectory;
+        this.stateStreamers = new Streamer[aggregations.length];
+        for (int i = 0; i < aggregations.length; i++) {
+            stateStreamers[i] = aggregations[i].partialType().streamer();
+        }
+    }
+
+    private interface KeyStreamer<K> {
+
+        void writeTo(StreamOutput out, K key) throws IOException;
+
+        K readFrom(StreamInput in) throws IOException;
+    }
+
+    static class Partitions<K> {
+
+        private final List<Map<K, Object[]>> statesByKey = new ArrayList<>(NUM_PARTITIONS);
+        private final long[] bytesUsed = new long[NUM_PARTITIONS];
+        private long totalBytesUsed = 0L;
+        private final SpillFile[] spillFiles = new SpillFile[NUM_PARTITIONS];
+
+        Partitions() {
+            for (int i = 0; i < NUM_PARTITIONS; i++) {
+                statesByKey.add(new HashMap<>());
+            }
+        }
+    }
+
+    @Override
+    public Supplier<Partitions<K>> supplier() {
+        return Partitions::new;
+    }
+
+    @Override
+    public BiConsumer<Partitions<K>, Row> accumulator() {
+        return this::onNextRow;
+    }
+
+    @Override
+    public BinaryOperator<Partitions<K>> combiner() {
+        return (state1, state2) -> {
+            throw new UnsupportedOperationException("combine not supported");
+        };
+    }
+
+    @Override
+    public Function<Partitions<K>, Iterable<Row>> finisher() {
+        return partitions -> {
+            // spilled partitions are moved to disk completely so that they can be loaded (repeatedly) from there
+            for (int i = 0; i < NUM_PARTITIONS; i++) {
+                if (partitions.spillFiles[i] != null) {
+                    spillPartition(partitions, i);
+                }
+            }
+            return () -> new PartitionsIterator(partitions);
+        };
+    }
+
+    @Override
+    public Set<Characteristics> characteristics() {
+        return Collections.emptySet();
+    }
+
+    private static int partition(Object key, int level) {
+        int hash = BitMixer.mix32(key == null ? 0 : key.hashCode());
+        return (hash >>> (level * PARTITION_BITS)) & (NUM_PARTITIONS - 1);
+    }
+
+    private void onNextRow(Partitions<K> partitions, Row row) {
+        for (CollectExpression<Row, ?> expression : expressions) {
+            expression.setNextRow(row);
+        }
+        K key = keyExtractor.apply(row);
+        int partition = partition(key, 0);
+        long bytesBefore = ramAccountingContext.totalBytes();
+
+        Map<K, Object[]> statesByKey = partitions.statesByKey.get(partition);
+        Object[] states = statesByKey.get(key);
+        if (states == null) {
+            addNewEntry(statesByKey, key);
+        } else {
+            for (int i = 0; i < aggregations.length; i++) {
+                states[i] = mode.onRow(ramAccountingContext, aggregations[i], states[i], inputs[i]);
+            }
+        }
+        long bytesAdded = ramAccountingContext.totalBytes() - bytesBefore;
+        partitions.bytesUsed[partition] += bytesAdded;
+        partitions.totalBytesUsed += bytesAdded;
+        if (partitions.totalBytesUsed > spillThreshold) {
+            spillLargestPartition(partitions);
+        }
+    }
+
+    private void addNewEntry(Map<K, Object[]> statesByKey, K key) {
+        Object[] states = new Object[aggregations.length];
+        for (int i = 0; i < aggregations.length; i++) {
+            AggregationFunction aggregation = aggregations[i];
+            states[i] = mode.onRow(
+                ramAccountingContext, aggregation, aggregation.newState(ramAccountingContext), inputs[i]);
+        }
+        accountNewEntry(key);
+        statesByKey.put(key, states);
+    }
+
+    private void accountNewEntry(K key) {
+        accountNewEntry(key, 0L);
+    }
+
+    private void accountNewEntry(K key, long statesSize) {
+        // key size + states size + 32 bytes for entry + 4 bytes for increased capacity
+        ramAccountingContext.addBytes(
+            RamAccountingContext.roundUp(keySizeEstimator.estimateSize(key) + statesSize + 36L));
+    }
+
+    /**
+     * Closes (and thereby deletes) all spill files. Must be called once the result is no longer needed.
+     */
+    void close() {
+        try {
+            IOUtils.close(openSpillFiles);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            openSpillFiles.clear();
+            subPartitionsBySpillFile.clear();
+        }
+    }
+
+    int numSpillFiles() {
+        return openSpillFiles.size();
+    }
+
+    private void spillLargestPartition(Partitions<K> partitions) {
+        int largest = 0;
+        for (int i = 1; i < NUM_PARTITIONS; i++) {
+            if (partitions.bytesUsed[i] > partitions.bytesUsed[largest]) {
+                largest = i;
+            }
+        }
+        spillPartition(partitions, largest);
+    }
+
+    private void spillPartition(Partitions<K> partitions, int partition) {
+        Map<K, Object[]> statesByKey = partitions.statesByKey.get(partition);
+        if (statesByKey.isEmpty()) {
+            return;
+        }
+        try {
+            SpillFile spillFile = partitions.spillFiles[partition];
+            if (spillFile == null) {
+                spillFile = newSpillFile();
+                partitions.spillFiles[partition] = spillFile;
+            }
+            for (Map.Entry<K, Object[]> entry : statesByKey.entrySet()) {
+                writeEntry(spillFile, entry.getKey(), entry.getValue());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Couldn't spill GROUP BY partition to disk", e);
+        }
+        partitions.statesByKey.set(partition, new HashMap<>());
+        ramAccountingContext.releaseBytes(partitions.bytesUsed[partition]);
+        partitions.totalBytesUsed -= partitions.bytesUsed[partition];
+        partitions.bytesUsed[partition] = 0L;
+    }
+
+    private SpillFile newSpillFile() throws IOException {
+        SpillFile spillFile = new SpillFile(spillDirectory, "crate-group-by-");
+        openSpillFiles.add(spillFile);
+        return spillFile;
+    }
+
+    private void writeEntry(SpillFile spillFile, K key, Object[] states) throws IOException {
+        keyStreamer.writeTo(spillFile.out(), key);
+        for (int i = 0; i < states.length; i++) {
+            stateStreamers[i].writeValueTo(spillFile.out(), states[i]);
+        }
+        spillFile.addEntries(1);
+    }
+
+    /**
+     * Reads the spilled entries of a partition from disk, merging the entries with the same key.
+     *
+     * If the loaded entries exceed {@code spillThreshold} and the partition can still be split, the partition is
+     * instead split into sub-partitions of the next level which are added to {@code pending}.
+     * The original spill file is deleted once it has been split.
+     *
+     * @return the loaded partition, its memory is accounted and must be released once it is no longer needed;
+     *         null if the partition has been split.
+     */
+    @Nullable
+    private Map<K, Object[]> loadPartition(SpilledPartition spilledPartition, Deque<SpilledPartition> pending) {
+        SpillFile spillFile = spilledPartition.spillFile;
+        List<SpilledPartition> subPartitions = subPartitionsBySpillFile.get(spillFile);
+        if (subPartitions != null) {
+            pending.addAll(subPartitions);
+            return null;
+        }
+        Map<K, Object[]> statesByKey = new HashMap<>();
+        long bytesBefore = ramAccountingContext.totalBytes();
+        try {
+            SpillFile.Input in = spillFile.newInput();
+            for (long e = 0; e < spillFile.numEntries(); e++) {
+                K key = keyStreamer.readFrom(in);
+                long statesStart = in.bytesRead();
+                Object[] spilledStates = new Object[aggregations.length];
+                for (int i = 0; i < aggregations.length; i++) {
+                    spilledStates[i] = stateStreamers[i].readValueFrom(in);
+                }
+                Object[] states = statesByKey.get(key);
+                if (states == null) {
+                    accountNewEntry(key, in.bytesRead() - statesStart);
+                    statesByKey.put(key, spilledStates);
+                } else {
+                    for (int i = 0; i < aggregations.length; i++) {
+                        //noinspection unchecked
+                        states[i] = aggregations[i].reduce(ramAccountingContext, states[i], spilledStates[i]);
+                    }
+                }
+                if (spilledPartition.level < MAX_LEVEL
+                    && ramAccountingContext.totalBytes() - bytesBefore > spillThreshold) {
+                    long remaining = spillFile.numEntries() - e - 1;
+                    subPartitions = splitPartition(statesByKey, in, remaining, spilledPartition.level + 1);
+                    ramAccountingContext.releaseBytes(ramAccountingContext.totalBytes() - bytesBefore);
+                    subPartitionsBySpillFile.put(spillFile, subPartitions);
+                    closeSpillFile(spillFile);
+                    pending.addAll(subPartitions);
+                    return null;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Couldn't read spilled GROUP BY partition from disk", e);
+        }
+        return statesByKey;
+    }
+
+    /**
+     * Writes the already loaded entries and the {@code remaining} entries of {@code in} into sub-partitions of
+     * {@code level}. Entries with the same key aren't merged here, that happens once a sub-partition is loaded.
+     */
+    private List<SpilledPartition> splitPartition(Map<K, Object[]> loaded,
+                                                  SpillFile.Input in,
+                                                  long remaining,
+                                                  int level) throws IOException {
+        SpillFile[] subPartitions = new SpillFile[NUM_PARTITIONS];
+        for (Map.Entry<K, Object[]> entry : loaded.entrySet()) {
+            writeEntry(subPartition(subPartitions, entry.getKey(), level), entry.getKey(), entry.getValue());
+        }
+        Object[] states = new Object[aggregations.length];
+        for (long e = 0; e < remaining; e++) {
+            K key = keyStreamer.readFrom(in);
+            for (int i = 0; i < aggregations.length; i++) {
+                states[i] = stateStreamers[i].readValueFrom(in);
+            }
+            writeEntry(subPartition(subPartitions, key, level), key, states);
+        }
+        List<SpilledPartition> result = new ArrayList<>();
+        for (SpillFile subPartition : subPartitions) {
+            if (subPartition != null) {
+                result.add(new SpilledPartition(subPartition, level));
+            }
+        }
+        return result;
+    }
+
+    private SpillFile subPartition(SpillFile[] subPartitions, K key, int level) throws IOException {
+        int partition = partition(key, level);
+        SpillFile spillFile = subPartitions[partition];
+        if (spillFile == null) {
+            spillFile = newSpillFile();
+            subPartitions[partition] = spillFile;
+        }
+        return spillFile;
+    }
+
+    private void closeSpillFile(SpillFile spillFile) throws IOException {
+        openSpillFiles.remove(spillFile);
+        spillFile.close();
+    }
+
+    private static class SpilledPartition {
+
+        private final SpillFile spillFile;
+        private final int level;
+
+        SpilledPartition(SpillFile spillFile, int level) {
+            this.spillFile = spillFile;
+            this.level = level;
+        }
+    }
+
+    private class PartitionsIterator implements Iterator<Row> {
+
+        private final Partitions<K> partitions;
+        private final Object[] cells = new Object[numKeyColumns + aggregations.length];
+        private final RowN row = new RowN(cells);
+        private final Deque<SpilledPartition> pending = new ArrayDeque<>();
+
+        private int partition = -1;
+        private Iterator<Map.Entry<K, Object[]>> entries = Collections.emptyIterator();
+        private long loadedBytes = 0L;
+
+        PartitionsIterator(Partitions<K> partitions) {
+            this.partitions = partitions;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!entries.hasNext()) {
+                // release the memory of a loaded partition before loading the next one
+                ramAccountingContext.releaseBytes(loadedBytes);
+                loadedBytes = 0L;
+                if (partition + 1 < NUM_PARTITIONS) {
+                    partition++;
+                    SpillFile spillFile = partitions.spillFiles[partition];
+                    if (spillFile == null) {
+                        entries = partitions.statesByKey.get(partition).entrySet().iterator();
+                    } else {
+                        load(new SpilledPartition(spillFile, 0));
+                    }
+                } else if (pending.isEmpty()) {
+                    return false;
+                } else {
+                    load(pending.poll());
+                }
+            }
+            return true;
+        }
+
+        private void load(SpilledPartition spilledPartition) {
+            long bytesBefore = ramAccountingContext.totalBytes();
+            Map<K, Object[]> statesByKey = loadPartition(spilledPartition, pending);
+            if (statesByKey == null) {
+                entries = Collections.emptyIterator();
+            } else {
+                entries = statesByKey.entrySet().iterator();
+                loadedBytes = ramAccountingContext.totalBytes() - bytesBefore;
+            }
+        }
+
+        @Override
+        public Row next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException("Iterator is exhausted");
+            }
+            Map.Entry<K, Object[]> entry = entries.next();
+            applyKeyToCells.accept(entry.getKey(), cells);
+            int c = numKeyColumns;
+            Object[] states = entry.getValue();
+            for (int i = 0; i < states.length; i++) {
+                cells[c] = mode.finishCollect(ramAccountingContext, aggregations[i], states[i]);
+                c++;
+            }
+            return row;
+        }
+    }
+}
@@ -0,0 +1,305 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.projectors;
+
+import io.crate.Streamer;
+import io.crate.breaker.RamAccountingContext;
+import io.crate.breaker.SizeEstimator;
+import io.crate.breaker.SizeEstimatorFactory;
+import io.crate.data.Row;
+import io.crate.data.RowN;
+import io.crate.types.DataType;
+import org.apache.lucene.util.IOUtils;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+
+/**
+ * Collector which sorts rows (given as cells) using an external merge sort.
+ *
+ * Rows are buffered in memory and accounted on the {@link RamAccountingContext}. Once the buffered rows exceed
+ * {@code spillThreshold} bytes, they're sorted and written as a sorted run to a temporary {@link SpillFile}
+ * using the {@link Streamer}s of the column types.
+ *
+ * The finisher returns an {@link Iterable} which lazily merges all sorted runs and the remaining in-memory rows.
+ * If no run had to be spilled, this is equal to sorting all rows in memory.
+ * Spill files are deleted on {@link #close()}.
+ */
+class SpillingSortCollector implements Collector<Object[], SpillingSortCollector.Runs, Iterable<Row>> {
+
+    private final Comparator<Object[]> comparator;
+    private final RamAccountingContext ramAccountingContext;
+    private final List<SizeEstimator<Object>> estimators;
+    private final Streamer[] streamers;
+    private final int numOutputs;
+    private final int offset;
+    private final long spillThreshold;
+    private final Path spillDirectory;
+    private final long rowOverhead;
+    private final List<SpillFile> openSpillFiles = new ArrayList<>();
+
+    /**
+     * @param columnTypes    types of the cells
+     * @param comparator     the comparator defining the sort order; rows are emitted in ascending order
+     * @param numOutputs     number of cells, starting from index 0, which are emitted as row
+     * @param offset         number of rows to skip
+     * @param spillThreshold number of bytes after which buffered rows are spilled to disk
+     * @param spillDirectory directory in which the spill files are created
+     */
+    SpillingSortCollector(List<? extends DataType> columnTypes,
+                          Comparator<Object[]> comparator,
+                          RamAccountingContext ramAccountingContext,
+                          int numOutputs,
+                          int offset,
+                          long spillThreshold,
+                          Path spillDirectory) {
+        this.comparator = comparator;
+        this.ramAccountingContext = ramAccountingContext;
+        this.numOutputs = numOutputs;
+        this.offset = offset;
+        this.spillThreshold = spillThreshold;
+        this.spillDirectory = spillDirectory;
+        this.estimators = new ArrayList<>(columnTypes.size());
+        this.streamers = new Streamer[columnTypes.size()];
+        for (int i = 0; i < columnTypes.size(); i++) {
+            DataType type = columnTypes.get(i);
+            estimators.add(SizeEstimatorFactory.create(type));
+            streamers[i] = type.streamer();
+        }
+        // array header + 4 bytes per cell reference + 4 bytes for the reference in the buffer
+        this.rowOverhead = 16L + 4L * columnTypes.size() + 4L;
+    }
+
+    static class Runs {
+
+        private final List<SpillFile> sortedRuns = new ArrayList<>();
+        private List<Object[]> buffer = new ArrayList<>();
+        private long bufferedBytes = 0L;
+    }
+
+    @Override
+    public Supplier<Runs> supplier() {
+        return Runs::new;
+    }
+
+    @Override
+    public BiConsumer<Runs, Object[]> accumulator() {
+        return this::onNextRow;
+    }
+
+    @Override
+    public BinaryOperator<Runs> combiner() {
+        return (state1, state2) -> {
+            throw new UnsupportedOperationException("combine not supported");
+        };
+    }
+
+    @Override
+    public Function<Runs, Iterable<Row>> finisher() {
+        return runs -> {
+            runs.buffer.sort(comparator);
+            return () -> new MergingIterator(runs);
+        };
+    }
+
+    @Override
+    public Set<Characteristics> characteristics() {
+        return Collections.emptySet();
+    }
+
+    /**
+     * Closes (and thereby deletes) all spill files. Must be called once the result is no longer needed.
+     */
+    void close() {
+        try {
+            IOUtils.close(openSpillFiles);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            openSpillFiles.clear();
+        }
+    }
+
+    private void onNextRow(Runs runs, Object[] cells) {
+        long size = rowOverhead;
+        for (int i = 0; i < cells.length; i++) {
+            size += estimators.get(i).estimateSize(cells[i]);
+        }
+        size = RamAccountingContext.roundUp(size);
+        ramAccountingContext.addBytes(size);
+        runs.buffer.add(cells);
+        runs.bufferedBytes += size;
+        if (runs.bufferedBytes > spillThreshold) {
+            spillRun(runs);
+        }
+    }
+
+    private void spillRun(Runs runs) {
+        runs.buffer.sort(comparator);
+        try {
+            SpillFile spillFile = new SpillFile(spillDirectory, "crate-sort-");
+            openSpillFiles.add(spillFile);
+            StreamOutput out = spillFile.out();
+            for (Object[] cells : runs.buffer) {
+                for (int i = 0; i < cells.length; i++) {
+                    streamers[i].writeValueTo(out, cells[i]);
+                }
+            }
+            spillFile.addEntries(runs.buffer.size());
+            runs.sortedRuns.add(spillFile);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Couldn't spill sorted run to disk", e);
+        }
+        runs.buffer = new ArrayList<>();
+        ramAccountingContext.releaseBytes(runs.bufferedBytes);
+        runs.bufferedBytes = 0L;
+    }
+
+    /**
+     * Cursor over a sorted run, {@link #current} is the smallest row of the run which hasn't been emitted yet.
+     */
+    private abstract static class RunCursor {
+
+        Object[] current;
+
+        /**
+         * @return false if the run is exhausted
+         */
+        abstract boolean advance();
+    }
+
+    private class SpilledRunCursor extends RunCursor {
+
+        private final StreamInput in;
+        private long remaining;
+
+        SpilledRunCursor(SpillFile spillFile) throws IOException {
+            this.in = spillFile.newInput();
+            this.remaining = spillFile.numEntries();
+        }
+
+        @Override
+        boolean advance() {
+            if (remaining == 0) {
+                current = null;
+                return false;
+            }
+            Object[] cells = new Object[streamers.length];
+            try {
+                for (int i = 0; i < streamers.length; i++) {
+                    cells[i] = streamers[i].readValueFrom(in);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Couldn't read sorted run from disk", e);
+            }
+            remaining--;
+            current = cells;
+            return true;
+        }
+    }
+
+    private static class BufferCursor extends RunCursor {
+
+        private final Iterator<Object[]> it;
+
+        BufferCursor(List<Object[]> buffer) {
+            this.it = buffer.iterator();
+        }
+
+        @Override
+        boolean advance() {
+            if (it.hasNext()) {
+                current = it.next();
+                return true;
+            }
+            current = null;
+            return false;
+        }
+    }
+
+    private class MergingIterator implements Iterator<Row> {
+
+        private final PriorityQueue<RunCursor> queue;
+        private final RowN row = new RowN(numOutputs);
+        private int toSkip = offset;
+
+        MergingIterator(Runs runs) {
+            queue = new PriorityQueue<>(runs.sortedRuns.size() + 1, (c1, c2) -> comparator.compare(c1.current, c2.current));
+            try {
+                for (SpillFile sortedRun : runs.sortedRuns) {
+                    addIfNotExhausted(new SpilledRunCursor(sortedRun));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Couldn't read sorted run from disk", e);
+            }
+            addIfNotExhausted(new BufferCursor(runs.buffer));
+        }
+
+        private void addIfNotExhausted(RunCursor cursor) {
+            if (cursor.advance()) {
+                queue.add(cursor);
+            }
+        }
+
+        private Object[] poll() {
+            RunCursor cursor = queue.poll();
+            Object[] cells = cursor.current;
+            addIfNotExhausted(cursor);
+            return cells;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (toSkip > 0 && !queue.isEmpty()) {
+                poll();
+                toSkip--;
+            }
+            return !queue.isEmpty();
+        }
+
+        @Override
+        public Row next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException("Iterator is exhausted");
+            }
+            row.cells(poll());
+            return row;
+        }
+    }
+}
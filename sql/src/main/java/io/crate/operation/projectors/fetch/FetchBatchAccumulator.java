@@ -203,7 +203,7 @@ public class FetchBatchAccumulator implements BatchAccumulator<Row, Iterator<? e
         for (IntCursor readerIdCursor : readerIds) {
             ReaderBucket readerBucket = context.readerBucket(readerIdCursor.value);
             if (readerBucket != null && readerBucket.fetchRequired() && readerBucket.docs.size() > 0) {
-                toFetch.put(readerIdCursor.value, readerBucket.docs.keys());
+                toFetch.put(readerIdCursor.value, readerBucket.docsToFetch());
             }
         }
         return toFetch;
@@ -22,12 +22,13 @@
 
 package io.crate.operation.projectors.fetch;
 
+import com.carrotsearch.hppc.IntArrayList;
 import com.carrotsearch.hppc.IntObjectHashMap;
-import com.carrotsearch.hppc.cursors.IntCursor;
 import io.crate.data.Bucket;
 import io.crate.data.Row;
 
 import javax.annotation.Nullable;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.Locale;
 
@@ -36,6 +37,7 @@ class ReaderBucket {
     private final boolean fetchRequired;
     final Object[] partitionValues;
     final IntObjectHashMap<Object[]> docs = new IntObjectHashMap<>();
+    private int[] requestedDocs;
 
     ReaderBucket(boolean fetchRequired, @Nullable Object[] partitionValues) {
         this.fetchRequired = fetchRequired;
@@ -50,15 +52,27 @@ class ReaderBucket {
         return docs.get(doc);
     }
 
+    /**
+     * The doc ids to fetch in increasing order, so that the fetch operation reads the documents of a segment
+     * one after another. The fetched rows are expected in the same order.
+     */
+    IntArrayList docsToFetch() {
+        requestedDocs = docs.keys().toArray();
+        Arrays.sort(requestedDocs);
+        return IntArrayList.from(requestedDocs);
+    }
+
     void fetched(Bucket bucket) {
-        assert bucket.size() == docs.size()
-            : String.format(Locale.ENGLISH, "requested %d docs but got %d", docs.size(), bucket.size());
+        assert requestedDocs != null : "docsToFetch() must be called before fetched()";
+        assert bucket.size() == requestedDocs.length
+            : String.format(Locale.ENGLISH, "requested %d docs but got %d", requestedDocs.length, bucket.size());
 
         Iterator<Row> rowIterator = bucket.iterator();
-        for (IntCursor intCursor : docs.keys()) {
-            docs.indexReplace(intCursor.index, rowIterator.next().materialize());
+        for (int doc : requestedDocs) {
+            docs.put(doc, rowIterator.next().materialize());
         }
         assert !rowIterator.hasNext() : "no more rows should exist";
+        requestedDocs = null;
     }
 
     boolean fetchRequired() {
@@ -33,6 +33,8 @@ public class DoubleColumnReference extends FieldCacheExpression<IndexNumericFiel
 
     private SortedNumericDoubleValues values;
     private Double value;
+    private double[] blockValues = new double[0];
+    private boolean[] blockHasValue = new boolean[0];
 
     public DoubleColumnReference(String columnName, MappedFieldType mappedFieldType) {
         super(columnName, mappedFieldType);
@@ -59,6 +61,33 @@ public class DoubleColumnReference extends FieldCacheExpression<IndexNumericFiel
         }
     }
 
+    @Override
+    public void loadBlock(int[] docs, int numDocs) {
+        if (blockValues.length < numDocs) {
+            blockValues = new double[docs.length];
+            blockHasValue = new boolean[docs.length];
+        }
+        for (int i = 0; i < numDocs; i++) {
+            values.setDocument(docs[i]);
+            switch (values.count()) {
+                case 0:
+                    blockHasValue[i] = false;
+                    break;
+                case 1:
+                    blockHasValue[i] = true;
+                    blockValues[i] = values.valueAt(0);
+                    break;
+                default:
+                    throw new GroupByOnArrayUnsupportedException(columnName);
+            }
+        }
+    }
+
+    @Override
+    public void setNextBlockPosition(int position) {
+        value = blockHasValue[position] ? blockValues[position] : null;
+    }
+
     @Override
     public void setNextReader(LeafReaderContext context) throws IOException {
         super.setNextReader(context);
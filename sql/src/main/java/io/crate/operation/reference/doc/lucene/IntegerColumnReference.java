@@ -32,6 +32,8 @@ public class IntegerColumnReference extends LuceneCollectorExpression<Integer> {
 
     private SortedNumericDocValues values;
     private Integer value;
+    private int[] blockValues = new int[0];
+    private boolean[] blockHasValue = new boolean[0];
 
     public IntegerColumnReference(String columnName) {
         super(columnName);
@@ -58,6 +60,33 @@ public class IntegerColumnReference extends LuceneCollectorExpression<Integer> {
         }
     }
 
+    @Override
+    public void loadBlock(int[] docs, int numDocs) {
+        if (blockValues.length < numDocs) {
+            blockValues = new int[docs.length];
+            blockHasValue = new boolean[docs.length];
+        }
+        for (int i = 0; i < numDocs; i++) {
+            values.setDocument(docs[i]);
+            switch (values.count()) {
+                case 0:
+                    blockHasValue[i] = false;
+                    break;
+                case 1:
+                    blockHasValue[i] = true;
+                    blockValues[i] = (int) values.valueAt(0);
+                    break;
+                default:
+                    throw new GroupByOnArrayUnsupportedException(columnName);
+            }
+        }
+    }
+
+    @Override
+    public void setNextBlockPosition(int position) {
+        value = blockHasValue[position] ? blockValues[position] : null;
+    }
+
     @Override
     public void setNextReader(LeafReaderContext context) throws IOException {
         super.setNextReader(context);
@@ -32,6 +32,8 @@ public class LongColumnReference extends LuceneCollectorExpression<Long> {
 
     private SortedNumericDocValues values;
     private Long value;
+    private long[] blockValues = new long[0];
+    private boolean[] blockHasValue = new boolean[0];
 
     public LongColumnReference(String columnName) {
         super(columnName);
@@ -58,6 +60,33 @@ public class LongColumnReference extends LuceneCollectorExpression<Long> {
         }
     }
 
+    @Override
+    public void loadBlock(int[] docs, int numDocs) {
+        if (blockValues.length < numDocs) {
+            blockValues = new long[docs.length];
+            blockHasValue = new boolean[docs.length];
+        }
+        for (int i = 0; i < numDocs; i++) {
+            values.setDocument(docs[i]);
+            switch (values.count()) {
+                case 0:
+                    blockHasValue[i] = false;
+                    break;
+                case 1:
+                    blockHasValue[i] = true;
+                    blockValues[i] = values.valueAt(0);
+                    break;
+                default:
+                    throw new GroupByOnArrayUnsupportedException(columnName);
+            }
+        }
+    }
+
+    @Override
+    public void setNextBlockPosition(int position) {
+        value = blockHasValue[position] ? blockValues[position] : null;
+    }
+
     @Override
     public void setNextReader(LeafReaderContext context) throws IOException {
         super.setNextReader(context);
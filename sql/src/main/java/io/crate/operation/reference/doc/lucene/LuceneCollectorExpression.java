@@ -33,6 +33,7 @@ import java.io.IOException;
 public abstract class LuceneCollectorExpression<ReturnType> implements Input<ReturnType> {
 
     final String columnName;
+    private int[] blockDocs;
 
     public LuceneCollectorExpression(String columnName) {
         this.columnName = columnName;
@@ -45,6 +46,24 @@ public abstract class LuceneCollectorExpression<ReturnType> implements Input<Ret
     public void setNextDocId(int doc) {
     }
 
+    /**
+     * Used instead of {@link #setNextDocId(int)} if documents are collected block-wise.
+     * {@code docs} contains {@code numDocs} doc ids of the current reader in increasing order.
+     * The values of the individual documents are then selected using {@link #setNextBlockPosition(int)}.
+     *
+     * Expressions backed by doc values can override this to load the values of the whole block at once.
+     */
+    public void loadBlock(int[] docs, int numDocs) throws IOException {
+        blockDocs = docs;
+    }
+
+    /**
+     * Select the value of the document at {@code position} of the block passed to {@link #loadBlock(int[], int)}
+     */
+    public void setNextBlockPosition(int position) {
+        setNextDocId(blockDocs[position]);
+    }
+
     public void setNextReader(LeafReaderContext context) throws IOException {
     }
 
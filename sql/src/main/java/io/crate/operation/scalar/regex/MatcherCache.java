@@ -0,0 +1,70 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.operation.scalar.regex;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import javax.annotation.Nullable;
+import java.util.function.ToIntFunction;
+
+/**
+ * Bounded cache for compiled patterns, used if a pattern isn't a literal and may change from row to row.
+ *
+ * Entries are weighed by the size of the compiled pattern (e.g. the number of states of an automaton).
+ * Patterns which are too large to be cached are compiled again on every call.
+ */
+public final class MatcherCache<K, V> {
+
+    static final int MAX_WEIGHT = 10_000;
+    static final int MAX_ENTRY_WEIGHT = 1_000;
+
+    private final Cache<K, V> cache;
+    private final ToIntFunction<? super V> weigher;
+
+    public MatcherCache(ToIntFunction<? super V> weigher) {
+        this.weigher = weigher;
+        this.cache = CacheBuilder.newBuilder()
+            .maximumWeight(MAX_WEIGHT)
+            .<K, V>weigher((key, value) -> weigher.applyAsInt(value))
+            .build();
+    }
+
+    @Nullable
+    public V getIfPresent(K key) {
+        return cache.getIfPresent(key);
+    }
+
+    /**
+     * Caches the value unless its weight exceeds {@link #MAX_ENTRY_WEIGHT}.
+     * The key must not be modified afterwards, so re-used instances have to be copied.
+     */
+    public void put(K key, V value) {
+        if (weigher.applyAsInt(value) <= MAX_ENTRY_WEIGHT) {
+            cache.put(key, value);
+        }
+    }
+
+    long size() {
+        return cache.size();
+    }
+}
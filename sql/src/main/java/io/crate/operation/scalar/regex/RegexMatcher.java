@@ -24,6 +24,7 @@ package io.crate.operation.scalar.regex;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.CharsRef;
 import org.apache.lucene.util.UnicodeUtil;
+import org.elasticsearch.common.collect.Tuple;
 import org.elasticsearch.common.lucene.BytesRefs;
 
 import javax.annotation.Nullable;
@@ -32,12 +33,17 @@ import java.util.regex.Pattern;
 
 public class RegexMatcher {
 
+    // compiled patterns by flags and regex, patterns are immutable and can be shared between matchers.
+    // The size of a compiled pattern grows with the length of the regex.
+    private static final MatcherCache<Tuple<Integer, String>, Pattern> PATTERNS =
+        new MatcherCache<>(pattern -> pattern.pattern().length());
+
     private final Matcher matcher;
     private final CharsRef utf16 = new CharsRef(10);
     private final boolean globalFlag;
 
     public RegexMatcher(String regex, int flags, boolean globalFlag) {
-        Pattern pattern = Pattern.compile(regex, flags);
+        Pattern pattern = compile(regex, flags);
         this.matcher = pattern.matcher(utf16);
         this.globalFlag = globalFlag;
     }
@@ -54,6 +60,19 @@ public class RegexMatcher {
         this(regex, 0, false);
     }
 
+    /**
+     * Same as {@link Pattern#compile(String, int)}, but re-uses the pattern of a previous call with the same arguments.
+     */
+    public static Pattern compile(String regex, int flags) {
+        Tuple<Integer, String> key = new Tuple<>(flags, regex);
+        Pattern pattern = PATTERNS.getIfPresent(key);
+        if (pattern == null) {
+            pattern = Pattern.compile(regex, flags);
+            PATTERNS.put(key, pattern);
+        }
+        return pattern;
+    }
+
     private static void utf8toUtf16(BytesRef bytes, CharsRef charsRef) {
         if (charsRef.chars.length < bytes.length) {
             charsRef.chars = new char[bytes.length];
@@ -32,12 +32,16 @@ import io.crate.analyze.relations.JoinPair;
 import io.crate.analyze.relations.QueriedDocTable;
 import io.crate.analyze.relations.QueriedRelation;
 import io.crate.analyze.symbol.Function;
+import io.crate.analyze.symbol.InputColumn;
 import io.crate.analyze.symbol.Literal;
 import io.crate.analyze.symbol.Symbol;
 import io.crate.analyze.symbol.SymbolVisitors;
 import io.crate.analyze.symbol.Symbols;
 import io.crate.collections.Lists2;
 import io.crate.metadata.TableIdent;
+import io.crate.operation.join.HashJoinKeys;
+import io.crate.operation.operator.AndOperator;
+import io.crate.operation.operator.EqOperator;
 import io.crate.operation.projectors.TopN;
 import io.crate.planner.Limits;
 import io.crate.planner.Plan;
@@ -46,6 +50,7 @@ import io.crate.planner.PositionalOrderBy;
 import io.crate.planner.ResultDescription;
 import io.crate.planner.TableStats;
 import io.crate.planner.distribution.DistributionInfo;
+import io.crate.planner.distribution.DistributionType;
 import io.crate.planner.node.dql.MergePhase;
 import io.crate.planner.node.dql.join.JoinType;
 import io.crate.planner.node.dql.join.NestedLoop;
@@ -57,14 +62,21 @@ import org.apache.logging.log4j.Logger;
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.logging.Loggers;
 
+import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.TreeSet;
 
 class NestedLoopConsumer implements Consumer {
 
     private static final  Logger LOGGER = Loggers.getLogger(NestedLoopConsumer.class);
+
+    /**
+     * Minimum number of docs both tables of an equi-join must have to use a shuffle join
+     */
+    static final long SHUFFLE_JOIN_MIN_NUM_DOCS = 100_000L;
     private final Visitor visitor;
 
     NestedLoopConsumer(ClusterService clusterService, TableStats tableStats) {
@@ -97,6 +109,9 @@ class NestedLoopConsumer implements Consumer {
             JoinPair joinPair = statement.joinPair();
             JoinType joinType = joinPair.joinType();
             Symbol joinCondition = joinPair.condition();
+            // an ORDER BY may have been moved into the left relation, relying on the join to keep its order.
+            // The join is then executed on a single node, as the results of several nodes would be merged unordered.
+            boolean preserveLeftOrder = left.querySpec().orderBy() != null;
 
             WhereClause where = querySpec.where();
             /*
@@ -111,7 +126,7 @@ class NestedLoopConsumer implements Consumer {
              */
             boolean filterNeeded = where.hasQuery() && !(where.query() instanceof Literal);
             boolean hasDocTables = left instanceof QueriedDocTable || right instanceof QueriedDocTable;
-            boolean isDistributed = hasDocTables && filterNeeded && !joinType.isOuter();
+            boolean isDistributed = hasDocTables && filterNeeded && !joinType.isOuter() && !preserveLeftOrder;
             Limits limits = context.plannerContext().getLimits(querySpec);
 
             if (!filterNeeded && joinCondition == null && querySpec.limit() != null) {
@@ -126,8 +141,25 @@ class NestedLoopConsumer implements Consumer {
             ResultDescription rightResultDesc = rightPlan.resultDescription();
             isDistributed = isDistributed &&
                             (!leftResultDesc.nodeIds().isEmpty() && !rightResultDesc.nodeIds().isEmpty());
+            int[] shuffleColumns = null;
+            if (joinCondition != null && !preserveLeftOrder && isShuffleCandidate(left, right, joinType)) {
+                shuffleColumns = shuffleColumns(InputColumns.create(joinCondition, nlOutputs), left.fields().size());
+            }
+            Collection<String> shuffleNodes = null;
+            if (shuffleColumns != null
+                && subPlanHashNoLimits(leftResultDesc)
+                && subPlanHashNoLimits(rightResultDesc)) {
+                shuffleNodes = new TreeSet<>(leftResultDesc.nodeIds());
+                shuffleNodes.addAll(rightResultDesc.nodeIds());
+                if (shuffleNodes.size() < 2 || leftResultDesc.nodeIds().isEmpty() || rightResultDesc.nodeIds().isEmpty()) {
+                    shuffleNodes = null;
+                }
+            }
+            boolean isShuffled = shuffleNodes != null;
+            isDistributed = isDistributed || isShuffled;
+
             boolean switchTables = false;
-            if (isDistributed) {
+            if (isDistributed && !isShuffled) {
                 switchTables =
                     joinType != JoinType.SEMI && joinType != JoinType.ANTI && isLeftSmallerThanRight(left, right);
                 if (switchTables) {
@@ -148,27 +180,36 @@ class NestedLoopConsumer implements Consumer {
 
             MergePhase leftMerge = null;
             MergePhase rightMerge = null;
-            if (isDistributed && subPlanHashNoLimits(leftResultDesc)) {
-                leftPlan.setDistributionInfo(DistributionInfo.DEFAULT_SAME_NODE);
-                nlExecutionNodes = leftResultDesc.nodeIds();
+            if (isShuffled) {
+                // both sides are partitioned by the join key, so each node joins the rows of its partition
+                nlExecutionNodes = shuffleNodes;
+                leftPlan.setDistributionInfo(new DistributionInfo(DistributionType.MODULO, shuffleColumns[0]));
+                rightPlan.setDistributionInfo(new DistributionInfo(DistributionType.MODULO, shuffleColumns[1]));
+                leftMerge = buildMergePhase(context.plannerContext(), left, leftResultDesc, nlExecutionNodes);
+                rightMerge = buildMergePhase(context.plannerContext(), right, rightResultDesc, nlExecutionNodes);
             } else {
-                leftPlan.setDistributionInfo(DistributionInfo.DEFAULT_BROADCAST);
-                if (isMergePhaseNeeded(nlExecutionNodes, leftResultDesc, false)) {
-                    leftMerge = buildMergePhase(context.plannerContext(), left, leftResultDesc, nlExecutionNodes);
+                if (isDistributed && subPlanHashNoLimits(leftResultDesc)) {
+                    leftPlan.setDistributionInfo(DistributionInfo.DEFAULT_SAME_NODE);
+                    nlExecutionNodes = leftResultDesc.nodeIds();
+                } else {
+                    leftPlan.setDistributionInfo(DistributionInfo.DEFAULT_BROADCAST);
+                    if (isMergePhaseNeeded(nlExecutionNodes, leftResultDesc, false)) {
+                        leftMerge = buildMergePhase(context.plannerContext(), left, leftResultDesc, nlExecutionNodes);
+                    }
                 }
-            }
-            if (nlExecutionNodes.size() == 1
-                && nlExecutionNodes.equals(rightResultDesc.nodeIds())
-                && subPlanHashNoLimits(rightResultDesc)) {
-                // if the left and the right plan are executed on the same single node the mergePhase
-                // should be omitted. This is the case if the left and right table have only one shards which
-                // are on the same node
-                rightPlan.setDistributionInfo(DistributionInfo.DEFAULT_SAME_NODE);
-            } else {
-                if (isMergePhaseNeeded(nlExecutionNodes, rightResultDesc, isDistributed)) {
-                    rightMerge = buildMergePhase(context.plannerContext(), right, rightResultDesc, nlExecutionNodes);
+                if (nlExecutionNodes.size() == 1
+                    && nlExecutionNodes.equals(rightResultDesc.nodeIds())
+                    && subPlanHashNoLimits(rightResultDesc)) {
+                    // if the left and the right plan are executed on the same single node the mergePhase
+                    // should be omitted. This is the case if the left and right table have only one shards which
+                    // are on the same node
+                    rightPlan.setDistributionInfo(DistributionInfo.DEFAULT_SAME_NODE);
+                } else {
+                    if (isMergePhaseNeeded(nlExecutionNodes, rightResultDesc, isDistributed)) {
+                        rightMerge = buildMergePhase(context.plannerContext(), right, rightResultDesc, nlExecutionNodes);
+                    }
+                    rightPlan.setDistributionInfo(DistributionInfo.DEFAULT_BROADCAST);
                 }
-                rightPlan.setDistributionInfo(DistributionInfo.DEFAULT_BROADCAST);
             }
 
             if (switchTables) {
@@ -216,7 +257,7 @@ class NestedLoopConsumer implements Consumer {
             NestedLoopPhase nl = new NestedLoopPhase(
                 context.plannerContext().jobId(),
                 context.plannerContext().nextExecutionPhaseId(),
-                isDistributed ? "distributed-nested-loop" : "nested-loop",
+                isShuffled ? "distributed-shuffle-join" : (isDistributed ? "distributed-nested-loop" : "nested-loop"),
                 projections,
                 leftMerge,
                 rightMerge,
@@ -224,7 +265,8 @@ class NestedLoopConsumer implements Consumer {
                 joinType,
                 joinCondition,
                 left.querySpec().outputs().size(),
-                right.querySpec().outputs().size()
+                right.querySpec().outputs().size(),
+                preserveLeftOrder
             );
 
             // postNLOutputs includes orderBy only symbols, these need to be stripped in the handlerMerge
@@ -245,6 +287,22 @@ class NestedLoopConsumer implements Consumer {
             }
         }
 
+        /**
+         * A join is executed distributed with both sides partitioned by the join key (a shuffle join)
+         * if both sides are large doc tables; for smaller tables moving the rows to a single node is cheaper.
+         */
+        private boolean isShuffleCandidate(QueriedRelation left, QueriedRelation right, JoinType joinType) {
+            if (joinType != JoinType.INNER && !joinType.isOuter()) {
+                return false;
+            }
+            if (left instanceof QueriedDocTable && right instanceof QueriedDocTable) {
+                long leftNumDocs = tableStats.numDocs(((QueriedDocTable) left).tableRelation().tableInfo().ident());
+                long rightNumDocs = tableStats.numDocs(((QueriedDocTable) right).tableRelation().tableInfo().ident());
+                return leftNumDocs >= SHUFFLE_JOIN_MIN_NUM_DOCS && rightNumDocs >= SHUFFLE_JOIN_MIN_NUM_DOCS;
+            }
+            return false;
+        }
+
         private boolean isLeftSmallerThanRight(QueriedRelation qrLeft, QueriedRelation qrRight) {
             if (qrLeft instanceof QueriedTableRelation && qrRight instanceof QueriedTableRelation) {
                 return isLeftSmallerThanRight(
@@ -281,6 +339,47 @@ class NestedLoopConsumer implements Consumer {
         }
     }
 
+    /**
+     * Finds an equality condition between an output column of the left and an output column of the right side
+     * which can be used to partition both sides.
+     *
+     * @param joinCondition the join condition with the outputs of the left side followed by those of the right side
+     *                      as InputColumns
+     * @return the indices of the left and right column (relative to their side) or null if there is no such condition
+     */
+    @Nullable
+    static int[] shuffleColumns(Symbol joinCondition, int numLeftOutputs) {
+        if (!(joinCondition instanceof Function)) {
+            return null;
+        }
+        Function function = (Function) joinCondition;
+        String name = function.info().ident().name();
+        if (name.equals(AndOperator.NAME)) {
+            for (Symbol arg : function.arguments()) {
+                int[] columns = shuffleColumns(arg, numLeftOutputs);
+                if (columns != null) {
+                    return columns;
+                }
+            }
+        } else if (name.equals(EqOperator.NAME)) {
+            Symbol arg1 = function.arguments().get(0);
+            Symbol arg2 = function.arguments().get(1);
+            if (arg1 instanceof InputColumn && arg2 instanceof InputColumn
+                && arg1.valueType().equals(arg2.valueType())
+                && HashJoinKeys.isHashable(arg1.valueType())) {
+                int idx1 = ((InputColumn) arg1).index();
+                int idx2 = ((InputColumn) arg2).index();
+                if (idx1 < numLeftOutputs && idx2 >= numLeftOutputs) {
+                    return new int[] { idx1, idx2 - numLeftOutputs };
+                }
+                if (idx2 < numLeftOutputs && idx1 >= numLeftOutputs) {
+                    return new int[] { idx2, idx1 - numLeftOutputs };
+                }
+            }
+        }
+        return null;
+    }
+
     private static boolean subPlanHashNoLimits(ResultDescription resultDescription) {
         return resultDescription.limit() == TopN.NO_LIMIT && resultDescription.offset() == 0;
     }
@@ -32,6 +32,7 @@ import io.crate.planner.node.ExecutionPhaseVisitor;
 import io.crate.planner.node.dql.AbstractProjectionsPhase;
 import io.crate.planner.node.dql.MergePhase;
 import io.crate.planner.projection.Projection;
+import org.elasticsearch.Version;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 
@@ -44,6 +45,8 @@ import java.util.UUID;
 
 public class NestedLoopPhase extends AbstractProjectionsPhase implements UpstreamPhase {
 
+    private static final Version PRESERVE_LEFT_ORDER_VERSION = Version.V_5_6_2_UNRELEASED;
+
     private final Collection<String> executionNodes;
     private final MergePhase leftMergePhase;
     private final MergePhase rightMergePhase;
@@ -53,6 +56,7 @@ public class NestedLoopPhase extends AbstractProjectionsPhase implements Upstrea
     private final Symbol joinCondition;
     private final int numLeftOutputs;
     private final int numRightOutputs;
+    private final boolean preserveLeftOrder;
 
     private DistributionInfo distributionInfo = DistributionInfo.DEFAULT_BROADCAST;
 
@@ -66,7 +70,8 @@ public class NestedLoopPhase extends AbstractProjectionsPhase implements Upstrea
                            JoinType joinType,
                            @Nullable Symbol joinCondition,
                            int numLeftOutputs,
-                           int numRightOutputs) {
+                           int numRightOutputs,
+                           boolean preserveLeftOrder) {
         super(jobId, executionNodeId, name, projections);
         Projection lastProjection = Iterables.getLast(projections, null);
         assert lastProjection != null : "lastProjection must not be null";
@@ -78,6 +83,7 @@ public class NestedLoopPhase extends AbstractProjectionsPhase implements Upstrea
         this.joinCondition = joinCondition;
         this.numLeftOutputs = numLeftOutputs;
         this.numRightOutputs = numRightOutputs;
+        this.preserveLeftOrder = preserveLeftOrder;
     }
 
     @Override
@@ -121,6 +127,14 @@ public class NestedLoopPhase extends AbstractProjectionsPhase implements Upstrea
         return numRightOutputs;
     }
 
+    /**
+     * If true the join must emit the rows in the order of the left side, because an ORDER BY has been pushed down
+     * into the left relation. This rules out a hash join, which emits the rows in the order of the right side.
+     */
+    public boolean preserveLeftOrder() {
+        return preserveLeftOrder;
+    }
+
     @Override
     public <C, R> R accept(ExecutionPhaseVisitor<C, R> visitor, C context) {
         return visitor.visitNestedLoopPhase(this, context);
@@ -151,6 +165,12 @@ public class NestedLoopPhase extends AbstractProjectionsPhase implements Upstrea
         joinType = JoinType.values()[in.readVInt()];
         numLeftOutputs = in.readVInt();
         numRightOutputs = in.readVInt();
+        if (in.getVersion().onOrAfter(PRESERVE_LEFT_ORDER_VERSION)) {
+            preserveLeftOrder = in.readBoolean();
+        } else {
+            // nodes which don't know about the flag don't use hash joins, which keeps the order of the left side
+            preserveLeftOrder = true;
+        }
     }
 
     @Override
@@ -181,6 +201,9 @@ public class NestedLoopPhase extends AbstractProjectionsPhase implements Upstrea
         out.writeVInt(joinType.ordinal());
         out.writeVInt(numLeftOutputs);
         out.writeVInt(numRightOutputs);
+        if (out.getVersion().onOrAfter(PRESERVE_LEFT_ORDER_VERSION)) {
+            out.writeBoolean(preserveLeftOrder);
+        }
     }
 
     @Override
@@ -190,6 +213,7 @@ public class NestedLoopPhase extends AbstractProjectionsPhase implements Upstrea
             .add("name", name())
             .add("joinType", joinType)
             .add("joinCondition", joinCondition)
+            .add("preserveLeftOrder", preserveLeftOrder)
             .add("outputTypes", outputTypes)
             .add("jobId", jobId())
             .add("executionNodes", executionNodes);
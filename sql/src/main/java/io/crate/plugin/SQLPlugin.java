@@ -48,9 +48,13 @@ import io.crate.monitor.MonitorModule;
 import io.crate.operation.aggregation.impl.AggregationImplModule;
 import io.crate.operation.auth.AuthSettings;
 import io.crate.operation.collect.CollectOperationModule;
+import io.crate.operation.collect.LuceneShardCollectorProvider;
 import io.crate.operation.collect.files.FileCollectModule;
+import io.crate.operation.collect.sources.FileCollectSource;
 import io.crate.operation.operator.OperatorModule;
 import io.crate.operation.predicate.PredicateModule;
+import io.crate.operation.projectors.GroupingProjector;
+import io.crate.operation.projectors.SortingProjector;
 import io.crate.operation.reference.sys.check.SysChecksModule;
 import io.crate.operation.reference.sys.check.node.SysNodeChecksModule;
 import io.crate.operation.reference.sys.cluster.SysClusterExpressionModule;
@@ -133,6 +137,13 @@ public class SQLPlugin extends Plugin implements ActionPlugin, MapperPlugin, Clu
         List<Setting<?>> settings = new ArrayList<>();
         settings.add(AnalyzerSettings.CUSTOM_ANALYSIS_SETTING_GROUP);
         settings.add(SQLOperations.NODE_READ_ONLY_SETTING);
+        settings.add(SQLOperations.PARSE_CACHE_SIZE_SETTING);
+        settings.add(GroupingProjector.SPILL_ENABLED_SETTING);
+        settings.add(GroupingProjector.SPILL_THRESHOLD_SETTING);
+        settings.add(SortingProjector.SPILL_ENABLED_SETTING);
+        settings.add(SortingProjector.SPILL_THRESHOLD_SETTING);
+        settings.add(LuceneShardCollectorProvider.SHARD_CONCURRENCY_SETTING);
+        settings.add(FileCollectSource.FILE_CONCURRENCY_SETTING);
 
         // Postgres settings are node settings
         settings.add(PostgresNetty.PSQL_ENABLED_SETTING.setting());
@@ -136,8 +136,8 @@ class BatchPortal extends AbstractPortal {
                 throw t;
             }
             ResultReceiver resultReceiver = resultReceivers.get(i);
-            jobsLogs.logExecutionStart(jobId, stmt, sessionContext.user());
-            JobsLogsUpdateListener jobsLogsUpdateListener = new JobsLogsUpdateListener(jobId, jobsLogs);
+            long started = jobsLogs.logExecutionStart(jobId, stmt, sessionContext.user());
+            JobsLogsUpdateListener jobsLogsUpdateListener = new JobsLogsUpdateListener(jobId, stmt, started, jobsLogs);
 
             resultReceiver.completionFuture()
                 .whenComplete(jobsLogsUpdateListener)
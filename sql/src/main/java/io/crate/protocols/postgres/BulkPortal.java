@@ -124,21 +124,24 @@ class BulkPortal extends AbstractPortal {
             jobsLogs.logPreExecutionFailure(jobId, query, SQLExceptions.messageOf(t), sessionContext.user());
             throw t;
         }
-        jobsLogs.logExecutionStart(jobId, query, sessionContext.user());
+        long started = jobsLogs.logExecutionStart(jobId, query, sessionContext.user());
         synced = true;
-        return executeBulk(portalContext.getExecutor(), plan, jobId, jobsLogs);
+        return executeBulk(portalContext.getExecutor(), plan, jobId, started, jobsLogs);
     }
 
-    private CompletableFuture<Void> executeBulk(Executor executor, Plan plan, final UUID jobId,
+    private CompletableFuture<Void> executeBulk(Executor executor, Plan plan, final UUID jobId, long started,
                                                 final JobsLogs jobsLogs) {
         List<CompletableFuture<Long>> futures = executor.executeBulk(plan);
         CompletableFuture<Void> allFutures = CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
         return allFutures
             .exceptionally(t -> null) // swallow exception - failures are set per item in emitResults
-            .thenAccept(ignored -> emitResults(jobId, jobsLogs, futures));
+            .thenAccept(ignored -> emitResults(jobId, started, jobsLogs, futures));
     }
 
-    private void emitResults(UUID jobId, JobsLogs jobsLogs, List<CompletableFuture<Long>> completedResultFutures) {
+    private void emitResults(UUID jobId,
+                             long started,
+                             JobsLogs jobsLogs,
+                             List<CompletableFuture<Long>> completedResultFutures) {
         assert completedResultFutures.size() == resultReceivers.size()
             : "number of result must match number of rowReceivers";
 
@@ -156,6 +159,6 @@ class BulkPortal extends AbstractPortal {
             resultReceiver.setNextRow(row);
             resultReceiver.allFinished(false);
         }
-        jobsLogs.logExecutionEnd(jobId, null);
+        jobsLogs.logExecutionEnd(jobId, query, started, null);
     }
 }
@@ -0,0 +1,503 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.protocols.postgres;
+
+import io.crate.action.sql.BaseResultReceiver;
+import io.crate.action.sql.SQLOperations;
+import io.crate.analyze.expressions.ExpressionToStringVisitor;
+import io.crate.analyze.symbol.Field;
+import io.crate.data.Row;
+import io.crate.exceptions.SQLExceptions;
+import io.crate.protocols.postgres.types.PGType;
+import io.crate.protocols.postgres.types.PGTypes;
+import io.crate.sql.Identifiers;
+import io.crate.sql.parser.SqlParser;
+import io.crate.sql.tree.CopyFrom;
+import io.crate.sql.tree.Expression;
+import io.crate.sql.tree.GenericProperties;
+import io.crate.sql.tree.QualifiedName;
+import io.crate.sql.tree.QualifiedNameReference;
+import io.crate.sql.tree.Statement;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import org.apache.logging.log4j.Logger;
+import org.elasticsearch.common.logging.Loggers;
+
+import javax.annotation.Nullable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static io.crate.action.sql.SQLOperations.Session.UNNAMED;
+
+/**
+ * Handles the CopyIn sub-protocol of a {@code COPY table FROM STDIN} statement.
+ *
+ * <pre>
+ *          |  Q (COPY t FROM STDIN)           |
+ *          |--------------------------------->|
+ *          |                                  |
+ *          |  CopyInResponse                  |
+ *          |<---------------------------------|
+ *          |                                  |
+ *          |  CopyData                        |
+ *          |--------------------------------->|
+ *          |  ...                             |
+ *          |  CopyDone or CopyFail            |
+ *          |--------------------------------->|
+ *          |                                  |
+ *          |  CommandComplete or ErrorResponse|
+ *          |  ReadyForQuery                   |
+ *          |<---------------------------------|
+ * </pre>
+ *
+ * The decoded records are inserted in batches of {@code batchSize} rows as bulk INSERT.
+ * The text values are decoded like text parameters of a Bind message, using the type of their target column,
+ * so that e.g. object and array columns can be copied.
+ * While a batch is being inserted and the next one is already full, reading from the channel is
+ * suspended, so that a fast client can't make the node buffer an unbounded amount of rows.
+ * <p>
+ * Like COPY FROM with a file URI, rows which fail to be decoded or inserted are skipped and not counted.
+ * Other errors (e.g. a malformed record) abort the copy; the error is reported once the client finished
+ * sending data, rows from batches which have already been inserted are kept.
+ */
+class CopyIn {
+
+    private static final Logger LOGGER = Loggers.getLogger(CopyIn.class);
+    private static final String STDIN = "stdin";
+
+    private final SQLOperations.Session session;
+    private final Channel channel;
+    private final String query;
+    private final String table;
+    private final Map<String, DataType> columnTypes;
+    private final CopyRecordDecoder decoder;
+    private final int batchSize;
+    private final Runnable onFinish;
+
+    @Nullable
+    private List<String> columns;
+    @Nullable
+    private PGType[] pgTypes;
+    private List<String[]> pending = new ArrayList<>();
+    private boolean batchInProgress = false;
+    private boolean copyDone = false;
+    private boolean terminated = false;
+    private long rowCount = 0;
+    private Throwable failure;
+
+    private CopyIn(SQLOperations.Session session,
+                   Channel channel,
+                   String query,
+                   String table,
+                   Map<String, DataType> columnTypes,
+                   @Nullable List<String> columns,
+                   CopyRecordDecoder decoder,
+                   int batchSize,
+                   Runnable onFinish) {
+        this.session = session;
+        this.channel = channel;
+        this.query = query;
+        this.table = table;
+        this.columnTypes = columnTypes;
+        this.columns = columns;
+        this.decoder = decoder;
+        this.batchSize = batchSize;
+        this.onFinish = onFinish;
+    }
+
+    /**
+     * @return the statement if the query is a {@code COPY ... FROM STDIN}, otherwise null
+     */
+    @Nullable
+    static CopyFrom copyFromStdin(String query) {
+        String trimmed = query.trim();
+        if (!trimmed.regionMatches(true, 0, "copy", 0, 4)) {
+            return null;
+        }
+        Statement statement;
+        try {
+            statement = SqlParser.createStatement(query);
+        } catch (Exception e) {
+            // let the regular flow report the error
+            return null;
+        }
+        if (statement instanceof CopyFrom) {
+            Expression path = ((CopyFrom) statement).path();
+            if (path instanceof QualifiedNameReference &&
+                STDIN.equalsIgnoreCase(((QualifiedNameReference) path).getName().toString())) {
+                return (CopyFrom) statement;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Validates the statement, resolves the target columns and sends the CopyInResponse.
+     *
+     * @param onFinish called once the copy has completed and CommandComplete/ErrorResponse and ReadyForQuery were sent.
+     */
+    static CopyIn start(SQLOperations.Session session,
+                        Channel channel,
+                        String query,
+                        CopyFrom copyFrom,
+                        int batchSize,
+                        Runnable onFinish) {
+        if (!copyFrom.table().partitionProperties().isEmpty()) {
+            throw new UnsupportedOperationException("COPY FROM STDIN doesn't support the PARTITION clause");
+        }
+        GenericProperties properties = copyFrom.genericProperties().orElse(GenericProperties.EMPTY);
+        CopyRecordDecoder.Format format = CopyRecordDecoder.Format.TEXT;
+        char delimiter = 0;
+        boolean header = false;
+        for (String key : properties.properties().keySet()) {
+            String value = ExpressionToStringVisitor.convert(properties.get(key), Row.EMPTY);
+            switch (key) {
+                case "format":
+                    format = CopyRecordDecoder.Format.of(value);
+                    break;
+                case "delimiter":
+                    if (value.length() != 1) {
+                        throw new IllegalArgumentException("COPY delimiter must be a single one-byte character");
+                    }
+                    delimiter = value.charAt(0);
+                    break;
+                case "header":
+                    header = Boolean.parseBoolean(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException(String.format(Locale.ENGLISH,
+                        "Setting \"%s\" is not supported for COPY FROM STDIN", key));
+            }
+        }
+        if (header && format != CopyRecordDecoder.Format.CSV) {
+            throw new IllegalArgumentException("COPY HEADER is only supported with the CSV format");
+        }
+        if (delimiter == 0) {
+            delimiter = format.defaultDelimiter();
+        }
+
+        String table = quote(copyFrom.table().getName());
+        Map<String, DataType> columnTypes = columnTypes(session, table);
+        CopyIn copyIn = new CopyIn(
+            session,
+            channel,
+            query,
+            table,
+            columnTypes,
+            header ? null : new ArrayList<>(columnTypes.keySet()),
+            new CopyRecordDecoder(format, delimiter),
+            batchSize,
+            onFinish);
+        Messages.sendCopyInResponse(channel, columnTypes.size());
+        return copyIn;
+    }
+
+    private static String quote(QualifiedName name) {
+        return name.getParts().stream()
+            .map(Identifiers::quoteIfNeeded)
+            .collect(Collectors.joining("."));
+    }
+
+    /**
+     * Resolves the columns of the table and their types in the same order as {@code SELECT *} returns them.
+     * This also checks that the table exists before the client starts sending data.
+     */
+    private static Map<String, DataType> columnTypes(SQLOperations.Session session, String table) {
+        try {
+            session.parse(UNNAMED, "SELECT * FROM " + table, Collections.<DataType>emptyList());
+            session.bind(UNNAMED, UNNAMED, Collections.emptyList(), null);
+            List<Field> fields = session.describe('P', UNNAMED);
+            assert fields != null : "SELECT must have output fields";
+            Map<String, DataType> columnTypes = new LinkedHashMap<>(fields.size());
+            for (Field field : fields) {
+                columnTypes.put(field.path().outputName(), field.valueType());
+            }
+            return columnTypes;
+        } finally {
+            session.clearState();
+        }
+    }
+
+    /**
+     * Resolves the types used to decode the values of the given columns.
+     * Values of string and geo columns, and of columns which don't exist yet, are bound as they are,
+     * the analyzer converts them (e.g. WKT to geo shapes).
+     */
+    private static PGType[] pgTypes(List<String> columns, Map<String, DataType> columnTypes) {
+        PGType[] pgTypes = new PGType[columns.size()];
+        for (int i = 0; i < columns.size(); i++) {
+            DataType type = columnTypes.get(columns.get(i));
+            if (type == null
+                || type.equals(DataTypes.STRING)
+                || type.equals(DataTypes.IP)
+                || type.equals(DataTypes.UNDEFINED)
+                || type.equals(DataTypes.GEO_POINT)
+                || type.equals(DataTypes.GEO_SHAPE)) {
+                continue;
+            }
+            try {
+                pgTypes[i] = PGTypes.get(type);
+            } catch (IllegalArgumentException e) {
+                // no text representation, bind as string
+            }
+        }
+        return pgTypes;
+    }
+
+    private Object[] decodeValues(String[] record) {
+        assert pgTypes != null : "pgTypes must be resolved before records are decoded";
+        Object[] values = new Object[record.length];
+        for (int i = 0; i < record.length; i++) {
+            String value = record[i];
+            PGType pgType = pgTypes[i];
+            if (value == null || pgType == null) {
+                values[i] = value;
+            } else {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                values[i] = pgType.readTextValue(Unpooled.wrappedBuffer(bytes), bytes.length);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * CopyData
+     * | 'd' | int32 len | byteN data
+     */
+    void handleCopyData(ByteBuf buffer) {
+        byte[] data = new byte[buffer.readableBytes()];
+        buffer.readBytes(data);
+        if (failure != null) {
+            return;
+        }
+        try {
+            addRecords(decoder.decode(data));
+        } catch (Throwable t) {
+            failure = t;
+            pending.clear();
+        }
+        maybeInsertBatch();
+    }
+
+    /**
+     * CopyDone
+     * | 'c' | int32 len |
+     */
+    void handleCopyDone() {
+        copyDone = true;
+        if (failure == null) {
+            try {
+                addRecords(decoder.finish());
+            } catch (Throwable t) {
+                failure = t;
+                pending.clear();
+            }
+        }
+        maybeInsertBatch();
+    }
+
+    /**
+     * CopyFail
+     * | 'f' | int32 len | string errorMessage
+     */
+    void handleCopyFail(String message) {
+        copyDone = true;
+        if (failure == null) {
+            failure = new IllegalStateException("COPY from stdin failed: " + message);
+        }
+        pending.clear();
+        maybeInsertBatch();
+    }
+
+    /**
+     * Terminate
+     * | 'X' | int32 len |
+     * <p>
+     * The client closes the connection, nothing is sent anymore. A batch which is in progress is completed.
+     */
+    void handleTerminate() {
+        copyDone = true;
+        terminated = true;
+        pending.clear();
+        maybeInsertBatch();
+    }
+
+    private void addRecords(List<String[]> records) {
+        for (String[] record : records) {
+            if (columns == null) {
+                columns = Arrays.asList(record);
+                continue;
+            }
+            if (record.length != columns.size()) {
+                throw new IllegalArgumentException(String.format(Locale.ENGLISH,
+                    "COPY record has %d values, expected %d: %s",
+                    record.length, columns.size(), Arrays.toString(record)));
+            }
+            pending.add(record);
+        }
+    }
+
+    private void maybeInsertBatch() {
+        if (batchInProgress) {
+            if (pending.size() >= batchSize) {
+                channel.config().setAutoRead(false);
+            }
+            return;
+        }
+        if (pending.size() >= batchSize || (copyDone && !pending.isEmpty())) {
+            insertBatch();
+        } else if (copyDone) {
+            finish();
+        }
+    }
+
+    private void insertBatch() {
+        List<String[]> batch = pending;
+        pending = new ArrayList<>();
+        batchInProgress = true;
+        BatchRowCountReceiver receiver = new BatchRowCountReceiver();
+        if (pgTypes == null) {
+            assert columns != null : "columns must be known before rows are inserted";
+            pgTypes = pgTypes(columns, columnTypes);
+        }
+        List<Object[]> rows = new ArrayList<>(batch.size());
+        for (String[] record : batch) {
+            try {
+                rows.add(decodeValues(record));
+            } catch (Throwable t) {
+                receiver.rowFailed(t);
+            }
+        }
+        if (rows.isEmpty()) {
+            onBatchCompleted(receiver, null);
+            return;
+        }
+        try {
+            session.parse(UNNAMED, insertStatement(), Collections.<DataType>emptyList());
+            for (Object[] row : rows) {
+                session.bind(UNNAMED, UNNAMED, Arrays.asList(row), null);
+                session.execute(UNNAMED, 0, receiver);
+            }
+            session.sync().whenComplete((result, t) ->
+                channel.eventLoop().execute(() -> onBatchCompleted(receiver, t)));
+        } catch (Throwable t) {
+            session.clearState();
+            onBatchCompleted(receiver, t);
+        }
+    }
+
+    private void onBatchCompleted(BatchRowCountReceiver receiver, @Nullable Throwable t) {
+        batchInProgress = false;
+        if (t == null) {
+            rowCount += receiver.rowCount;
+            if (receiver.failedRows > 0) {
+                if (receiver.lastFailure == null) {
+                    LOGGER.warn("COPY FROM STDIN into {}: {} rows failed", table, receiver.failedRows);
+                } else {
+                    LOGGER.warn("COPY FROM STDIN into {}: {} rows failed, last error: {}",
+                        table, receiver.failedRows, SQLExceptions.messageOf(receiver.lastFailure));
+                }
+            }
+        } else if (failure == null) {
+            failure = t;
+            pending.clear();
+        }
+        channel.config().setAutoRead(true);
+        maybeInsertBatch();
+    }
+
+    private String insertStatement() {
+        assert columns != null : "columns must be known before rows are inserted";
+        StringBuilder sb = new StringBuilder("INSERT INTO ")
+            .append(table)
+            .append(" (");
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(Identifiers.quoteIfNeeded(columns.get(i)));
+        }
+        sb.append(") VALUES (");
+        for (int i = 0; i < columns.size(); i++) {
+            sb.append(i > 0 ? ", ?" : "?");
+        }
+        return sb.append(')').toString();
+    }
+
+    private void finish() {
+        if (terminated) {
+            onFinish.run();
+            return;
+        }
+        if (failure == null) {
+            Messages.sendCommandComplete(channel, query, rowCount);
+        } else {
+            Messages.sendErrorResponse(channel, failure);
+        }
+        Messages.sendReadyForQuery(channel);
+        onFinish.run();
+    }
+
+    /**
+     * Receives the row count of each item of a bulk insert
+     */
+    private static class BatchRowCountReceiver extends BaseResultReceiver {
+
+        private long rowCount = 0;
+        private long failedRows = 0;
+        @Nullable
+        private Throwable lastFailure;
+
+        @Override
+        public void setNextRow(Row row) {
+            long count = ((Number) row.get(0)).longValue();
+            if (count < 0) {
+                failedRows++;
+            } else {
+                rowCount += count;
+            }
+        }
+
+        @Override
+        public void fail(Throwable t) {
+            // a batch of a single row isn't executed as bulk operation and fails instead of returning an error row count
+            rowFailed(t);
+            super.allFinished(false);
+        }
+
+        void rowFailed(Throwable t) {
+            failedRows++;
+            lastFailure = t;
+        }
+    }
+}
@@ -0,0 +1,239 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.protocols.postgres;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Splits the payload of CopyData messages into records.
+ * <p>
+ * CopyData messages don't need to be aligned with rows, so incomplete records are buffered until the rest
+ * of the record arrives. Record boundaries are searched on the raw bytes, this is safe because all control
+ * characters are ASCII and can't be part of a multi-byte UTF-8 sequence.
+ * <p>
+ * Supported formats (see https://www.postgresql.org/docs/current/static/sql-copy.html):
+ * <ul>
+ *     <li>TEXT: one record per line, backslash escapes, {@code \N} as NULL</li>
+ *     <li>CSV: double quotes for quoting (may span lines), an unquoted empty value as NULL</li>
+ * </ul>
+ */
+class CopyRecordDecoder {
+
+    enum Format {
+        TEXT('\t'),
+        CSV(',');
+
+        private final char defaultDelimiter;
+
+        Format(char defaultDelimiter) {
+            this.defaultDelimiter = defaultDelimiter;
+        }
+
+        char defaultDelimiter() {
+            return defaultDelimiter;
+        }
+
+        static Format of(String name) {
+            try {
+                return valueOf(name.toUpperCase(Locale.ENGLISH));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(String.format(Locale.ENGLISH,
+                    "COPY format \"%s\" not supported, use one of %s", name, Arrays.toString(values())));
+            }
+        }
+    }
+
+    private static final String TEXT_NULL = "\\N";
+    private static final String TEXT_END_OF_DATA = "\\.";
+
+    private final Format format;
+    private final char delimiter;
+
+    private byte[] buffer = new byte[1024];
+    private int length = 0;
+    private int recordStart = 0;
+    private int scanPos = 0;
+    private boolean inQuotes = false;
+
+    CopyRecordDecoder(Format format, char delimiter) {
+        this.format = format;
+        this.delimiter = delimiter;
+    }
+
+    /**
+     * Appends the data and returns all records which are complete.
+     * Values are Strings or null
+     */
+    List<String[]> decode(byte[] data) {
+        append(data);
+        List<String[]> records = new ArrayList<>();
+        while (scanPos < length) {
+            byte b = buffer[scanPos];
+            if (format == Format.CSV && b == '"') {
+                inQuotes = !inQuotes;
+            } else if (b == '\n' && !inQuotes) {
+                addRecord(records, recordStart, scanPos);
+                recordStart = scanPos + 1;
+            }
+            scanPos++;
+        }
+        compact();
+        return records;
+    }
+
+    /**
+     * Returns the last record if the data didn't end with a line break
+     */
+    List<String[]> finish() {
+        List<String[]> records = new ArrayList<>(1);
+        if (inQuotes) {
+            throw new IllegalArgumentException("COPY data ends within a quoted CSV value");
+        }
+        if (recordStart < length) {
+            addRecord(records, recordStart, length);
+        }
+        recordStart = length = scanPos = 0;
+        return records;
+    }
+
+    private void addRecord(List<String[]> records, int start, int end) {
+        if (end > start && buffer[end - 1] == '\r') {
+            end--;
+        }
+        String line = new String(buffer, start, end - start, StandardCharsets.UTF_8);
+        if (format == Format.TEXT) {
+            if (TEXT_END_OF_DATA.equals(line)) {
+                return;
+            }
+            records.add(parseTextRecord(line));
+        } else {
+            records.add(parseCsvRecord(line));
+        }
+    }
+
+    private String[] parseTextRecord(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder sb = new StringBuilder();
+        int valueStart = 0;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == delimiter) {
+                values.add(textValue(line, valueStart, i, sb));
+                sb.setLength(0);
+                valueStart = i + 1;
+            } else if (c == '\\' && i + 1 < line.length()) {
+                i++;
+                sb.append(unescape(line.charAt(i)));
+            } else {
+                sb.append(c);
+            }
+        }
+        values.add(textValue(line, valueStart, line.length(), sb));
+        return values.toArray(new String[0]);
+    }
+
+    private static String textValue(String line, int start, int end, StringBuilder value) {
+        if (end - start == TEXT_NULL.length() && line.startsWith(TEXT_NULL, start)) {
+            return null;
+        }
+        return value.toString();
+    }
+
+    private static char unescape(char c) {
+        switch (c) {
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            case 'v':
+                return '\u000B';
+            default:
+                return c;
+        }
+    }
+
+    private String[] parseCsvRecord(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder sb = new StringBuilder();
+        boolean quoted = false;
+        boolean wasQuoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        sb.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    sb.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+                wasQuoted = true;
+            } else if (c == delimiter) {
+                values.add(sb.length() == 0 && !wasQuoted ? null : sb.toString());
+                sb.setLength(0);
+                wasQuoted = false;
+            } else {
+                sb.append(c);
+            }
+        }
+        values.add(sb.length() == 0 && !wasQuoted ? null : sb.toString());
+        return values.toArray(new String[0]);
+    }
+
+    private void append(byte[] data) {
+        if (length + data.length > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + data.length));
+        }
+        System.arraycopy(data, 0, buffer, length, data.length);
+        length += data.length;
+    }
+
+    /**
+     * Moves the incomplete record to the start of the buffer so that the buffer only grows with the record size
+     */
+    private void compact() {
+        if (recordStart == 0) {
+            return;
+        }
+        int remaining = length - recordStart;
+        System.arraycopy(buffer, recordStart, buffer, 0, remaining);
+        scanPos -= recordStart;
+        length = remaining;
+        recordStart = 0;
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.protocols.postgres;
+
+import io.crate.data.Row;
+import io.crate.protocols.postgres.types.PGType;
+import io.crate.protocols.postgres.types.PGTypes;
+import io.crate.types.DataType;
+import io.netty.buffer.ByteBuf;
+
+import javax.annotation.Nullable;
+import java.util.List;
+
+/**
+ * Encodes rows as DataRow messages.
+ * <p>
+ * The {@link PGType} and format code of each column are resolved once so that encoding a row only
+ * dispatches on the value. The messages are appended to a buffer provided by the caller, which allows
+ * to write many rows into the same buffer.
+ * <p>
+ * DataRow (B)
+ * <pre>
+ * | 'D' | int32 len | int16 numCols |
+ *
+ * foreach column:
+ * | int32 valueLength (-1 for NULL) | byteN value
+ * </pre>
+ * The length includes the length field itself, the value is in the format indicated by the format code of the column.
+ */
+class DataRowEncoder {
+
+    private final PGType[] pgTypes;
+    private final boolean[] binary;
+
+    DataRowEncoder(List<? extends DataType> columnTypes, @Nullable FormatCodes.FormatCode[] formatCodes) {
+        int numColumns = columnTypes.size();
+        pgTypes = new PGType[numColumns];
+        binary = new boolean[numColumns];
+        for (int i = 0; i < numColumns; i++) {
+            pgTypes[i] = PGTypes.get(columnTypes.get(i));
+            FormatCodes.FormatCode formatCode = FormatCodes.getFormatCode(formatCodes, i);
+            switch (formatCode) {
+                case TEXT:
+                    binary[i] = false;
+                    break;
+                case BINARY:
+                    binary[i] = true;
+                    break;
+
+                default:
+                    throw new AssertionError("Unrecognized formatCode: " + formatCode);
+            }
+        }
+    }
+
+    /**
+     * Append a DataRow message for the row to the buffer
+     */
+    void writeDataRow(ByteBuf buffer, Row row) {
+        assert pgTypes.length == row.numColumns()
+            : "Number of columns in the row must match number of columnTypes. Row: " + row + " numTypes: " + pgTypes.length;
+
+        int messageStart = buffer.writerIndex();
+        int length = 4 + 2;
+        buffer.writeByte('D');
+        buffer.writeInt(0); // will be set at the end
+        buffer.writeShort(pgTypes.length);
+
+        try {
+            for (int i = 0; i < pgTypes.length; i++) {
+                Object value = row.get(i);
+                if (value == null) {
+                    buffer.writeInt(-1);
+                    length += 4;
+                } else if (binary[i]) {
+                    length += pgTypes[i].writeAsBinary(buffer, value);
+                } else {
+                    length += pgTypes[i].writeAsText(buffer, value);
+                }
+            }
+        } catch (Throwable t) {
+            // don't leave a partial message behind, the buffer may already contain other rows
+            buffer.writerIndex(messageStart);
+            throw t;
+        }
+        buffer.setInt(messageStart + 1, length);
+    }
+}
@@ -31,19 +31,23 @@ import java.util.function.BiConsumer;
 public class JobsLogsUpdateListener implements BiConsumer<Object, Throwable> {
 
     private final UUID jobId;
+    private final String statement;
+    private final long started;
     private final JobsLogs jobsLogs;
 
-    public JobsLogsUpdateListener(UUID jobId, JobsLogs jobsLogs) {
+    public JobsLogsUpdateListener(UUID jobId, String statement, long started, JobsLogs jobsLogs) {
         this.jobId = jobId;
+        this.statement = statement;
+        this.started = started;
         this.jobsLogs = jobsLogs;
     }
 
     @Override
     public void accept(Object o, Throwable t) {
         if (t == null) {
-            jobsLogs.logExecutionEnd(jobId, null);
+            jobsLogs.logExecutionEnd(jobId, statement, started, null);
         } else {
-            jobsLogs.logExecutionEnd(jobId, SQLExceptions.messageOf(t));
+            jobsLogs.logExecutionEnd(jobId, statement, started, SQLExceptions.messageOf(t));
         }
     }
 }
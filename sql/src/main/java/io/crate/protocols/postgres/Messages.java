@@ -23,11 +23,9 @@
 package io.crate.protocols.postgres;
 
 import io.crate.analyze.symbol.Field;
-import io.crate.data.Row;
 import io.crate.exceptions.SQLExceptions;
 import io.crate.protocols.postgres.types.PGType;
 import io.crate.protocols.postgres.types.PGTypes;
-import io.crate.types.DataType;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
@@ -38,7 +36,6 @@ import org.elasticsearch.common.logging.Loggers;
 import javax.annotation.Nullable;
 import java.nio.charset.StandardCharsets;
 import java.util.Collection;
-import java.util.List;
 import java.util.Locale;
 
 /**
@@ -266,62 +263,6 @@ public class Messages {
         return channelFuture;
     }
 
-    /**
-     * Byte1('D')
-     * Identifies the message as a data row.
-     * <p>
-     * Int32
-     * Length of message contents in bytes, including self.
-     * <p>
-     * Int16
-     * The number of column values that follow (possibly zero).
-     * <p>
-     * Next, the following pair of fields appear for each column:
-     * <p>
-     * Int32
-     * The length of the column value, in bytes (this count does not include itself).
-     * Can be zero. As a special case, -1 indicates a NULL column value. No value bytes follow in the NULL case.
-     * <p>
-     * ByteN
-     * The value of the column, in the format indicated by the associated format code. n is the above length.
-     */
-    static void sendDataRow(Channel channel, Row row, List<? extends DataType> columnTypes, @Nullable FormatCodes.FormatCode[] formatCodes) {
-        int length = 4 + 2;
-        assert columnTypes.size() == row.numColumns()
-            : "Number of columns in the row must match number of columnTypes. Row: " + row + " types: " + columnTypes;
-
-        ByteBuf buffer = channel.alloc().buffer();
-        buffer.writeByte('D');
-        buffer.writeInt(0); // will be set at the end
-        buffer.writeShort(row.numColumns());
-
-        for (int i = 0; i < row.numColumns(); i++) {
-            DataType dataType = columnTypes.get(i);
-            PGType pgType = PGTypes.get(dataType);
-            Object value = row.get(i);
-            if (value == null) {
-                buffer.writeInt(-1);
-                length += 4;
-            } else {
-                FormatCodes.FormatCode formatCode = FormatCodes.getFormatCode(formatCodes, i);
-                switch (formatCode) {
-                    case TEXT:
-                        length += pgType.writeAsText(buffer, value);
-                        break;
-                    case BINARY:
-                        length += pgType.writeAsBinary(buffer, value);
-                        break;
-
-                    default:
-                        throw new AssertionError("Unrecognized formatCode: " + formatCode);
-                }
-            }
-        }
-
-        buffer.setInt(1, length);
-        channel.write(buffer);
-    }
-
     static void writeCString(ByteBuf buffer, byte[] valBytes) {
         buffer.writeBytes(valBytes);
         buffer.writeByte(0);
@@ -374,6 +315,29 @@ public class Messages {
         }
     }
 
+    /**
+     * CopyInResponse (B)
+     * <p>
+     * | 'G' | int32 len | int8 format | int16 numCols | foreach column: int16 format
+     * <p>
+     * Only the text format is supported, so the overall and per column format is always 0
+     */
+    static void sendCopyInResponse(Channel channel, int numColumns) {
+        int length = 4 + 1 + 2 + numColumns * 2;
+        ByteBuf buffer = channel.alloc().buffer(length + 1);
+        buffer.writeByte('G');
+        buffer.writeInt(length);
+        buffer.writeByte(0);
+        buffer.writeShort(numColumns);
+        for (int i = 0; i < numColumns; i++) {
+            buffer.writeShort(0);
+        }
+        ChannelFuture channelFuture = channel.writeAndFlush(buffer);
+        if (LOGGER.isTraceEnabled()) {
+            channelFuture.addListener((ChannelFutureListener) future -> LOGGER.trace("sentCopyInResponse"));
+        }
+    }
+
     /**
      * ParseComplete
      * | '1' | int32 len |
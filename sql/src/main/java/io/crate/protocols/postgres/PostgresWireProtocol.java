@@ -34,6 +34,7 @@ import io.crate.operation.user.User;
 import io.crate.protocols.http.CrateNettyHttpServerTransport;
 import io.crate.protocols.postgres.types.PGType;
 import io.crate.protocols.postgres.types.PGTypes;
+import io.crate.sql.tree.CopyFrom;
 import io.crate.types.DataType;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.Channel;
@@ -157,6 +158,8 @@ import static io.crate.protocols.postgres.PostgresWireProtocol.State.STARTUP_HEA
  *          |<---------------------------------|
  * </pre>
  * <p>
+ * COPY FROM STDIN is handled by {@link CopyIn}.
+ * <p>
  * Take a look at {@link Messages} to see how the messages are structured.
  * <p>
  * See https://www.postgresql.org/docs/current/static/protocol-flow.html for a more detailed description of the message flow
@@ -165,6 +168,7 @@ import static io.crate.protocols.postgres.PostgresWireProtocol.State.STARTUP_HEA
 class PostgresWireProtocol {
 
     private static final Logger LOGGER = Loggers.getLogger(PostgresWireProtocol.class);
+    private static final int COPY_IN_BATCH_SIZE = 1_000;
 
     final MessageDecoder decoder;
     final MessageHandler handler;
@@ -176,6 +180,8 @@ class PostgresWireProtocol {
     private byte msgType;
     private SQLOperations.Session session;
     private boolean ignoreTillSync = false;
+    @Nullable
+    private CopyIn copyIn;
 
     enum State {
         PRE_STARTUP,
@@ -290,6 +296,10 @@ class PostgresWireProtocol {
         }
 
         private void dispatchMessage(ByteBuf buffer, Channel channel) {
+            if (copyIn != null) {
+                dispatchCopyInMessage(buffer, channel);
+                return;
+            }
             switch (msgType) {
                 case 'Q': // Query (simple)
                     handleSimpleQuery(buffer, channel);
@@ -325,6 +335,37 @@ class PostgresWireProtocol {
             }
         }
 
+        /**
+         * Flush and Sync are ignored during copy-in mode, Terminate closes the connection,
+         * any other message aborts the copy.
+         */
+        private void dispatchCopyInMessage(ByteBuf buffer, Channel channel) {
+            assert copyIn != null : "copyIn must not be null";
+            switch (msgType) {
+                case 'd':
+                    copyIn.handleCopyData(buffer);
+                    return;
+                case 'c':
+                    copyIn.handleCopyDone();
+                    return;
+                case 'f':
+                    copyIn.handleCopyFail(readCString(buffer));
+                    return;
+                case 'H':
+                case 'S':
+                    buffer.skipBytes(msgLength);
+                    return;
+                case 'X': // Terminate (called when jdbc connection is closed)
+                    copyIn.handleTerminate();
+                    closeSession();
+                    channel.close();
+                    return;
+                default:
+                    buffer.skipBytes(msgLength);
+                    copyIn.handleCopyFail("unexpected message type " + (char) msgType + " during COPY");
+            }
+        }
+
         private void closeSession() {
             if (session != null) {
                 session.close();
@@ -594,6 +635,11 @@ class PostgresWireProtocol {
             return;
         }
         try {
+            CopyFrom copyFromStdin = CopyIn.copyFromStdin(query);
+            if (copyFromStdin != null) {
+                copyIn = CopyIn.start(session, channel, query, copyFromStdin, COPY_IN_BATCH_SIZE, () -> copyIn = null);
+                return;
+            }
             session.parse("", query, Collections.<DataType>emptyList());
             session.bind("", "", Collections.emptyList(), null);
             List<Field> fields = session.describe('P', "");
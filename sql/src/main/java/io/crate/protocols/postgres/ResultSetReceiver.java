@@ -27,22 +27,30 @@ import io.crate.data.Row;
 import io.crate.exceptions.SQLExceptions;
 import io.crate.operation.user.ExceptionAuthorizedValidator;
 import io.crate.types.DataType;
+import io.netty.buffer.ByteBuf;
 import io.netty.channel.Channel;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.List;
 
+/**
+ * Sends the rows as DataRow messages.
+ * <p>
+ * Rows are encoded into a shared buffer which is written to the channel once it exceeds {@link #FLUSH_THRESHOLD}
+ * bytes or the result (batch) is complete, instead of allocating and writing a buffer per row.
+ */
 class ResultSetReceiver extends BaseResultReceiver {
 
+    static final int FLUSH_THRESHOLD = 32 * 1024;
+
     private final String query;
     private final Channel channel;
     private final ExceptionAuthorizedValidator exceptionAuthorizedValidator;
-    private final List<? extends DataType> columnTypes;
+    private final DataRowEncoder dataRowEncoder;
 
     @Nullable
-    private final FormatCodes.FormatCode[] formatCodes;
-
+    private ByteBuf pendingRows;
     private long rowCount = 0;
 
     ResultSetReceiver(String query,
@@ -53,24 +61,42 @@ class ResultSetReceiver extends BaseResultReceiver {
         this.query = query;
         this.channel = channel;
         this.exceptionAuthorizedValidator = exceptionAuthorizedValidator;
-        this.columnTypes = columnTypes;
-        this.formatCodes = formatCodes;
+        this.dataRowEncoder = new DataRowEncoder(columnTypes, formatCodes);
     }
 
     @Override
     public void setNextRow(Row row) {
         rowCount++;
-        Messages.sendDataRow(channel, row, columnTypes, formatCodes);
+        if (pendingRows == null) {
+            pendingRows = channel.alloc().buffer(FLUSH_THRESHOLD);
+        }
+        dataRowEncoder.writeDataRow(pendingRows, row);
+        if (pendingRows.readableBytes() >= FLUSH_THRESHOLD) {
+            channel.writeAndFlush(pendingRows);
+            pendingRows = null;
+        }
+    }
+
+    /**
+     * Writes the rows which haven't been written yet, the caller is responsible to flush the channel.
+     */
+    private void writePendingRows() {
+        if (pendingRows != null) {
+            channel.write(pendingRows);
+            pendingRows = null;
+        }
     }
 
     @Override
     public void batchFinished() {
+        writePendingRows();
         Messages.sendPortalSuspended(channel);
         Messages.sendReadyForQuery(channel);
     }
 
     @Override
     public void allFinished(boolean interrupted) {
+        writePendingRows();
         if (interrupted) {
             super.allFinished(true);
         } else {
@@ -80,6 +106,7 @@ class ResultSetReceiver extends BaseResultReceiver {
 
     @Override
     public void fail(@Nonnull Throwable throwable) {
+        writePendingRows();
         Messages.sendErrorResponse(channel, SQLExceptions.createSQLActionException(throwable, exceptionAuthorizedValidator))
             .addListener(f -> super.fail(throwable));
     }
@@ -168,8 +168,8 @@ public class SimplePortal extends AbstractPortal {
                 resultReceiver, jobId, newJobId -> retryQuery(planner, newJobId));
         }
 
-        jobsLogs.logExecutionStart(jobId, query, sessionContext.user());
-        JobsLogsUpdateListener jobsLogsUpdateListener = new JobsLogsUpdateListener(jobId, jobsLogs);
+        long started = jobsLogs.logExecutionStart(jobId, query, sessionContext.user());
+        JobsLogsUpdateListener jobsLogsUpdateListener = new JobsLogsUpdateListener(jobId, query, started, jobsLogs);
         CompletableFuture completableFuture = resultReceiver.completionFuture().whenComplete(jobsLogsUpdateListener);
 
         if (!resumeIfSuspended()) {
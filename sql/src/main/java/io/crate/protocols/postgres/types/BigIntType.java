@@ -48,6 +48,11 @@ class BigIntType extends PGType {
         return INT32_BYTE_SIZE + TYPE_LEN;
     }
 
+    @Override
+    public int writeAsText(ByteBuf buffer, @Nonnull Object value) {
+        return writeAsciiText(buffer, Long.toString((long) value));
+    }
+
     @Override
     protected byte[] encodeAsUTF8Text(@Nonnull Object value) {
         return Long.toString(((long) value)).getBytes(StandardCharsets.UTF_8);
@@ -51,6 +51,11 @@ class CharType extends PGType {
         return buffer.readByte();
     }
 
+    @Override
+    public int writeAsText(ByteBuf buffer, @Nonnull Object value) {
+        return writeAsciiText(buffer, Byte.toString((byte) value));
+    }
+
     @Override
     byte[] encodeAsUTF8Text(@Nonnull Object value) {
         return Byte.toString((byte) value).getBytes(StandardCharsets.UTF_8);
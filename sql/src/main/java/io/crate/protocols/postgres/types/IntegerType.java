@@ -48,6 +48,11 @@ class IntegerType extends PGType {
         return INT32_BYTE_SIZE + TYPE_LEN;
     }
 
+    @Override
+    public int writeAsText(ByteBuf buffer, @Nonnull Object value) {
+        return writeAsciiText(buffer, Integer.toString((int) value));
+    }
+
     @Override
     protected byte[] encodeAsUTF8Text(@Nonnull Object value) {
         return Integer.toString(((int) value)).getBytes(StandardCharsets.UTF_8);
@@ -23,6 +23,7 @@
 package io.crate.protocols.postgres.types;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
 import org.apache.logging.log4j.Logger;
 import org.elasticsearch.common.logging.Loggers;
 
@@ -87,6 +88,19 @@ public abstract class PGType {
         return INT32_BYTE_SIZE + bytes.length;
     }
 
+    /**
+     * Write a text value that only consists of ASCII characters (e.g. a number) without encoding it into
+     * a byte array first.
+     *
+     * @return the number of bytes written. (4 (int32)  + N)
+     */
+    static int writeAsciiText(ByteBuf buffer, CharSequence value) {
+        int length = value.length();
+        buffer.writeInt(length);
+        ByteBufUtil.writeAscii(buffer, value);
+        return INT32_BYTE_SIZE + length;
+    }
+
     public Object readTextValue(ByteBuf buffer, int valueLength) {
         byte[] bytes = new byte[valueLength];
         buffer.readBytes(bytes);
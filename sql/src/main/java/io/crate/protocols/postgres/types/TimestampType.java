@@ -85,6 +85,11 @@ class TimestampType extends PGType {
         return toCrateTimestamp(buffer.readDouble());
     }
 
+    @Override
+    public int writeAsText(ByteBuf buffer, @Nonnull Object value) {
+        return writeAsciiText(buffer, ISO_FORMATTER.print((long) value));
+    }
+
     @Override
     byte[] encodeAsUTF8Text(@Nonnull Object value) {
         return ISO_FORMATTER.print((long) value).getBytes(StandardCharsets.UTF_8);
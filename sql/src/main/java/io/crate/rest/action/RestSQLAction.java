@@ -49,6 +49,7 @@ import org.elasticsearch.common.inject.Provider;
 import org.elasticsearch.common.inject.Singleton;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.http.netty4.Netty4HttpRequest;
 import org.elasticsearch.rest.BaseRestHandler;
 import org.elasticsearch.rest.BytesRestResponse;
 import org.elasticsearch.rest.RestChannel;
@@ -74,6 +75,8 @@ public class RestSQLAction extends BaseRestHandler {
     private static final String REQUEST_HEADER_USER = "User";
     private static final String REQUEST_HEADER_SCHEMA = "Default-Schema";
     private static final int DEFAULT_SOFT_LIMIT = 10_000;
+    private static final String STREAM_PORTAL = "stream";
+    private static final int STREAM_BATCH_SIZE = 1_000;
 
     private final SQLOperations sqlOperations;
     private final UserManager userManager;
@@ -128,9 +131,11 @@ public class RestSQLAction extends BaseRestHandler {
         }
         if (bulkArgs != null && bulkArgs.length > 0) {
             return executeBulkRequest(context, request);
-        } else {
-            return executeSimpleRequest(context, request);
         }
+        if (request.paramAsBoolean("stream", false) && request instanceof Netty4HttpRequest) {
+            return executeStreamingRequest(context, (Netty4HttpRequest) request);
+        }
+        return executeSimpleRequest(context, request);
     }
 
     @Override
@@ -202,6 +207,60 @@ public class RestSQLAction extends BaseRestHandler {
         }
     }
 
+    /**
+     * Streams the result set in chunks of {@link #STREAM_BATCH_SIZE} rows, see {@link RestStreamingResultSetReceiver}.
+     * As the response size is no longer bound by the node's memory, no default limit is applied.
+     * A named portal is used because the unnamed one is cleared on sync and couldn't be resumed.
+     */
+    private RestChannelConsumer executeStreamingRequest(SQLXContentSourceContext context,
+                                                        final Netty4HttpRequest request) {
+        SQLOperations.Session session = sqlOperations.createSession(
+            request.header(REQUEST_HEADER_SCHEMA),
+            userFromRequest(request),
+            toOptions(request),
+            0);
+        try {
+            final long startTime = System.nanoTime();
+            session.parse(UNNAMED, context.stmt(), Collections.emptyList());
+            List<Object> args = context.args() == null ? Collections.emptyList() : Arrays.asList(context.args());
+            session.bind(STREAM_PORTAL, UNNAMED, args, null);
+            List<Field> outputFields = session.describe('P', STREAM_PORTAL);
+            if (outputFields == null) {
+                return channel -> {
+                    try {
+                        ResultReceiver resultReceiver = new RestRowCountReceiver(
+                            channel, session.sessionContext(), startTime,
+                            request.paramAsBoolean("types", false));
+                        session.execute(STREAM_PORTAL, 0, resultReceiver);
+                        session.sync();
+                    } catch (Throwable t) {
+                        errorResponse(channel, t, session.sessionContext());
+                    }
+                };
+            }
+            return channel -> {
+                try {
+                    ResultReceiver resultReceiver = new RestStreamingResultSetReceiver(
+                        request.getChannel(),
+                        channel,
+                        session,
+                        STREAM_PORTAL,
+                        STREAM_BATCH_SIZE,
+                        session.sessionContext(),
+                        outputFields,
+                        startTime,
+                        request.paramAsBoolean("types", false));
+                    session.execute(STREAM_PORTAL, STREAM_BATCH_SIZE, resultReceiver);
+                    session.sync();
+                } catch (Throwable t) {
+                    errorResponse(channel, t, session.sessionContext());
+                }
+            };
+        } catch (Throwable t) {
+            return channel -> errorResponse(channel, t, session.sessionContext());
+        }
+    }
+
     private RestChannelConsumer executeBulkRequest(SQLXContentSourceContext context, final RestRequest request) {
         SQLOperations.Session session = sqlOperations.createSession(
             request.header(REQUEST_HEADER_SCHEMA),
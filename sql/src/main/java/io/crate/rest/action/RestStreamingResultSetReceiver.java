@@ -0,0 +1,234 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.rest.action;
+
+import io.crate.action.sql.BaseResultReceiver;
+import io.crate.action.sql.SQLOperations;
+import io.crate.analyze.symbol.Field;
+import io.crate.data.Row;
+import io.crate.operation.user.ExceptionAuthorizedValidator;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.DefaultLastHttpContent;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.HttpVersion;
+import org.apache.logging.log4j.Logger;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.logging.Loggers;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.rest.BytesRestResponse;
+import org.elasticsearch.rest.RestChannel;
+import org.elasticsearch.rest.RestStatus;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.util.List;
+
+import static io.crate.exceptions.SQLExceptions.createSQLActionException;
+
+/**
+ * ResultReceiver which writes the result set as a chunked HTTP response.
+ *
+ * The portal is executed with {@code batchSize} as maxRows, so the consumer suspends after each batch.
+ * The rows of a batch are written as one HTTP chunk and the portal is only resumed once that chunk has been
+ * flushed to the network, so at most one batch is held in memory and a slow client slows down the query
+ * instead of letting the response pile up on the node.
+ *
+ * Results which fit into a single batch are sent as a regular response over the {@link RestChannel}.
+ * Once the first chunk has been written the response status can no longer change; a failure after that
+ * point closes the connection, which leaves the client with an incomplete chunked body.
+ */
+class RestStreamingResultSetReceiver extends BaseResultReceiver {
+
+    private static final Logger LOGGER = Loggers.getLogger(RestStreamingResultSetReceiver.class);
+
+    private final Channel nettyChannel;
+    private final RestChannel restChannel;
+    private final SQLOperations.Session session;
+    private final String portalName;
+    private final int batchSize;
+    private final ExceptionAuthorizedValidator exceptionAuthorizedValidator;
+    private final List<Field> outputFields;
+    private final long startTime;
+    private final BytesStreamOutput out;
+    private final ResultToXContentBuilder builder;
+
+    private boolean headerSent = false;
+    private long rowCount;
+
+    RestStreamingResultSetReceiver(Channel nettyChannel,
+                                   RestChannel restChannel,
+                                   SQLOperations.Session session,
+                                   String portalName,
+                                   int batchSize,
+                                   ExceptionAuthorizedValidator exceptionAuthorizedValidator,
+                                   List<Field> outputFields,
+                                   long startTime,
+                                   boolean includeTypesOnResponse) throws IOException {
+        this.nettyChannel = nettyChannel;
+        this.restChannel = restChannel;
+        this.session = session;
+        this.portalName = portalName;
+        this.batchSize = batchSize;
+        this.exceptionAuthorizedValidator = exceptionAuthorizedValidator;
+        this.outputFields = outputFields;
+        this.startTime = startTime;
+        this.out = new BytesStreamOutput();
+        this.builder = ResultToXContentBuilder.builder(XContentFactory.jsonBuilder(out));
+        builder.cols(outputFields);
+        if (includeTypesOnResponse) {
+            builder.colTypes(outputFields);
+        }
+        builder.startRows();
+    }
+
+    @Override
+    public void setNextRow(Row row) {
+        try {
+            builder.addRow(row, outputFields.size());
+            rowCount++;
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    @Override
+    public void batchFinished() {
+        byte[] chunk;
+        try {
+            chunk = takeBuffered();
+        } catch (Throwable t) {
+            fail(t);
+            return;
+        }
+        if (!headerSent) {
+            nettyChannel.write(newChunkedResponse());
+            headerSent = true;
+        }
+        nettyChannel.writeAndFlush(new DefaultHttpContent(Unpooled.wrappedBuffer(chunk))).addListener(f -> {
+            if (f.isSuccess()) {
+                session.execute(portalName, batchSize, this);
+                session.sync();
+            } else {
+                LOGGER.debug("Aborting streamed result, write failed", f.cause());
+                // finishes this receiver via allFinished(interrupted=true)
+                session.close((byte) 'P', portalName);
+            }
+        });
+    }
+
+    @Override
+    public void allFinished(boolean interrupted) {
+        if (interrupted) {
+            closeConnection();
+            super.allFinished(true);
+            return;
+        }
+        byte[] lastChunk;
+        try {
+            builder.finishRows()
+                .rowCount(rowCount)
+                .duration(startTime)
+                .build();
+            lastChunk = takeBuffered();
+        } catch (Throwable t) {
+            fail(t);
+            return;
+        }
+        try {
+            if (headerSent) {
+                nettyChannel.writeAndFlush(new DefaultLastHttpContent(Unpooled.wrappedBuffer(lastChunk)));
+                closeConnection();
+            } else {
+                restChannel.sendResponse(new BytesRestResponse(
+                    RestStatus.OK, XContentType.JSON.mediaType(), new BytesArray(lastChunk)));
+            }
+            super.allFinished(false);
+        } catch (Throwable e) {
+            LOGGER.error(e);
+        } finally {
+            session.close((byte) 'P', portalName);
+        }
+    }
+
+    @Override
+    public void fail(@Nonnull Throwable t) {
+        try {
+            if (headerSent) {
+                LOGGER.error("Failure while streaming result, closing connection", t);
+                closeConnection();
+            } else {
+                restChannel.sendResponse(new CrateThrowableRestResponse(restChannel,
+                    createSQLActionException(t, exceptionAuthorizedValidator)));
+            }
+        } catch (Throwable e) {
+            LOGGER.error("failed to send failure response", e);
+        } finally {
+            session.close((byte) 'P', portalName);
+            super.fail(t);
+        }
+    }
+
+    private byte[] takeBuffered() throws IOException {
+        builder.flush();
+        byte[] bytes = BytesReference.toBytes(out.bytes());
+        out.reset();
+        return bytes;
+    }
+
+    private static HttpResponse newChunkedResponse() {
+        HttpResponse response = new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK);
+        response.headers().set(HttpHeaderNames.CONTENT_TYPE, XContentType.JSON.mediaType());
+        response.headers().set(HttpHeaderNames.CONNECTION, HttpHeaderValues.CLOSE);
+        HttpUtil.setTransferEncodingChunked(response, true);
+        return response;
+    }
+
+    /**
+     * The chunked response bypasses the request pipelining of the HTTP transport, so the connection can't be
+     * re-used afterwards. Once it is closed the {@link RestChannel} is completed as well, which is a no-op on
+     * the wire but releases the resources the REST layer tracks for the request.
+     */
+    private void closeConnection() {
+        if (!headerSent) {
+            return;
+        }
+        nettyChannel.close().addListener(f -> {
+            try {
+                restChannel.sendResponse(
+                    new BytesRestResponse(RestStatus.OK, BytesRestResponse.TEXT_CONTENT_TYPE, BytesArray.EMPTY));
+            } catch (Throwable e) {
+                LOGGER.debug("failed to complete rest channel", e);
+            }
+        });
+    }
+}
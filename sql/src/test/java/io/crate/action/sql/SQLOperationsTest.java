@@ -0,0 +1,90 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.action.sql;
+
+import io.crate.executor.Executor;
+import io.crate.operation.collect.stats.JobsLogs;
+import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
+import io.crate.testing.DummyUserManager;
+import io.crate.testing.SQLExecutor;
+import org.elasticsearch.common.settings.Settings;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+
+public class SQLOperationsTest extends CrateDummyClusterServiceUnitTest {
+
+    private SQLOperations createSQLOperations(Settings settings) {
+        SQLExecutor e = SQLExecutor.builder(clusterService).build();
+        return new SQLOperations(
+            e.analyzer,
+            e.planner,
+            () -> mock(Executor.class),
+            new JobsLogs(() -> true),
+            settings,
+            clusterService,
+            DummyUserManager::new
+        );
+    }
+
+    @Test
+    public void testParsedStatementsAreCached() throws Exception {
+        SQLOperations sqlOperations = createSQLOperations(Settings.EMPTY);
+        SQLOperations.Session session = sqlOperations.createSession("doc", null);
+        session.parse("S_1", "select name from sys.cluster", Collections.emptyList());
+        session.parse("S_2", "select name from sys.cluster", Collections.emptyList());
+        session.parse("S_3", "select id from sys.cluster", Collections.emptyList());
+
+        assertThat(sqlOperations.parseCacheStats().hitCount(), is(1L));
+        assertThat(sqlOperations.parseCacheStats().missCount(), is(2L));
+    }
+
+    @Test
+    public void testParseCacheCanBeDisabled() throws Exception {
+        SQLOperations sqlOperations = createSQLOperations(
+            Settings.builder().put(SQLOperations.PARSE_CACHE_SIZE_SETTING.getKey(), 0).build());
+        SQLOperations.Session session = sqlOperations.createSession("doc", null);
+        session.parse("S_1", "select name from sys.cluster", Collections.emptyList());
+        session.parse("S_2", "select name from sys.cluster", Collections.emptyList());
+
+        assertThat(sqlOperations.parseCacheStats().requestCount(), is(0L));
+    }
+
+    @Test
+    public void testLongStatementsAreNotCached() throws Exception {
+        SQLOperations sqlOperations = createSQLOperations(Settings.EMPTY);
+        SQLOperations.Session session = sqlOperations.createSession("doc", null);
+        StringBuilder query = new StringBuilder("select name from sys.cluster where name in ('a'");
+        while (query.length() <= SQLOperations.MAX_CACHED_STATEMENT_LENGTH) {
+            query.append(", 'a'");
+        }
+        query.append(")");
+        session.parse("S_1", query.toString(), Collections.emptyList());
+        session.parse("S_2", query.toString(), Collections.emptyList());
+
+        assertThat(sqlOperations.parseCacheStats().requestCount(), is(0L));
+    }
+}
@@ -1922,4 +1922,17 @@ public class SelectStatementAnalyzerTest extends CrateDummyClusterServiceUnitTes
         SelectAnalyzedStatement statement = analyze("select 1 = \n (select \n 2\n)\n");
         assertThat(statement.relation().fields(), isSQL(".empty_row.(1 = (SELECT 2))"));
     }
+
+    @Test
+    public void testHyperLogLogDistinctWithNonLiteralPrecisionIsRejected() {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("precision for hyperloglog_distinct must be a literal");
+        analyze("select hyperloglog_distinct(name, ints) from users");
+    }
+
+    @Test
+    public void testHyperLogLogDistinctWithLiteralPrecision() {
+        SelectAnalyzedStatement analysis = analyze("select hyperloglog_distinct(name, 10) from users");
+        assertThat(analysis.relation().querySpec().outputs().get(0), isSQL("hyperloglog_distinct(doc.users.name, 10)"));
+    }
 }
@@ -278,4 +278,29 @@ public class ExpressionAnalyzerTest extends CrateDummyClusterServiceUnitTest {
         Symbol symbol = executor.asSymbol(T3.SOURCES, "t1.x in (select t2.y from t2)");
         assertThat(symbol, isSQL("(doc.t1.x = ANY(SelectSymbol{integer_table}))"));
     }
+
+    private Symbol convertWithApproxCountDistinct(String expression) {
+        SessionContext sessionContext = SessionContext.create();
+        sessionContext.setApproxCountDistinctEnabled(true);
+        ExpressionAnalyzer expressionAnalyzer = new ExpressionAnalyzer(
+            functions,
+            new TransactionContext(sessionContext),
+            paramTypeHints,
+            new FullQualifiedNameFieldProvider(T3.SOURCES, ParentRelations.NO_PARENTS, sessionContext.defaultSchema()),
+            null);
+        return expressionAnalyzer.convert(SqlParser.createExpression(expression), new ExpressionAnalysisContext());
+    }
+
+    @Test
+    public void testCountDistinctIsConvertedToHyperLogLogDistinctIfApproxCountDistinctIsEnabled() {
+        Symbol symbol = convertWithApproxCountDistinct("count(distinct t1.x)");
+        assertThat(symbol, isSQL("hyperloglog_distinct(doc.t1.x)"));
+    }
+
+    @Test
+    public void testCountDistinctOnTypeNotSupportedByHyperLogLogDistinctFallsBackToCollectSet() {
+        expectedException.expect(UnsupportedOperationException.class);
+        expectedException.expectMessage("unknown function: collect_set(");
+        convertWithApproxCountDistinct("count(distinct [1, 2])");
+    }
 }
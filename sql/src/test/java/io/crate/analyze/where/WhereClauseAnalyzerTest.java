@@ -49,6 +49,7 @@ import org.hamcrest.Matchers;
 import org.junit.Before;
 import org.junit.Test;
 
+import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -69,6 +70,7 @@ public class WhereClauseAnalyzerTest extends CrateDummyClusterServiceUnitTest {
 
     private static final String GENERATED_COL_TABLE_NAME = "generated_col";
     private static final String DOUBLE_GEN_PARTITIONED_TABLE_NAME = "double_gen_parted";
+    private static final int NUM_INT_PARTITIONS = 100;
 
     private final Routing twoNodeRouting = new Routing(TreeMapBuilder.<String, Map<String, List<Integer>>>newMapBuilder()
         .put("nodeOne", TreeMapBuilder.<String, List<Integer>>newMapBuilder().put("t1", Arrays.asList(1, 2)).map())
@@ -184,6 +186,24 @@ public class WhereClauseAnalyzerTest extends CrateDummyClusterServiceUnitTest {
                 .add("friends", new ArrayType(DataTypes.OBJECT), null, ColumnPolicy.DYNAMIC)
                 .clusteredBy("id")
                 .build());
+        String[] intPartitions = new String[NUM_INT_PARTITIONS + 1];
+        for (int i = 0; i < NUM_INT_PARTITIONS; i++) {
+            intPartitions[i] = intPartition(i);
+        }
+        intPartitions[NUM_INT_PARTITIONS] = intPartition(null);
+        builder.addDocTable(
+            TestingTableInfo.builder(new TableIdent("doc", "parted_ints"), twoNodeRouting)
+                .add("id", DataTypes.INTEGER, null)
+                .add("name", DataTypes.STRING, null)
+                .add("p", DataTypes.INTEGER, null, true)
+                .addPartitions(intPartitions)
+                .build());
+    }
+
+    private static String intPartition(@Nullable Integer value) {
+        List<BytesRef> values = new ArrayList<>(1);
+        values.add(value == null ? null : new BytesRef(value.toString()));
+        return new PartitionName("parted_ints", values).asIndexName();
     }
 
     private UpdateAnalyzedStatement analyzeUpdate(String stmt) {
@@ -587,6 +607,51 @@ public class WhereClauseAnalyzerTest extends CrateDummyClusterServiceUnitTest {
         assertFalse(whereClause.noMatch());
     }
 
+    @Test
+    public void testPartitionsAreResolvedFromCandidatesOfPartitionColumnComparisons() throws Exception {
+        WhereClause whereClause = analyzeSelectWhere("select id from parted_ints where p >= 10 and p < 13 and id = 1");
+        assertThat(whereClause.partitions(), contains(intPartition(10), intPartition(11), intPartition(12)));
+        assertThat(whereClause.query(), isSQL("(doc.parted_ints.id = 1)"));
+
+        // the partition with a null value is always a candidate but doesn't match
+        whereClause = analyzeSelectWhere("select id from parted_ints where 97 < p");
+        assertThat(whereClause.partitions(), contains(intPartition(98), intPartition(99)));
+        assertThat(whereClause.hasQuery(), is(false));
+
+        whereClause = analyzeSelectWhere("select id from parted_ints where p in (5, 50, 500) and name = 'foo'");
+        assertThat(whereClause.partitions(), contains(intPartition(5), intPartition(50)));
+        assertThat(whereClause.query(), isSQL("(doc.parted_ints.name = 'foo')"));
+
+        whereClause = analyzeSelectWhere("select id from parted_ints where p = 1 and p = 2");
+        assertThat(whereClause.noMatch(), is(true));
+
+        whereClause = analyzeSelectWhere("select id from parted_ints where p > 99");
+        assertThat(whereClause.noMatch(), is(true));
+    }
+
+    @Test
+    public void testPartitionsAreResolvedPerPartitionIfQueryHasNoCandidates() throws Exception {
+        // neither OR, functions on the partition column nor IS NULL are resolved with the partition index
+        WhereClause whereClause = analyzeSelectWhere("select id from parted_ints where p = 3 or p = 7");
+        assertThat(whereClause.partitions(), contains(intPartition(3), intPartition(7)));
+        assertThat(whereClause.hasQuery(), is(false));
+
+        whereClause = analyzeSelectWhere("select id from parted_ints where abs(p - 50) < 2 and id = 1");
+        assertThat(whereClause.partitions(), contains(intPartition(49), intPartition(50), intPartition(51)));
+        assertThat(whereClause.query(), isSQL("(doc.parted_ints.id = 1)"));
+
+        whereClause = analyzeSelectWhere("select id from parted_ints where p is null");
+        assertThat(whereClause.partitions(), contains(intPartition(null)));
+
+        whereClause = analyzeSelectWhere("select id from parted_ints where p = 3 or p = 300");
+        assertThat(whereClause.partitions(), contains(intPartition(3)));
+
+        // a candidate comparison combined with one that is evaluated per candidate
+        whereClause = analyzeSelectWhere("select id from parted_ints where p < 20 and (p = 5 or p = 25)");
+        assertThat(whereClause.partitions(), contains(intPartition(5)));
+        assertThat(whereClause.hasQuery(), is(false));
+    }
+
     @Test
     public void testSelectFromPartitionedTableUnsupported() throws Exception {
         // these queries won't work because we would have to execute 2 separate ESSearch tasks
@@ -85,7 +85,7 @@ public class DecommissioningServiceTest extends CrateDummyClusterServiceUnitTest
 
     @Test
     public void testNoExitIfRequestAreActive() throws Exception {
-        jobsLogs.logExecutionEnd(UUID.randomUUID(), null);
+        jobsLogs.logExecutionEnd(UUID.randomUUID(), "select 1", System.currentTimeMillis(), null);
         decommissioningService.exitIfNoActiveRequests(System.nanoTime());
         assertThat(decommissioningService.exited, is(false));
         assertThat(decommissioningService.forceStopOrAbortCalled, is(false));
@@ -94,7 +94,7 @@ public class DecommissioningServiceTest extends CrateDummyClusterServiceUnitTest
 
     @Test
     public void testAbortOrForceStopIsCalledOnTimeout() throws Exception {
-        jobsLogs.logExecutionEnd(UUID.randomUUID(), null);
+        jobsLogs.logExecutionEnd(UUID.randomUUID(), "select 1", System.currentTimeMillis(), null);
         decommissioningService.exitIfNoActiveRequests(System.nanoTime() - TimeValue.timeValueHours(3).nanos());
         assertThat(decommissioningService.forceStopOrAbortCalled, is(true));
         verify(sqlOperations, times(1)).enable();
@@ -0,0 +1,185 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.executor.transport;
+
+import io.crate.Streamer;
+import io.crate.data.Row;
+import io.crate.data.RowN;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.types.DataTypes;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.Version;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+public class StreamBucketTest extends CrateUnitTest {
+
+    private static final Streamer<?>[] STREAMERS = new Streamer[]{
+        DataTypes.STRING.streamer(),
+        DataTypes.TIMESTAMP.streamer(),
+        DataTypes.INTEGER.streamer()
+    };
+
+    private static StreamBucket streamed(StreamBucket bucket) throws Exception {
+        BytesStreamOutput out = new BytesStreamOutput();
+        bucket.writeTo(out);
+        StreamInput in = out.bytes().streamInput();
+        StreamBucket streamed = new StreamBucket(STREAMERS);
+        streamed.readFrom(in);
+        return streamed;
+    }
+
+    @Test
+    public void testRepeatedStringsAndLongsAreEncodedAndReadBack() throws Exception {
+        StreamBucket.Builder builder = new StreamBucket.Builder(STREAMERS, null);
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Object[] cells = new Object[]{
+                i % 7 == 0 ? null : new BytesRef("category_" + (i % 3)),
+                i % 5 == 0 ? null : 1_500_000_000_000L + i * 1000L,
+                i
+            };
+            rows.add(cells);
+            builder.add(new RowN(cells));
+        }
+        // extremes force the fallback to fixed size longs
+        builder.add(new RowN(new Object[]{new BytesRef(""), Long.MIN_VALUE, null}));
+        builder.add(new RowN(new Object[]{new BytesRef("category_1"), Long.MAX_VALUE, -1}));
+        rows.add(new Object[]{new BytesRef(""), Long.MIN_VALUE, null});
+        rows.add(new Object[]{new BytesRef("category_1"), Long.MAX_VALUE, -1});
+
+        StreamBucket bucket = streamed(builder.build());
+        assertThat(bucket.size(), is(rows.size()));
+        // 3 distinct strings + 1 byte per repetition, 1-3 bytes per delta, 5 bytes per integer
+        assertThat(bucket.sizeInBytes(), lessThan(1000));
+
+        int idx = 0;
+        for (Row row : bucket) {
+            Object[] expected = rows.get(idx);
+            assertThat(row.get(0), is(expected[0]));
+            assertThat(row.get(1), is(expected[1]));
+            assertThat(row.get(2), is(expected[2]));
+            idx++;
+        }
+        assertThat(idx, is(rows.size()));
+    }
+
+    @Test
+    public void testBucketCanBeIteratedMoreThanOnceAndBuilderReset() throws Exception {
+        StreamBucket.Builder builder = new StreamBucket.Builder(STREAMERS, null);
+        builder.add(new RowN(new Object[]{new BytesRef("a"), 10L, 1}));
+        builder.add(new RowN(new Object[]{new BytesRef("a"), 20L, 2}));
+        StreamBucket first = builder.build();
+        builder.reset();
+        builder.add(new RowN(new Object[]{new BytesRef("a"), 30L, 3}));
+        StreamBucket second = streamed(builder.build());
+
+        for (int i = 0; i < 2; i++) {
+            long sum = 0;
+            for (Row row : first) {
+                assertThat(row.get(0), is(new BytesRef("a")));
+                sum += (Long) row.get(1);
+            }
+            assertThat(sum, is(30L));
+        }
+        Row row = second.iterator().next();
+        assertThat(row.get(0), is(new BytesRef("a")));
+        assertThat(row.get(1), is(30L));
+    }
+
+    @Test
+    public void testStatsAreUpdatedOncePerWrittenBucket() throws Exception {
+        StreamBucketStats stats = new StreamBucketStats();
+        StreamBucket.Builder builder = new StreamBucket.Builder(STREAMERS, null, stats);
+        for (int i = 0; i < 10; i++) {
+            builder.add(new RowN(new Object[]{new BytesRef("category"), 1_500_000_000_000L + i, i}));
+        }
+        StreamBucket bucket = builder.build();
+        assertThat(stats.encodedBytes(), is(0L));
+
+        bucket.writeTo(new BytesStreamOutput());
+        assertThat(stats.encodedBytes(), is((long) bucket.sizeInBytes()));
+        assertThat(stats.savedBytes(), greaterThan(0L));
+    }
+
+    @Test
+    public void testRowsAreWrittenWithPlainStreamersForNodesWithoutColumnCodecs() throws Exception {
+        StreamBucketStats stats = new StreamBucketStats();
+        StreamBucket.Builder builder = new StreamBucket.Builder(STREAMERS, null, stats);
+        builder.add(new RowN(new Object[]{new BytesRef("a"), 10L, 1}));
+        builder.add(new RowN(new Object[]{new BytesRef("a"), null, 2}));
+
+        BytesStreamOutput out = new BytesStreamOutput();
+        out.setVersion(Version.V_5_6_0);
+        builder.writeToStream(out);
+        assertThat(stats.encodedBytes(), is(0L));
+
+        // what a node without column codecs would read
+        StreamInput in = out.bytes().streamInput();
+        assertThat(in.readVInt(), is(2));
+        StreamInput rows = in.readBytesReference().streamInput();
+        for (Object[] expected : new Object[][]{{new BytesRef("a"), 10L, 1}, {new BytesRef("a"), null, 2}}) {
+            for (int c = 0; c < STREAMERS.length; c++) {
+                assertThat(STREAMERS[c].readValueFrom(rows), is(expected[c]));
+            }
+        }
+        assertThat(rows.available(), is(0));
+    }
+
+    @Test
+    public void testBucketFromNodeWithoutColumnCodecsIsReadAndForwardedEncoded() throws Exception {
+        BytesStreamOutput plainRows = new BytesStreamOutput();
+        for (int i = 0; i < 3; i++) {
+            STREAMERS[0].writeValueTo(plainRows, new BytesRef("a"));
+            STREAMERS[1].writeValueTo(plainRows, 10L * i);
+            STREAMERS[2].writeValueTo(plainRows, i);
+        }
+        BytesStreamOutput out = new BytesStreamOutput();
+        out.writeVInt(3);
+        out.writeBytesReference(plainRows.bytes());
+        StreamInput in = out.bytes().streamInput();
+        in.setVersion(Version.V_5_6_0);
+        StreamBucket bucket = new StreamBucket(STREAMERS);
+        bucket.readFrom(in);
+
+        StreamBucket forwarded = streamed(bucket);
+        for (StreamBucket b : new StreamBucket[]{bucket, forwarded}) {
+            int i = 0;
+            for (Row row : b) {
+                assertThat(row.get(0), is(new BytesRef("a")));
+                assertThat(row.get(1), is(10L * i));
+                assertThat(row.get(2), is(i));
+                i++;
+            }
+            assertThat(i, is(3));
+        }
+    }
+}
@@ -49,6 +49,7 @@ import org.elasticsearch.cluster.metadata.IndexMetaData;
 import org.elasticsearch.cluster.metadata.IndexNameExpressionResolver;
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.UUIDs;
+import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.collect.MapBuilder;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.xcontent.XContentFactory;
@@ -73,6 +74,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -440,6 +442,36 @@ public class TransportShardUpsertActionTest extends CrateDummyClusterServiceUnit
         TransportShardUpsertAction.updateSourceByPaths(source, changes);
     }
 
+    @Test
+    public void testUpdateSourceByPathsPatchesSourceWithoutTouchingOtherColumns() throws Exception {
+        BytesReference source = XContentFactory.jsonBuilder().startObject()
+            .field("id", 1)
+            .startObject("o").field("x", 1).field("y", "foo").endObject()
+            .array("tags", "a", "b")
+            .field("name", "Arthur")
+            .endObject().bytes();
+
+        Map<String, Object> changes = new LinkedHashMap<>();
+        changes.put("name", "Trillian");
+        changes.put("o.x", 2);
+        changes.put("n.z", 3);
+        changes.put("age", 42);
+
+        BytesReference updatedSource = TransportShardUpsertAction.updateSourceByPaths(source, changes);
+        assertThat(updatedSource.utf8ToString(), is(
+            "{\"id\":1,\"o\":{\"x\":2,\"y\":\"foo\"},\"tags\":[\"a\",\"b\"],\"name\":\"Trillian\"," +
+            "\"n\":{\"z\":3},\"age\":42}"));
+    }
+
+    @Test
+    public void testUpdateSourceByPathsPatchNullObject() throws Exception {
+        BytesReference source = XContentFactory.jsonBuilder().startObject().nullField("o").endObject().bytes();
+
+        expectedException.expect(NullPointerException.class);
+        expectedException.expectMessage("Object o is null, cannot write {o=5} onto it");
+        TransportShardUpsertAction.updateSourceByPaths(source, Collections.singletonMap("o.o", 5));
+    }
+
     @Test
     public void testKilledSetWhileProcessingItemsDoesNotThrowException() throws Exception {
         ShardId shardId = new ShardId(TABLE_IDENT.indexName(), charactersIndexUUID, 0);
@@ -34,7 +34,8 @@ public class BroadcastingBucketBuilderTest {
 
     @Test
     public void testBucketIsReUsed() throws Exception {
-        final BroadcastingBucketBuilder builder = new BroadcastingBucketBuilder(new Streamer[]{DataTypes.INTEGER.streamer()}, 3);
+        final BroadcastingBucketBuilder builder =
+            new BroadcastingBucketBuilder(new Streamer[]{DataTypes.INTEGER.streamer()}, 3, null);
         builder.add(new Row1(10));
 
         Bucket[] buckets = new Bucket[3];
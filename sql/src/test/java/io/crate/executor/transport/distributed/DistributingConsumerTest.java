@@ -124,19 +124,42 @@ public class DistributingConsumerTest extends CrateUnitTest {
         collectingConsumer.getResult();
     }
 
+    @Test
+    public void testBytesCreditOfDownstreamLimitsPageSize() throws Exception {
+        Streamer<?>[] streamers = { DataTypes.INTEGER.streamer() };
+        TestingBatchConsumer collectingConsumer = new TestingBatchConsumer();
+        PageDownstreamContext pageDownstreamContext = createPageDownstreamContext(streamers, collectingConsumer);
+        // the downstream has no memory left, so every page after the first one must have the minimum size
+        TransportDistributedResultAction distributedResultAction =
+            createFakeTransport(streamers, pageDownstreamContext, 0L);
+        DistributingConsumer distributingConsumer = createDistributingConsumer(streamers, distributedResultAction, 100);
+
+        distributingConsumer.accept(TestingBatchIterators.range(0, 1000), null);
+
+        assertThat(collectingConsumer.getResult().size(), is(1000));
+        // first page with the configured page size of 100 rows, 56 pages of 16 rows and the last page with 4 rows
+        verify(distributedResultAction, times(58)).pushResult(anyString(), any(), any());
+    }
+
     private DistributingConsumer createDistributingConsumer(Streamer<?>[] streamers, TransportDistributedResultAction distributedResultAction) {
+        return createDistributingConsumer(streamers, distributedResultAction, 2);
+    }
+
+    private DistributingConsumer createDistributingConsumer(Streamer<?>[] streamers,
+                                                            TransportDistributedResultAction distributedResultAction,
+                                                            int pageSize) {
         return new DistributingConsumer(
             logger,
             MoreExecutors.directExecutor(),
             UUID.randomUUID(),
-            new ModuloBucketBuilder(streamers, 1, 0),
+            new ModuloBucketBuilder(streamers, 1, 0, null),
             1,
             (byte) 0,
             0,
             Collections.singletonList("n1"),
             distributedResultAction,
             streamers,
-            2 // pageSize
+            pageSize
         );
     }
 
@@ -155,6 +178,12 @@ public class DistributingConsumerTest extends CrateUnitTest {
     }
 
     private TransportDistributedResultAction createFakeTransport(Streamer<?>[] streamers, PageDownstreamContext pageDownstreamContext) {
+        return createFakeTransport(streamers, pageDownstreamContext, -1L);
+    }
+
+    private TransportDistributedResultAction createFakeTransport(Streamer<?>[] streamers,
+                                                                 PageDownstreamContext pageDownstreamContext,
+                                                                 long bytesCredit) {
         TransportDistributedResultAction distributedResultAction = mock(TransportDistributedResultAction.class);
         doAnswer((InvocationOnMock invocationOnMock) -> {
             Object[] args = invocationOnMock.getArguments();
@@ -167,7 +196,7 @@ public class DistributingConsumerTest extends CrateUnitTest {
                     resultRequest.bucketIdx(),
                     resultRequest.rows(),
                     resultRequest.isLast(),
-                    needMore -> listener.onResponse(new DistributedResultResponse(needMore)));
+                    needMore -> listener.onResponse(new DistributedResultResponse(needMore, bytesCredit)));
             } else {
                 if (resultRequest.isKilled()) {
                     pageDownstreamContext.killed(resultRequest.bucketIdx(), throwable);
@@ -26,6 +26,7 @@ import com.google.common.collect.ImmutableSet;
 import io.crate.analyze.WhereClause;
 import io.crate.core.collections.TreeMapBuilder;
 import io.crate.data.BatchConsumer;
+import io.crate.executor.transport.StreamBucketStats;
 import io.crate.metadata.Routing;
 import io.crate.metadata.RowGranularity;
 import io.crate.operation.NodeOperation;
@@ -60,7 +61,8 @@ public class DistributingDownstreamFactoryTest extends CrateDummyClusterServiceU
             Settings.EMPTY,
             clusterService,
             THREAD_POOL,
-            mock(TransportDistributedResultAction.class)
+            mock(TransportDistributedResultAction.class),
+            new StreamBucketStats()
         );
     }
 
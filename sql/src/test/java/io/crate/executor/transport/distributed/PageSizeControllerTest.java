@@ -0,0 +1,79 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.executor.transport.distributed;
+
+import io.crate.test.integration.CrateUnitTest;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.is;
+
+public class PageSizeControllerTest extends CrateUnitTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    public void testPageSizeGrowsIfRoundTripDominatesAndShrinksBack() throws Exception {
+        PageSizeController controller = new PageSizeController(100);
+        controller.pageSent(100, 1000, MS, 10 * MS, -1L);
+        assertThat(controller.pageSize(), is(200));
+        for (int i = 0; i < 10; i++) {
+            controller.pageSent(controller.pageSize(), 1000, MS, 10 * MS, -1L);
+        }
+        assertThat(controller.pageSize(), is(100 * PageSizeController.MAX_GROWTH_FACTOR));
+
+        controller.pageSent(controller.pageSize(), 1000, 10 * MS, MS, -1L);
+        assertThat(controller.pageSize(), is(400));
+        for (int i = 0; i < 10; i++) {
+            controller.pageSent(controller.pageSize(), 1000, 10 * MS, MS, -1L);
+        }
+        assertThat(controller.pageSize(), is(100));
+    }
+
+    @Test
+    public void testPartialPagesAndFastRoundTripsDontChangePageSize() throws Exception {
+        PageSizeController controller = new PageSizeController(100);
+        controller.pageSent(10, 1000, MS, 10 * MS, -1L);
+        assertThat(controller.pageSize(), is(100));
+
+        controller.pageSent(100, 1000, 1000, 5000, -1L);
+        assertThat(controller.pageSize(), is(100));
+    }
+
+    @Test
+    public void testPageSizeIsLimitedByCredit() throws Exception {
+        PageSizeController controller = new PageSizeController(100);
+        // 10 bytes per row, credit for 50 rows
+        controller.pageSent(100, 1000, MS, MS, 500L);
+        assertThat(controller.pageSize(), is(50));
+
+        // never below the minimum, even without any credit left
+        controller.pageSent(50, 500, MS, MS, 0L);
+        assertThat(controller.pageSize(), is(PageSizeController.MIN_PAGE_SIZE));
+
+        // once memory is available again the page size recovers
+        controller.pageSent(16, 160, MS, MS, 1_000_000L);
+        assertThat(controller.pageSize(), is(100));
+    }
+}
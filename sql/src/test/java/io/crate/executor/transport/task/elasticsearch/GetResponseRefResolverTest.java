@@ -22,13 +22,19 @@
 
 package io.crate.executor.transport.task.elasticsearch;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
+import io.crate.analyze.symbol.Literal;
+import io.crate.analyze.symbol.Symbol;
+import io.crate.analyze.where.DocKeys;
+import io.crate.metadata.ColumnIdent;
 import io.crate.metadata.Reference;
 import io.crate.metadata.RowGranularity;
 import io.crate.metadata.doc.DocSysColumns;
 import io.crate.metadata.doc.DocTableInfo;
 import io.crate.operation.collect.CollectExpression;
 import io.crate.test.integration.CrateUnitTest;
+import io.crate.types.DataTypes;
 import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.action.get.GetResponse;
 import org.elasticsearch.common.bytes.BytesArray;
@@ -42,8 +48,10 @@ import java.util.Collections;
 import java.util.List;
 
 import static io.crate.testing.TestingHelpers.refInfo;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 public class GetResponseRefResolverTest extends CrateUnitTest {
 
@@ -74,4 +82,28 @@ public class GetResponseRefResolverTest extends CrateUnitTest {
         assertThat(collectExpressions.get(2).value(), is(SourceLookup.sourceAsMap(SOURCE)));
         assertThat(collectExpressions.get(3).value(), is(SOURCE.toBytesRef()));
     }
+
+    @Test
+    public void testPrimaryKeyIsResolvedFromDocKeyWithoutSource() throws Exception {
+        DocTableInfo tableInfo = mock(DocTableInfo.class);
+        when(tableInfo.primaryKey()).thenReturn(ImmutableList.of(new ColumnIdent("id")));
+        DocKeys docKeys = new DocKeys(
+            ImmutableList.<List<Symbol>>of(ImmutableList.of(Literal.of(new BytesRef("abc")))), false, -1, null);
+        DocKeys.DocKey docKey = docKeys.getOnlyKey();
+
+        List<ColumnIdent> sourceColumns = new ArrayList<>();
+        GetResponseRefResolver refResolver = new GetResponseRefResolver(
+            sourceColumns::add, tableInfo, Collections.singletonMap(docKey.id(), docKey));
+
+        CollectExpression<GetResponse, ?> id = refResolver.getImplementation(
+            refInfo("t1.id", DataTypes.STRING, RowGranularity.DOC));
+        CollectExpression<GetResponse, ?> x = refResolver.getImplementation(
+            refInfo("t1.x", DataTypes.INTEGER, RowGranularity.DOC));
+        id.setNextRow(GET_RESPONSE);
+        x.setNextRow(GET_RESPONSE);
+
+        assertThat(id.value(), is(new BytesRef("abc")));
+        assertThat(x.value(), is(1));
+        assertThat(sourceColumns, contains(new ColumnIdent("x")));
+    }
 }
@@ -0,0 +1,79 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.integrationtests;
+
+import io.crate.operation.collect.sources.FileCollectSource;
+import io.crate.testing.TestingHelpers;
+import org.elasticsearch.common.settings.Settings;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.is;
+
+public class ConcurrentFileCollectIntegrationTest extends SQLTransportIntegrationTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Override
+    protected Settings nodeSettings(int nodeOrdinal) {
+        return Settings.builder()
+            .put(super.nodeSettings(nodeOrdinal))
+            .put(FileCollectSource.FILE_CONCURRENCY_SETTING.getKey(), 4)
+            .build();
+    }
+
+    private void writeFiles(int numFiles, int linesPerFile) throws IOException {
+        for (int f = 0; f < numFiles; f++) {
+            List<String> lines = new ArrayList<>(linesPerFile);
+            for (int i = 0; i < linesPerFile; i++) {
+                lines.add("{\"id\": " + (f * linesPerFile + i) + ", \"name\": \"n" + i + "\"}");
+            }
+            Files.write(new File(folder.getRoot(), "data_" + f + ".json").toPath(), lines, StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    public void testCopyFromWithConcurrentReadersImportsEveryLineOnce() throws Exception {
+        execute("create table t (id int primary key, name string) with (number_of_replicas = 0)");
+        ensureYellow();
+        writeFiles(10, 20);
+
+        String uri = Paths.get(folder.getRoot().toURI()).toUri().toString() + "*.json";
+        // all nodes of the test cluster see the same files, shared makes each node read only its part of them
+        execute("copy t from ? with (shared = true)", new Object[]{uri});
+        assertThat(response.rowCount(), is(200L));
+
+        execute("refresh table t");
+        execute("select count(*), count(distinct id), sum(id) from t");
+        assertThat(TestingHelpers.printedTable(response.rows()), is("200| 200| 19900\n"));
+    }
+}
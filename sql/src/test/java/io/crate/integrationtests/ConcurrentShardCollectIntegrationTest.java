@@ -0,0 +1,107 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.integrationtests;
+
+import io.crate.operation.collect.LuceneShardCollectorProvider;
+import io.crate.testing.TestingHelpers;
+import org.elasticsearch.common.settings.Settings;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.hamcrest.Matchers.arrayWithSize;
+import static org.hamcrest.Matchers.is;
+
+public class ConcurrentShardCollectIntegrationTest extends SQLTransportIntegrationTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Override
+    protected Settings nodeSettings(int nodeOrdinal) {
+        return Settings.builder()
+            .put(super.nodeSettings(nodeOrdinal))
+            .put(LuceneShardCollectorProvider.SHARD_CONCURRENCY_SETTING.getKey(), 4)
+            .build();
+    }
+
+    @Before
+    public void createTableWithManySegments() throws Exception {
+        execute("create table t (x int, y int) clustered into 1 shards with (number_of_replicas = 0)");
+        ensureYellow();
+        // every refresh creates a new segment
+        for (int i = 0; i < 8; i++) {
+            execute("insert into t (x) values (?), (?), (?), (?), (?)",
+                new Object[]{i * 5, i * 5 + 1, i * 5 + 2, i * 5 + 3, i * 5 + 4});
+            execute("refresh table t");
+        }
+    }
+
+    @Test
+    public void testGroupByMergesResultsOfConcurrentCollectors() throws Exception {
+        execute("select x % 3, count(*), sum(x) from t group by 1 order by 1");
+        assertThat(TestingHelpers.printedTable(response.rows()),
+            is("0| 14| 273\n" +
+               "1| 13| 247\n" +
+               "2| 13| 260\n"));
+    }
+
+    @Test
+    public void testGlobalAggregationMergesResultsOfConcurrentCollectors() throws Exception {
+        execute("select sum(x), min(x), max(x), avg(x) from t");
+        assertThat(TestingHelpers.printedTable(response.rows()), is("780| 0| 39| 19.5\n"));
+    }
+
+    @Test
+    public void testCopyToWritesASingleFilePerShard() throws Exception {
+        String uri = Paths.get(folder.getRoot().toURI()).toUri().toString();
+        execute("copy t to DIRECTORY ?", new Object[]{uri});
+        assertThat(response.rowCount(), is(40L));
+
+        String[] files = folder.getRoot().list();
+        assertThat(files, arrayWithSize(1));
+        Path file = folder.getRoot().toPath().resolve(files[0]);
+        assertThat(Files.readAllLines(file, StandardCharsets.UTF_8).size(), is(40));
+    }
+
+    @Test
+    public void testUpdateAndDeleteAffectEveryRowOnce() throws Exception {
+        execute("update t set y = x + 1 where x >= 0");
+        assertThat(response.rowCount(), is(40L));
+        execute("refresh table t");
+        execute("select sum(y) from t");
+        assertThat(TestingHelpers.printedTable(response.rows()), is("820\n"));
+
+        execute("delete from t where x >= 10");
+        assertThat(response.rowCount(), is(30L));
+        execute("refresh table t");
+        execute("select count(*) from t");
+        assertThat(TestingHelpers.printedTable(response.rows()), is("10\n"));
+    }
+}
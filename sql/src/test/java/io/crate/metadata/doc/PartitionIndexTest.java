@@ -0,0 +1,94 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.metadata.doc;
+
+import com.google.common.collect.ImmutableList;
+import io.crate.metadata.PartitionName;
+import io.crate.metadata.Reference;
+import io.crate.metadata.ReferenceIdent;
+import io.crate.metadata.RowGranularity;
+import io.crate.metadata.TableIdent;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.types.DataTypes;
+import org.apache.lucene.util.BytesRef;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.Matchers.is;
+
+public class PartitionIndexTest extends CrateUnitTest {
+
+    private static final TableIdent TABLE_IDENT = new TableIdent("doc", "parted");
+
+    private PartitionIndex index;
+
+    @Before
+    public void setUpIndex() throws Exception {
+        Reference partitionColumn = new Reference(
+            new ReferenceIdent(TABLE_IDENT, "p"), RowGranularity.PARTITION, DataTypes.INTEGER);
+        // positions: 0 -> 30, 1 -> 10, 2 -> null, 3 -> 20, 4 -> 10
+        List<PartitionName> partitions = ImmutableList.of(
+            partition("30"),
+            partition("10"),
+            partition(null),
+            partition("20"),
+            partition("10")
+        );
+        index = new PartitionIndex(Collections.singletonList(partitionColumn), partitions);
+    }
+
+    private static PartitionName partition(String value) {
+        return new PartitionName(TABLE_IDENT, Collections.singletonList(value == null ? null : new BytesRef(value)));
+    }
+
+    private static BitSet bits(int... positions) {
+        BitSet bitSet = new BitSet();
+        for (int position : positions) {
+            bitSet.set(position);
+        }
+        return bitSet;
+    }
+
+    @Test
+    public void testEqualToIncludesNullPartitions() throws Exception {
+        assertThat(index.equalTo(0, 10), is(bits(1, 2, 4)));
+        assertThat(index.equalTo(0, 15), is(bits(2)));
+    }
+
+    @Test
+    public void testRange() throws Exception {
+        assertThat(index.range(0, 10, false, null, false), is(bits(0, 2, 3)));
+        assertThat(index.range(0, 10, true, 20, false), is(bits(1, 2, 4)));
+        assertThat(index.range(0, null, false, 20, true), is(bits(1, 2, 3, 4)));
+        assertThat(index.range(0, 31, true, null, false), is(bits(2)));
+    }
+
+    @Test
+    public void testAll() throws Exception {
+        assertThat(index.all(), is(bits(0, 1, 2, 3, 4)));
+        assertThat(index.partition(3), is(partition("20")));
+    }
+}
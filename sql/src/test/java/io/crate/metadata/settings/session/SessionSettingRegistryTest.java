@@ -63,6 +63,18 @@ public class SessionSettingRegistryTest {
         }
     }
 
+    @Test
+    public void testApproxCountDistinctSessionSetting() {
+        SessionContext sessionContext = new SessionContext(null, null, x -> {}, x -> {});
+        SessionSettingApplier applier = SessionSettingRegistry.getApplier(SessionSettingRegistry.APPROX_COUNT_DISTINCT_KEY);
+
+        assertThat(sessionContext.getApproxCountDistinctEnabled(), is(false));
+        applier.apply(Row.EMPTY, generateInput("true"), sessionContext);
+        assertThat(sessionContext.getApproxCountDistinctEnabled(), is(true));
+        applier.apply(Row.EMPTY, generateInput("false"), sessionContext);
+        assertThat(sessionContext.getApproxCountDistinctEnabled(), is(false));
+    }
+
     private static List<Expression> generateInput(String... inputs) {
         ArrayList<Expression> expressions = new ArrayList<>(inputs.length);
         for (String input : inputs) {
@@ -0,0 +1,137 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.operation.aggregation.impl;
+
+import com.google.common.collect.ImmutableList;
+import io.crate.Streamer;
+import io.crate.operation.aggregation.AggregationTest;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.is;
+
+public class HyperLogLogDistinctAggregationTest extends AggregationTest {
+
+    private Object[][] executeAggregation(DataType dataType, Object[][] data) throws Exception {
+        return executeAggregation(HyperLogLogDistinctAggregation.NAME, dataType, data);
+    }
+
+    @Test
+    public void testReturnType() throws Exception {
+        for (DataType<?> dataType : DataTypes.PRIMITIVE_TYPES) {
+            assertThat(functions.getBuiltin(HyperLogLogDistinctAggregation.NAME, ImmutableList.of(dataType))
+                .info().returnType(), is(DataTypes.LONG));
+        }
+    }
+
+    @Test
+    public void testSmallCardinalityIsExact() throws Exception {
+        Object[][] result = executeAggregation(DataTypes.STRING, new Object[][]{
+            {new BytesRef("Akira")},
+            {new BytesRef("Tetsuo")},
+            {new BytesRef("Akira")},
+            {null}
+        });
+        assertThat(result[0][0], is(2L));
+    }
+
+    @Test
+    public void testNoRows() throws Exception {
+        Object[][] result = executeAggregation(DataTypes.LONG, new Object[][]{});
+        assertThat(result[0][0], is(0L));
+    }
+
+    @Test
+    public void testHighCardinalityIsApproximated() throws Exception {
+        Object[][] rows = new Object[100_000][];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = new Object[]{(long) i % 50_000};
+        }
+        long cardinality = (Long) executeAggregation(DataTypes.LONG, rows)[0][0];
+        assertThat(Math.abs(cardinality - 50_000) < 2_500, is(true));
+    }
+
+    @Test
+    public void testInvalidPrecision() throws Exception {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("precision for hyperloglog_distinct must be between 4 and 18, got 30");
+        executeAggregation(HyperLogLogDistinctAggregation.NAME, DataTypes.INTEGER, new Object[][]{{1, 30}},
+            ImmutableList.of(DataTypes.INTEGER, DataTypes.INTEGER));
+    }
+
+    @Test
+    public void testReduceAndStreamState() throws Exception {
+        HyperLogLogDistinctAggregation.HllState state1 = new HyperLogLogDistinctAggregation.HllState();
+        state1.init(HyperLogLogDistinctAggregation.DEFAULT_PRECISION);
+        state1.add(1L);
+        state1.add(2L);
+        HyperLogLogDistinctAggregation.HllState state2 = new HyperLogLogDistinctAggregation.HllState();
+        state2.init(HyperLogLogDistinctAggregation.DEFAULT_PRECISION);
+        state2.add(2L);
+        state2.add(3L);
+
+        Streamer streamer = HyperLogLogDistinctAggregation.HllStateType.INSTANCE.streamer();
+        BytesStreamOutput out = new BytesStreamOutput();
+        streamer.writeValueTo(out, state2);
+        HyperLogLogDistinctAggregation.HllState streamed =
+            (HyperLogLogDistinctAggregation.HllState) streamer.readValueFrom(out.bytes().streamInput());
+
+        HyperLogLogDistinctAggregation aggregation = (HyperLogLogDistinctAggregation) functions.getBuiltin(
+            HyperLogLogDistinctAggregation.NAME, ImmutableList.of(DataTypes.LONG));
+        HyperLogLogDistinctAggregation.HllState reduced =
+            aggregation.reduce(ramAccountingContext, new HyperLogLogDistinctAggregation.HllState(), state1);
+        reduced = aggregation.reduce(ramAccountingContext, reduced, streamed);
+        assertThat(aggregation.terminatePartial(ramAccountingContext, reduced), is(3L));
+    }
+
+    @Test
+    public void testStatesReadFromStreamAreAccountedWhenReduced() throws Exception {
+        HyperLogLogDistinctAggregation.HllState state = new HyperLogLogDistinctAggregation.HllState();
+        state.init(HyperLogLogDistinctAggregation.DEFAULT_PRECISION);
+        state.add(1L);
+        Streamer streamer = HyperLogLogDistinctAggregation.HllStateType.INSTANCE.streamer();
+        BytesStreamOutput out = new BytesStreamOutput();
+        streamer.writeValueTo(out, state);
+        streamer.writeValueTo(out, state);
+        StreamInput in = out.bytes().streamInput();
+
+        HyperLogLogDistinctAggregation aggregation = (HyperLogLogDistinctAggregation) functions.getBuiltin(
+            HyperLogLogDistinctAggregation.NAME, ImmutableList.of(DataTypes.LONG));
+        long stateBytes = 1L << HyperLogLogDistinctAggregation.DEFAULT_PRECISION;
+        long bytesBefore = ramAccountingContext.totalBytes();
+        HyperLogLogDistinctAggregation.HllState reduced = aggregation.reduce(
+            ramAccountingContext,
+            new HyperLogLogDistinctAggregation.HllState(),
+            (HyperLogLogDistinctAggregation.HllState) streamer.readValueFrom(in));
+        assertThat(ramAccountingContext.totalBytes(), is(bytesBefore + stateBytes));
+
+        // merging another state into the accounted one doesn't need more memory
+        reduced = aggregation.reduce(
+            ramAccountingContext, reduced, (HyperLogLogDistinctAggregation.HllState) streamer.readValueFrom(in));
+        assertThat(ramAccountingContext.totalBytes(), is(bytesBefore + stateBytes));
+        assertThat(aggregation.terminatePartial(ramAccountingContext, reduced), is(1L));
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.collect;
+
+import io.crate.analyze.symbol.AggregateMode;
+import io.crate.analyze.symbol.InputColumn;
+import io.crate.analyze.symbol.Literal;
+import io.crate.analyze.symbol.Symbol;
+import io.crate.metadata.RowGranularity;
+import io.crate.planner.projection.AggregationProjection;
+import io.crate.planner.projection.DeleteProjection;
+import io.crate.planner.projection.GroupProjection;
+import io.crate.planner.projection.UpdateProjection;
+import io.crate.planner.projection.WriterProjection;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.types.DataTypes;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NoMergePolicy;
+import org.apache.lucene.store.RAMDirectory;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.Matchers.is;
+
+public class LuceneShardCollectorProviderTest extends CrateUnitTest {
+
+    @Test
+    public void testPartitionLeavesDistributesDocumentsEvenly() throws Exception {
+        IndexWriter iw = new IndexWriter(
+            new RAMDirectory(), new IndexWriterConfig(new StandardAnalyzer()).setMergePolicy(NoMergePolicy.INSTANCE));
+        // segments with 40, 30, 20 and 10 documents
+        for (int numDocs : new int[] { 40, 30, 20, 10 }) {
+            for (int i = 0; i < numDocs; i++) {
+                Document doc = new Document();
+                doc.add(new NumericDocValuesField("x", i));
+                iw.addDocument(doc);
+            }
+            iw.commit();
+        }
+        try (DirectoryReader reader = DirectoryReader.open(iw)) {
+            List<LeafReaderContext> leaves = reader.leaves();
+            assertThat(leaves.size(), is(4));
+
+            List<List<LeafReaderContext>> partitions = LuceneShardCollectorProvider.partitionLeaves(leaves, 2);
+            assertThat(partitions.size(), is(2));
+            Set<LeafReaderContext> partitionedLeaves = new HashSet<>();
+            for (List<LeafReaderContext> partition : partitions) {
+                int numDocs = 0;
+                for (LeafReaderContext leaf : partition) {
+                    numDocs += leaf.reader().maxDoc();
+                    partitionedLeaves.add(leaf);
+                }
+                assertThat(numDocs, is(50));
+            }
+            assertThat(partitionedLeaves.size(), is(4));
+
+            assertThat(LuceneShardCollectorProvider.partitionLeaves(leaves, 8).size(), is(4));
+            assertThat(LuceneShardCollectorProvider.partitionLeaves(leaves, 1).get(0), is(leaves));
+        }
+        iw.close();
+    }
+
+    @Test
+    public void testOnlyPartialAggregationsAreCollectedConcurrently() throws Exception {
+        List<Symbol> keys = Collections.singletonList(new InputColumn(0, DataTypes.STRING));
+        GroupProjection partialGroup = new GroupProjection(
+            keys, Collections.emptyList(), AggregateMode.ITER_PARTIAL, RowGranularity.SHARD);
+        AggregationProjection partialAggregation = new AggregationProjection(
+            Collections.emptyList(), RowGranularity.SHARD, AggregateMode.ITER_PARTIAL);
+        assertThat(ShardCollectorProvider.canCollectConcurrently(Collections.singletonList(partialGroup)), is(true));
+        assertThat(ShardCollectorProvider.canCollectConcurrently(
+            Arrays.asList(partialGroup, partialAggregation)), is(true));
+
+        assertThat(ShardCollectorProvider.canCollectConcurrently(Collections.emptyList()), is(false));
+        GroupProjection finalGroup = new GroupProjection(
+            keys, Collections.emptyList(), AggregateMode.ITER_FINAL, RowGranularity.SHARD);
+        assertThat(ShardCollectorProvider.canCollectConcurrently(Collections.singletonList(finalGroup)), is(false));
+
+        WriterProjection copyTo = new WriterProjection(
+            Collections.singletonList(new InputColumn(0)),
+            Literal.of("file:///tmp/"),
+            null,
+            Collections.emptyMap(),
+            null,
+            WriterProjection.OutputFormat.JSON_OBJECT);
+        assertThat(ShardCollectorProvider.canCollectConcurrently(Collections.singletonList(copyTo)), is(false));
+        UpdateProjection update = new UpdateProjection(
+            new InputColumn(0), new String[]{"x"}, new Symbol[]{Literal.of(1)}, null);
+        assertThat(ShardCollectorProvider.canCollectConcurrently(Collections.singletonList(update)), is(false));
+        DeleteProjection delete = new DeleteProjection(new InputColumn(0));
+        assertThat(ShardCollectorProvider.canCollectConcurrently(Collections.singletonList(delete)), is(false));
+    }
+}
@@ -27,11 +27,14 @@ import io.crate.metadata.ColumnIdent;
 import io.crate.metadata.Functions;
 import io.crate.operation.collect.sources.CollectSourceResolver;
 import io.crate.operation.collect.sources.FileCollectSource;
+import io.crate.operation.collect.stats.JobsLogs;
+import io.crate.operation.projectors.ProjectorFactory;
 import io.crate.planner.node.dql.FileUriCollectPhase;
 import io.crate.planner.node.dql.RoutedCollectPhase;
 import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
 import io.crate.testing.TestingBatchConsumer;
 import io.crate.types.DataTypes;
+import org.elasticsearch.common.settings.Settings;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
@@ -62,8 +65,11 @@ public class MapSideDataCollectOperationTest extends CrateDummyClusterServiceUni
     public void testFileUriCollect() throws Exception {
         Functions functions = getFunctions();
         CollectSourceResolver collectSourceResolver = mock(CollectSourceResolver.class);
+        FileCollectSource fileCollectSource = new FileCollectSource(
+            Settings.EMPTY, functions, clusterService, Collections.emptyMap(), THREAD_POOL, new JobsLogs(() -> true));
         when(collectSourceResolver.getService(any(RoutedCollectPhase.class)))
-            .thenReturn(new FileCollectSource(functions, clusterService, Collections.emptyMap()));
+            .thenReturn((phase, consumer, jobCollectContext) ->
+                fileCollectSource.getCollector(phase, consumer, jobCollectContext, mock(ProjectorFactory.class)));
         MapSideDataCollectOperation collectOperation = new MapSideDataCollectOperation(
             collectSourceResolver,
             THREAD_POOL
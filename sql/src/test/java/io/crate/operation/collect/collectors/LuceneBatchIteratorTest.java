@@ -29,10 +29,13 @@ import io.crate.test.integration.CrateUnitTest;
 import io.crate.testing.BatchIteratorTester;
 import org.apache.lucene.analysis.standard.StandardAnalyzer;
 import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
 import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StringField;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.MatchAllDocsQuery;
 import org.apache.lucene.store.RAMDirectory;
@@ -91,4 +94,48 @@ public class LuceneBatchIteratorTest extends CrateUnitTest {
         );
         tester.verifyResultAndEdgeCaseBehaviour(expectedResult);
     }
+
+    @Test
+    public void testBlockWiseCollectingSkipsDeletedDocsAndMatchesRowWiseCollecting() throws Exception {
+        IndexWriter iw = new IndexWriter(new RAMDirectory(), new IndexWriterConfig(new StandardAnalyzer()));
+        int numDocs = LuceneBatchIterator.BLOCK_SIZE * 2 + 10;
+        List<Object[]> expected = new ArrayList<>(numDocs);
+        for (long i = 0; i < numDocs; i++) {
+            Document doc = new Document();
+            doc.add(new StringField("id", Long.toString(i), Field.Store.NO));
+            if (i % 5 != 0) {
+                doc.add(new NumericDocValuesField("x", i));
+            }
+            iw.addDocument(doc);
+            if (i % 3 == 0) {
+                continue;
+            }
+            expected.add(new Object[] { i % 5 == 0 ? null : i });
+        }
+        for (long i = 0; i < numDocs; i += 3) {
+            iw.deleteDocuments(new Term("id", Long.toString(i)));
+        }
+        iw.commit();
+        IndexSearcher searcher = new IndexSearcher(DirectoryReader.open(iw));
+        List<LongColumnReference> refs = Collections.singletonList(new LongColumnReference("x"));
+
+        for (boolean doScores : new boolean[] { false, true }) {
+            BatchIteratorTester tester = new BatchIteratorTester(
+                () -> new LuceneBatchIterator(
+                    searcher,
+                    new MatchAllDocsQuery(),
+                    null,
+                    doScores,
+                    new CollectorContext(
+                        mock(IndexFieldDataService.class),
+                        new CollectorFieldsVisitor(0)
+                    ),
+                    new RamAccountingContext("dummy", new NoopCircuitBreaker("dummy")),
+                    refs,
+                    refs
+                )
+            );
+            tester.verifyResultAndEdgeCaseBehaviour(expected);
+        }
+    }
 }
@@ -329,6 +329,7 @@ public class LuceneOrderedDocCollectorTest extends RandomizedTest {
                 2,
                 new CollectorContext(mock(IndexFieldDataService.class), new CollectorFieldsVisitor(0)),
                 f -> null,
+                r -> null,
                 new Sort(SortField.FIELD_SCORE),
                 columnReferences,
                 columnReferences
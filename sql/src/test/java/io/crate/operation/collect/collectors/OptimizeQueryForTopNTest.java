@@ -0,0 +1,138 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.collect.collectors;
+
+import io.crate.analyze.OrderBy;
+import io.crate.analyze.symbol.Symbol;
+import io.crate.metadata.Reference;
+import io.crate.metadata.ReferenceIdent;
+import io.crate.metadata.RowGranularity;
+import io.crate.metadata.Schemas;
+import io.crate.metadata.TableIdent;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.types.DataTypes;
+import org.apache.lucene.analysis.core.KeywordAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.SortedNumericDocValuesField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexOptions;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.NoMergePolicy;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.store.RAMDirectory;
+import org.elasticsearch.index.mapper.NumberFieldMapper;
+import org.elasticsearch.index.query.QueryShardContext;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Collections;
+
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+
+public class OptimizeQueryForTopNTest extends CrateUnitTest {
+
+    private static final Reference REFERENCE = new Reference(
+        new ReferenceIdent(new TableIdent(Schemas.DOC_SCHEMA_NAME, "table"), "value"), RowGranularity.DOC, DataTypes.LONG);
+
+    private NumberFieldMapper.NumberFieldType fieldType;
+    private IndexWriter writer;
+    private DirectoryReader reader;
+
+    @Before
+    public void setUpIndex() throws Exception {
+        fieldType = new NumberFieldMapper.NumberFieldType(NumberFieldMapper.NumberType.LONG);
+        fieldType.setName("value");
+        fieldType.setIndexOptions(IndexOptions.DOCS);
+        writer = new IndexWriter(new RAMDirectory(),
+            new IndexWriterConfig(new KeywordAnalyzer()).setMergePolicy(NoMergePolicy.INSTANCE));
+        // 3 segments: [1..10] [11..20] [21..30]
+        for (long segment = 0; segment < 3; segment++) {
+            for (long i = 1; i <= 10; i++) {
+                addDoc(segment * 10 + i);
+            }
+            writer.commit();
+        }
+    }
+
+    @After
+    public void closeIndex() throws Exception {
+        if (reader != null) {
+            reader.close();
+        }
+        writer.close();
+    }
+
+    private void addDoc(Long value) throws IOException {
+        Document doc = new Document();
+        if (value != null) {
+            doc.add(new LongPoint("value", value));
+            doc.add(new SortedNumericDocValuesField("value", value));
+        }
+        writer.addDocument(doc);
+    }
+
+    private Query topNQuery(boolean reverse, Boolean nullsFirst, int numHits) throws IOException {
+        if (reader == null) {
+            reader = DirectoryReader.open(writer);
+        }
+        OrderBy orderBy = new OrderBy(Collections.<Symbol>singletonList(REFERENCE),
+            new boolean[]{reverse},
+            new Boolean[]{nullsFirst});
+        return new OptimizeQueryForTopN(orderBy, numHits, mock(QueryShardContext.class), name -> fieldType)
+            .apply(reader);
+    }
+
+    @Test
+    public void testDescendingBoundOnlyMatchesNewestSegment() throws Exception {
+        Query query = topNQuery(true, null, 5);
+        assertThat(new IndexSearcher(reader).count(query), is(10));
+    }
+
+    @Test
+    public void testAscendingBoundIncludesSegmentsUntilNumHitsAreReached() throws Exception {
+        Query query = topNQuery(false, null, 15);
+        assertThat(new IndexSearcher(reader).count(query), is(20));
+    }
+
+    @Test
+    public void testNoBoundIfNotEnoughRows() throws Exception {
+        assertNull(topNQuery(true, null, 31));
+    }
+
+    @Test
+    public void testNoBoundIfMissingValuesAreSortedFirst() throws Exception {
+        addDoc(null);
+        writer.commit();
+        assertNull(topNQuery(true, null, 5));
+        assertNull(topNQuery(false, true, 5));
+
+        // nulls last, so they're never within the top 5
+        assertThat(new IndexSearcher(reader).count(topNQuery(true, false, 5)), is(10));
+    }
+}
@@ -137,6 +137,7 @@ public class OrderedLuceneBatchIteratorFactoryTest {
             5, // batchSize < 10 to have at least one searchMore call.
             collectorContext,
             f -> null,
+            r -> null,
             new Sort(new SortedNumericSortField(columnName, SortField.Type.LONG, reverseFlags[0])),
             expressions,
             expressions
@@ -39,18 +39,29 @@ import org.apache.lucene.util.BytesRef;
 import org.junit.Before;
 import org.junit.Test;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStreamWriter;
+import java.net.URI;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
 
 import static io.crate.testing.TestingHelpers.createReference;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
 
 public class FileReadingIteratorTest extends CrateUnitTest {
 
@@ -90,6 +101,139 @@ public class FileReadingIteratorTest extends CrateUnitTest {
         tester.verifyResultAndEdgeCaseBehaviour(expectedResult);
     }
 
+    @Test
+    public void testLargeFileIsSplitIntoRangesAlignedToLines() throws Exception {
+        Path largeFile = createTempFile();
+        List<Object> expectedLines = new ArrayList<>();
+        try (OutputStreamWriter writer = new OutputStreamWriter(new FileOutputStream(largeFile.toFile()), StandardCharsets.UTF_8)) {
+            for (int i = 0; i < 100; i++) {
+                // lines of varying length so that the range boundaries fall into the middle of lines
+                String line = "{\"id\": " + i + ", \"name\": \"" + String.join("", Collections.nCopies(i % 7, "x")) + "\"}";
+                writer.write(line);
+                writer.write(i % 2 == 0 ? "\n" : "\r\n");
+                expectedLines.add(new BytesRef(line));
+            }
+        }
+        String fileUri = largeFile.toUri().toString();
+        int concurrency = 3;
+
+        List<Object> lines = new ArrayList<>();
+        List<long[]> ranges = new ArrayList<>();
+        FileReadingIterator.RangeListener rangeListener = new FileReadingIterator.RangeListener() {
+            @Override
+            public void rangeStarted(URI uri, long start, long end) {
+                ranges.add(new long[]{start, end});
+            }
+
+            @Override
+            public void rangeFinished(URI uri, long start, long end, @Nullable Throwable failure) {
+                assertThat(failure, nullValue());
+            }
+        };
+        for (int i = 0; i < concurrency; i++) {
+            BatchIterator iterator = createBatchIterator(
+                Collections.singletonList(fileUri),
+                ImmutableMap.of(LocalFsFileInputFactory.NAME, new LocalFsFileInputFactory()),
+                concurrency,
+                i,
+                rangeListener);
+            while (iterator.moveNext()) {
+                lines.add(iterator.rowData().get(0).value());
+            }
+            iterator.close();
+        }
+
+        assertThat(ranges.size(), is(concurrency));
+        assertThat(ranges.get(0)[0], is(0L));
+        assertThat(ranges.get(1)[0], is(ranges.get(0)[1]));
+        assertThat(ranges.get(2)[0], is(ranges.get(1)[1]));
+        assertThat(ranges.get(2)[1], is(Files.size(largeFile)));
+        assertThat(lines, containsInAnyOrder(expectedLines.toArray()));
+    }
+
+    @Test
+    public void testFileIsReadAsWholeIfFileInputDoesNotSupportRanges() throws Exception {
+        Path largeFile = createTempFile();
+        List<Object> expectedLines = new ArrayList<>();
+        try (OutputStreamWriter writer = new OutputStreamWriter(new FileOutputStream(largeFile.toFile()), StandardCharsets.UTF_8)) {
+            for (int i = 0; i < 100; i++) {
+                String line = "{\"id\": " + i + "}";
+                writer.write(line);
+                writer.write("\n");
+                expectedLines.add(new BytesRef(line));
+            }
+        }
+        String fileUri = largeFile.toUri().toString();
+        int concurrency = 3;
+        // delegates to the local file system, but without range support
+        FileInputFactory fileInputFactory = () -> new FileInput() {
+
+            private final LocalFsFileInput delegate = new LocalFsFileInput();
+
+            @Override
+            public List<URI> listUris(URI fileUri, Predicate<URI> uriPredicate) throws IOException {
+                return delegate.listUris(fileUri, uriPredicate);
+            }
+
+            @Override
+            public InputStream getStream(URI uri) throws IOException {
+                return delegate.getStream(uri);
+            }
+
+            @Override
+            public boolean sharedStorageDefault() {
+                return false;
+            }
+        };
+
+        List<Object> lines = new ArrayList<>();
+        int readersWithLines = 0;
+        for (int i = 0; i < concurrency; i++) {
+            BatchIterator iterator = createBatchIterator(
+                Collections.singletonList(fileUri),
+                ImmutableMap.of(LocalFsFileInputFactory.NAME, fileInputFactory),
+                concurrency,
+                i,
+                null);
+            int numLines = lines.size();
+            while (iterator.moveNext()) {
+                lines.add(iterator.rowData().get(0).value());
+            }
+            iterator.close();
+            if (lines.size() > numLines) {
+                readersWithLines++;
+            }
+        }
+
+        assertThat(readersWithLines, is(1));
+        assertThat(lines, containsInAnyOrder(expectedLines.toArray()));
+    }
+
+    private BatchIterator createBatchIterator(Collection<String> fileUris,
+                                              Map<String, FileInputFactory> fileInputFactories,
+                                              int concurrency,
+                                              int concurrentReaderNumber,
+                                              @Nullable FileReadingIterator.RangeListener rangeListener) {
+        Reference raw = createReference("_raw", DataTypes.STRING);
+        InputFactory.Context<LineCollectorExpression<?>> ctx =
+            inputFactory.ctxForRefs(FileLineReferenceResolver::getImplementation);
+        List<Input<?>> inputs = Collections.singletonList(ctx.add(raw));
+        return FileReadingIterator.newInstance(
+            fileUris,
+            inputs,
+            ctx.expressions(),
+            null,
+            fileInputFactories,
+            false,
+            1,
+            0,
+            concurrency,
+            concurrentReaderNumber,
+            1L,
+            rangeListener
+        );
+    }
+
     private BatchIterator createBatchIterator(Collection<String> fileUris, String compression) {
         Reference raw = createReference("_raw", DataTypes.STRING);
         InputFactory.Context<LineCollectorExpression<?>> ctx =
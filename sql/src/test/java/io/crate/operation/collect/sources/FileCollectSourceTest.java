@@ -0,0 +1,53 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.collect.sources;
+
+import io.crate.test.integration.CrateUnitTest;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+public class FileCollectSourceTest extends CrateUnitTest {
+
+    @Test
+    public void testReaderOperationIdsAreNegativeAndUniqueWithinAJob() throws Exception {
+        Set<Integer> ids = new HashSet<>();
+        for (int phaseId = 0; phaseId < 4; phaseId++) {
+            for (int readerNumber = 0; readerNumber < 3; readerNumber++) {
+                int operationId = FileCollectSource.readerOperationId(phaseId, 3, readerNumber);
+                assertThat(operationId, lessThan(0));
+                assertThat(ids.add(operationId), is(true));
+            }
+        }
+    }
+
+    @Test
+    public void testReaderOperationIdOverflowIsDetected() throws Exception {
+        expectedException.expect(ArithmeticException.class);
+        FileCollectSource.readerOperationId(Integer.MAX_VALUE / 2, 4, 0);
+    }
+}
@@ -243,6 +243,10 @@ public class JobsLogsTest extends CrateDummyClusterServiceUnitTest {
         assertThat(jobsLogEntries.get(0).username(), is(user.name()));
         assertThat(jobsLogEntries.get(0).statement(), is("select foo"));
         assertThat(jobsLogEntries.get(0).errorMessage(), is("stmt error"));
+
+        QueryMetrics.StatementMetrics.Snapshot snapshot = jobsLogs.queryMetrics().snapshot(StatementType.SELECT);
+        assertThat(snapshot.totalCount(), is(1L));
+        assertThat(snapshot.failedCount(), is(1L));
     }
 
     @Test
@@ -276,4 +280,33 @@ public class JobsLogsTest extends CrateDummyClusterServiceUnitTest {
         assertThat(JobsLogService.clearInterval(TimeValue.timeValueSeconds(20L)), is(2000L));
         assertThat(JobsLogService.clearInterval(TimeValue.timeValueHours(720L)), is(86_400_000L));  // 30 days
     }
+
+    @Test
+    public void testQueryMetricsAreRecordedIfStatsAreDisabled() throws Exception {
+        JobsLogs jobsLogs = new JobsLogs(() -> false);
+        UUID jobId = UUID.randomUUID();
+        long started = jobsLogs.logExecutionStart(jobId, "select 1", null);
+        assertThat(ImmutableList.copyOf(jobsLogs.activeJobs()).size(), is(0));
+
+        jobsLogs.logExecutionEnd(jobId, "select 1", started, "failure");
+        QueryMetrics.StatementMetrics.Snapshot snapshot = jobsLogs.queryMetrics().snapshot(StatementType.SELECT);
+        assertThat(snapshot.totalCount(), is(1L));
+        assertThat(snapshot.failedCount(), is(1L));
+        assertThat(jobsLogs.queryMetrics().snapshot(StatementType.INSERT).totalCount(), is(0L));
+    }
+
+    @Test
+    public void testJobIsLoggedOnExecutionEnd() throws Exception {
+        JobsLogs jobsLogs = new JobsLogs(() -> true);
+        Queue<JobContextLog> q = new BlockingEvictingQueue<>(1);
+        jobsLogs.updateJobsLog(new QueueSink<>(q, ramAccountingContext::close));
+        UUID jobId = UUID.randomUUID();
+        long started = jobsLogs.logExecutionStart(jobId, "select 1", null);
+        jobsLogs.logExecutionEnd(jobId, "select 1", started, null);
+
+        assertThat(ImmutableList.copyOf(jobsLogs.activeJobs()).size(), is(0));
+        assertThat(ImmutableList.copyOf(jobsLogs.jobsLog()).size(), is(1));
+        assertThat(jobsLogs.queryMetrics().snapshot(StatementType.SELECT).totalCount(), is(1L));
+        assertThat(jobsLogs.activeRequests(), is(0L));
+    }
 }
@@ -0,0 +1,89 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.collect.stats;
+
+import io.crate.test.integration.CrateUnitTest;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class LatencyHistogramTest extends CrateUnitTest {
+
+    @Test
+    public void testSmallValuesAreExact() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 20; i++) {
+            histogram.record(i);
+        }
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertThat(snapshot.totalCount(), is(20L));
+        assertThat(snapshot.percentile(50.0), is(10L));
+        assertThat(snapshot.percentile(95.0), is(19L));
+        assertThat(snapshot.percentile(100.0), is(20L));
+    }
+
+    @Test
+    public void testLargeValuesHaveBoundedRelativeError() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 100_000; i++) {
+            histogram.record(i);
+        }
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        long p99 = snapshot.percentile(99.0);
+        assertThat(Math.abs(p99 - 99_000L) / 99_000.0, lessThanOrEqualTo(1.0 / LatencyHistogram.SUB_BUCKETS));
+    }
+
+    @Test
+    public void testBucketIndexAndHighestValueAreConsistent() throws Exception {
+        long[] values = {0L, 31L, 32L, 63L, 64L, 1000L, 123_456_789L, Long.MAX_VALUE};
+        for (long value : values) {
+            int index = LatencyHistogram.bucketIndex(value);
+            assertThat(index < LatencyHistogram.NUM_BUCKETS, is(true));
+            assertThat(value <= LatencyHistogram.highestValueOfBucket(index), is(true));
+            if (index > 0) {
+                assertThat(value > LatencyHistogram.highestValueOfBucket(index - 1), is(true));
+            }
+        }
+    }
+
+    @Test
+    public void testMergeSnapshots() throws Exception {
+        LatencyHistogram h1 = new LatencyHistogram();
+        LatencyHistogram h2 = new LatencyHistogram();
+        h1.record(1L);
+        h2.record(3L);
+        LatencyHistogram.Snapshot merged = h1.snapshot().merge(h2.snapshot());
+        assertThat(merged.totalCount(), is(2L));
+        assertThat(merged.percentile(100.0), is(3L));
+    }
+
+    @Test
+    public void testStatementTypeClassification() throws Exception {
+        assertThat(StatementType.of("  SELECT * from t"), is(StatementType.SELECT));
+        assertThat(StatementType.of("insert into t (x) values (1)"), is(StatementType.INSERT));
+        assertThat(StatementType.of("Copy t from 'file:///tmp'"), is(StatementType.COPY));
+        assertThat(StatementType.of("create table t (x int)"), is(StatementType.UNCLASSIFIED));
+        assertThat(StatementType.of(""), is(StatementType.UNCLASSIFIED));
+    }
+}
@@ -24,6 +24,7 @@ package io.crate.operation.fetch;
 
 import com.google.common.collect.Iterables;
 import com.google.common.util.concurrent.MoreExecutors;
+import io.crate.executor.transport.StreamBucketStats;
 import io.crate.jobs.JobContextService;
 import io.crate.operation.collect.stats.JobsLogs;
 import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
@@ -45,7 +46,8 @@ public class NodeFetchOperationTest extends CrateDummyClusterServiceUnitTest {
             MoreExecutors.directExecutor(),
             jobsLogs,
             new JobContextService(Settings.EMPTY, clusterService, jobsLogs),
-            new NoopCircuitBreaker("dummy"));
+            new NoopCircuitBreaker("dummy"),
+            new StreamBucketStats());
 
         fetchOperation.fetch(UUID.randomUUID(), 1, null, true).get(5, TimeUnit.SECONDS);
 
@@ -0,0 +1,101 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.operation.join;
+
+import io.crate.analyze.symbol.InputColumn;
+import io.crate.analyze.symbol.Literal;
+import io.crate.data.Columns;
+import io.crate.data.RowColumns;
+import io.crate.data.RowN;
+import io.crate.operation.InputFactory;
+import io.crate.operation.operator.AndOperator;
+import io.crate.operation.operator.EqOperator;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.types.DataTypes;
+import org.apache.lucene.util.BytesRef;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+import static io.crate.testing.TestingHelpers.getFunctions;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+public class HashJoinKeysTest extends CrateUnitTest {
+
+    private final InputFactory inputFactory = new InputFactory(getFunctions());
+
+    private static Object keyOf(java.util.function.Function<Columns, Supplier<Object>> keyFunction, Object... cells) {
+        RowColumns columns = new RowColumns(cells.length);
+        Supplier<Object> key = keyFunction.apply(columns);
+        columns.updateRef(new RowN(cells));
+        return key.get();
+    }
+
+    @Test
+    public void testNoJoinConditionHasNoKeys() throws Exception {
+        assertThat(HashJoinKeys.create(inputFactory, null, 1), nullValue());
+    }
+
+    @Test
+    public void testEqualityOnOneSideOnlyHasNoKeys() throws Exception {
+        assertThat(HashJoinKeys.create(inputFactory, EqOperator.createFunction(
+            new InputColumn(0, DataTypes.INTEGER), Literal.of(10)), 1), nullValue());
+        assertThat(HashJoinKeys.create(inputFactory, EqOperator.createFunction(
+            new InputColumn(0, DataTypes.INTEGER), new InputColumn(1, DataTypes.INTEGER)), 2), nullValue());
+    }
+
+    @Test
+    public void testEqualityOnDoubleHasNoKeys() throws Exception {
+        assertThat(HashJoinKeys.create(inputFactory, EqOperator.createFunction(
+            new InputColumn(0, DataTypes.DOUBLE), new InputColumn(1, DataTypes.DOUBLE)), 1), nullValue());
+    }
+
+    @Test
+    public void testSingleEqualityKey() throws Exception {
+        // left: [x, y], right: [a], condition: a = y
+        HashJoinKeys keys = HashJoinKeys.create(inputFactory, EqOperator.createFunction(
+            new InputColumn(2, DataTypes.STRING), new InputColumn(1, DataTypes.STRING)), 2);
+
+        assertThat(keys, notNullValue());
+        assertThat(keyOf(keys.leftKey(), 1, new BytesRef("foo")), is(new BytesRef("foo")));
+        assertThat(keyOf(keys.rightKey(), new BytesRef("foo")), is(new BytesRef("foo")));
+    }
+
+    @Test
+    public void testMultipleEqualityKeysWithNull() throws Exception {
+        // left: [x, y], right: [a, b], condition: x = a and y = b and x = 10
+        HashJoinKeys keys = HashJoinKeys.create(inputFactory, AndOperator.join(Arrays.asList(
+            EqOperator.createFunction(new InputColumn(0, DataTypes.INTEGER), new InputColumn(2, DataTypes.INTEGER)),
+            EqOperator.createFunction(new InputColumn(3, DataTypes.LONG), new InputColumn(1, DataTypes.LONG)),
+            EqOperator.createFunction(new InputColumn(0, DataTypes.INTEGER), Literal.of(10))
+        )), 2);
+
+        assertThat(keys, notNullValue());
+        assertThat(keyOf(keys.leftKey(), 1, 2L), is(Arrays.asList(1, 2L)));
+        assertThat(keyOf(keys.rightKey(), 1, 2L), is(Arrays.asList(1, 2L)));
+        assertThat(keyOf(keys.rightKey(), null, 2L), nullValue());
+    }
+}
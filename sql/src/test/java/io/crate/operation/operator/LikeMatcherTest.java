@@ -0,0 +1,98 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.operation.operator;
+
+import io.crate.test.integration.CrateUnitTest;
+import org.apache.lucene.util.BytesRef;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.is;
+
+public class LikeMatcherTest extends CrateUnitTest {
+
+    private static boolean matches(String pattern, String value) {
+        boolean result = LikeMatcher.of(pattern).matches(new BytesRef(value));
+        assertThat("cached matcher must give the same result",
+            LikeMatcher.cached(new BytesRef(pattern)).matches(new BytesRef(value)), is(result));
+        return result;
+    }
+
+    @Test
+    public void testLiteralPatterns() throws Exception {
+        assertThat(matches("foo", "foo"), is(true));
+        assertThat(matches("foo", "foobar"), is(false));
+        assertThat(matches("", ""), is(true));
+        assertThat(matches("%", ""), is(true));
+        assertThat(matches("%%", "anything"), is(true));
+
+        assertThat(matches("foo%", "foobar"), is(true));
+        assertThat(matches("foo%", "fo"), is(false));
+        assertThat(matches("%bar", "foobar"), is(true));
+        assertThat(matches("%bar", "bars"), is(false));
+        assertThat(matches("%oob%", "foobar"), is(true));
+        assertThat(matches("%oob%", "fobar"), is(false));
+        assertThat(matches("%ob%", "foob"), is(true));
+    }
+
+    @Test
+    public void testPatternsWithAnyChar() throws Exception {
+        assertThat(matches("_ar", "bar"), is(true));
+        assertThat(matches("_bar", "bar"), is(false));
+        assertThat(matches("%o_a%", "foobar"), is(true));
+        assertThat(matches("foo%baz", "foobarbaz"), is(true));
+        assertThat(matches("%i%m", "Lorem ipsum dolor"), is(false));
+    }
+
+    @Test
+    public void testMultiByteCharacters() throws Exception {
+        assertThat(matches("_", "€"), is(true));
+        assertThat(matches("__", "€"), is(false));
+        assertThat(matches("%€%", "100 € 200"), is(true));
+        assertThat(matches("1_0", "1€0"), is(true));
+    }
+
+    @Test
+    public void testEscapedWildcards() throws Exception {
+        assertThat(matches("fo\\%bar", "fo%bar"), is(true));
+        assertThat(matches("fo\\%bar", "foobar"), is(false));
+        assertThat(matches("fo\\_%", "fo_bar"), is(true));
+        assertThat(matches("fo\\_%", "foobar"), is(false));
+        assertThat(matches("fo\\\\_bar", "fo\\xbar"), is(true));
+    }
+
+    @Test
+    public void testWildcardsMatchNewLines() throws Exception {
+        assertThat(matches("SELECT%", "SELECT *\nFROM t"), is(true));
+        assertThat(matches("SELECT_*%", "SELECT\n*\nFROM t"), is(true));
+    }
+
+    @Test
+    public void testBytesRefWithOffset() throws Exception {
+        BytesRef value = new BytesRef("xxfoobarxx");
+        value.offset = 2;
+        value.length = 6;
+        assertThat(LikeMatcher.of("%oba%").matches(value), is(true));
+        assertThat(LikeMatcher.of("%bar").matches(value), is(true));
+        assertThat(LikeMatcher.of("%barx%").matches(value), is(false));
+        assertThat(LikeMatcher.of("f_o%").matches(value), is(true));
+    }
+}
@@ -87,6 +87,7 @@ public class ProjectingBatchConsumerTest extends CrateUnitTest {
             functions,
             threadPool,
             Settings.EMPTY,
+            new SpillDirectory(createTempDir()),
             mock(TransportActionProvider.class, Answers.RETURNS_DEEP_STUBS.get()),
             new InputFactory(functions),
             new EvaluatingNormalizer(
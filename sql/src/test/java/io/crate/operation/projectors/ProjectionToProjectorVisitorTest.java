@@ -78,6 +78,7 @@ import static com.carrotsearch.randomizedtesting.RandomizedTest.$;
 import static io.crate.testing.TestingHelpers.getFunctions;
 import static io.crate.testing.TestingHelpers.isRow;
 import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.core.Is.is;
 import static org.mockito.Mockito.mock;
@@ -104,6 +105,7 @@ public class ProjectionToProjectorVisitorTest extends CrateUnitTest {
             functions,
             threadPool,
             Settings.EMPTY,
+            new SpillDirectory(createTempDir()),
             mock(TransportActionProvider.class, Answers.RETURNS_DEEP_STUBS.get()),
             new InputFactory(functions),
             EvaluatingNormalizer.functionOnlyNormalizer(functions),
@@ -252,6 +254,112 @@ public class ProjectionToProjectorVisitorTest extends CrateUnitTest {
         ));
     }
 
+    @Test
+    public void testGroupProjectorWithNumericKeysIncludingNulls() throws Exception {
+        // select x, y, count(*) ... group by x, y
+        List<Symbol> keys = Arrays.asList(new InputColumn(0, DataTypes.INTEGER), new InputColumn(1, DataTypes.DOUBLE));
+        List<Aggregation> aggregations = Collections.singletonList(
+            new Aggregation(
+                countInfo,
+                countInfo.returnType(),
+                Collections.singletonList(new InputColumn(2)))
+        );
+        GroupProjection projection = new GroupProjection(
+            keys, aggregations, AggregateMode.ITER_FINAL, RowGranularity.CLUSTER);
+        Projector projector = visitor.create(projection, RAM_ACCOUNTING_CONTEXT, UUID.randomUUID());
+
+        List<Object[]> rows = new ArrayList<>();
+        rows.add($(1, 1.5, "a"));
+        rows.add($(1, 1.5, "b"));
+        rows.add($(1, null, "c"));
+        rows.add($(null, 1.5, "d"));
+        rows.add($(null, null, "e"));
+        rows.add($(null, null, "f"));
+        rows.add($(2, -0.5, "g"));
+
+        TestingBatchConsumer consumer = new TestingBatchConsumer();
+        consumer.accept(projector.apply(RowsBatchIterator.newInstance(new CollectionBucket(rows), 3)), null);
+
+        assertThat(consumer.getBucket(), containsInAnyOrder(
+            isRow(1, 1.5, 2L),
+            isRow(1, null, 1L),
+            isRow(null, 1.5, 1L),
+            isRow(null, null, 2L),
+            isRow(2, -0.5, 1L)
+        ));
+    }
+
+    @Test
+    public void testGroupProjectorWithManyGroupsOnSingleLongKey() throws Exception {
+        List<Symbol> keys = Collections.singletonList(new InputColumn(0, DataTypes.LONG));
+        List<Aggregation> aggregations = Collections.singletonList(
+            new Aggregation(
+                countInfo,
+                countInfo.returnType(),
+                Collections.singletonList(new InputColumn(0)))
+        );
+        GroupProjection projection = new GroupProjection(
+            keys, aggregations, AggregateMode.ITER_FINAL, RowGranularity.CLUSTER);
+        Projector projector = visitor.create(projection, RAM_ACCOUNTING_CONTEXT, UUID.randomUUID());
+
+        TestingBatchConsumer consumer = new TestingBatchConsumer();
+        consumer.accept(projector.apply(TestingBatchIterators.range(0L, 5000L)), null);
+
+        List<Object[]> result = consumer.getResult();
+        assertThat(result.size(), is(5000));
+        long sum = 0;
+        for (Object[] row : result) {
+            assertThat(row[1], is(1L));
+            sum += (long) row[0];
+        }
+        assertThat(sum, is(4999L * 5000L / 2));
+    }
+
+    @Test
+    public void testGroupProjectorSpillsToDisk() throws Exception {
+        ProjectionToProjectorVisitor spillingVisitor = new ProjectionToProjectorVisitor(
+            mock(ClusterService.class),
+            new NodeJobsCounter(),
+            functions,
+            threadPool,
+            Settings.builder()
+                .put(GroupingProjector.SPILL_ENABLED_SETTING.getKey(), true)
+                .put(GroupingProjector.SPILL_THRESHOLD_SETTING.getKey(), "1kb")
+                .build(),
+            new SpillDirectory(createTempDir()),
+            mock(TransportActionProvider.class, Answers.RETURNS_DEEP_STUBS.get()),
+            new InputFactory(functions),
+            EvaluatingNormalizer.functionOnlyNormalizer(functions),
+            t -> null,
+            t -> null
+        );
+        List<Symbol> keys = Collections.singletonList(new InputColumn(0, DataTypes.STRING));
+        List<Aggregation> aggregations = Collections.singletonList(
+            new Aggregation(
+                countInfo,
+                countInfo.returnType(),
+                Collections.singletonList(new InputColumn(0)))
+        );
+        GroupProjection projection = new GroupProjection(
+            keys, aggregations, AggregateMode.ITER_FINAL, RowGranularity.CLUSTER);
+        RamAccountingContext ramAccountingContext =
+            new RamAccountingContext("dummy", new NoopCircuitBreaker(CircuitBreaker.FIELDDATA));
+        Projector projector = spillingVisitor.create(projection, ramAccountingContext, UUID.randomUUID());
+
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            rows.add($(new BytesRef("key-" + (i % 100))));
+        }
+        TestingBatchConsumer consumer = new TestingBatchConsumer();
+        consumer.accept(projector.apply(RowsBatchIterator.newInstance(new CollectionBucket(rows), 1)), null);
+
+        List<Object[]> result = consumer.getResult();
+        assertThat(result.size(), is(100));
+        for (Object[] row : result) {
+            assertThat(row[1], is(10L));
+        }
+    }
+
     @Test
     public void testFilterProjection() throws Exception {
         EqOperator op =
@@ -24,17 +24,25 @@ package io.crate.operation.projectors;
 
 import com.google.common.collect.ImmutableList;
 import io.crate.analyze.symbol.Literal;
+import io.crate.breaker.RamAccountingContext;
 import io.crate.data.BatchIterator;
 import io.crate.data.Bucket;
 import io.crate.data.Row;
+import io.crate.data.RowsBatchIterator;
 import io.crate.operation.collect.CollectExpression;
 import io.crate.operation.collect.InputCollectExpression;
 import io.crate.operation.projectors.sorting.OrderingByPosition;
 import io.crate.test.integration.CrateUnitTest;
 import io.crate.testing.TestingBatchConsumer;
+import io.crate.testing.RowGenerator;
 import io.crate.testing.TestingBatchIterators;
+import io.crate.types.DataTypes;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
 import org.junit.Test;
 
+import java.util.Arrays;
+
 import static io.crate.testing.TestingHelpers.isRow;
 import static org.hamcrest.core.Is.is;
 
@@ -82,6 +90,31 @@ public class SortingProjectorTest extends CrateUnitTest {
         }
     }
 
+    @Test
+    public void testOrderByWithSpillingToDisk() throws Exception {
+        InputCollectExpression input = new InputCollectExpression(0);
+        SortingProjector projector = new SortingProjector(
+            ImmutableList.of(input, Literal.of(true)),
+            ImmutableList.of(DataTypes.INTEGER, DataTypes.BOOLEAN),
+            ImmutableList.<CollectExpression<Row, ?>>of(input),
+            2,
+            OrderingByPosition.arrayOrdering(0, false, null),
+            5,
+            new RamAccountingContext("dummy", new NoopCircuitBreaker(CircuitBreaker.FIELDDATA)),
+            64
+        );
+        BatchIterator batchIterator = projector.apply(RowsBatchIterator.newInstance(
+            RowGenerator.fromSingleColValues(Arrays.asList(7, 3, 9, 1, 10, 2, 8, 5, 4, 6, 12, 11)), 1));
+        consumer.accept(batchIterator, null);
+        Bucket rows = consumer.getBucket();
+
+        assertThat(rows.size(), is(7));
+        int expected = 6;
+        for (Row row : rows) {
+            assertThat(row, isRow(expected++, true));
+        }
+    }
+
     @Test
     public void testInvalidOffset() throws Exception {
         expectedException.expect(IllegalArgumentException.class);
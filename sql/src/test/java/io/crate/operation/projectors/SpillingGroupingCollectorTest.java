@@ -0,0 +1,136 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.operation.projectors;
+
+import io.crate.analyze.symbol.AggregateMode;
+import io.crate.breaker.RamAccountingContext;
+import io.crate.data.Input;
+import io.crate.data.Row;
+import io.crate.data.RowN;
+import io.crate.operation.aggregation.AggregationFunction;
+import io.crate.operation.collect.CollectExpression;
+import io.crate.operation.collect.InputCollectExpression;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.types.DataTypes;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
+import org.junit.Test;
+
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+public class SpillingGroupingCollectorTest extends CrateUnitTest {
+
+    private static SpillingGroupingCollector<Object> createCollector(RamAccountingContext ramAccountingContext,
+                                                                     Path spillDirectory) {
+        InputCollectExpression keyExpression = new InputCollectExpression(0);
+        return SpillingGroupingCollector.singleKey(
+            new CollectExpression[]{keyExpression},
+            AggregateMode.ITER_FINAL,
+            new AggregationFunction[0],
+            new Input[0][],
+            ramAccountingContext,
+            keyExpression,
+            DataTypes.STRING,
+            1024L,
+            spillDirectory
+        );
+    }
+
+    private static Set<Object> collect(SpillingGroupingCollector<Object> collector, int numRows, int numKeys) {
+        SpillingGroupingCollector.Partitions<Object> partitions = collector.supplier().get();
+        for (int i = 0; i < numRows; i++) {
+            collector.accumulator().accept(partitions, new RowN(new Object[]{new BytesRef("key-" + (i % numKeys))}));
+        }
+        Set<Object> keys = new HashSet<>();
+        for (Row row : collector.finisher().apply(partitions)) {
+            keys.add(row.get(0));
+        }
+        return keys;
+    }
+
+    @Test
+    public void testGroupsAreSpilledOnceTheyExceedTheThreshold() throws Exception {
+        RamAccountingContext ramAccountingContext =
+            new RamAccountingContext("dummy", new NoopCircuitBreaker(CircuitBreaker.FIELDDATA));
+        Path spillDirectory = createTempDir();
+        SpillingGroupingCollector<Object> collector = createCollector(ramAccountingContext, spillDirectory);
+        try {
+            Set<Object> keys = collect(collector, 2000, 1000);
+            assertThat(keys.size(), is(1000));
+            assertThat(collector.numSpillFiles(), greaterThan(0));
+        } finally {
+            collector.close();
+        }
+    }
+
+    @Test
+    public void testPartitionsExceedingTheThresholdAreSplitWhenReadBack() throws Exception {
+        RamAccountingContext ramAccountingContext =
+            new RamAccountingContext("dummy", new NoopCircuitBreaker(CircuitBreaker.FIELDDATA));
+        SpillingGroupingCollector<Object> collector = createCollector(ramAccountingContext, createTempDir());
+        try {
+            SpillingGroupingCollector.Partitions<Object> partitions = collector.supplier().get();
+            for (int i = 0; i < 20_000; i++) {
+                collector.accumulator().accept(partitions, new RowN(new Object[]{new BytesRef("key-" + (i % 10_000))}));
+            }
+            Iterable<Row> rows = collector.finisher().apply(partitions);
+            // iterating twice must work as well, the second iteration re-uses the sub-partitions
+            for (int iteration = 0; iteration < 2; iteration++) {
+                Set<Object> keys = new HashSet<>();
+                long maxBytes = 0L;
+                for (Row row : rows) {
+                    keys.add(row.get(0));
+                    maxBytes = Math.max(maxBytes, ramAccountingContext.totalBytes());
+                }
+                assertThat(keys.size(), is(10_000));
+                // remaining in-memory groups + a single loaded (sub-)partition
+                assertThat(maxBytes, lessThan(3 * 1024L));
+            }
+        } finally {
+            collector.close();
+        }
+    }
+
+    @Test
+    public void testMemoryAccountedByOthersDoesNotCauseSpills() throws Exception {
+        RamAccountingContext ramAccountingContext =
+            new RamAccountingContext("dummy", new NoopCircuitBreaker(CircuitBreaker.FIELDDATA));
+        // memory of the same phase which can't be released by spilling the groups
+        ramAccountingContext.addBytes(1024 * 1024);
+        SpillingGroupingCollector<Object> collector = createCollector(ramAccountingContext, createTempDir());
+        try {
+            Set<Object> keys = collect(collector, 100, 5);
+            assertThat(keys.size(), is(5));
+            assertThat(collector.numSpillFiles(), is(0));
+        } finally {
+            collector.close();
+        }
+    }
+}
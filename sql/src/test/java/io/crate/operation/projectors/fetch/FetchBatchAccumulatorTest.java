@@ -56,6 +56,7 @@ import java.util.concurrent.TimeUnit;
 
 import static io.crate.analyze.TableDefinitions.USER_TABLE_IDENT;
 import static io.crate.testing.TestingHelpers.getFunctions;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
 
@@ -92,6 +93,26 @@ public class FetchBatchAccumulatorTest {
         assertThat(result.next().get(0), is(4));
     }
 
+    @Test
+    public void testDocIdsAreFetchedInIncreasingOrder() throws Exception {
+        FetchBatchAccumulator fetchBatchAccumulator = new FetchBatchAccumulator(
+            fetchOperation,
+            getFunctions(),
+            buildOutputSymbols(),
+            buildFetchProjectorContext(),
+            3
+        );
+        fetchBatchAccumulator.onItem(new Row1(30L));
+        fetchBatchAccumulator.onItem(new Row1(10L));
+        fetchBatchAccumulator.onItem(new Row1(20L));
+
+        Iterator<? extends Row> result = fetchBatchAccumulator.processBatch(false).get(10, TimeUnit.SECONDS);
+        assertThat(fetchOperation.requestedDocIds, contains(10, 20, 30));
+        assertThat(result.next().get(0), is(30));
+        assertThat(result.next().get(0), is(10));
+        assertThat(result.next().get(0), is(20));
+    }
+
     private static List<Symbol> buildOutputSymbols() {
         return Collections.singletonList(new FetchReference(
             new InputColumn(0),
@@ -131,6 +152,7 @@ public class FetchBatchAccumulatorTest {
     private static class DummyFetchOperation implements FetchOperation {
 
         int numFetches = 0;
+        List<Integer> requestedDocIds = new ArrayList<>();
 
         @Override
         public CompletableFuture<IntObjectMap<? extends Bucket>> fetch(String nodeId,
@@ -141,6 +163,7 @@ public class FetchBatchAccumulatorTest {
             for (IntObjectCursor<? extends IntContainer> cursor : toFetch) {
                 List<Object[]> rows = new ArrayList<>();
                 for (IntCursor docIdCursor : cursor.value) {
+                    requestedDocIds.add(docIdCursor.value);
                     rows.add(new Object[]{docIdCursor.value});
                 }
                 readerToBuckets.put(cursor.key, new CollectionBucket(rows));
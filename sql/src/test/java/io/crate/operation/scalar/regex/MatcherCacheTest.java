@@ -0,0 +1,52 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.operation.scalar.regex;
+
+import io.crate.test.integration.CrateUnitTest;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.nullValue;
+
+public class MatcherCacheTest extends CrateUnitTest {
+
+    @Test
+    public void testEntriesAboveTheMaxEntryWeightAreNotCached() throws Exception {
+        MatcherCache<String, Integer> cache = new MatcherCache<>(weight -> weight);
+        cache.put("small", MatcherCache.MAX_ENTRY_WEIGHT);
+        cache.put("large", MatcherCache.MAX_ENTRY_WEIGHT + 1);
+
+        assertThat(cache.getIfPresent("small"), is(MatcherCache.MAX_ENTRY_WEIGHT));
+        assertThat(cache.getIfPresent("large"), nullValue());
+    }
+
+    @Test
+    public void testCacheIsBoundedByTheWeightOfTheEntries() throws Exception {
+        MatcherCache<Integer, Integer> cache = new MatcherCache<>(weight -> weight);
+        int numEntries = 2 * MatcherCache.MAX_WEIGHT / MatcherCache.MAX_ENTRY_WEIGHT;
+        for (int i = 0; i < numEntries; i++) {
+            cache.put(i, MatcherCache.MAX_ENTRY_WEIGHT);
+        }
+        assertThat(cache.size(), lessThanOrEqualTo((long) (MatcherCache.MAX_WEIGHT / MatcherCache.MAX_ENTRY_WEIGHT)));
+    }
+}
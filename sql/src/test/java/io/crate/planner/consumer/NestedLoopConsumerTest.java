@@ -75,6 +75,7 @@ import static io.crate.testing.TestingHelpers.isSQL;
 import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.lessThan;
 import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.core.Is.is;
@@ -265,6 +266,25 @@ public class NestedLoopConsumerTest extends CrateDummyClusterServiceUnitTest {
         assertThat(collectPhase.toCollect().get(0), isReference("name"));
     }
 
+    @Test
+    public void testEquiJoinWithOrderByPushedDownPreservesLeftOrder() throws Exception {
+        QueryThenFetch qtf = plan("select u1.name, u2.name from users u1 " +
+                                  "join users_multi_pk u2 on u1.id = u2.id order by u1.name");
+        NestedLoop nl = (NestedLoop) qtf.subPlan();
+        // the ordering is only applied on the left side, so the join must not be executed as hash join
+        assertThat(((Collect) nl.left()).collectPhase().toCollect(), Matchers.hasItem(isReference("name")));
+        assertThat(nl.nestedLoopPhase().projections().get(0), instanceOf(EvalProjection.class));
+        assertThat(nl.nestedLoopPhase().preserveLeftOrder(), is(true));
+    }
+
+    @Test
+    public void testEquiJoinWithoutOrderByDoesNotPreserveLeftOrder() throws Exception {
+        QueryThenFetch qtf = plan("select u1.name, u2.name from users u1 " +
+                                  "join users_multi_pk u2 on u1.id = u2.id");
+        NestedLoop nl = (NestedLoop) qtf.subPlan();
+        assertThat(nl.nestedLoopPhase().preserveLeftOrder(), is(false));
+    }
+
     @Test
     public void testNodePageSizePushDown() throws Exception {
         NestedLoop plan = plan("select u1.name from users u1, users u2 order by 1 limit 1000");
@@ -325,7 +345,7 @@ public class NestedLoopConsumerTest extends CrateDummyClusterServiceUnitTest {
 
     @Test
     public void testRefsAreNotConvertedToSourceLookups() throws Exception {
-        Merge merge = plan("select u1.name from users u1, users u2 where u1.id = u2.id order by 1");
+        Merge merge = plan("select u1.name from users u1, users u2 where u1.id = u2.id order by 1, u2.id");
         NestedLoop nl = (NestedLoop) merge.subPlan();
         CollectPhase cpLeft = ((Collect) nl.left()).collectPhase();
         assertThat(cpLeft.toCollect(), contains(isReference("id"), isReference("name")));
@@ -333,6 +353,16 @@ public class NestedLoopConsumerTest extends CrateDummyClusterServiceUnitTest {
         assertThat(cpRight.toCollect(), contains(isReference("id")));
     }
 
+    @Test
+    public void testJoinWithOrderByPushedDownIsNotDistributed() throws Exception {
+        // the filter would distribute the join, but the ordering of the left side can't be merged on the handler
+        NestedLoop nl = plan("select u1.name from users u1, users u2 where u1.id = u2.id order by 1");
+        assertThat(nl.nestedLoopPhase().nodeIds().size(), is(1));
+        assertThat(nl.nestedLoopPhase().preserveLeftOrder(), is(true));
+        assertThat(((Collect) nl.left()).collectPhase().distributionInfo().distributionType(),
+            is(DistributionType.BROADCAST));
+    }
+
     @Test
     public void testEmptyRoutingSource() throws Exception {
         Plan plan = plan("select e.nope, u.name from empty e, users u order by e.nope, u.name");
@@ -408,4 +438,68 @@ public class NestedLoopConsumerTest extends CrateDummyClusterServiceUnitTest {
         // of fetch-propagation and mixing these two doesn't work
         // because the reader-allocation would be done twice which isn't possible
     }
+
+    @Test
+    public void testEquiJoinOnLargeTablesPartitionsBothSidesByJoinKey() throws Exception {
+        ObjectLongMap<TableIdent> stats = new ObjectLongHashMap<>(2);
+        stats.put(TableDefinitions.USER_TABLE_IDENT, NestedLoopConsumer.SHUFFLE_JOIN_MIN_NUM_DOCS);
+        stats.put(TableDefinitions.USER_TABLE_IDENT_MULTI_PK, NestedLoopConsumer.SHUFFLE_JOIN_MIN_NUM_DOCS * 2);
+        TableStats tableStats = new TableStats();
+        tableStats.updateTableStats(stats);
+        SQLExecutor executor = SQLExecutor.builder(clusterService)
+            .enableDefaultTables()
+            .setTableStats(tableStats)
+            .build();
+
+        QueryThenFetch qtf = executor.plan("select u1.name, u2.name from users u1 " +
+                                           "left join users_multi_pk u2 on u1.id = u2.id");
+        NestedLoop nl = (NestedLoop) ((Merge) qtf.subPlan()).subPlan();
+        NestedLoopPhase nlPhase = nl.nestedLoopPhase();
+        assertThat(nlPhase.nodeIds(), containsInAnyOrder("nodeOne", "nodeTwo"));
+        assertThat(nlPhase.leftMergePhase().numUpstreams(), is(2));
+        assertThat(nlPhase.rightMergePhase().numUpstreams(), is(2));
+
+        CollectPhase left = ((Collect) nl.left()).collectPhase();
+        assertThat(left.distributionInfo().distributionType(), is(DistributionType.MODULO));
+        assertThat(left.toCollect().get(left.distributionInfo().distributeByColumn()), isReference("id"));
+        CollectPhase right = ((Collect) nl.right()).collectPhase();
+        assertThat(right.distributionInfo().distributionType(), is(DistributionType.MODULO));
+        assertThat(right.toCollect().get(right.distributionInfo().distributeByColumn()), isReference("id"));
+    }
+
+    @Test
+    public void testOrderedEquiJoinOnLargeTablesIsNotPartitioned() throws Exception {
+        ObjectLongMap<TableIdent> stats = new ObjectLongHashMap<>(2);
+        stats.put(TableDefinitions.USER_TABLE_IDENT, NestedLoopConsumer.SHUFFLE_JOIN_MIN_NUM_DOCS);
+        stats.put(TableDefinitions.USER_TABLE_IDENT_MULTI_PK, NestedLoopConsumer.SHUFFLE_JOIN_MIN_NUM_DOCS * 2);
+        TableStats tableStats = new TableStats();
+        tableStats.updateTableStats(stats);
+        SQLExecutor executor = SQLExecutor.builder(clusterService)
+            .enableDefaultTables()
+            .setTableStats(tableStats)
+            .build();
+
+        // the ORDER BY is pushed into the left relation, partitioning it across nodes would lose the order
+        QueryThenFetch qtf = executor.plan("select u1.name, u2.name from users u1 " +
+                                           "join users_multi_pk u2 on u1.id = u2.id order by u1.name");
+        NestedLoop nl = (NestedLoop) qtf.subPlan();
+        NestedLoopPhase nlPhase = nl.nestedLoopPhase();
+        assertThat(nlPhase.nodeIds().size(), is(1));
+        assertThat(nlPhase.preserveLeftOrder(), is(true));
+        assertThat(((Collect) nl.left()).collectPhase().distributionInfo().distributionType(),
+            is(DistributionType.BROADCAST));
+        assertThat(((Collect) nl.right()).collectPhase().distributionInfo().distributionType(),
+            is(DistributionType.BROADCAST));
+    }
+
+    @Test
+    public void testEquiJoinOnSmallTablesIsNotPartitioned() throws Exception {
+        QueryThenFetch qtf = plan("select u1.name, u2.name from users u1 " +
+                                  "join users_multi_pk u2 on u1.id = u2.id");
+        NestedLoop nl = (NestedLoop) qtf.subPlan();
+        assertThat(((Collect) nl.left()).collectPhase().distributionInfo().distributionType(),
+            is(DistributionType.BROADCAST));
+        assertThat(((Collect) nl.right()).collectPhase().distributionInfo().distributionType(),
+            is(DistributionType.BROADCAST));
+    }
 }
@@ -33,6 +33,7 @@ import io.crate.testing.SqlExpressions;
 import io.crate.testing.T3;
 import io.crate.types.DataType;
 import io.crate.types.DataTypes;
+import org.elasticsearch.Version;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.hamcrest.core.Is;
@@ -82,7 +83,8 @@ public class NestedLoopPhaseTest extends CrateUnitTest {
             JoinType.INNER,
             joinCondition,
             1,
-            1
+            1,
+            false
         );
 
         BytesStreamOutput output = new BytesStreamOutput();
@@ -98,5 +100,37 @@ public class NestedLoopPhaseTest extends CrateUnitTest {
         assertThat(node.joinType(), is(node2.joinType()));
         assertThat(node.numLeftOutputs(), is(node2.numLeftOutputs()));
         assertThat(node.numRightOutputs(), is(node2.numRightOutputs()));
+        assertThat(node2.preserveLeftOrder(), is(false));
+    }
+
+    @Test
+    public void testSerializationWithOlderVersionPreservesLeftOrder() throws Exception {
+        TopNProjection topNProjection = new TopNProjection(10, 0, Collections.emptyList());
+        NestedLoopPhase node = new NestedLoopPhase(
+            UUID.randomUUID(),
+            1,
+            "nestedLoop",
+            ImmutableList.of(topNProjection),
+            null,
+            null,
+            Sets.newHashSet("node1"),
+            JoinType.INNER,
+            null,
+            1,
+            1,
+            false
+        );
+
+        BytesStreamOutput output = new BytesStreamOutput();
+        output.setVersion(Version.V_5_6_0);
+        node.writeTo(output);
+
+        StreamInput input = output.bytes().streamInput();
+        input.setVersion(Version.V_5_6_0);
+        NestedLoopPhase node2 = new NestedLoopPhase(input);
+
+        assertThat(node2.joinType(), is(JoinType.INNER));
+        assertThat(node2.numRightOutputs(), is(1));
+        assertThat(node2.preserveLeftOrder(), is(true));
     }
 }
@@ -115,4 +115,28 @@ class ClientMessages {
             paramsLength +
             2); // numResultColumnFormatCodes
     }
+
+    static void sendQueryMessage(ByteBuf buffer, String query) {
+        byte[] queryBytes = query.getBytes(StandardCharsets.UTF_8);
+        buffer.writeByte('Q');
+        buffer.writeInt(4 + queryBytes.length + 1);
+        writeCString(buffer, queryBytes);
+    }
+
+    static void sendCopyData(ByteBuf buffer, String data) {
+        byte[] dataBytes = data.getBytes(StandardCharsets.UTF_8);
+        buffer.writeByte('d');
+        buffer.writeInt(4 + dataBytes.length);
+        buffer.writeBytes(dataBytes);
+    }
+
+    static void sendCopyDone(ByteBuf buffer) {
+        buffer.writeByte('c');
+        buffer.writeInt(4);
+    }
+
+    static void sendTerminate(ByteBuf buffer) {
+        buffer.writeByte('X');
+        buffer.writeInt(4);
+    }
 }
@@ -0,0 +1,98 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.protocols.postgres;
+
+import io.crate.test.integration.CrateUnitTest;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.hamcrest.Matchers.arrayContaining;
+import static org.hamcrest.Matchers.is;
+
+public class CopyRecordDecoderTest extends CrateUnitTest {
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testTextRecordsSpanningMultipleMessages() throws Exception {
+        CopyRecordDecoder decoder = new CopyRecordDecoder(CopyRecordDecoder.Format.TEXT, '\t');
+        List<String[]> records = decoder.decode(bytes("1\tfoo\n2\tb"));
+        assertThat(records.size(), is(1));
+        assertThat(records.get(0), arrayContaining("1", "foo"));
+
+        records = decoder.decode(bytes("ar\r\n3\t\\N\n"));
+        assertThat(records.size(), is(2));
+        assertThat(records.get(0), arrayContaining("2", "bar"));
+        assertThat(records.get(1), arrayContaining("3", null));
+
+        records = decoder.decode(bytes("4\tlast"));
+        assertThat(records.size(), is(0));
+        records = decoder.finish();
+        assertThat(records.size(), is(1));
+        assertThat(records.get(0), arrayContaining("4", "last"));
+    }
+
+    @Test
+    public void testTextEscapesAndEndOfDataMarker() throws Exception {
+        CopyRecordDecoder decoder = new CopyRecordDecoder(CopyRecordDecoder.Format.TEXT, '\t');
+        List<String[]> records = decoder.decode(bytes("a\\tb\tline\\nbreak\t\\\\N\n\\.\n"));
+        assertThat(records.size(), is(1));
+        assertThat(records.get(0), arrayContaining("a\tb", "line\nbreak", "\\N"));
+    }
+
+    @Test
+    public void testMultiByteCharacterSplitAcrossMessages() throws Exception {
+        CopyRecordDecoder decoder = new CopyRecordDecoder(CopyRecordDecoder.Format.TEXT, '\t');
+        byte[] data = bytes("1\tümlaut\n");
+        byte[] first = new byte[3];
+        byte[] second = new byte[data.length - 3];
+        System.arraycopy(data, 0, first, 0, 3);
+        System.arraycopy(data, 3, second, 0, second.length);
+        assertThat(decoder.decode(first).size(), is(0));
+        List<String[]> records = decoder.decode(second);
+        assertThat(records.get(0), arrayContaining("1", "ümlaut"));
+    }
+
+    @Test
+    public void testCsvQuotedValues() throws Exception {
+        CopyRecordDecoder decoder = new CopyRecordDecoder(CopyRecordDecoder.Format.CSV, ',');
+        List<String[]> records = decoder.decode(bytes("1,\"a, \"\"quoted\"\" value\",\n2,\"multi\nline\",\"\"\n"));
+        assertThat(records.size(), is(2));
+        assertThat(records.get(0), arrayContaining("1", "a, \"quoted\" value", null));
+        assertThat(records.get(1), arrayContaining("2", "multi\nline", ""));
+    }
+
+    @Test
+    public void testCsvUnterminatedQuoteFailsOnFinish() throws Exception {
+        CopyRecordDecoder decoder = new CopyRecordDecoder(CopyRecordDecoder.Format.CSV, ',');
+        assertThat(decoder.decode(bytes("1,\"open\n")).size(), is(0));
+
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("COPY data ends within a quoted CSV value");
+        decoder.finish();
+    }
+}
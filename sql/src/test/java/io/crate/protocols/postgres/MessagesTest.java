@@ -25,7 +25,9 @@ package io.crate.protocols.postgres;
 import io.crate.data.RowN;
 import io.crate.types.DataTypes;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import io.netty.channel.embedded.EmbeddedChannel;
+import org.apache.lucene.util.BytesRef;
 import org.junit.Test;
 
 import java.nio.charset.StandardCharsets;
@@ -34,19 +36,15 @@ import java.util.Arrays;
 import static com.carrotsearch.randomizedtesting.RandomizedTest.$;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.fail;
 
 public class MessagesTest {
 
     @Test
     public void testNullValuesAddToLength() throws Exception {
-        EmbeddedChannel channel = new EmbeddedChannel();
-        Messages.sendDataRow(
-            channel,
-            new RowN($(10, null)),
-            Arrays.asList(DataTypes.INTEGER, DataTypes.STRING), null
-        );
-        channel.flush();
-        ByteBuf buffer = channel.readOutbound();
+        DataRowEncoder encoder = new DataRowEncoder(Arrays.asList(DataTypes.INTEGER, DataTypes.STRING), null);
+        ByteBuf buffer = Unpooled.buffer();
+        encoder.writeDataRow(buffer, new RowN($(10, null)));
 
         // message type
         assertThat((char) buffer.readByte(), is('D'));
@@ -80,4 +78,49 @@ public class MessagesTest {
         buffer.readBytes(string);
         assertThat(string, is(responseBytes));
     }
+
+    @Test
+    public void testDataRowsAreAppendedToTheSameBuffer() throws Exception {
+        DataRowEncoder encoder = new DataRowEncoder(Arrays.asList(DataTypes.INTEGER, DataTypes.STRING), null);
+        ByteBuf buffer = Unpooled.buffer();
+        encoder.writeDataRow(buffer, new RowN($(10, new BytesRef("foo"))));
+        encoder.writeDataRow(buffer, new RowN($(200, null)));
+
+        assertThat((char) buffer.readByte(), is('D'));
+        // len + numCols + (len + "10") + (len + "foo")
+        assertThat(buffer.readInt(), is(4 + 2 + 4 + 2 + 4 + 3));
+        assertThat(buffer.readShort(), is((short) 2));
+        assertThat(buffer.readInt(), is(2));
+        assertThat(readString(buffer, 2), is("10"));
+        assertThat(buffer.readInt(), is(3));
+        assertThat(readString(buffer, 3), is("foo"));
+
+        assertThat((char) buffer.readByte(), is('D'));
+        assertThat(buffer.readInt(), is(4 + 2 + 4 + 3 + 4));
+        assertThat(buffer.readShort(), is((short) 2));
+        assertThat(buffer.readInt(), is(3));
+        assertThat(readString(buffer, 3), is("200"));
+        assertThat(buffer.readInt(), is(-1));
+        assertThat(buffer.readableBytes(), is(0));
+    }
+
+    @Test
+    public void testFailedDataRowIsRemovedFromBuffer() throws Exception {
+        DataRowEncoder encoder = new DataRowEncoder(Arrays.asList(DataTypes.INTEGER, DataTypes.INTEGER), null);
+        ByteBuf buffer = Unpooled.buffer();
+        encoder.writeDataRow(buffer, new RowN($(1, 2)));
+        int writerIndex = buffer.writerIndex();
+        try {
+            encoder.writeDataRow(buffer, new RowN($(3, "not an int")));
+            fail("writeDataRow should fail with a value of the wrong type");
+        } catch (ClassCastException ignored) {
+        }
+        assertThat(buffer.writerIndex(), is(writerIndex));
+    }
+
+    private static String readString(ByteBuf buffer, int length) {
+        byte[] bytes = new byte[length];
+        buffer.readBytes(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
 }
@@ -23,14 +23,19 @@
 package io.crate.protocols.postgres;
 
 import io.crate.action.sql.SQLOperations;
+import io.crate.analyze.symbol.Field;
 import io.crate.executor.Executor;
+import io.crate.metadata.ColumnIdent;
 import io.crate.operation.auth.AlwaysOKNullAuthentication;
 import io.crate.operation.collect.stats.JobsLogs;
 import io.crate.operation.user.User;
 import io.crate.operation.user.UserManager;
 import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
+import io.crate.testing.DummyRelation;
 import io.crate.testing.DummyUserManager;
 import io.crate.testing.SQLExecutor;
+import io.crate.types.ArrayType;
+import io.crate.types.DataTypes;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandler;
@@ -40,13 +45,17 @@ import org.elasticsearch.common.settings.Settings;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 
 import javax.annotation.Nullable;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.isOneOf;
@@ -193,4 +202,102 @@ public class PostgresWireProtocolTest extends CrateDummyClusterServiceUnitTest {
         }
     }
 
+    @Test
+    public void testCopyFromStdinBindsEveryRecordOfTheBatch() throws Exception {
+        SQLOperations sqlOperations = mock(SQLOperations.class);
+        SQLOperations.Session session = mock(SQLOperations.Session.class);
+        when(sqlOperations.createSession(any(String.class), any(User.class))).thenReturn(session);
+        List<Field> fields = Arrays.asList(
+            new Field(new DummyRelation(), ColumnIdent.fromPath("id"), DataTypes.INTEGER),
+            new Field(new DummyRelation(), ColumnIdent.fromPath("name"), DataTypes.STRING));
+        when(session.describe('P', "")).thenReturn(fields);
+        when(session.sync()).thenAnswer(invocation -> CompletableFuture.completedFuture(null));
+        PostgresWireProtocol ctx =
+            new PostgresWireProtocol(
+                sqlOperations,
+                new AlwaysOKNullAuthentication(),
+                null);
+        channel = new EmbeddedChannel(ctx.decoder, ctx.handler);
+
+        ByteBuf buffer = Unpooled.buffer();
+        ClientMessages.sendStartupMessage(buffer, "doc");
+        ClientMessages.sendQueryMessage(buffer, "copy t from stdin");
+        ClientMessages.sendCopyData(buffer, "1\tfoo\n2\t");
+        ClientMessages.sendCopyData(buffer, "\\N\n");
+        ClientMessages.sendCopyDone(buffer);
+        channel.writeInbound(buffer);
+        channel.runPendingTasks();
+
+        verify(session, times(1)).parse("", "INSERT INTO t (id, name) VALUES (?, ?)", Collections.emptyList());
+        verify(session, times(1)).bind("", "", Arrays.asList(1, "foo"), null);
+        verify(session, times(1)).bind("", "", Arrays.asList(2, null), null);
+
+        List<Byte> messageTypes = new ArrayList<>();
+        ByteBuf response;
+        while ((response = channel.readOutbound()) != null) {
+            messageTypes.add(response.readByte());
+            response.release();
+        }
+        // CopyInResponse, CommandComplete, ReadyForQuery
+        assertThat(messageTypes.subList(messageTypes.size() - 3, messageTypes.size()),
+            is(Arrays.asList((byte) 'G', (byte) 'C', (byte) 'Z')));
+    }
+
+    private SQLOperations.Session mockCopyInSession(List<Field> fields) {
+        SQLOperations sqlOperations = mock(SQLOperations.class);
+        SQLOperations.Session session = mock(SQLOperations.Session.class);
+        when(sqlOperations.createSession(any(String.class), any(User.class))).thenReturn(session);
+        when(session.describe('P', "")).thenReturn(fields);
+        when(session.sync()).thenAnswer(invocation -> CompletableFuture.completedFuture(null));
+        PostgresWireProtocol ctx =
+            new PostgresWireProtocol(
+                sqlOperations,
+                new AlwaysOKNullAuthentication(),
+                null);
+        channel = new EmbeddedChannel(ctx.decoder, ctx.handler);
+        return session;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testCopyFromStdinDecodesValuesUsingTheColumnTypes() throws Exception {
+        SQLOperations.Session session = mockCopyInSession(Arrays.asList(
+            new Field(new DummyRelation(), ColumnIdent.fromPath("o"), DataTypes.OBJECT),
+            new Field(new DummyRelation(), ColumnIdent.fromPath("arr"), new ArrayType(DataTypes.INTEGER))));
+
+        ByteBuf buffer = Unpooled.buffer();
+        ClientMessages.sendStartupMessage(buffer, "doc");
+        ClientMessages.sendQueryMessage(buffer, "copy t from stdin");
+        ClientMessages.sendCopyData(buffer, "{\"x\": 10}\t{1,2}\n");
+        ClientMessages.sendCopyDone(buffer);
+        channel.writeInbound(buffer);
+        channel.runPendingTasks();
+
+        ArgumentCaptor<List> params = ArgumentCaptor.forClass(List.class);
+        verify(session, times(2)).bind(any(String.class), any(String.class), params.capture(), any());
+        // the first bind is the one of the SELECT used to resolve the columns
+        List<Object> row = params.getAllValues().get(1);
+        Map<String, Object> expectedObject = new HashMap<>();
+        expectedObject.put("x", 10);
+        assertThat(row.get(0), is(expectedObject));
+        assertThat((Object[]) row.get(1), is(new Object[]{1, 2}));
+    }
+
+    @Test
+    public void testTerminateDuringCopyFromStdinClosesTheChannel() throws Exception {
+        SQLOperations.Session session = mockCopyInSession(Collections.singletonList(
+            new Field(new DummyRelation(), ColumnIdent.fromPath("id"), DataTypes.INTEGER)));
+
+        ByteBuf buffer = Unpooled.buffer();
+        ClientMessages.sendStartupMessage(buffer, "doc");
+        ClientMessages.sendQueryMessage(buffer, "copy t from stdin");
+        ClientMessages.sendCopyData(buffer, "1\n");
+        ClientMessages.sendTerminate(buffer);
+        channel.writeInbound(buffer);
+        channel.runPendingTasks();
+
+        assertThat(channel.isOpen(), is(false));
+        verify(session, times(1)).close();
+        verify(session, times(0)).sync();
+    }
 }
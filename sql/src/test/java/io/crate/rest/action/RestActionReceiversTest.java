@@ -23,6 +23,7 @@
 package io.crate.rest.action;
 
 import com.google.common.collect.ImmutableList;
+import io.crate.action.sql.SQLOperations;
 import io.crate.analyze.symbol.Field;
 import io.crate.analyze.symbol.Symbols;
 import io.crate.breaker.RamAccountingContext;
@@ -34,18 +35,33 @@ import io.crate.metadata.ColumnIdent;
 import io.crate.test.integration.CrateUnitTest;
 import io.crate.testing.DummyRelation;
 import io.crate.types.DataTypes;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.LastHttpContent;
 import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.common.breaker.NoopCircuitBreaker;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.common.xcontent.json.JsonXContent;
 import org.elasticsearch.rest.RestChannel;
+import org.elasticsearch.rest.RestResponse;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.List;
 
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class RestActionReceiversTest extends CrateUnitTest {
@@ -137,4 +153,67 @@ public class RestActionReceiversTest extends CrateUnitTest {
         String s = builder.build().string();
         assertEquals(s, "{\"results\":[{\"rowcount\":1},{\"rowcount\":2},{\"rowcount\":3}]}");
     }
+
+    @Test
+    public void testRestStreamingResultSetReceiverWritesChunks() throws Exception {
+        EmbeddedChannel nettyChannel = new EmbeddedChannel();
+        RestChannel restChannel = newChannel();
+        SQLOperations.Session session = mock(SQLOperations.Session.class);
+        RestStreamingResultSetReceiver receiver = new RestStreamingResultSetReceiver(
+            nettyChannel, restChannel, session, "stream", 2, t -> {}, fields, 0L, true);
+
+        receiver.setNextRow(rows.get(0));
+        receiver.setNextRow(rows.get(1));
+        receiver.batchFinished();
+        verify(session, times(1)).execute(eq("stream"), eq(2), eq(receiver));
+        verify(session, times(1)).sync();
+
+        receiver.setNextRow(rows.get(2));
+        receiver.allFinished(false);
+
+        HttpResponse response = nettyChannel.readOutbound();
+        assertThat(HttpUtil.isTransferEncodingChunked(response), is(true));
+        StringBuilder body = new StringBuilder();
+        Object msg;
+        while ((msg = nettyChannel.readOutbound()) != null) {
+            ByteBuf content = ((HttpContent) msg).content();
+            body.append(content.toString(StandardCharsets.UTF_8));
+            content.release();
+            if (msg instanceof LastHttpContent) {
+                break;
+            }
+        }
+        assertThat(msg, instanceOf(LastHttpContent.class));
+        assertThat(nettyChannel.isOpen(), is(false));
+
+        ResultToXContentBuilder builder = ResultToXContentBuilder.builder(newChannel());
+        builder.cols(fields);
+        builder.colTypes(fields);
+        builder.startRows();
+        for (Row row : rows) {
+            builder.addRow(row, 3);
+        }
+        builder.finishRows();
+        builder.rowCount(rows.size());
+        assertEquals(stripDuration(builder.build().string()), stripDuration(body.toString()));
+        verify(restChannel, times(1)).sendResponse(any(RestResponse.class));
+    }
+
+    @Test
+    public void testRestStreamingResultSetReceiverSendsSingleBatchAsRegularResponse() throws Exception {
+        EmbeddedChannel nettyChannel = new EmbeddedChannel();
+        RestChannel restChannel = newChannel();
+        SQLOperations.Session session = mock(SQLOperations.Session.class);
+        RestStreamingResultSetReceiver receiver = new RestStreamingResultSetReceiver(
+            nettyChannel, restChannel, session, "stream", 10, t -> {}, fields, 0L, false);
+        for (Row row : rows) {
+            receiver.setNextRow(row);
+        }
+        receiver.allFinished(false);
+
+        assertThat(nettyChannel.readOutbound(), is((Object) null));
+        assertThat(nettyChannel.isOpen(), is(true));
+        verify(session, times(0)).execute(any(String.class), anyInt(), any());
+        verify(restChannel, times(1)).sendResponse(any(RestResponse.class));
+    }
 }